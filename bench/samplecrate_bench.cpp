@@ -0,0 +1,703 @@
+// samplecrate_bench - microbenchmarks for the DSP, sequencer and control hot paths
+//
+// Small built-in harness (no external benchmark library): every case is warmed up,
+// its iteration count is calibrated to run for at least --min-time seconds, and the
+// measurement is repeated; the median is reported. Results are written as JSON so
+// runs from different releases can be compared. The JSON goes to a file by default
+// because some of the measured code logs to stdout.
+//
+// Usage: samplecrate_bench [--filter SUBSTR] [--min-time SEC] [--repetitions N]
+//                          [--rsx FILE] [--out FILE] [--list]
+
+extern "C" {
+#include "regroove_effects.h"
+#include "regroove_effects_simd.h"
+#include "medness_track.h"
+#include "medness_sequencer.h"
+#include "input_mappings.h"
+#include "midi_sysex.h"
+#include "sequence_download.h"
+#include "sequence_upload.h"
+#include "samplecrate_rsx.h"
+}
+#include <algorithm>
+#include <chrono>
+#include <cstdint>
+#include <cstdio>
+#include <cstdlib>
+#include <cstring>
+#include <ctime>
+#include <iostream>
+#include <string>
+#include <vector>
+
+// Audio settings used by the DSP and sequencer cases (match the audio device defaults)
+#define BENCH_SAMPLE_RATE 44100
+#define BENCH_BLOCK_FRAMES 512
+
+// A benchmark case: run `iterations` operations, each processing `items` items
+struct BenchCase {
+    std::string name;
+    int64_t items_per_op;              // Items (frames, events, bytes, ...) per operation
+    const char* items_label;
+    void (*setup)(BenchCase* bc);      // Optional, called once before timing
+    void (*run)(BenchCase* bc, int64_t iterations);
+    void (*teardown)(BenchCase* bc);   // Optional, called once after timing
+    void* state;
+    int param_a;                       // Case parameters (meaning depends on the case)
+    int param_b;
+};
+
+struct BenchResult {
+    std::string name;
+    int64_t iterations;
+    int repetitions;
+    double ns_per_op;                  // Median over repetitions
+    double min_ns_per_op;
+    double max_ns_per_op;
+    double items_per_second;
+    const char* items_label;
+};
+
+// Sink that keeps the optimizer from discarding results
+static volatile uint64_t bench_sink = 0;
+
+static double now_seconds() {
+    return std::chrono::duration<double>(std::chrono::steady_clock::now().time_since_epoch()).count();
+}
+
+static void fill_noise(float* buf, int count, uint32_t seed) {
+    for (int i = 0; i < count; i++) {
+        seed = seed * 1664525u + 1013904223u;
+        buf[i] = ((float)(seed >> 8) / 16777216.0f) * 1.6f - 0.8f;
+    }
+}
+
+// --- Effects ---
+
+struct EffectsState {
+    RegrooveEffects* fx;
+    float input_left[BENCH_BLOCK_FRAMES];    // Pristine input, copied in before every block
+    float input_right[BENCH_BLOCK_FRAMES];
+    float left[BENCH_BLOCK_FRAMES];
+    float right[BENCH_BLOCK_FRAMES];
+    int16_t interleaved[BENCH_BLOCK_FRAMES * 2];
+};
+
+// Effect stages (param_a bit mask)
+#define BENCH_FX_DISTORTION (1 << 0)
+#define BENCH_FX_FILTER     (1 << 1)
+#define BENCH_FX_EQ         (1 << 2)
+#define BENCH_FX_COMPRESSOR (1 << 3)
+#define BENCH_FX_PHASER     (1 << 4)
+#define BENCH_FX_REVERB     (1 << 5)
+#define BENCH_FX_DELAY      (1 << 6)
+#define BENCH_FX_ALL        0x7F
+
+static void effects_setup(BenchCase* bc) {
+    EffectsState* st = new EffectsState();
+    st->fx = regroove_effects_create();
+
+    int mask = bc->param_a;
+    regroove_effects_set_distortion_enabled(st->fx, (mask & BENCH_FX_DISTORTION) != 0);
+    regroove_effects_set_filter_enabled(st->fx, (mask & BENCH_FX_FILTER) != 0);
+    regroove_effects_set_eq_enabled(st->fx, (mask & BENCH_FX_EQ) != 0);
+    regroove_effects_set_compressor_enabled(st->fx, (mask & BENCH_FX_COMPRESSOR) != 0);
+    regroove_effects_set_phaser_enabled(st->fx, (mask & BENCH_FX_PHASER) != 0);
+    regroove_effects_set_reverb_enabled(st->fx, (mask & BENCH_FX_REVERB) != 0);
+    regroove_effects_set_delay_enabled(st->fx, (mask & BENCH_FX_DELAY) != 0);
+
+    // Non-neutral settings so every stage does real work
+    regroove_effects_set_distortion_drive(st->fx, 0.7f);
+    regroove_effects_set_filter_cutoff(st->fx, 0.4f);
+    regroove_effects_set_filter_resonance(st->fx, 0.6f);
+    regroove_effects_set_eq_low(st->fx, 0.7f);
+    regroove_effects_set_eq_high(st->fx, 0.3f);
+    regroove_effects_set_compressor_threshold(st->fx, 0.3f);
+    regroove_effects_set_compressor_ratio(st->fx, 0.6f);
+
+    fill_noise(st->input_left, BENCH_BLOCK_FRAMES, 1);
+    fill_noise(st->input_right, BENCH_BLOCK_FRAMES, 2);
+    bc->state = st;
+}
+
+static void effects_teardown(BenchCase* bc) {
+    EffectsState* st = (EffectsState*)bc->state;
+    regroove_effects_destroy(st->fx);
+    delete st;
+}
+
+// Same chain on the scalar kernels, for comparison with the runtime-selected ones
+static void effects_scalar_setup(BenchCase* bc) {
+    regroove_kernels_force_scalar(1);
+    effects_setup(bc);
+}
+
+static void effects_scalar_teardown(BenchCase* bc) {
+    effects_teardown(bc);
+    regroove_kernels_force_scalar(0);
+}
+
+static void effects_run_float(BenchCase* bc, int64_t iterations) {
+    EffectsState* st = (EffectsState*)bc->state;
+    for (int64_t i = 0; i < iterations; i++) {
+        // Processing is in place; restart from the same input so the level stays realistic
+        memcpy(st->left, st->input_left, sizeof(st->left));
+        memcpy(st->right, st->input_right, sizeof(st->right));
+        regroove_effects_process_float(st->fx, st->left, st->right, BENCH_BLOCK_FRAMES, BENCH_SAMPLE_RATE);
+    }
+    bench_sink += (uint64_t)(st->left[0] * 1000.0f);
+}
+
+static void effects_run_int16(BenchCase* bc, int64_t iterations) {
+    EffectsState* st = (EffectsState*)bc->state;
+    for (int64_t i = 0; i < iterations; i++) {
+        for (int f = 0; f < BENCH_BLOCK_FRAMES; f++) {
+            st->interleaved[f * 2] = (int16_t)(st->input_left[f] * 16384.0f);
+            st->interleaved[f * 2 + 1] = (int16_t)(st->input_right[f] * 16384.0f);
+        }
+        regroove_effects_process(st->fx, st->interleaved, BENCH_BLOCK_FRAMES, BENCH_SAMPLE_RATE);
+    }
+    bench_sink += (uint64_t)st->interleaved[0];
+}
+
+// Decay tail: one block of noise, then silence until the filter, delay and reverb
+// states have decayed through the denormal range (param_b selects the protection)
+#define BENCH_DECAY_SECONDS 40
+#define BENCH_DECAY_BLOCKS (BENCH_DECAY_SECONDS * BENCH_SAMPLE_RATE / BENCH_BLOCK_FRAMES)
+#define BENCH_DENORMALS_UNPROTECTED 0
+#define BENCH_DENORMALS_FTZ 1
+#define BENCH_DENORMALS_GUARD 2
+
+static void decay_setup(BenchCase* bc) {
+    regroove_effects_flush_denormals(bc->param_b == BENCH_DENORMALS_FTZ);
+    regroove_effects_set_denormal_guard(bc->param_b == BENCH_DENORMALS_GUARD);
+    effects_setup(bc);
+}
+
+static void decay_teardown(BenchCase* bc) {
+    effects_teardown(bc);
+    regroove_effects_flush_denormals(0);
+    regroove_effects_set_denormal_guard(1);
+}
+
+static void decay_run(BenchCase* bc, int64_t iterations) {
+    EffectsState* st = (EffectsState*)bc->state;
+    for (int64_t i = 0; i < iterations; i++) {
+        regroove_effects_reset(st->fx);
+        memcpy(st->left, st->input_left, sizeof(st->left));
+        memcpy(st->right, st->input_right, sizeof(st->right));
+        regroove_effects_process_float(st->fx, st->left, st->right, BENCH_BLOCK_FRAMES, BENCH_SAMPLE_RATE);
+        for (int b = 0; b < BENCH_DECAY_BLOCKS; b++) {
+            memset(st->left, 0, sizeof(st->left));
+            memset(st->right, 0, sizeof(st->right));
+            regroove_effects_process_float(st->fx, st->left, st->right, BENCH_BLOCK_FRAMES, BENCH_SAMPLE_RATE);
+        }
+    }
+    bench_sink += (uint64_t)(st->left[0] * 1000.0f);
+}
+
+// --- Sequencer ---
+
+struct SequencerState {
+    MednessSequencer* sequencer;
+    MednessTrack* tracks[32];
+    uint64_t events_fired;
+};
+
+static void sequencer_event(int note, int velocity, int on, int frame_offset, void* userdata) {
+    SequencerState* st = (SequencerState*)userdata;
+    st->events_fired += (uint64_t)(note + velocity + on + frame_offset);
+}
+
+// param_a = slots, param_b = events per track (spread over one pattern)
+static void sequencer_setup(BenchCase* bc) {
+    SequencerState* st = new SequencerState();
+    st->sequencer = medness_sequencer_create();
+    st->events_fired = 0;
+    medness_sequencer_set_bpm(st->sequencer, 125.0f);
+    medness_sequencer_set_active(st->sequencer, 1);
+
+    const int tpqn = 480;
+    const int pattern_ticks = 16 * tpqn;
+    std::vector<MednessTrackEvent> events(bc->param_b);
+    for (int e = 0; e < bc->param_b; e++) {
+        events[e].tick = (int)((int64_t)e * pattern_ticks / bc->param_b);
+        events[e].note = 36 + (e % 24);
+        events[e].velocity = (e & 1) ? 0 : 100;
+        events[e].on = (e & 1) ? 0 : 1;
+    }
+
+    for (int s = 0; s < bc->param_a; s++) {
+        st->tracks[s] = medness_track_create();
+        medness_track_set_events(st->tracks[s], events.data(), (int)events.size(), tpqn);
+        medness_sequencer_add_track(st->sequencer, s, st->tracks[s], sequencer_event, st);
+    }
+    bc->state = st;
+}
+
+static void sequencer_teardown(BenchCase* bc) {
+    SequencerState* st = (SequencerState*)bc->state;
+    medness_sequencer_destroy(st->sequencer);
+    for (int s = 0; s < bc->param_a; s++) {
+        medness_track_destroy(st->tracks[s]);
+    }
+    bench_sink += st->events_fired;
+    delete st;
+}
+
+static void sequencer_run(BenchCase* bc, int64_t iterations) {
+    SequencerState* st = (SequencerState*)bc->state;
+    for (int64_t i = 0; i < iterations; i++) {
+        bench_sink += (uint64_t)medness_sequencer_update(st->sequencer, BENCH_BLOCK_FRAMES, BENCH_SAMPLE_RATE);
+    }
+}
+
+// --- Input mappings ---
+
+static void mappings_setup(BenchCase* bc) {
+    bc->state = input_mappings_create();  // Loaded with the default mappings
+}
+
+static void mappings_teardown(BenchCase* bc) {
+    input_mappings_destroy((InputMappings*)bc->state);
+}
+
+// One operation = 128 lookups (every CC number, mix of hits and misses)
+static void mappings_run(BenchCase* bc, int64_t iterations) {
+    InputMappings* mappings = (InputMappings*)bc->state;
+    InputEvent event;
+    uint64_t hits = 0;
+    for (int64_t i = 0; i < iterations; i++) {
+        for (int cc = 0; cc < 128; cc++) {
+            hits += (uint64_t)input_mappings_get_midi_event(mappings, (int)(i & 1), cc, 127, &event);
+        }
+    }
+    bench_sink += hits;
+}
+
+// --- SysEx ---
+
+struct SysExState {
+    uint8_t messages[4][64];
+    size_t lengths[4];
+    uint64_t callbacks;
+};
+
+static void sysex_bench_callback(uint8_t device_id, SysExCommand command,
+                                 const uint8_t* data, size_t data_len, void* userdata) {
+    SysExState* st = (SysExState*)userdata;
+    st->callbacks += device_id + (uint64_t)command + data_len + (data ? data[0] : 0);
+}
+
+static void sysex_setup(BenchCase* bc) {
+    SysExState* st = new SysExState();
+    st->callbacks = 0;
+    sysex_init(0);
+    sysex_register_callback(sysex_bench_callback, st);
+
+    st->lengths[0] = sysex_build_set_bpm(0, 125, st->messages[0], sizeof(st->messages[0]));
+    st->lengths[1] = sysex_build_trigger_pad(0, 5, st->messages[1], sizeof(st->messages[1]));
+    st->lengths[2] = sysex_build_channel_volume(0, 3, 100, st->messages[2], sizeof(st->messages[2]));
+    st->lengths[3] = sysex_build_ping(0x12, st->messages[3], sizeof(st->messages[3]));  // Not for us
+    bc->state = st;
+}
+
+static void sysex_teardown(BenchCase* bc) {
+    SysExState* st = (SysExState*)bc->state;
+    sysex_register_callback(NULL, NULL);
+    bench_sink += st->callbacks;
+    delete st;
+}
+
+static void sysex_run(BenchCase* bc, int64_t iterations) {
+    SysExState* st = (SysExState*)bc->state;
+    uint64_t handled = 0;
+    for (int64_t i = 0; i < iterations; i++) {
+        int m = (int)(i & 3);
+        handled += (uint64_t)sysex_parse_message(st->messages[m], st->lengths[m]);
+    }
+    bench_sink += handled;
+}
+
+// --- 7-bit encode/decode (one sequence upload/download chunk) ---
+
+#define BENCH_7BIT_BLOCKS ((SEQUENCE_CHUNK_SIZE + 6) / 7)
+
+struct SevenBitState {
+    uint8_t raw[BENCH_7BIT_BLOCKS * 7];
+    uint8_t encoded[BENCH_7BIT_BLOCKS * 8];
+    uint8_t decoded[BENCH_7BIT_BLOCKS * 7];
+};
+
+static void sevenbit_setup(BenchCase* bc) {
+    SevenBitState* st = new SevenBitState();
+    uint32_t seed = 12345;
+    for (size_t i = 0; i < sizeof(st->raw); i++) {
+        seed = seed * 1664525u + 1013904223u;
+        st->raw[i] = (uint8_t)(seed >> 24);
+    }
+    encode_8bit_to_7bit(st->raw, st->encoded, BENCH_7BIT_BLOCKS);
+    bc->state = st;
+}
+
+static void sevenbit_teardown(BenchCase* bc) {
+    delete (SevenBitState*)bc->state;
+}
+
+// Decoding must give back the original chunk
+static void sevenbit_decode_teardown(BenchCase* bc) {
+    SevenBitState* st = (SevenBitState*)bc->state;
+    if (memcmp(st->raw, st->decoded, sizeof(st->raw)) != 0) {
+        std::cerr << "[BENCH] 7-bit round trip mismatch" << std::endl;
+    }
+    delete st;
+}
+
+static void sevenbit_encode_run(BenchCase* bc, int64_t iterations) {
+    SevenBitState* st = (SevenBitState*)bc->state;
+    for (int64_t i = 0; i < iterations; i++) {
+        encode_8bit_to_7bit(st->raw, st->encoded, BENCH_7BIT_BLOCKS);
+    }
+    bench_sink += st->encoded[1];
+}
+
+static void sevenbit_decode_run(BenchCase* bc, int64_t iterations) {
+    SevenBitState* st = (SevenBitState*)bc->state;
+    for (int64_t i = 0; i < iterations; i++) {
+        decode_7bit_to_8bit(st->encoded, st->decoded, BENCH_7BIT_BLOCKS);
+    }
+    bench_sink += st->decoded[1];
+}
+
+// --- RSX load ---
+
+static std::string bench_rsx_path;         // --rsx FILE, otherwise a generated file
+static const char* BENCH_GENERATED_RSX = "samplecrate_bench.rsx";
+
+struct RsxState {
+    SamplecrateRSX* rsx;
+    bool generated;
+};
+
+// Write a representative RSX: 16 programs, 32 pads, 8 sequences with phrases
+static int write_bench_rsx(const char* path) {
+    SamplecrateRSX* rsx = samplecrate_rsx_create();
+    if (!rsx) return -1;
+
+    rsx->num_programs = 16;
+    for (int p = 0; p < rsx->num_programs; p++) {
+        snprintf(rsx->program_files[p], RSX_MAX_PATH, "programs/prog_%02d.sfz", p + 1);
+        snprintf(rsx->program_names[p], RSX_MAX_DESCRIPTION, "Program %d", p + 1);
+        rsx->program_volumes[p] = 0.8f;
+        rsx->program_effects[p].filter_enabled = 1;
+        rsx->program_effects[p].filter_cutoff = 0.5f;
+    }
+
+    rsx->num_pads = RSX_MAX_NOTE_PADS;
+    for (int i = 0; i < rsx->num_pads; i++) {
+        NoteTriggerPad* pad = &rsx->pads[i];
+        pad->note = 36 + i;
+        snprintf(pad->description, RSX_MAX_DESCRIPTION, "Pad %d", i + 1);
+        pad->velocity = 100;
+        pad->enabled = 1;
+        pad->program = i % 16;
+        pad->sequence_index = -1;
+        pad->slot = -1;
+        pad->midi_trigger_note = 36 + i;
+        pad->midi_trigger_cc = -1;
+        pad->midi_trigger_device = -1;
+    }
+
+    rsx->num_sequences = 8;
+    for (int s = 0; s < rsx->num_sequences; s++) {
+        RSXSequence* seq = &rsx->sequences[s];
+        snprintf(seq->name, RSX_MAX_DESCRIPTION, "Sequence %d", s + 1);
+        seq->num_phrases = 4;
+        seq->program_number = s;
+        for (int p = 0; p < seq->num_phrases; p++) {
+            snprintf(seq->phrases[p].midi_file, RSX_MAX_PATH, "midi/seq%d_phrase%d.mid", s + 1, p + 1);
+            snprintf(seq->phrases[p].name, RSX_MAX_DESCRIPTION, "Phrase %d", p + 1);
+            seq->phrases[p].loop_count = 2;
+        }
+    }
+
+    int result = samplecrate_rsx_save(rsx, path);
+    samplecrate_rsx_destroy(rsx);
+    return result;
+}
+
+static void rsx_setup(BenchCase* bc) {
+    RsxState* st = new RsxState();
+    st->rsx = samplecrate_rsx_create();
+    st->generated = bench_rsx_path.empty();
+    if (st->generated) {
+        bench_rsx_path = BENCH_GENERATED_RSX;
+        if (write_bench_rsx(bench_rsx_path.c_str()) != 0) {
+            std::cerr << "[BENCH] Cannot write " << bench_rsx_path << std::endl;
+        }
+    }
+    bc->state = st;
+}
+
+static void rsx_teardown(BenchCase* bc) {
+    RsxState* st = (RsxState*)bc->state;
+    samplecrate_rsx_destroy(st->rsx);
+    if (st->generated) {
+        remove(bench_rsx_path.c_str());
+        bench_rsx_path.clear();
+    }
+    delete st;
+}
+
+static void rsx_run(BenchCase* bc, int64_t iterations) {
+    RsxState* st = (RsxState*)bc->state;
+    for (int64_t i = 0; i < iterations; i++) {
+        bench_sink += (uint64_t)samplecrate_rsx_load(st->rsx, bench_rsx_path.c_str());
+    }
+    bench_sink += (uint64_t)st->rsx->num_pads;
+}
+
+// --- Registry ---
+
+static std::vector<BenchCase> build_cases() {
+    std::vector<BenchCase> cases;
+
+    struct { const char* name; int mask; } effects[] = {
+        { "bypass",     0 },
+        { "distortion", BENCH_FX_DISTORTION },
+        { "filter",     BENCH_FX_FILTER },
+        { "eq",         BENCH_FX_EQ },
+        { "compressor", BENCH_FX_COMPRESSOR },
+        { "phaser",     BENCH_FX_PHASER },
+        { "reverb",     BENCH_FX_REVERB },
+        { "delay",      BENCH_FX_DELAY },
+        { "all",        BENCH_FX_ALL },
+    };
+    for (size_t i = 0; i < sizeof(effects) / sizeof(effects[0]); i++) {
+        BenchCase bc = { std::string("effects/") + effects[i].name, BENCH_BLOCK_FRAMES, "frames",
+                         effects_setup, effects_run_float, effects_teardown, nullptr, effects[i].mask, 0 };
+        cases.push_back(bc);
+    }
+    {
+        BenchCase bc = { "effects/all_int16", BENCH_BLOCK_FRAMES, "frames",
+                         effects_setup, effects_run_int16, effects_teardown, nullptr, BENCH_FX_ALL, 0 };
+        cases.push_back(bc);
+    }
+    {
+        BenchCase bc = { "effects/all_scalar", BENCH_BLOCK_FRAMES, "frames",
+                         effects_scalar_setup, effects_run_float, effects_scalar_teardown, nullptr, BENCH_FX_ALL, 0 };
+        cases.push_back(bc);
+    }
+
+    struct { const char* name; int mode; } decay_modes[] = {
+        { "unprotected", BENCH_DENORMALS_UNPROTECTED },
+        { "ftz",         BENCH_DENORMALS_FTZ },
+        { "guard",       BENCH_DENORMALS_GUARD },
+    };
+    for (size_t i = 0; i < sizeof(decay_modes) / sizeof(decay_modes[0]); i++) {
+        BenchCase bc = { std::string("effects/decay_tail/") + decay_modes[i].name,
+                         (int64_t)(BENCH_DECAY_BLOCKS + 1) * BENCH_BLOCK_FRAMES, "frames",
+                         decay_setup, decay_run, decay_teardown, nullptr,
+                         BENCH_FX_ALL, decay_modes[i].mode };
+        cases.push_back(bc);
+    }
+
+    int slot_counts[] = { 1, 8, 32 };
+    int event_counts[] = { 64, 1024, 8192 };
+    for (int s : slot_counts) {
+        for (int e : event_counts) {
+            BenchCase bc = { "sequencer/update/slots:" + std::to_string(s) + "/events:" + std::to_string(e),
+                             BENCH_BLOCK_FRAMES, "frames",
+                             sequencer_setup, sequencer_run, sequencer_teardown, nullptr, s, e };
+            cases.push_back(bc);
+        }
+    }
+
+    {
+        BenchCase bc = { "input_mappings/get_midi_event", 128, "lookups",
+                         mappings_setup, mappings_run, mappings_teardown, nullptr, 0, 0 };
+        cases.push_back(bc);
+    }
+    {
+        BenchCase bc = { "sysex/parse_message", 1, "messages",
+                         sysex_setup, sysex_run, sysex_teardown, nullptr, 0, 0 };
+        cases.push_back(bc);
+    }
+    {
+        BenchCase bc = { "sevenbit/encode", BENCH_7BIT_BLOCKS * 7, "bytes",
+                         sevenbit_setup, sevenbit_encode_run, sevenbit_teardown, nullptr, 0, 0 };
+        cases.push_back(bc);
+    }
+    {
+        BenchCase bc = { "sevenbit/decode", BENCH_7BIT_BLOCKS * 7, "bytes",
+                         sevenbit_setup, sevenbit_decode_run, sevenbit_decode_teardown, nullptr, 0, 0 };
+        cases.push_back(bc);
+    }
+    {
+        BenchCase bc = { "rsx/load", 1, "files",
+                         rsx_setup, rsx_run, rsx_teardown, nullptr, 0, 0 };
+        cases.push_back(bc);
+    }
+
+    return cases;
+}
+
+// --- Harness ---
+
+static BenchResult run_case(BenchCase* bc, double min_time, int repetitions) {
+    if (bc->setup) bc->setup(bc);
+
+    // Warm up and calibrate: grow the iteration count until one run takes min_time
+    int64_t iterations = 1;
+    for (;;) {
+        double start = now_seconds();
+        bc->run(bc, iterations);
+        double elapsed = now_seconds() - start;
+
+        if (elapsed >= min_time || iterations >= ((int64_t)1 << 40)) break;
+
+        double scale = (elapsed > 0.0) ? (min_time * 1.4 / elapsed) : 10.0;
+        if (scale > 10.0) scale = 10.0;
+        if (scale < 2.0) scale = 2.0;
+        iterations = (int64_t)(iterations * scale);
+    }
+
+    std::vector<double> samples;
+    for (int r = 0; r < repetitions; r++) {
+        double start = now_seconds();
+        bc->run(bc, iterations);
+        double elapsed = now_seconds() - start;
+        samples.push_back(elapsed * 1e9 / (double)iterations);
+    }
+
+    if (bc->teardown) bc->teardown(bc);
+
+    std::sort(samples.begin(), samples.end());
+
+    BenchResult res;
+    res.name = bc->name;
+    res.iterations = iterations;
+    res.repetitions = repetitions;
+    res.ns_per_op = samples[samples.size() / 2];
+    res.min_ns_per_op = samples.front();
+    res.max_ns_per_op = samples.back();
+    res.items_per_second = (res.ns_per_op > 0.0) ? (double)bc->items_per_op * 1e9 / res.ns_per_op : 0.0;
+    res.items_label = bc->items_label;
+    return res;
+}
+
+static void write_json(FILE* f, const std::vector<BenchResult>& results, double min_time, int repetitions) {
+    char date[64];
+    time_t t = time(NULL);
+    strftime(date, sizeof(date), "%Y-%m-%dT%H:%M:%S", localtime(&t));
+
+    fprintf(f, "{\n");
+    fprintf(f, "  \"context\": {\n");
+    fprintf(f, "    \"date\": \"%s\",\n", date);
+#if defined(__VERSION__)
+    fprintf(f, "    \"compiler\": \"%s\",\n", __VERSION__);
+#endif
+#ifdef NDEBUG
+    fprintf(f, "    \"build_type\": \"release\",\n");
+#else
+    fprintf(f, "    \"build_type\": \"debug\",\n");
+#endif
+    fprintf(f, "    \"fx_kernels\": \"%s\",\n", regroove_kernels_get()->name);
+    fprintf(f, "    \"sample_rate\": %d,\n", BENCH_SAMPLE_RATE);
+    fprintf(f, "    \"block_frames\": %d,\n", BENCH_BLOCK_FRAMES);
+    fprintf(f, "    \"min_time\": %.3f,\n", min_time);
+    fprintf(f, "    \"repetitions\": %d\n", repetitions);
+    fprintf(f, "  },\n");
+    fprintf(f, "  \"benchmarks\": [\n");
+    for (size_t i = 0; i < results.size(); i++) {
+        const BenchResult& r = results[i];
+        fprintf(f, "    {\"name\": \"%s\", \"iterations\": %lld, \"ns_per_op\": %.3f, "
+                   "\"min_ns_per_op\": %.3f, \"max_ns_per_op\": %.3f, "
+                   "\"items_per_second\": %.1f, \"items\": \"%s\"}%s\n",
+                r.name.c_str(), (long long)r.iterations, r.ns_per_op,
+                r.min_ns_per_op, r.max_ns_per_op,
+                r.items_per_second, r.items_label, (i + 1 < results.size()) ? "," : "");
+    }
+    fprintf(f, "  ]\n");
+    fprintf(f, "}\n");
+}
+
+static void print_usage(const char* argv0) {
+    std::cerr << "Usage: " << argv0 << " [--filter SUBSTR] [--min-time SEC] [--repetitions N] [--rsx FILE] [--out FILE] [--list]" << std::endl;
+    std::cerr << "  --filter SUBSTR   Only run cases whose name contains SUBSTR" << std::endl;
+    std::cerr << "  --min-time SEC    Minimum time per measurement, default: 0.2" << std::endl;
+    std::cerr << "  --repetitions N   Measurements per case (median is reported), default: 5" << std::endl;
+    std::cerr << "  --rsx FILE        RSX file for rsx/load, default: a generated file" << std::endl;
+    std::cerr << "  --out FILE        JSON output file ('-' for stdout), default: samplecrate_bench.json" << std::endl;
+    std::cerr << "  --list            List case names and exit" << std::endl;
+}
+
+int main(int argc, char* argv[]) {
+    const char* filter = nullptr;
+    const char* out_path = "samplecrate_bench.json";
+    double min_time = 0.2;
+    int repetitions = 5;
+    bool list_only = false;
+
+    for (int i = 1; i < argc; i++) {
+        const char* arg = argv[i];
+        bool has_value = (i + 1 < argc);
+
+        if (strcmp(arg, "--filter") == 0 && has_value) {
+            filter = argv[++i];
+        } else if (strcmp(arg, "--min-time") == 0 && has_value) {
+            min_time = atof(argv[++i]);
+        } else if (strcmp(arg, "--repetitions") == 0 && has_value) {
+            repetitions = atoi(argv[++i]);
+        } else if (strcmp(arg, "--rsx") == 0 && has_value) {
+            bench_rsx_path = argv[++i];
+        } else if (strcmp(arg, "--out") == 0 && has_value) {
+            out_path = argv[++i];
+        } else if (strcmp(arg, "--list") == 0) {
+            list_only = true;
+        } else {
+            print_usage(argv[0]);
+            return 1;
+        }
+    }
+    if (min_time <= 0.0 || repetitions < 1) {
+        print_usage(argv[0]);
+        return 1;
+    }
+
+    std::vector<BenchCase> cases = build_cases();
+    std::vector<BenchResult> results;
+
+    for (size_t i = 0; i < cases.size(); i++) {
+        BenchCase* bc = &cases[i];
+        if (filter && bc->name.find(filter) == std::string::npos) continue;
+
+        if (list_only) {
+            std::cout << bc->name << std::endl;
+            continue;
+        }
+
+        BenchResult res = run_case(bc, min_time, repetitions);
+        std::cerr << "[BENCH] " << res.name << ": " << res.ns_per_op << " ns/op ("
+                  << res.items_per_second << " " << res.items_label << "/s)" << std::endl;
+        results.push_back(res);
+    }
+    if (list_only) return 0;
+
+    FILE* out = stdout;
+    if (strcmp(out_path, "-") != 0) {
+        out = fopen(out_path, "w");
+        if (!out) {
+            std::cerr << "[BENCH] Cannot open output file: " << out_path << std::endl;
+            return 1;
+        }
+    }
+    write_json(out, results, min_time, repetitions);
+    if (out != stdout) {
+        fclose(out);
+        std::cerr << "[BENCH] Wrote " << results.size() << " results to " << out_path << std::endl;
+    }
+
+    return 0;
+}
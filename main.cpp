@@ -38,9 +38,13 @@ extern "C" {
 #include "input_mappings.h"
 #include "sfz_builder.h"
 #include "medness_sequencer.h"
+#include "medness_track_cache.h"
 #include "midi_file_player.h"
 #include "midi_sysex.h"
 #include "medness_performance.h"
+#include "samplecrate_render.h"
+#include "samplecrate_latency.h"
+#include "samplecrate_rtlog.h"
 #include "sequence_upload.h"
 #include "sequence_rsx_manager.h"
 #include "sequence_download.h"
@@ -83,12 +87,13 @@ SamplecrateEngine* engine = nullptr;
 #define mixer (engine->mixer)
 #define effects_master (engine->effects_master)
 #define note_suppressed (engine->note_suppressed)
+#define synth_mutex (engine->synth_mutex)
+#define latency_monitor (engine->latency)
 
 // =============================================================================
 // GUI-ONLY STATE - Does not affect headless operation
 // =============================================================================
 std::atomic<bool> running(true);
-std::mutex synth_mutex;
 LCD* lcd_display = nullptr;
 int current_note = -1;
 int current_velocity = 0;
@@ -109,6 +114,7 @@ int midi_device_ports[MIDI_MAX_DEVICES] = {-1, -1, -1};  // -1 = not configured
 
 // Audio device configuration
 SDL_AudioDeviceID current_audio_device_id = 0;  // Current audio device ID
+SDL_AudioSpec audio_spec;                        // Format the current device was opened with
 int num_audio_devices = 0;  // Number of available audio output devices
 
 // RSX file path (GUI state - actual RSX lives in engine)
@@ -148,7 +154,8 @@ float sequence_pad_blink[RSX_MAX_NOTE_PADS] = {0.0f};  // Blink timer for playin
 float step_fade[16] = {0.0f};  // Brightness for each step
 
 // Note: note_suppressed and current_program are now in the engine (accessed via macros)
-int midi_target_program[3] = {0, 0, 0};  // Per-device MIDI routing (set by program change messages)
+// Per-device MIDI routing (set by program change messages, read by the audio thread; starts at 0)
+std::atomic<int> midi_target_program[3];
 
 // MIDI clock tracking
 struct {
@@ -215,7 +222,7 @@ bool expanded_pads = false;
 // Track currently held pad for note_off on release
 int held_pad_index = -1;
 int held_pad_note = -1;
-sfizz_synth_t* held_pad_synth = nullptr;
+int held_pad_program = -1;
 
 // UI mode
 enum UIMode {
@@ -243,59 +250,30 @@ RegrooveEffects* get_current_effects() {
     if (fx_mode == FX_MODE_MASTER) {
         return effects_master;
     } else {
-        // FX_MODE_PROGRAM - return current program's effects
-        if (current_program >= 0 && current_program < RSX_MAX_PROGRAMS) {
-            return engine->effects_program[current_program];
-        }
-        return nullptr;
+        // FX_MODE_PROGRAM - return current program's effects (created on first use)
+        return samplecrate_engine_get_program_effects(engine, current_program);
     }
 }
 
-// Helper: apply RSX effects settings to RegrooveEffects instance
-void apply_rsx_effects_to_instance(RegrooveEffects* fx, const RSXEffectsSettings* rsx_fx) {
-    if (!fx || !rsx_fx) return;
+// Scratch chain the FXP panel shows for a program without a chain (UI thread only)
+static RegrooveEffects* fx_panel_scratch = nullptr;
 
-    // Distortion
-    regroove_effects_set_distortion_enabled(fx, rsx_fx->distortion_enabled);
-    regroove_effects_set_distortion_drive(fx, rsx_fx->distortion_drive);
-    regroove_effects_set_distortion_mix(fx, rsx_fx->distortion_mix);
+// Get the effects instance the EFFECTS panel shows, without creating a program chain
+// A program without a chain is shown through the scratch chain, loaded with its settings
+RegrooveEffects* get_current_effects_for_display() {
+    if (fx_mode == FX_MODE_MASTER) return effects_master;
 
-    // Filter
-    regroove_effects_set_filter_enabled(fx, rsx_fx->filter_enabled);
-    regroove_effects_set_filter_cutoff(fx, rsx_fx->filter_cutoff);
-    regroove_effects_set_filter_resonance(fx, rsx_fx->filter_resonance);
+    RegrooveEffects* fx = samplecrate_engine_find_program_effects(engine, current_program);
+    if (fx) return fx;
 
-    // EQ
-    regroove_effects_set_eq_enabled(fx, rsx_fx->eq_enabled);
-    regroove_effects_set_eq_low(fx, rsx_fx->eq_low);
-    regroove_effects_set_eq_mid(fx, rsx_fx->eq_mid);
-    regroove_effects_set_eq_high(fx, rsx_fx->eq_high);
-
-    // Compressor
-    regroove_effects_set_compressor_enabled(fx, rsx_fx->compressor_enabled);
-    regroove_effects_set_compressor_threshold(fx, rsx_fx->compressor_threshold);
-    regroove_effects_set_compressor_ratio(fx, rsx_fx->compressor_ratio);
-    regroove_effects_set_compressor_attack(fx, rsx_fx->compressor_attack);
-    regroove_effects_set_compressor_release(fx, rsx_fx->compressor_release);
-    regroove_effects_set_compressor_makeup(fx, rsx_fx->compressor_makeup);
-
-    // Phaser
-    regroove_effects_set_phaser_enabled(fx, rsx_fx->phaser_enabled);
-    regroove_effects_set_phaser_rate(fx, rsx_fx->phaser_rate);
-    regroove_effects_set_phaser_depth(fx, rsx_fx->phaser_depth);
-    regroove_effects_set_phaser_feedback(fx, rsx_fx->phaser_feedback);
-
-    // Reverb
-    regroove_effects_set_reverb_enabled(fx, rsx_fx->reverb_enabled);
-    regroove_effects_set_reverb_room_size(fx, rsx_fx->reverb_room_size);
-    regroove_effects_set_reverb_damping(fx, rsx_fx->reverb_damping);
-    regroove_effects_set_reverb_mix(fx, rsx_fx->reverb_mix);
-
-    // Delay
-    regroove_effects_set_delay_enabled(fx, rsx_fx->delay_enabled);
-    regroove_effects_set_delay_time(fx, rsx_fx->delay_time);
-    regroove_effects_set_delay_feedback(fx, rsx_fx->delay_feedback);
-    regroove_effects_set_delay_mix(fx, rsx_fx->delay_mix);
+    if (!fx_panel_scratch) {
+        fx_panel_scratch = regroove_effects_create();
+        if (!fx_panel_scratch) return nullptr;
+        regroove_effects_set_reverb_send(fx_panel_scratch, 1);  // Display only: never allocate reverb lines
+    }
+    samplecrate_engine_apply_effects_settings(fx_panel_scratch,
+        samplecrate_engine_get_program_effects_settings(engine, current_program));
+    return fx_panel_scratch;
 }
 
 // Helper: save current RegrooveEffects instance to RSX effects settings
@@ -345,6 +323,24 @@ void save_instance_to_rsx_effects(RegrooveEffects* fx, RSXEffectsSettings* rsx_f
     rsx_fx->delay_mix = regroove_effects_get_delay_mix(fx);
 }
 
+// Helper: current FX settings of a program without creating its chain
+// (the chain's state when it has one, otherwise the settings it would start from)
+bool get_program_effects_settings(int program, RSXEffectsSettings* rsx_fx) {
+    if (!engine || !rsx_fx) return false;
+
+    RegrooveEffects* fx = samplecrate_engine_find_program_effects(engine, program);
+    if (fx) {
+        memset(rsx_fx, 0, sizeof(*rsx_fx));
+        save_instance_to_rsx_effects(fx, rsx_fx);
+        return true;
+    }
+
+    const RSXEffectsSettings* settings = samplecrate_engine_get_program_effects_settings(engine, program);
+    if (!settings) return false;
+    *rsx_fx = *settings;
+    return true;
+}
+
 // Helper: load note suppression from RSX to runtime state
 void load_note_suppression_from_rsx() {
     if (!rsx) return;
@@ -429,6 +425,19 @@ void autosave_effects_to_rsx() {
         }
     }
 
+    // Save aux sends and bus effects
+    for (int i = 0; i < rsx->num_programs; i++) {
+        for (int b = 0; b < RSX_MAX_AUX_BUSES; b++) {
+            rsx->program_sends[i][b] = mixer.program_sends[i][b];
+        }
+    }
+    for (int b = 0; b < RSX_MAX_AUX_BUSES; b++) {
+        rsx->aux_return_volumes[b] = mixer.aux_return_volumes[b];
+        if (engine->effects_aux[b]) {
+            save_instance_to_rsx_effects(engine->effects_aux[b], &rsx->aux_effects[b]);
+        }
+    }
+
     // Write to file
     samplecrate_rsx_save(rsx, rsx_file_path.c_str());
 }
@@ -477,10 +486,14 @@ int find_pad_for_note(int midi_note) {
 // Forward declaration
 void switch_program(int program_index);
 
-// Callback for sequence manager to switch programs
+// Program requested by sequence playback (-1 = none)
+// Set on the audio thread, applied by the UI loop
+static std::atomic<int> pending_program_switch(-1);
+
+// Callback for sequence manager to switch programs (runs on the audio thread)
 void sequence_program_switch_callback(int program_index, void* userdata) {
     (void)userdata;  // Unused
-    switch_program(program_index);
+    pending_program_switch.store(program_index, std::memory_order_relaxed);
 }
 
 // Switch to a different program (change active synth pointer)
@@ -488,6 +501,8 @@ void switch_program(int program_index) {
     if (!rsx || program_index < 0 || program_index >= rsx->num_programs) return;
     if (!program_synths[program_index]) return;  // Program not loaded
 
+    // No lock: these are atomics the audio thread reads per event, and synth_mutex
+    // is only held for creating and freeing synths
     current_program = program_index;
 
     // Update midi_target_program for all devices when program changes via UI
@@ -497,10 +512,9 @@ void switch_program(int program_index) {
     midi_target_program[1] = program_index;
     midi_target_program[2] = program_index;
 
-    std::cout << "Switching to program " << (program_index + 1) << ": " << rsx->program_files[program_index] << std::endl;
+    samplecrate_rtlog(RTLOG_LEVEL_INFO, "Switching to program %d: %s", program_index + 1, rsx->program_files[program_index]);
 
     // Switch synth pointer to the selected program
-    std::lock_guard<std::mutex> lock(synth_mutex);
     synth = program_synths[program_index];
     error_message = "";  // Clear any previous errors
 }
@@ -514,7 +528,8 @@ void start_learn_for_action(InputAction action, int parameter = 0) {
 }
 
 // Handle input actions (from MIDI or keyboard)
-void handle_input_event(InputEvent* event) {
+// source: engine input source the event arrived on (MIDI device id or ENGINE_INPUT_UI)
+void handle_input_event(InputEvent* event, int source) {
     if (!event) return;
 
     float normalized_value = event->value / 127.0f;  // MIDI CC is 0-127
@@ -671,11 +686,10 @@ void handle_input_event(InputEvent* event) {
                         target_synth = program_synths[target_prog];
                     }
 
-                    std::lock_guard<std::mutex> lock(synth_mutex);
                     if (target_synth) {
                         // For CC triggers, just send note_on (no release event available)
                         // The SFZ file's envelope/release settings will control the sound
-                        sfizz_send_note_on(target_synth, 0, pad->note, velocity);
+                        samplecrate_engine_queue_event(engine, source, EVENT_NOTE_ON, actual_program, pad->note, velocity);
 
                         current_note = pad->note;
                         current_velocity = velocity;
@@ -1130,7 +1144,7 @@ void sysex_callback(uint8_t device_id, SysExCommand command, const uint8_t *data
 
             if (program_id >= RSX_MAX_PROGRAMS) break;
 
-            RegrooveEffects* prog_fx = (program_id < RSX_MAX_PROGRAMS && engine) ? engine->effects_program[program_id] : nullptr;
+            RegrooveEffects* prog_fx = engine ? samplecrate_engine_get_program_effects(engine, program_id) : nullptr;
             if (!prog_fx) break;
 
             RegrooveEffects* fx = prog_fx;
@@ -1212,10 +1226,10 @@ void sysex_callback(uint8_t device_id, SysExCommand command, const uint8_t *data
 
             if (program_id >= RSX_MAX_PROGRAMS) break;
 
-            RegrooveEffects* prog_fx_get = (program_id < RSX_MAX_PROGRAMS && engine) ? engine->effects_program[program_id] : nullptr;
-            if (!prog_fx_get) break;
+            // Report the chain, or the settings it would start from (queries never create chains)
+            RSXEffectsSettings fx_settings;
+            if (!get_program_effects_settings(program_id, &fx_settings)) break;
 
-            RegrooveEffects* fx = prog_fx_get;
             uint8_t sysex_buffer[64];
             uint8_t params[5];
             size_t param_count = 0;
@@ -1224,38 +1238,38 @@ void sysex_callback(uint8_t device_id, SysExCommand command, const uint8_t *data
             // Get current parameters based on effect ID
             switch (effect_id) {
                 case SYSEX_FX_DISTORTION:
-                    enabled = regroove_effects_get_distortion_enabled(fx);
-                    params[0] = (uint8_t)(regroove_effects_get_distortion_drive(fx) * 127.0f);
-                    params[1] = (uint8_t)(regroove_effects_get_distortion_mix(fx) * 127.0f);
+                    enabled = fx_settings.distortion_enabled;
+                    params[0] = (uint8_t)(fx_settings.distortion_drive * 127.0f);
+                    params[1] = (uint8_t)(fx_settings.distortion_mix * 127.0f);
                     param_count = 2;
                     break;
                 case SYSEX_FX_FILTER:
-                    enabled = regroove_effects_get_filter_enabled(fx);
-                    params[0] = (uint8_t)(regroove_effects_get_filter_cutoff(fx) * 127.0f);
-                    params[1] = (uint8_t)(regroove_effects_get_filter_resonance(fx) * 127.0f);
+                    enabled = fx_settings.filter_enabled;
+                    params[0] = (uint8_t)(fx_settings.filter_cutoff * 127.0f);
+                    params[1] = (uint8_t)(fx_settings.filter_resonance * 127.0f);
                     param_count = 2;
                     break;
                 case SYSEX_FX_EQ:
-                    enabled = regroove_effects_get_eq_enabled(fx);
-                    params[0] = (uint8_t)(regroove_effects_get_eq_low(fx) * 127.0f);
-                    params[1] = (uint8_t)(regroove_effects_get_eq_mid(fx) * 127.0f);
-                    params[2] = (uint8_t)(regroove_effects_get_eq_high(fx) * 127.0f);
+                    enabled = fx_settings.eq_enabled;
+                    params[0] = (uint8_t)(fx_settings.eq_low * 127.0f);
+                    params[1] = (uint8_t)(fx_settings.eq_mid * 127.0f);
+                    params[2] = (uint8_t)(fx_settings.eq_high * 127.0f);
                     param_count = 3;
                     break;
                 case SYSEX_FX_COMPRESSOR:
-                    enabled = regroove_effects_get_compressor_enabled(fx);
-                    params[0] = (uint8_t)(regroove_effects_get_compressor_threshold(fx) * 127.0f);
-                    params[1] = (uint8_t)(regroove_effects_get_compressor_ratio(fx) * 127.0f);
-                    params[2] = (uint8_t)(regroove_effects_get_compressor_attack(fx) * 127.0f);
-                    params[3] = (uint8_t)(regroove_effects_get_compressor_release(fx) * 127.0f);
-                    params[4] = (uint8_t)(regroove_effects_get_compressor_makeup(fx) * 127.0f);
+                    enabled = fx_settings.compressor_enabled;
+                    params[0] = (uint8_t)(fx_settings.compressor_threshold * 127.0f);
+                    params[1] = (uint8_t)(fx_settings.compressor_ratio * 127.0f);
+                    params[2] = (uint8_t)(fx_settings.compressor_attack * 127.0f);
+                    params[3] = (uint8_t)(fx_settings.compressor_release * 127.0f);
+                    params[4] = (uint8_t)(fx_settings.compressor_makeup * 127.0f);
                     param_count = 5;
                     break;
                 case SYSEX_FX_DELAY:
-                    enabled = regroove_effects_get_delay_enabled(fx);
-                    params[0] = (uint8_t)(regroove_effects_get_delay_time(fx) * 127.0f);
-                    params[1] = (uint8_t)(regroove_effects_get_delay_feedback(fx) * 127.0f);
-                    params[2] = (uint8_t)(regroove_effects_get_delay_mix(fx) * 127.0f);
+                    enabled = fx_settings.delay_enabled;
+                    params[0] = (uint8_t)(fx_settings.delay_time * 127.0f);
+                    params[1] = (uint8_t)(fx_settings.delay_feedback * 127.0f);
+                    params[2] = (uint8_t)(fx_settings.delay_mix * 127.0f);
                     param_count = 3;
                     break;
                 default:
@@ -1284,45 +1298,44 @@ void sysex_callback(uint8_t device_id, SysExCommand command, const uint8_t *data
 
             if (program_id >= RSX_MAX_PROGRAMS) break;
 
-            RegrooveEffects* prog_fx_all = (program_id < RSX_MAX_PROGRAMS && engine) ? engine->effects_program[program_id] : nullptr;
-            if (!prog_fx_all) break;
-
-            RegrooveEffects* fx = prog_fx_all;
+            // Report the chain, or the settings it would start from (queries never create chains)
+            RSXEffectsSettings fx_settings;
+            if (!get_program_effects_settings(program_id, &fx_settings)) break;
 
             // Gather all effect parameters
             uint8_t distortion_params[2] = {
-                (uint8_t)(regroove_effects_get_distortion_drive(fx) * 127.0f),
-                (uint8_t)(regroove_effects_get_distortion_mix(fx) * 127.0f)
+                (uint8_t)(fx_settings.distortion_drive * 127.0f),
+                (uint8_t)(fx_settings.distortion_mix * 127.0f)
             };
             uint8_t filter_params[2] = {
-                (uint8_t)(regroove_effects_get_filter_cutoff(fx) * 127.0f),
-                (uint8_t)(regroove_effects_get_filter_resonance(fx) * 127.0f)
+                (uint8_t)(fx_settings.filter_cutoff * 127.0f),
+                (uint8_t)(fx_settings.filter_resonance * 127.0f)
             };
             uint8_t eq_params[3] = {
-                (uint8_t)(regroove_effects_get_eq_low(fx) * 127.0f),
-                (uint8_t)(regroove_effects_get_eq_mid(fx) * 127.0f),
-                (uint8_t)(regroove_effects_get_eq_high(fx) * 127.0f)
+                (uint8_t)(fx_settings.eq_low * 127.0f),
+                (uint8_t)(fx_settings.eq_mid * 127.0f),
+                (uint8_t)(fx_settings.eq_high * 127.0f)
             };
             uint8_t compressor_params[5] = {
-                (uint8_t)(regroove_effects_get_compressor_threshold(fx) * 127.0f),
-                (uint8_t)(regroove_effects_get_compressor_ratio(fx) * 127.0f),
-                (uint8_t)(regroove_effects_get_compressor_attack(fx) * 127.0f),
-                (uint8_t)(regroove_effects_get_compressor_release(fx) * 127.0f),
-                (uint8_t)(regroove_effects_get_compressor_makeup(fx) * 127.0f)
+                (uint8_t)(fx_settings.compressor_threshold * 127.0f),
+                (uint8_t)(fx_settings.compressor_ratio * 127.0f),
+                (uint8_t)(fx_settings.compressor_attack * 127.0f),
+                (uint8_t)(fx_settings.compressor_release * 127.0f),
+                (uint8_t)(fx_settings.compressor_makeup * 127.0f)
             };
             uint8_t delay_params[3] = {
-                (uint8_t)(regroove_effects_get_delay_time(fx) * 127.0f),
-                (uint8_t)(regroove_effects_get_delay_feedback(fx) * 127.0f),
-                (uint8_t)(regroove_effects_get_delay_mix(fx) * 127.0f)
+                (uint8_t)(fx_settings.delay_time * 127.0f),
+                (uint8_t)(fx_settings.delay_feedback * 127.0f),
+                (uint8_t)(fx_settings.delay_mix * 127.0f)
             };
 
             // Build enable flags bitfield
             uint8_t enable_flags = 0;
-            if (regroove_effects_get_distortion_enabled(fx)) enable_flags |= (1 << 0);
-            if (regroove_effects_get_filter_enabled(fx)) enable_flags |= (1 << 1);
-            if (regroove_effects_get_eq_enabled(fx)) enable_flags |= (1 << 2);
-            if (regroove_effects_get_compressor_enabled(fx)) enable_flags |= (1 << 3);
-            if (regroove_effects_get_delay_enabled(fx)) enable_flags |= (1 << 4);
+            if (fx_settings.distortion_enabled) enable_flags |= (1 << 0);
+            if (fx_settings.filter_enabled) enable_flags |= (1 << 1);
+            if (fx_settings.eq_enabled) enable_flags |= (1 << 2);
+            if (fx_settings.compressor_enabled) enable_flags |= (1 << 3);
+            if (fx_settings.delay_enabled) enable_flags |= (1 << 4);
 
             uint8_t sysex_buffer[64];
             size_t msg_len = sysex_build_fx_state_response(device_id, program_id, 0x01, 0x00,
@@ -1885,6 +1898,36 @@ void sysex_callback(uint8_t device_id, SysExCommand command, const uint8_t *data
             break;
         }
 
+        case SYSEX_CMD_GET_ENGINE_HEALTH: {
+            // F0 7D <dev> 66 F7
+            // Request audio engine health (DSP load, overruns, rolling timings)
+            SamplecrateLatencyStats stats;
+            samplecrate_latency_get_stats(latency_monitor, &stats);
+
+            SysExEngineHealth health;
+            health.sample_rate = (uint32_t)engine->sample_rate;
+            health.block_size = (uint16_t)audio_spec.samples;
+            health.load_permille = (uint16_t)(stats.load * 1000.0f);
+            health.peak_load_permille = (uint16_t)(stats.peak_load * 1000.0f);
+            health.overruns = stats.overruns;
+            health.deadline_misses = stats.deadline_misses;
+            for (int t = 0; t < SYSEX_HEALTH_NUM_TIMINGS && t <= LATENCY_NUM_STAGES; t++) {
+                const SamplecrateLatencyTiming* timing = (t == 0) ? &stats.total : &stats.stages[t - 1];
+                health.timing_us[t][0] = (uint32_t)timing->min_us;
+                health.timing_us[t][1] = (uint32_t)timing->avg_us;
+                health.timing_us[t][2] = (uint32_t)timing->p99_us;
+                health.timing_us[t][3] = (uint32_t)timing->max_us;
+            }
+
+            uint8_t sysex_buffer[128];
+            size_t msg_len = sysex_build_engine_health_response(sysex_get_device_id(), &health,
+                                                                sysex_buffer, sizeof(sysex_buffer));
+            if (msg_len > 0) {
+                midi_output_send_sysex(sysex_buffer, msg_len);
+            }
+            break;
+        }
+
         case SYSEX_CMD_GET_SEQUENCE_STATE: {
             // F0 7D <dev> 62 F7
             // Request complete sequence state (all slots)
@@ -2256,8 +2299,8 @@ void midi_event_callback(unsigned char status, unsigned char data1, unsigned cha
             // SPP is in 16th notes (0-63 for a 4-bar pattern)
             // We convert to pulses: each 16th note = 6 MIDI clock pulses
             // Pattern position just CYCLES 0-383 pulses
-            const int PATTERN_LENGTH_SIXTEENTHS = 64;
-            const int PATTERN_LENGTH_PULSES = 384;
+            const int PATTERN_LENGTH_SIXTEENTHS = SEQUENCER_GRID_ROWS;
+            const int PATTERN_LENGTH_PULSES = SEQUENCER_GRID_PULSES;
 
             // SPP position within pattern (cycles 0-63)
             int spp_within_pattern = spp_position % PATTERN_LENGTH_SIXTEENTHS;
@@ -2393,7 +2436,7 @@ void midi_event_callback(unsigned char status, unsigned char data1, unsigned cha
                         event.action = (InputAction)pad->action;
                         event.parameter = i;  // Pass pad index as parameter
                         event.value = (msg_type == 0xB0) ? data2 : 127;  // Use CC value or max velocity
-                        handle_input_event(&event);
+                        handle_input_event(&event, device_id);
                     } else {
                         // Legacy behavior - trigger the pad based on legacy fields
                         // This includes note, midi_file, sequence_index
@@ -2420,12 +2463,11 @@ void midi_event_callback(unsigned char status, unsigned char data1, unsigned cha
                             }
                         } else if (pad->note >= 0) {
                             // Single note trigger
-                            int target_prog = (pad->program >= 0) ? pad->program : current_program;
-                            std::lock_guard<std::mutex> lock(synth_mutex);
+                            int target_prog = (pad->program >= 0) ? pad->program : current_program.load();
                             sfizz_synth_t* target_synth = program_synths[target_prog];
                             if (target_synth) {
                                 int vel = (pad->velocity > 0) ? pad->velocity : 100;
-                                sfizz_send_note_on(target_synth, 0, pad->note, vel);
+                                samplecrate_engine_queue_event(engine, device_id, EVENT_NOTE_ON, target_prog, pad->note, vel);
                                 note_pad_fade[i] = 1.0f;
                             }
                         }
@@ -2455,11 +2497,10 @@ void midi_event_callback(unsigned char status, unsigned char data1, unsigned cha
         // Log to MIDI monitor
         add_to_midi_monitor(device_id, "Note On", data1, data2, target_prog + 1);
 
-        // Send MIDI note directly to the appropriate synth (bypass pad mapping)
-        std::lock_guard<std::mutex> lock(synth_mutex);
+        // Queue MIDI note for the appropriate synth (bypass pad mapping)
         sfizz_synth_t* target_synth = program_synths[target_prog];
         if (target_synth) {
-            sfizz_send_note_on(target_synth, 0, data1, data2);
+            samplecrate_engine_queue_event(engine, device_id, EVENT_NOTE_ON, target_prog, data1, data2);
 
             // Highlight all pads configured for this note on the target program
             if (rsx) {
@@ -2481,10 +2522,8 @@ void midi_event_callback(unsigned char status, unsigned char data1, unsigned cha
         // Log to MIDI monitor
         add_to_midi_monitor(device_id, "Note Off", data1, data2, target_prog + 1);
 
-        // Send MIDI note off directly to the appropriate synth (bypass pad mapping)
-        std::lock_guard<std::mutex> lock(synth_mutex);
-        sfizz_synth_t* target_synth = program_synths[target_prog];
-        if (target_synth) sfizz_send_note_off(target_synth, 0, data1, 0);
+        // Queue MIDI note off for the appropriate synth (bypass pad mapping)
+        samplecrate_engine_queue_event(engine, device_id, EVENT_NOTE_OFF, target_prog, data1, 0);
     } else if (msg_type == 0xB0) {  // CC message
         // Check if in learn mode
         if (learn_mode_active) {
@@ -2555,7 +2594,7 @@ void midi_event_callback(unsigned char status, unsigned char data1, unsigned cha
         if (input_mappings) {
             InputEvent event;
             if (input_mappings_get_midi_event(input_mappings, device_id, data1, data2, &event)) {
-                handle_input_event(&event);
+                handle_input_event(&event, device_id);
             }
         }
     }
@@ -2565,10 +2604,25 @@ void midi_event_callback(unsigned char status, unsigned char data1, unsigned cha
 void audioCallback(void* userdata, Uint8* stream, int len) {
     float* out = reinterpret_cast<float*>(stream);
     int frames = len / (sizeof(float) * 2); // stereo
+    uint64_t callback_start_ns = samplecrate_latency_now_ns();
+
+    // Decaying FX states turn into slow denormal floats as the music goes quiet;
+    // flush them to zero (set every callback, the driver may switch threads)
+    regroove_effects_flush_denormals(1);
+
+    // Never block the audio thread: synth_mutex is only held by the UI while synths
+    // are being created or freed. Output silence for that block and keep queued events
+    // for the next one.
+    std::unique_lock<std::mutex> lock(synth_mutex, std::try_to_lock);
+    if (!lock.owns_lock()) {
+        memset(out, 0, len);
+        return;
+    }
 
-    // Update MIDI file playback BEFORE acquiring the lock
+    // Update MIDI file playback
     // This runs in the audio thread for perfect timing (no UI blocking!)
-    // The MIDI event callbacks will acquire the lock themselves
+    // The MIDI event callbacks send straight to the synths (we hold the lock)
+    uint64_t sequencer_start_ns = samplecrate_latency_now_ns();
     if (performance) {
         // Check for MIDI clock timeout (stop showing [SYNC] but keep BPM)
         // Internal clock continues at last known BPM - we never "fall back"
@@ -2581,8 +2635,8 @@ void audioCallback(void* userdata, Uint8* stream, int len) {
                 // Just clear the [SYNC] indicator - don't disable clock or stop BPM adjustment
                 // Internal clock continues at last known BPM
                 if (midi_clock.active) {
-                    printf("[MIDI CLOCK] Sync lost (no pulses for %llu us) - continuing at last BPM %.1f\n",
-                           (unsigned long long)time_since_last_pulse, midi_clock.smoothed_bpm);
+                    samplecrate_rtlog(RTLOG_LEVEL_INFO, "[MIDI CLOCK] Sync lost (no pulses for %llu us) - continuing at last BPM %.1f",
+                                      (unsigned long long)time_since_last_pulse, midi_clock.smoothed_bpm);
                 }
                 midi_clock.active = false;
 
@@ -2603,18 +2657,16 @@ void audioCallback(void* userdata, Uint8* stream, int len) {
         if (sequencer && medness_sequencer_is_active(sequencer)) {
             // Update sequencer - always advances based on internal clock at current BPM
             // MIDI clock pulses adjust the BPM but don't directly control position
-            current_pulse = medness_sequencer_update(sequencer, frames, 44100);
+            current_pulse = medness_sequencer_update(sequencer, frames, engine->sample_rate);
 
             // Debug: log first 10 pulses immediately, then every 96 pulses
             static int debug_pulse_count = 0;
             static int last_debug_pulse = -1;
             if (current_pulse >= 0 && (debug_pulse_count < 10 || current_pulse / 96 != last_debug_pulse / 96)) {
                 float sequencer_bpm = medness_sequencer_get_bpm(sequencer);
-                std::cout << "[SEQUENCER] pulse=" << current_pulse
-                          << " row=" << medness_sequencer_get_row(sequencer)
-                          << " BPM=" << sequencer_bpm
-                          << " (external_clock=" << (midi_clock.active ? "YES" : "NO") << ")"
-                          << std::endl;
+                samplecrate_rtlog(RTLOG_LEVEL_DEBUG, "[SEQUENCER] pulse=%d row=%d BPM=%g (external_clock=%s)",
+                                  current_pulse, medness_sequencer_get_row(sequencer), sequencer_bpm,
+                                  midi_clock.active ? "YES" : "NO");
                 last_debug_pulse = current_pulse;
                 if (debug_pulse_count < 10) debug_pulse_count++;
             }
@@ -2622,132 +2674,89 @@ void audioCallback(void* userdata, Uint8* stream, int len) {
             // Debug: why isn't sequencer updating?
             static int stuck_count = 0;
             if (stuck_count < 3) {
-                std::cout << "[SEQUENCER] NOT ACTIVE or external_clock stuck (active="
-                          << medness_sequencer_is_active(sequencer)
-                          << " midi_clock.active=" << midi_clock.active << ")" << std::endl;
+                samplecrate_rtlog(RTLOG_LEVEL_DEBUG, "[SEQUENCER] NOT ACTIVE or external_clock stuck (active=%d midi_clock.active=%d)",
+                                  medness_sequencer_is_active(sequencer), (int)midi_clock.active);
                 stuck_count++;
             }
         }
 
         // Update unified performance manager (handles both pads and sequences)
-        medness_performance_update_samples(performance, frames, 44100, current_pulse);
+        medness_performance_update_samples(performance, frames, engine->sample_rate, current_pulse);
 
         // Update sequence manager (for multi-phrase sequences triggered via sequence_manager)
         if (sequence_manager) {
-            medness_performance_update_samples(sequence_manager, frames, 44100, current_pulse);
+            medness_performance_update_samples(sequence_manager, frames, engine->sample_rate, current_pulse);
         }
     }
+    samplecrate_latency_add_stage(latency_monitor, LATENCY_STAGE_SEQUENCER, samplecrate_latency_now_ns() - sequencer_start_ns);
 
-    std::lock_guard<std::mutex> lock(synth_mutex);
-
-    // Create temporary buffers for left and right channels
-    std::vector<float> left(frames, 0.0f);
-    std::vector<float> right(frames, 0.0f);
-
-    // If we have multiple program synths loaded, mix them all together
-    if (rsx && rsx->num_programs > 0) {
-        std::vector<float> prog_left(frames);
-        std::vector<float> prog_right(frames);
+    // Send live MIDI/UI events queued since the last block
+    samplecrate_engine_dispatch_events(engine, frames, engine->sample_rate);
 
-        for (int i = 0; i < rsx->num_programs; i++) {
-            if (!program_synths[i]) continue;
+    // Mix all programs, FX and master through the engine (no heap traffic on this thread)
+    samplecrate_engine_render_interleaved(engine, out, frames);
 
-            // Clear program buffers
-            std::fill(prog_left.begin(), prog_left.end(), 0.0f);
-            std::fill(prog_right.begin(), prog_right.end(), 0.0f);
-            float* prog_channels[2] = { prog_left.data(), prog_right.data() };
-
-            // Render this program's audio
-            sfizz_render_block(program_synths[i], prog_channels, 2, frames);
-
-            // Apply per-program FX if enabled (pre-fader)
-            if (engine->effects_program[i] && mixer.program_fx_enable[i]) {
-                std::vector<int16_t> int16_buf(frames * 2);
-                for (int j = 0; j < frames; j++) {
-                    int16_buf[j * 2] = static_cast<int16_t>(prog_left[j] * 32767.0f);
-                    int16_buf[j * 2 + 1] = static_cast<int16_t>(prog_right[j] * 32767.0f);
-                }
-                regroove_effects_process(engine->effects_program[i], int16_buf.data(), frames, 44100);
-                for (int j = 0; j < frames; j++) {
-                    prog_left[j] = int16_buf[j * 2] / 32767.0f;
-                    prog_right[j] = int16_buf[j * 2 + 1] / 32767.0f;
-                }
-            }
-
-            // Apply per-program pan
-            float prog_pan = mixer.program_pans[i];
-            float prog_left_gain = 1.0f - prog_pan;
-            float prog_right_gain = prog_pan;
-
-            // Apply per-program volume and mute
-            float prog_vol = mixer.program_mutes[i] ? 0.0f : mixer.program_volumes[i];
-            for (int j = 0; j < frames; j++) {
-                prog_left[j] *= prog_vol * prog_left_gain;
-                prog_right[j] *= prog_vol * prog_right_gain;
-            }
+    // Callback time against the block's deadline (drives the adaptive block size)
+    samplecrate_latency_record(latency_monitor, frames, engine->sample_rate, samplecrate_latency_now_ns() - callback_start_ns);
+}
 
-            // Mix into main buffers
-            for (int j = 0; j < frames; j++) {
-                left[j] += prog_left[j];
-                right[j] += prog_right[j];
-            }
-        }
-    } else if (synth) {
-        // Single synth mode (no programs)
-        float* channels[2] = { left.data(), right.data() };
-        sfizz_render_block(synth, channels, 2, frames);
+// Open (or reopen) the configured audio device with a block of buffer_frames frames
+// The engine adopts the rate and block size the device actually opens with
+// Returns 0 on success, -1 if no device could be opened
+static int open_audio_output(int buffer_frames) {
+    if (current_audio_device_id != 0) {
+        SDL_CloseAudioDevice(current_audio_device_id);
+        current_audio_device_id = 0;
     }
 
-    // Apply playback volume and pan
-    // Pan: 0.0 = left, 0.5 = center (both at 100%), 1.0 = right
-    float playback_vol = mixer.playback_mute ? 0.0f : mixer.playback_volume;
-    float playback_pan = mixer.playback_pan;
-
-    // Constant-power panning: center should be full volume on both channels
-    float playback_left_gain = playback_vol * (playback_pan <= 0.5f ? 1.0f : (1.0f - (playback_pan - 0.5f) * 2.0f));
-    float playback_right_gain = playback_vol * (playback_pan >= 0.5f ? 1.0f : (playback_pan * 2.0f));
+    // Rate and block size are only preferences: the engine adopts whatever the device opens with
+    SDL_AudioSpec spec;
+    SDL_zero(spec);
+    spec.freq = ENGINE_DEFAULT_SAMPLE_RATE;
+    spec.format = AUDIO_F32SYS;
+    spec.channels = 2;
+    spec.samples = (Uint16)samplecrate_latency_valid_frames(buffer_frames);
+    spec.callback = audioCallback;
+    spec.userdata = nullptr;
 
-    for (int i = 0; i < frames; i++) {
-        left[i] *= playback_left_gain;
-        right[i] *= playback_right_gain;
+    // Determine which audio device to use
+    const char* device_to_open = nullptr;
+    if (config.audio_device >= 0 && config.audio_device < num_audio_devices) {
+        device_to_open = SDL_GetAudioDeviceName(config.audio_device, 0);
+        std::cout << "Using configured audio device " << config.audio_device << ": " << device_to_open << std::endl;
+    } else {
+        std::cout << "Using default audio device" << std::endl;
     }
 
-    // Apply master volume and pan
-    float master_vol = mixer.master_mute ? 0.0f : mixer.master_volume;
-    float master_pan = mixer.master_pan;
-
-    // Constant-power panning: center should be full volume on both channels
-    float master_left_gain = master_vol * (master_pan <= 0.5f ? 1.0f : (1.0f - (master_pan - 0.5f) * 2.0f));
-    float master_right_gain = master_vol * (master_pan >= 0.5f ? 1.0f : (master_pan * 2.0f));
-
-    for (int i = 0; i < frames; i++) {
-        left[i] *= master_left_gain;
-        right[i] *= master_right_gain;
+    // Open audio device (SDL_OpenAudioDevice with NULL uses default)
+    current_audio_device_id = SDL_OpenAudioDevice(device_to_open, 0, &spec, &audio_spec,
+                                                  SDL_AUDIO_ALLOW_FREQUENCY_CHANGE | SDL_AUDIO_ALLOW_SAMPLES_CHANGE);
+    if (current_audio_device_id == 0) {
+        std::cerr << "Failed to open audio device: " << SDL_GetError() << std::endl;
+        SDL_zero(audio_spec);
+        return -1;
     }
 
-    // Apply master effects if enabled
-    if (effects_master && mixer.master_fx_enable) {
-        // Convert float to int16 for effects
-        std::vector<int16_t> int16_buf(frames * 2);
-        for (int i = 0; i < frames; i++) {
-            int16_buf[i * 2] = static_cast<int16_t>(left[i] * 32767.0f);
-            int16_buf[i * 2 + 1] = static_cast<int16_t>(right[i] * 32767.0f);
-        }
-
-        regroove_effects_process(effects_master, int16_buf.data(), frames, 44100);
+    std::cout << "Audio opened successfully" << std::endl;
+    std::cout << "Sample rate: " << audio_spec.freq << " Hz" << std::endl;
+    std::cout << "Channels: " << (int)audio_spec.channels << std::endl;
+    std::cout << "Buffer size: " << audio_spec.samples << " samples" << std::endl;
 
-        // Convert back to float
-        for (int i = 0; i < frames; i++) {
-            left[i] = int16_buf[i * 2] / 32767.0f;
-            right[i] = int16_buf[i * 2 + 1] / 32767.0f;
-        }
+    // Size the engine's render buses and set its rate for the device before audio starts
+    if (samplecrate_engine_prepare_audio(engine, audio_spec.samples, audio_spec.freq) != 0) {
+        std::cerr << "Failed to prepare engine for audio - output will be silent" << std::endl;
     }
+    samplecrate_engine_set_render_threads(engine, config.render_threads);
+    SDL_PauseAudioDevice(current_audio_device_id, 0);  // Start audio
+    return 0;
+}
 
-    // Interleave the channels into the output buffer
-    for (int i = 0; i < frames; i++) {
-        out[i * 2] = left[i];
-        out[i * 2 + 1] = right[i];
-    }
+// Format the LCD DSP status line: smoothed load, peak load and deadline misses
+static void format_dsp_status(char* buffer, size_t size) {
+    SamplecrateLatencyStats stats;
+    samplecrate_latency_get_stats(latency_monitor, &stats);
+    snprintf(buffer, size, "DSP:%3.0f%% Pk:%3.0f%% X:%u",
+             stats.load * 100.0f, stats.peak_load * 100.0f, stats.deadline_misses);
 }
 
 // MIDI file loop restart callback - triggers visual blink
@@ -2782,15 +2791,8 @@ void pad_visual_feedback(int pad_index, int note, int velocity, int on) {
 }
 
 // MIDI file player callback for sequences (not pads)
-// Context for MIDI callbacks - includes sequence index and program number
-struct SequenceMIDIContext {
-    int seq_index;   // Sequence index (for mute/solo checking)
-    int program;     // Target program number
-};
-
-void midi_file_event_callback(int note, int velocity, int on, void* userdata) {
-    std::lock_guard<std::mutex> lock(synth_mutex);
-
+// Called from the audio thread (sequence playback), which already holds synth_mutex
+void midi_file_event_callback(int note, int velocity, int on, int frame_offset, void* userdata) {
     // Extract sequence index and program from userdata
     int seq_index = -1;
     int target_program = current_program;  // Default: follow UI
@@ -2822,14 +2824,29 @@ void midi_file_event_callback(int note, int velocity, int on, void* userdata) {
     sfizz_synth_t* target_synth = program_synths[target_program];
     if (target_synth) {
         if (on) {
-            sfizz_send_note_on(target_synth, 0, note, velocity);
+            sfizz_send_note_on(target_synth, frame_offset, note, velocity);
         } else {
-            sfizz_send_note_off(target_synth, 0, note, 0);
+            sfizz_send_note_off(target_synth, frame_offset, note, 0);
         }
+        samplecrate_engine_wake_program(engine, target_program);
     }
 }
 
 int main(int argc, char* argv[]) {
+    // Messages from the audio thread go through the RT log ring, printed by this thread
+    samplecrate_rtlog_start();
+
+    // Offline bounce mode: no SDL audio, no UI, render as fast as possible
+    if (samplecrate_render_requested(argc, argv)) {
+        SamplecrateRenderOptions render_opts;
+        int render_result = 1;
+        if (samplecrate_render_parse_args(argc, argv, &render_opts) == 0) {
+            render_result = samplecrate_render_run(&render_opts) == 0 ? 0 : 1;
+        }
+        samplecrate_rtlog_stop();
+        return render_result;
+    }
+
     // Force internal clock mode at startup (reset any stale MIDI clock state)
     midi_clock.active = false;
     midi_clock.running = false;
@@ -2982,6 +2999,9 @@ int main(int argc, char* argv[]) {
     // Load config (before engine creation so we can apply defaults)
     samplecrate_config_init(&config);
     samplecrate_config_load(&config, "samplecrate.ini");
+    samplecrate_rtlog_set_level(config.log_level);
+    medness_track_cache_set_enabled(config.track_cache);
+    medness_track_cache_set_dir(config.track_cache_dir);
 
     // Load expanded pads setting from config
     expanded_pads = (config.expanded_pads != 0);
@@ -3033,32 +3053,33 @@ int main(int argc, char* argv[]) {
         regroove_effects_set_delay_mix(effects_master, config.fx_delay_mix);
     }
 
-    // Apply config defaults to per-program effects
-    for (int i = 0; i < RSX_MAX_PROGRAMS; i++) {
-        if (engine->effects_program[i]) {
-            regroove_effects_set_distortion_drive(engine->effects_program[i], config.fx_distortion_drive);
-            regroove_effects_set_distortion_mix(engine->effects_program[i], config.fx_distortion_mix);
-            regroove_effects_set_filter_cutoff(engine->effects_program[i], config.fx_filter_cutoff);
-            regroove_effects_set_filter_resonance(engine->effects_program[i], config.fx_filter_resonance);
-            regroove_effects_set_eq_low(engine->effects_program[i], config.fx_eq_low);
-            regroove_effects_set_eq_mid(engine->effects_program[i], config.fx_eq_mid);
-            regroove_effects_set_eq_high(engine->effects_program[i], config.fx_eq_high);
-            regroove_effects_set_compressor_threshold(engine->effects_program[i], config.fx_compressor_threshold);
-            regroove_effects_set_compressor_ratio(engine->effects_program[i], config.fx_compressor_ratio);
-            regroove_effects_set_compressor_attack(engine->effects_program[i], config.fx_compressor_attack);
-            regroove_effects_set_compressor_release(engine->effects_program[i], config.fx_compressor_release);
-            regroove_effects_set_compressor_makeup(engine->effects_program[i], config.fx_compressor_makeup);
-            regroove_effects_set_phaser_rate(engine->effects_program[i], config.fx_phaser_rate);
-            regroove_effects_set_phaser_depth(engine->effects_program[i], config.fx_phaser_depth);
-            regroove_effects_set_phaser_feedback(engine->effects_program[i], config.fx_phaser_feedback);
-            regroove_effects_set_reverb_room_size(engine->effects_program[i], config.fx_reverb_room_size);
-            regroove_effects_set_reverb_damping(engine->effects_program[i], config.fx_reverb_damping);
-            regroove_effects_set_reverb_mix(engine->effects_program[i], config.fx_reverb_mix);
-            regroove_effects_set_delay_time(engine->effects_program[i], config.fx_delay_time);
-            regroove_effects_set_delay_feedback(engine->effects_program[i], config.fx_delay_feedback);
-            regroove_effects_set_delay_mix(engine->effects_program[i], config.fx_delay_mix);
-        }
+    // Config defaults for per-program effects (used when a program's chain is first created)
+    {
+        RSXEffectsSettings* prog_fx = &engine->program_fx_defaults;
+        prog_fx->distortion_drive = config.fx_distortion_drive;
+        prog_fx->distortion_mix = config.fx_distortion_mix;
+        prog_fx->filter_cutoff = config.fx_filter_cutoff;
+        prog_fx->filter_resonance = config.fx_filter_resonance;
+        prog_fx->eq_low = config.fx_eq_low;
+        prog_fx->eq_mid = config.fx_eq_mid;
+        prog_fx->eq_high = config.fx_eq_high;
+        prog_fx->compressor_threshold = config.fx_compressor_threshold;
+        prog_fx->compressor_ratio = config.fx_compressor_ratio;
+        prog_fx->compressor_attack = config.fx_compressor_attack;
+        prog_fx->compressor_release = config.fx_compressor_release;
+        prog_fx->compressor_makeup = config.fx_compressor_makeup;
+        prog_fx->phaser_rate = config.fx_phaser_rate;
+        prog_fx->phaser_depth = config.fx_phaser_depth;
+        prog_fx->phaser_feedback = config.fx_phaser_feedback;
+        prog_fx->reverb_room_size = config.fx_reverb_room_size;
+        prog_fx->reverb_damping = config.fx_reverb_damping;
+        prog_fx->reverb_mix = config.fx_reverb_mix;
+        prog_fx->delay_time = config.fx_delay_time;
+        prog_fx->delay_feedback = config.fx_delay_feedback;
+        prog_fx->delay_mix = config.fx_delay_mix;
     }
+    samplecrate_engine_set_reverb_shared(engine, config.reverb_shared);
+    samplecrate_engine_set_aux_buses(engine, config.aux_buses);
 
     // Note: performance is now created by the engine, accessed via macro
     // Callbacks for pads are set individually per-pad (each with its own context)
@@ -3096,36 +3117,8 @@ int main(int argc, char* argv[]) {
         }
     }
 
-    // Apply mixer and effects settings from RSX if loaded (via engine accessor)
-    if (rsx && rsx->num_programs > 0) {
-        // Apply program volume and pan settings from RSX
-        for (int i = 0; i < rsx->num_programs; i++) {
-            mixer.program_volumes[i] = rsx->program_volumes[i];
-            mixer.program_pans[i] = rsx->program_pans[i];
-            std::cout << "Applied program " << (i + 1) << " settings: volume=" << mixer.program_volumes[i]
-                      << " pan=" << mixer.program_pans[i] << std::endl;
-        }
-
-        // Apply FX chain enable states from RSX
-        mixer.master_fx_enable = rsx->master_fx_enable;
-        for (int i = 0; i < rsx->num_programs; i++) {
-            mixer.program_fx_enable[i] = rsx->program_fx_enable[i];
-        }
-
-        // Apply effects settings from RSX
-        std::cout << "Loading effects settings from RSX..." << std::endl;
-        if (effects_master) {
-            apply_rsx_effects_to_instance(effects_master, &rsx->master_effects);
-            std::cout << "  Master effects loaded from RSX (enabled=" << mixer.master_fx_enable << ")" << std::endl;
-        }
-        for (int i = 0; i < rsx->num_programs; i++) {
-            if (engine->effects_program[i]) {
-                apply_rsx_effects_to_instance(engine->effects_program[i], &rsx->program_effects[i]);
-                std::cout << "  Program " << (i + 1) << " effects loaded from RSX (enabled=" << mixer.program_fx_enable[i] << ")" << std::endl;
-            }
-        }
-        // Note: Note suppression and MIDI pad files are loaded by samplecrate_engine_load_rsx()
-    }
+    // Apply mixer and effects settings from RSX if loaded
+    samplecrate_engine_apply_rsx_mix(engine);
 
     // Enumerate audio output devices
     num_audio_devices = SDL_GetNumAudioDevices(0);  // 0 = output devices
@@ -3136,34 +3129,8 @@ int main(int argc, char* argv[]) {
     }
 
     // Init SDL audio
-    SDL_AudioSpec spec, obtained;
-    spec.freq = 44100;
-    spec.format = AUDIO_F32SYS;
-    spec.channels = 2;
-    spec.samples = 512;
-    spec.callback = audioCallback;
-    spec.userdata = nullptr;
-
-    // Determine which audio device to use
-    const char* device_to_open = nullptr;
-    if (config.audio_device >= 0 && config.audio_device < num_audio_devices) {
-        device_to_open = SDL_GetAudioDeviceName(config.audio_device, 0);
-        std::cout << "Using configured audio device " << config.audio_device << ": " << device_to_open << std::endl;
-    } else {
-        std::cout << "Using default audio device" << std::endl;
-    }
-
-    // Open audio device (SDL_OpenAudioDevice with NULL uses default)
-    current_audio_device_id = SDL_OpenAudioDevice(device_to_open, 0, &spec, &obtained, 0);
-    if (current_audio_device_id == 0) {
-        std::cerr << "Failed to open audio device: " << SDL_GetError() << std::endl;
-    } else {
-        std::cout << "Audio opened successfully" << std::endl;
-        std::cout << "Sample rate: " << obtained.freq << " Hz" << std::endl;
-        std::cout << "Channels: " << (int)obtained.channels << std::endl;
-        std::cout << "Buffer size: " << obtained.samples << " samples" << std::endl;
-        SDL_PauseAudioDevice(current_audio_device_id, 0);  // Start audio
-    }
+    config.audio_buffer_frames = samplecrate_latency_valid_frames(config.audio_buffer_frames);
+    open_audio_output(config.audio_buffer_frames);
 
     // Initialize input mappings and load from config
     input_mappings = input_mappings_create();
@@ -3232,7 +3199,30 @@ int main(int argc, char* argv[]) {
     int note = 60, velocity = 100;
     bool playing = true;
     SDL_Event event;
+    int adaptive_floor_frames = 0;  // Smallest block the device actually accepted when stepping down
     while (playing) {
+        // Adaptive buffer: follow the callback overrun monitor
+        // (reopening the device is the only way to change its block size)
+        if (config.audio_buffer_adaptive && current_audio_device_id != 0) {
+            int previous_frames = audio_spec.samples;
+            int min_frames = std::max(config.audio_buffer_frames, adaptive_floor_frames);
+            int next_frames = samplecrate_latency_adapt(latency_monitor, previous_frames, min_frames, LATENCY_MAX_FRAMES);
+            if (next_frames != previous_frames) {
+                std::cout << "[LATENCY] " << (next_frames > previous_frames ? "Overruns" : "Stable")
+                          << " - audio buffer " << previous_frames << " -> " << next_frames << " frames" << std::endl;
+                open_audio_output(next_frames);
+                if (next_frames < previous_frames && audio_spec.samples >= previous_frames) {
+                    adaptive_floor_frames = audio_spec.samples;  // Device will not go any lower
+                }
+            }
+        }
+
+        // Apply a program change requested by sequence playback
+        int requested_program = pending_program_switch.exchange(-1);
+        if (requested_program >= 0) {
+            switch_program(requested_program);
+        }
+
         while (SDL_PollEvent(&event)) {
             ImGui_ImplSDL2_ProcessEvent(&event);
             if (event.type == SDL_QUIT) playing = false;
@@ -3475,7 +3465,11 @@ int main(int argc, char* argv[]) {
                         snprintf(line2, sizeof(line2), "%s R:%02d", bpm_str, row_pos);
                     }
 
-                    snprintf(lcd_text, sizeof(lcd_text), "%s\n%s", line1, line2);
+                    // Line 3: DSP load + deadline misses
+                    char line3[64];
+                    format_dsp_status(line3, sizeof(line3));
+
+                    snprintf(lcd_text, sizeof(lcd_text), "%s\n%s\n%s", line1, line2, line3);
                     lcd_write(lcd_display, lcd_text);
                 }
                 // Show file browser when file_list exists (no RSX loaded yet)
@@ -3538,7 +3532,11 @@ int main(int argc, char* argv[]) {
                         snprintf(line2, sizeof(line2), "%s R:%02d", bpm_str, row_pos);
                     }
 
-                    snprintf(lcd_text, sizeof(lcd_text), "%s\n%s", line1, line2);
+                    // Line 3: DSP load + deadline misses
+                    char line3[64];
+                    format_dsp_status(line3, sizeof(line3));
+
+                    snprintf(lcd_text, sizeof(lcd_text), "%s\n%s\n%s", line1, line2, line3);
                     lcd_write(lcd_display, lcd_text);
                 }
 
@@ -4364,17 +4362,16 @@ int main(int argc, char* argv[]) {
                         if (pad->note >= 0) {
                             int velocity = pad->velocity > 0 ? pad->velocity : 100;
 
-                            // Determine which synth to use based on pad's program setting
-                            sfizz_synth_t* target_synth = synth;  // Default to current synth
+                            // Determine which program to use based on pad's program setting
+                            int target_prog = current_program;  // Default to current program
                             if (pad->program >= 0 && pad->program < rsx->num_programs && program_synths[pad->program]) {
-                                target_synth = program_synths[pad->program];
+                                target_prog = pad->program;
                             }
 
-                            std::lock_guard<std::mutex> lock(synth_mutex);
-                            if (target_synth) {
+                            if (program_synths[target_prog]) {
                                 // For test button, just send note_on
                                 // The SFZ file's envelope/release settings will control the sound
-                                sfizz_send_note_on(target_synth, 0, pad->note, velocity);
+                                samplecrate_engine_queue_event(engine, ENGINE_INPUT_UI, EVENT_NOTE_ON, target_prog, pad->note, velocity);
 
                                 current_note = pad->note;
                                 current_velocity = velocity;
@@ -5055,7 +5052,15 @@ int main(int argc, char* argv[]) {
             }
             else if (ui_mode == UI_MODE_EFFECTS) {
                 // EFFECTS MODE: Effect parameters (matching mock-ui.cpp layout)
-                RegrooveEffects* effects = get_current_effects();
+                // Programs without a chain are edited in the scratch chain; the real chain
+                // is only created once something changes
+                RegrooveEffects* effects = get_current_effects_for_display();
+                bool effects_scratch = effects && effects == fx_panel_scratch;
+                RSXEffectsSettings scratch_before;
+                if (effects_scratch) {
+                    memset(&scratch_before, 0, sizeof(scratch_before));
+                    save_instance_to_rsx_effects(effects, &scratch_before);
+                }
 
                 // Show FX mode header
                 if (fx_mode == FX_MODE_MASTER) {
@@ -5562,6 +5567,20 @@ int main(int argc, char* argv[]) {
                         col_index++;
                     }
                 }
+
+                // The panel changed a program that had no chain: create it with the new settings
+                if (effects_scratch) {
+                    RSXEffectsSettings scratch_after;
+                    memset(&scratch_after, 0, sizeof(scratch_after));
+                    save_instance_to_rsx_effects(effects, &scratch_after);
+                    if (memcmp(&scratch_before, &scratch_after, sizeof(scratch_after)) != 0) {
+                        RegrooveEffects* prog_fx = samplecrate_engine_get_program_effects(engine, current_program);
+                        if (prog_fx) {
+                            samplecrate_engine_apply_effects_settings(prog_fx, &scratch_after);
+                            autosave_effects_to_rsx();
+                        }
+                    }
+                }
             }
             else if (ui_mode == UI_MODE_PADS) {
                 // PADS MODE: Show note trigger pads
@@ -5910,14 +5929,13 @@ int main(int argc, char* argv[]) {
                                     target_synth = program_synths[target_prog];
                                 }
 
-                                std::lock_guard<std::mutex> lock(synth_mutex);
                                 if (target_synth) {
-                                    sfizz_send_note_on(target_synth, 0, pad->note, velocity);
+                                    samplecrate_engine_queue_event(engine, ENGINE_INPUT_UI, EVENT_NOTE_ON, actual_program, pad->note, velocity);
 
                                     // Track which pad/note is held for note_off on release
                                     held_pad_index = pad_idx;
                                     held_pad_note = pad->note;
-                                    held_pad_synth = target_synth;
+                                    held_pad_program = actual_program;
 
                                     current_note = pad->note;
                                     current_velocity = velocity;
@@ -5936,13 +5954,12 @@ int main(int argc, char* argv[]) {
                             }
                         } else if (!is_active && was_held) {
                             // Button just released - send note_off
-                            std::lock_guard<std::mutex> lock(synth_mutex);
-                            if (held_pad_synth && held_pad_note >= 0) {
-                                sfizz_send_note_off(held_pad_synth, 0, held_pad_note, 0);
+                            if (held_pad_program >= 0 && held_pad_note >= 0) {
+                                samplecrate_engine_queue_event(engine, ENGINE_INPUT_UI, EVENT_NOTE_OFF, held_pad_program, held_pad_note, 0);
                             }
                             held_pad_index = -1;
                             held_pad_note = -1;
-                            held_pad_synth = nullptr;
+                            held_pad_program = -1;
                         } else if (is_active && !pad_configured && !learn_mode_active) {
                             // Clicked on unconfigured pad - do nothing
                         } else if (is_active && learn_mode_active) {
@@ -6523,6 +6540,9 @@ int main(int argc, char* argv[]) {
                                         strncpy(new_phrase->name, midi_files[selected_file_idx].c_str(), sizeof(new_phrase->name) - 1);
                                         new_phrase->name[sizeof(new_phrase->name) - 1] = '\0';
                                         new_phrase->loop_count = 1;
+                                        new_phrase->length_bars = 0;
+                                        new_phrase->time_sig_num = 0;
+                                        new_phrase->time_sig_den = 0;
                                         seq_def->num_phrases++;
                                         reload_sequences();
                                         std::cout << "[SEQ UI] Added phrase: " << new_phrase->midi_file << std::endl;
@@ -7257,9 +7277,170 @@ int main(int argc, char* argv[]) {
                 ImGui::Spacing();
 
                 // Show current audio device info
-                ImGui::Text("Sample Rate: %d Hz", obtained.freq);
-                ImGui::Text("Channels: %d", (int)obtained.channels);
-                ImGui::Text("Buffer Size: %d samples", obtained.samples);
+                ImGui::Text("Sample Rate: %d Hz", audio_spec.freq);
+                ImGui::Text("Channels: %d", (int)audio_spec.channels);
+                ImGui::Text("Buffer Size: %d samples", audio_spec.samples);
+                if (audio_spec.freq > 0) {
+                    ImGui::Text("Latency: %.1f ms", audio_spec.samples * 1000.0f / audio_spec.freq);
+                }
+
+                ImGui::Spacing();
+                ImGui::Separator();
+                ImGui::Spacing();
+
+                // Block size (latency) selection - applied immediately by reopening the device
+                ImGui::Text("Audio Buffer Size:");
+                ImGui::Spacing();
+                ImGui::PushItemWidth(200.0f);
+                char buffer_preview[32];
+                snprintf(buffer_preview, sizeof(buffer_preview), "%d frames", config.audio_buffer_frames);
+                if (ImGui::BeginCombo("##audio_buffer", buffer_preview)) {
+                    for (int frames = LATENCY_MIN_FRAMES; frames <= LATENCY_MAX_FRAMES; frames *= 2) {
+                        char label[32];
+                        snprintf(label, sizeof(label), "%d frames", frames);
+                        if (ImGui::Selectable(label, config.audio_buffer_frames == frames)) {
+                            config.audio_buffer_frames = frames;
+                            samplecrate_config_save(&config, "samplecrate.ini");
+                            open_audio_output(config.audio_buffer_frames);
+                        }
+                    }
+                    ImGui::EndCombo();
+                }
+                ImGui::PopItemWidth();
+
+                bool adaptive_buffer = (config.audio_buffer_adaptive == 1);
+                if (ImGui::Checkbox("Adaptive buffer size", &adaptive_buffer)) {
+                    config.audio_buffer_adaptive = adaptive_buffer ? 1 : 0;
+                    samplecrate_config_save(&config, "samplecrate.ini");
+                    if (!adaptive_buffer && audio_spec.samples != config.audio_buffer_frames) {
+                        open_audio_output(config.audio_buffer_frames);
+                    }
+                }
+                ImGui::SameLine();
+                ImGui::TextColored(ImVec4(0.6f, 0.6f, 0.6f, 1.0f), "(?)");
+                if (ImGui::IsItemHovered()) {
+                    ImGui::SetTooltip("When ENABLED: the buffer doubles when the audio callback overruns its deadline\n"
+                                      "and halves again (down to the size above) after %d seconds without overruns.\n"
+                                      "When DISABLED: the buffer stays at the size above.", LATENCY_STEP_DOWN_SECONDS);
+                }
+
+                ImGui::Spacing();
+                ImGui::Separator();
+                ImGui::Spacing();
+
+                // DSP meter: audio callback time against its deadline
+                ImGui::Text("DSP LOAD");
+                ImGui::Spacing();
+
+                SamplecrateLatencyStats latency_stats;
+                samplecrate_latency_get_stats(latency_monitor, &latency_stats);
+
+                char load_label[32];
+                snprintf(load_label, sizeof(load_label), "%.0f%%", latency_stats.load * 100.0f);
+                ImVec4 load_color = latency_stats.peak_load > LATENCY_OVERRUN_LOAD ? ImVec4(0.9f, 0.2f, 0.2f, 1.0f)
+                                  : latency_stats.peak_load > 0.6f ? ImVec4(0.9f, 0.7f, 0.2f, 1.0f)
+                                  : ImVec4(0.2f, 0.7f, 0.3f, 1.0f);
+                ImGui::PushStyleColor(ImGuiCol_PlotHistogram, load_color);
+                ImGui::ProgressBar(latency_stats.load > 1.0f ? 1.0f : latency_stats.load, ImVec2(400.0f, 0.0f), load_label);
+                ImGui::PopStyleColor();
+
+                ImGui::Text("Peak: %.0f%%   Deadline: %.0f us", latency_stats.peak_load * 100.0f, latency_stats.deadline_us);
+                ImGui::Text("Overruns (>%.0f%%): %u   Deadline misses: %u   Blocks: %u",
+                            LATENCY_OVERRUN_LOAD * 100.0f, latency_stats.overruns,
+                            latency_stats.deadline_misses, latency_stats.blocks);
+                ImGui::Spacing();
+
+                // Rolling timings over the last LATENCY_HISTORY_BLOCKS callbacks (microseconds)
+                static const char* stage_names[LATENCY_NUM_STAGES] = {
+                    "Sequencer", "Synths", "Program FX", "Aux FX", "Master FX"
+                };
+                ImGui::Columns(5, "dsp_timing_table", true);
+                ImGui::Text("Stage (us)");
+                ImGui::NextColumn();
+                ImGui::Text("Min");
+                ImGui::NextColumn();
+                ImGui::Text("Avg");
+                ImGui::NextColumn();
+                ImGui::Text("P99");
+                ImGui::NextColumn();
+                ImGui::Text("Max");
+                ImGui::NextColumn();
+                ImGui::Separator();
+                for (int row = -1; row < LATENCY_NUM_STAGES; row++) {
+                    const SamplecrateLatencyTiming* timing = row < 0 ? &latency_stats.total : &latency_stats.stages[row];
+                    ImGui::Text("%s", row < 0 ? "Callback" : stage_names[row]);
+                    ImGui::NextColumn();
+                    ImGui::Text("%.1f", timing->min_us);
+                    ImGui::NextColumn();
+                    ImGui::Text("%.1f", timing->avg_us);
+                    ImGui::NextColumn();
+                    ImGui::Text("%.1f", timing->p99_us);
+                    ImGui::NextColumn();
+                    ImGui::Text("%.1f", timing->max_us);
+                    ImGui::NextColumn();
+                }
+                ImGui::Columns(1);
+
+                // Per-program breakdown of the Synths and Program FX stages (loaded programs only)
+                if (rsx && rsx->num_programs > 0) {
+                    ImGui::Spacing();
+                    ImGui::Columns(5, "dsp_program_table", true);
+                    ImGui::Text("Program (us)");
+                    ImGui::NextColumn();
+                    ImGui::Text("Synth Last");
+                    ImGui::NextColumn();
+                    ImGui::Text("Synth Avg");
+                    ImGui::NextColumn();
+                    ImGui::Text("FX Last");
+                    ImGui::NextColumn();
+                    ImGui::Text("FX Avg");
+                    ImGui::NextColumn();
+                    ImGui::Separator();
+                    for (int i = 0; i < rsx->num_programs && i < LATENCY_MAX_PROGRAMS; i++) {
+                        if (!program_synths[i]) continue;
+                        const SamplecrateLatencyProgramTiming* timing = &latency_stats.programs[i];
+                        if (rsx->program_names[i][0] != '\0') {
+                            ImGui::Text("%d: %s", i + 1, rsx->program_names[i]);
+                        } else {
+                            ImGui::Text("%d", i + 1);
+                        }
+                        ImGui::NextColumn();
+                        ImGui::Text("%.1f", timing->synth_last_us);
+                        ImGui::NextColumn();
+                        ImGui::Text("%.1f", timing->synth_avg_us);
+                        ImGui::NextColumn();
+                        ImGui::Text("%.1f", timing->fx_last_us);
+                        ImGui::NextColumn();
+                        ImGui::Text("%.1f", timing->fx_avg_us);
+                        ImGui::NextColumn();
+                    }
+                    ImGui::Columns(1);
+                }
+
+                ImGui::Spacing();
+                ImGui::Separator();
+                ImGui::Spacing();
+
+                // Console log level (applies to all threads, including the audio callback)
+                ImGui::Text("Log Level:");
+                ImGui::SameLine();
+                ImGui::PushItemWidth(150.0f);
+                if (ImGui::BeginCombo("##log_level", samplecrate_rtlog_level_name(config.log_level))) {
+                    for (int level = 0; level < RTLOG_NUM_LEVELS; level++) {
+                        if (ImGui::Selectable(samplecrate_rtlog_level_name(level), config.log_level == level)) {
+                            config.log_level = level;
+                            samplecrate_rtlog_set_level(level);
+                            samplecrate_config_save(&config, "samplecrate.ini");
+                        }
+                    }
+                    ImGui::EndCombo();
+                }
+                ImGui::PopItemWidth();
+                uint32_t log_dropped = samplecrate_rtlog_dropped();
+                if (log_dropped > 0) {
+                    ImGui::SameLine();
+                    ImGui::TextColored(ImVec4(0.9f, 0.7f, 0.2f, 1.0f), "%u messages dropped", log_dropped);
+                }
 
                 ImGui::Spacing();
                 ImGui::Separator();
@@ -7401,6 +7582,8 @@ int main(int argc, char* argv[]) {
         engine = nullptr;
         // Note: synth, program_synths, rsx, performance, effects are all owned by engine
     }
+    regroove_effects_destroy(fx_panel_scratch);
+    fx_panel_scratch = nullptr;
 
     // Cleanup MIDI and input mappings
     midi_deinit();
@@ -7418,5 +7601,6 @@ int main(int argc, char* argv[]) {
     SDL_GL_DeleteContext(gl_context);
     SDL_DestroyWindow(window);
     SDL_Quit();
+    samplecrate_rtlog_stop();
     return 0;
 }
@@ -1,17 +1,12 @@
 #include "medness_performance.h"
 #include "medness_sequencer.h"
+#include "samplecrate_rtlog.h"
 #include <string.h>
 #include <stdio.h>
 #include <stdlib.h>
 #include <libgen.h>
 #include <iostream>
 
-// Context for MIDI callbacks - includes sequence index and program number
-struct SequenceMIDIContext {
-    int seq_index;   // Sequence index (for mute/solo checking)
-    int program;     // Target program number
-};
-
 // Queued sequence info
 typedef struct {
     int active;           // Is this queue entry active?
@@ -189,10 +184,14 @@ int medness_performance_load_from_rsx(MednessPerformance* manager,
             std::cout << "  Adding phrase " << p << ": " << phrase->name
                       << " (loops: " << phrase->loop_count << ")" << std::endl;
 
-            if (medness_sequence_add_phrase(seq, full_path,
-                                               phrase->loop_count,
-                                               phrase->name) < 0) {
+            int phrase_index = medness_sequence_add_phrase(seq, full_path,
+                                                           phrase->loop_count,
+                                                           phrase->name);
+            if (phrase_index < 0) {
                 std::cerr << "  Failed to load phrase: " << phrase->name << " (" << full_path << ")" << std::endl;
+            } else {
+                medness_sequence_set_phrase_length(seq, phrase_index, phrase->length_bars,
+                                                   phrase->time_sig_num, phrase->time_sig_den);
             }
         }
 
@@ -282,13 +281,16 @@ int medness_performance_reload_sequence(MednessPerformance* manager,
         std::cout << "  Adding phrase " << p << ": " << phrase->name
                   << " (loops: " << phrase->loop_count << ")" << std::endl;
 
-        if (medness_sequence_add_phrase(seq, full_path,
-                                           phrase->loop_count,
-                                           phrase->name) < 0) {
+        int phrase_index = medness_sequence_add_phrase(seq, full_path,
+                                                       phrase->loop_count,
+                                                       phrase->name);
+        if (phrase_index < 0) {
             std::cerr << "  Failed to load phrase: " << phrase->name << " (" << full_path << ")" << std::endl;
             medness_sequence_destroy(seq);
             return -1;
         }
+        medness_sequence_set_phrase_length(seq, phrase_index, phrase->length_bars,
+                                           phrase->time_sig_num, phrase->time_sig_den);
     }
 
     // Configure sequence
@@ -362,14 +364,14 @@ void medness_performance_play(MednessPerformance* manager, int seq_index, int cu
         }
 
         if (allocated_slot == -1) {
-            std::cerr << "[PAD] No free slots available (all 16 pad slots in use)" << std::endl;
+            samplecrate_rtlog(RTLOG_LEVEL_WARN, "[PAD] No free slots available (all 16 pad slots in use)");
             return;
         }
 
         // Update the sequence's slot assignment
         medness_sequence_set_sequencer(seq, manager->sequencer, allocated_slot);
-        std::cout << "[PAD] Assigned pad " << seq_index << " to dynamic slot " << allocated_slot
-                  << " (P" << (allocated_slot - 15) << ")" << std::endl;
+        samplecrate_rtlog(RTLOG_LEVEL_DEBUG, "[PAD] Assigned pad %d to dynamic slot %d (P%d)",
+                          seq_index, allocated_slot, allocated_slot - 15);
 
         // Start immediately
         medness_sequence_play(seq);
@@ -381,21 +383,20 @@ void medness_performance_play(MednessPerformance* manager, int seq_index, int cu
         // Activate the program associated with this sequence when starting immediately
         if (manager->program_switch_callback) {
             int program = manager->sequence_programs[seq_index];
-            std::cout << "[SEQUENCE MANAGER] Switching to program " << (program + 1)
-                      << " for sequence " << seq_index << std::endl;
+            samplecrate_rtlog(RTLOG_LEVEL_INFO, "[SEQUENCE MANAGER] Switching to program %d for sequence %d",
+                              program + 1, seq_index);
             manager->program_switch_callback(program, manager->program_switch_userdata);
         }
 
         // Start immediately
-        std::cout << "[SEQUENCE MANAGER] Starting sequence " << seq_index << " immediately" << std::endl;
+        samplecrate_rtlog(RTLOG_LEVEL_INFO, "[SEQUENCE MANAGER] Starting sequence %d immediately", seq_index);
         medness_sequence_play(seq);
     } else {
         // Queue for quantized start
         int start_pulse = calculate_next_start_pulse(manager->start_mode, current_pulse);
 
-        std::cout << "[SEQUENCE MANAGER] Queueing sequence " << seq_index
-                  << " to start at pulse " << start_pulse
-                  << " (current: " << current_pulse << ")" << std::endl;
+        samplecrate_rtlog(RTLOG_LEVEL_INFO, "[SEQUENCE MANAGER] Queueing sequence %d to start at pulse %d (current: %d)",
+                          seq_index, start_pulse, current_pulse);
 
         // Find or create queue entry
         int queue_idx = -1;
@@ -439,7 +440,8 @@ void medness_performance_stop(MednessPerformance* manager, int seq_index) {
             if (manager->pad_slot_map[i] == seq_index) {
                 int freed_slot = 16 + i;
                 manager->pad_slot_map[i] = -1;  // Mark slot as free
-                std::cout << "[PAD] Freed slot " << freed_slot << " (P" << (freed_slot - 15) << ") from pad " << seq_index << std::endl;
+                samplecrate_rtlog(RTLOG_LEVEL_DEBUG, "[PAD] Freed slot %d (P%d) from pad %d",
+                                  freed_slot, freed_slot - 15, seq_index);
                 break;
             }
         }
@@ -583,14 +585,14 @@ void medness_performance_update_samples(MednessPerformance* manager,
             }
 
             if (should_start) {
-                std::cout << "[SEQUENCE MANAGER] Starting queued sequence " << q->seq_index
-                          << " at pulse " << current_pulse << std::endl;
+                samplecrate_rtlog(RTLOG_LEVEL_INFO, "[SEQUENCE MANAGER] Starting queued sequence %d at pulse %d",
+                                  q->seq_index, current_pulse);
 
                 // Activate the program associated with this sequence
                 if (manager->program_switch_callback) {
                     int program = manager->sequence_programs[q->seq_index];
-                    std::cout << "[SEQUENCE MANAGER] Switching to program " << (program + 1)
-                              << " for sequence " << q->seq_index << std::endl;
+                    samplecrate_rtlog(RTLOG_LEVEL_INFO, "[SEQUENCE MANAGER] Switching to program %d for sequence %d",
+                                      program + 1, q->seq_index);
                     manager->program_switch_callback(program, manager->program_switch_userdata);
                 }
 
@@ -77,6 +77,13 @@ SequenceStartMode medness_performance_get_start_mode(MednessPerformance* manager
 // Set tempo for all sequences
 void medness_performance_set_tempo(MednessPerformance* manager, float bpm);
 
+// Context for MIDI callbacks - includes sequence index and program number
+// Sequence MIDI callbacks receive a pointer to one of these as their userdata
+typedef struct {
+    int seq_index;   // Sequence index (for mute/solo checking)
+    int program;     // Target program number
+} SequenceMIDIContext;
+
 // Set MIDI event callback for all sequences
 void medness_performance_set_midi_callback(MednessPerformance* manager,
                                              MednessSequenceEventCallback callback,
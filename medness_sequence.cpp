@@ -1,6 +1,8 @@
 #include "medness_sequence.h"
 #include "medness_sequencer.h"
 #include "medness_track.h"
+#include "medness_track_pool.h"
+#include "samplecrate_rtlog.h"
 #include <vector>
 #include <string>
 #include <iostream>
@@ -10,7 +12,8 @@ struct Phrase {
     std::string filename;
     std::string name;
     int loop_count;        // How many times to play (0 = infinite)
-    MednessTrack* track;   // Using MednessTrack like pads do!
+    int loop_ticks;        // Loop length in the track's ticks (0 = the track's own)
+    MednessTrack* track;   // Shared with other phrases/pads using the same file (track pool)
 };
 
 struct MednessSequence {
@@ -36,10 +39,10 @@ struct MednessSequence {
 #define MAX_SEQUENCES 16
 
 // Internal callback from MednessSequencer for MIDI events
-static void sequence_midi_callback(int note, int velocity, int on, void* userdata) {
+static void sequence_midi_callback(int note, int velocity, int on, int frame_offset, void* userdata) {
     MednessSequence* seq = (MednessSequence*)userdata;
     if (!seq) {
-        std::cout << "[CALLBACK] ERROR: seq is NULL!" << std::endl;
+        samplecrate_rtlog(RTLOG_LEVEL_ERROR, "[CALLBACK] ERROR: seq is NULL!");
         return;
     }
 
@@ -56,10 +59,21 @@ static void sequence_midi_callback(int note, int velocity, int on, void* userdat
     }
 
     // Pass through to user callback
-    seq->callback(note, velocity, on, seq->userdata);
+    seq->callback(note, velocity, on, frame_offset, seq->userdata);
 }
 
-// Internal callback from MednessSequencer when track loops
+static void sequence_loop_callback(void* userdata);
+
+// Internal: put a phrase's track in this sequence's sequencer slot
+// The slot's own loop callback drives the phrase state machine, so every playing
+// sequence and pad advances on the same pattern wrap
+static void sequence_attach_track(MednessSequence* seq, const Phrase& phrase) {
+    medness_sequencer_add_track(seq->sequencer, seq->sequencer_slot, phrase.track, sequence_midi_callback, seq);
+    medness_sequencer_set_slot_loop_ticks(seq->sequencer, seq->sequencer_slot, phrase.loop_ticks);
+    medness_sequencer_set_slot_loop_callback(seq->sequencer, seq->sequencer_slot, sequence_loop_callback, seq);
+}
+
+// Internal callback from MednessSequencer when this sequence's slot loops
 static void sequence_loop_callback(void* userdata) {
     MednessSequence* seq = (MednessSequence*)userdata;
     if (!seq) return;
@@ -77,17 +91,15 @@ static void sequence_loop_callback(void* userdata) {
 
         // If loop_count is 0, stay on this phrase forever
         if (phrase.loop_count == 0) {
-            std::cout << prefix << " Phrase " << seq->current_phrase_index
-                      << " (" << phrase.name << ") looping infinitely (loop #"
-                      << seq->current_phrase_loop << ")" << std::endl;
+            samplecrate_rtlog(RTLOG_LEVEL_DEBUG, "%s Phrase %d (%s) looping infinitely (loop #%d)",
+                              prefix, seq->current_phrase_index, phrase.name.c_str(), seq->current_phrase_loop);
             return;
         }
 
         // Check if we've completed the required loops for this phrase
         if (seq->current_phrase_loop >= phrase.loop_count) {
-            std::cout << prefix << " Phrase " << seq->current_phrase_index
-                      << " (" << phrase.name << ") completed "
-                      << seq->current_phrase_loop << " loops" << std::endl;
+            samplecrate_rtlog(RTLOG_LEVEL_INFO, "%s Phrase %d (%s) completed %d loops",
+                              prefix, seq->current_phrase_index, phrase.name.c_str(), seq->current_phrase_loop);
 
             // Move to next phrase
             int next_index = seq->current_phrase_index + 1;
@@ -96,11 +108,11 @@ static void sequence_loop_callback(void* userdata) {
             if (next_index >= (int)seq->phrases.size()) {
                 if (seq->sequence_loop) {
                     // Loop back to beginning
-                    std::cout << prefix << " End of sequence, looping back to start" << std::endl;
+                    samplecrate_rtlog(RTLOG_LEVEL_INFO, "%s End of sequence, looping back to start", prefix);
                     next_index = 0;
                 } else {
                     // Stop playback
-                    std::cout << prefix << " End of sequence, stopping" << std::endl;
+                    samplecrate_rtlog(RTLOG_LEVEL_INFO, "%s End of sequence, stopping", prefix);
                     seq->playing = false;
                     medness_sequencer_remove_track(seq->sequencer, seq->sequencer_slot);
                     return;
@@ -117,14 +129,12 @@ static void sequence_loop_callback(void* userdata) {
             if (seq->current_phrase_index < (int)seq->phrases.size()) {
                 Phrase& next_phrase = seq->phrases[seq->current_phrase_index];
 
-                std::cout << prefix << " Starting phrase " << seq->current_phrase_index
-                          << " (" << next_phrase.name << ")" << std::endl;
+                samplecrate_rtlog(RTLOG_LEVEL_INFO, "%s Starting phrase %d (%s)",
+                                  prefix, seq->current_phrase_index, next_phrase.name.c_str());
 
                 // Add the new phrase track to sequencer
                 if (next_phrase.track) {
-                    medness_sequencer_add_track(seq->sequencer, seq->sequencer_slot,
-                                               next_phrase.track,
-                                               sequence_midi_callback, seq);
+                    sequence_attach_track(seq, next_phrase);
                 }
 
                 // Fire phrase change callback
@@ -135,9 +145,9 @@ static void sequence_loop_callback(void* userdata) {
                 }
             }
         } else {
-            std::cout << prefix << " Phrase " << seq->current_phrase_index
-                      << " (" << phrase.name << ") loop #"
-                      << seq->current_phrase_loop << "/" << phrase.loop_count << std::endl;
+            samplecrate_rtlog(RTLOG_LEVEL_DEBUG, "%s Phrase %d (%s) loop #%d/%d",
+                              prefix, seq->current_phrase_index, phrase.name.c_str(),
+                              seq->current_phrase_loop, phrase.loop_count);
         }
     }
 }
@@ -169,7 +179,7 @@ void medness_sequence_destroy(MednessSequence* player) {
     // Clean up all phrase tracks
     for (Phrase& phrase : player->phrases) {
         if (phrase.track) {
-            medness_track_destroy(phrase.track);
+            medness_track_pool_release(phrase.track);
         }
     }
 
@@ -187,13 +197,9 @@ void medness_sequence_set_sequencer(MednessSequence* player, MednessSequencer* s
 int medness_sequence_add_phrase(MednessSequence* player, const char* filename, int loop_count, const char* name) {
     if (!player || !filename) return -1;
 
-    // Create a new track for this phrase (like pads do!)
-    MednessTrack* track = medness_track_create();
-    if (!track) return -1;
-
-    // Load the MIDI file into the track
-    if (medness_track_load_midi_file(track, filename) != 0) {
-        medness_track_destroy(track);
+    // Get the file's shared track (loaded on first use)
+    MednessTrack* track = medness_track_pool_acquire(filename);
+    if (!track) {
         std::cerr << "[SEQUENCE] Failed to load MIDI file: " << filename << std::endl;
         return -1;
     }
@@ -203,6 +209,7 @@ int medness_sequence_add_phrase(MednessSequence* player, const char* filename, i
     phrase.filename = filename;
     phrase.name = name ? name : filename;
     phrase.loop_count = loop_count;
+    phrase.loop_ticks = 0;
     phrase.track = track;
 
     player->phrases.push_back(phrase);
@@ -214,6 +221,19 @@ int medness_sequence_add_phrase(MednessSequence* player, const char* filename, i
     return phrase_index;
 }
 
+int medness_sequence_set_phrase_length(MednessSequence* player, int phrase_index, int bars,
+                                       int time_sig_num, int time_sig_den) {
+    if (!player || phrase_index < 0 || phrase_index >= (int)player->phrases.size()) return -1;
+
+    Phrase& phrase = player->phrases[phrase_index];
+    if (!phrase.track) return -1;
+
+    // The track may be shared, so the length is kept with the phrase and applied to its slot
+    bool own_length = (bars <= 0 && (time_sig_num <= 0 || time_sig_den <= 0));
+    phrase.loop_ticks = own_length ? 0 : medness_track_compute_loop_ticks(phrase.track, bars, time_sig_num, time_sig_den);
+    return 0;
+}
+
 // Clear all phrases from the sequence
 void medness_sequence_clear_phrases(MednessSequence* player) {
     if (!player) return;
@@ -224,7 +244,7 @@ void medness_sequence_clear_phrases(MednessSequence* player) {
     // Clean up all tracks
     for (Phrase& phrase : player->phrases) {
         if (phrase.track) {
-            medness_track_destroy(phrase.track);
+            medness_track_pool_release(phrase.track);
         }
     }
 
@@ -257,7 +277,7 @@ void medness_sequence_play(MednessSequence* player) {
 
     if (player->phrases.empty()) {
         const char* prefix = (player->sequencer_slot < 16) ? "[SEQ]" : "[PAD]";
-        std::cerr << prefix << " Cannot play: no phrases loaded" << std::endl;
+        samplecrate_rtlog(RTLOG_LEVEL_ERROR, "%s Cannot play: no phrases loaded", prefix);
         return;
     }
 
@@ -265,7 +285,8 @@ void medness_sequence_play(MednessSequence* player) {
     const char* prefix = (player->sequencer_slot < 16) ? "[SEQ]" : "[PAD]";
     int display_slot = (player->sequencer_slot < 16) ? player->sequencer_slot : (player->sequencer_slot - 16);
 
-    std::cout << prefix << " Starting playback with " << player->phrases.size() << " phrases (slot=" << display_slot << ")" << std::endl;
+    samplecrate_rtlog(RTLOG_LEVEL_INFO, "%s Starting playback with %d phrases (slot=%d)",
+                      prefix, (int)player->phrases.size(), display_slot);
 
     player->playing = true;
     player->current_phrase_index = 0;
@@ -274,21 +295,16 @@ void medness_sequence_play(MednessSequence* player) {
     // Start the first phrase by adding its track to the sequencer
     Phrase& first_phrase = player->phrases[0];
     if (first_phrase.track) {
-        std::cout << prefix << " Starting phrase 0: " << first_phrase.name << std::endl;
+        samplecrate_rtlog(RTLOG_LEVEL_INFO, "%s Starting phrase 0: %s", prefix, first_phrase.name.c_str());
 
         // Debug: check track event count
         int event_count = 0;
         medness_track_get_events(first_phrase.track, &event_count);
-        std::cout << prefix << " Track has " << event_count << " events" << std::endl;
-        std::cout << prefix << " Adding track to sequencer (internal slot=" << player->sequencer_slot << ")" << std::endl;
-
-        // Add track to sequencer with loop callback
-        medness_sequencer_add_track(player->sequencer, player->sequencer_slot,
-                                   first_phrase.track,
-                                   sequence_midi_callback, player);
+        samplecrate_rtlog(RTLOG_LEVEL_DEBUG, "%s Track has %d events", prefix, event_count);
+        samplecrate_rtlog(RTLOG_LEVEL_DEBUG, "%s Adding track to sequencer (internal slot=%d)", prefix, player->sequencer_slot);
 
-        // Set the loop callback to handle phrase transitions
-        medness_sequencer_set_loop_callback(player->sequencer, sequence_loop_callback, player);
+        // Add track to sequencer with this slot's loop callback (handles phrase transitions)
+        sequence_attach_track(player, first_phrase);
 
         // Fire phrase change callback
         if (player->phrase_change_callback) {
@@ -304,9 +320,9 @@ void medness_sequence_stop(MednessSequence* player) {
 
     // Slot layout: 0-15 = uploaded sequences, 16-31 = pads
     if (player->sequencer_slot < 16) {
-        std::cout << "[SEQ] Stopping playback (slot=" << player->sequencer_slot << ")" << std::endl;
+        samplecrate_rtlog(RTLOG_LEVEL_INFO, "[SEQ] Stopping playback (slot=%d)", player->sequencer_slot);
     } else {
-        std::cout << "[PAD] Stopping playback (slot=" << (player->sequencer_slot - 16) << ")" << std::endl;
+        samplecrate_rtlog(RTLOG_LEVEL_INFO, "[PAD] Stopping playback (slot=%d)", player->sequencer_slot - 16);
     }
 
     player->playing = false;
@@ -393,9 +409,7 @@ int medness_sequence_jump_to_phrase(MednessSequence* player, int phrase_index) {
     if (player->playing) {
         Phrase& new_phrase = player->phrases[phrase_index];
         if (new_phrase.track) {
-            medness_sequencer_add_track(player->sequencer, player->sequencer_slot,
-                                       new_phrase.track,
-                                       sequence_midi_callback, player);
+            sequence_attach_track(player, new_phrase);
         }
     }
 
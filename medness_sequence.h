@@ -9,8 +9,9 @@ extern "C" {
 typedef struct MednessSequence MednessSequence;
 
 // Callback type for MIDI sequence events
-// Parameters: note, velocity, on (1=note_on, 0=note_off), userdata
-typedef void (*MednessSequenceEventCallback)(int note, int velocity, int on, void* userdata);
+// Parameters: note, velocity, on (1=note_on, 0=note_off),
+//             frame_offset (frames into the current audio block), userdata
+typedef void (*MednessSequenceEventCallback)(int note, int velocity, int on, int frame_offset, void* userdata);
 
 // Callback type for phrase change events
 // Parameters: phrase_index, phrase_name, userdata
@@ -34,9 +35,17 @@ void medness_sequence_set_sequencer(MednessSequence* player, MednessSequencer* s
 //             -1 or 0 = infinite loop (default - never auto-advance)
 //             N > 0 = loop N times then move to next phrase
 // name: optional name for this phrase (can be NULL)
+// The phrase shares the file's track with other pads/phrases (medness_track_pool.h)
 // Returns phrase index on success, -1 on error
 int medness_sequence_add_phrase(MednessSequence* player, const char* filename, int loop_count, const char* name);
 
+// Set a phrase's loop length and meter (with neither set, the phrase loops on the 4-bar pattern)
+// bars: loop length in bars (0 = whole bars up to the MIDI file's end of track)
+// time_sig_num/time_sig_den: meter, e.g. 7/8 (0 = the MIDI file's time signature, 4/4 if none)
+// Returns 0 on success, -1 on error
+int medness_sequence_set_phrase_length(MednessSequence* player, int phrase_index, int bars,
+                                       int time_sig_num, int time_sig_den);
+
 // Clear all phrases from the sequence
 void medness_sequence_clear_phrases(MednessSequence* player);
 
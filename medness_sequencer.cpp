@@ -1,46 +1,136 @@
 #include "medness_sequencer.h"
+#include "samplecrate_rtlog.h"
 #include <stdlib.h>
 #include <stdint.h>
 #include <string.h>
 #include <iostream>
 
-// Pattern is 64 rows = 64 sixteenths = 4 bars at 4/4
-// At 24 PPQN: 64 sixteenths * 6 pulses/sixteenth = 384 pulses
-#define PATTERN_LENGTH_PULSES 384
-#define PATTERN_LENGTH_ROWS 64
 // Slot layout for programmable drum/beat computer:
 // - Slots 0-15: Uploaded sequences (SysEx remote control)
 // - Slots 16-31: Pads (local trigger pads)
 #define MAX_TRACK_SLOTS 32
 
+// Resolution assumed for slots whose track does not report one
+#define SEQUENCER_DEFAULT_TPQN 480
+
+// Position clock: 64-bit fixed point pulses with a 32-bit fraction
+#define PULSE_FP_SHIFT 32
+#define GRID_LENGTH_FP ((int64_t)SEQUENCER_GRID_PULSES << PULSE_FP_SHIFT)
+
 // Forward declaration
-static void medness_sequencer_play_tracks(MednessSequencer* sequencer, int old_pulse, int new_pulse);
+static void medness_sequencer_play_tracks(MednessSequencer* sequencer, int64_t delta,
+                                          double position_per_frame, int num_frames);
 
 // Track slot - holds reference to track and playback state
 struct MednessSequencerTrackSlot {
     MednessTrack* track;                // Reference to track (not owned)
     SequencerMidiCallback midi_callback; // MIDI event callback
     void* userdata;                     // User context
+    int tpqn;                           // Track's native ticks per quarter note
     int last_tick_processed;            // Last tick fired (to prevent duplicates)
+    int cursor;                         // Index of the next event to fire (first with tick > last_tick_processed)
     int active;                         // Is this slot active?
+    int64_t length;                     // Loop length (pulses, 32.32): loop_ticks, the track's, or the grid
+    int loop_ticks;                     // Loop length override (ticks, 0 = the track's loop ticks)
+    int64_t position;                   // Position within the slot's own loop (pulses, 32.32)
+    SequencerLoopCallback loop_callback; // Loop wrap notification for this slot's owner
+    void* loop_userdata;
 };
 
+// Internal: move a slot's position so the next event fired is the first after last_tick
+// Events are tick-sorted, so the cursor is found with a binary search (used on add, SPP jumps and wraps)
+static void slot_seek(MednessSequencerTrackSlot* slot, int last_tick) {
+    slot->last_tick_processed = last_tick;
+    slot->cursor = 0;
+
+    int event_count = 0;
+    const MednessTrackEvent* events = medness_track_get_events(slot->track, &event_count);
+    if (!events) return;
+
+    int lo = 0;
+    int hi = event_count;
+    while (lo < hi) {
+        int mid = lo + (hi - lo) / 2;
+        if (events[mid].tick <= last_tick) {
+            lo = mid + 1;
+        } else {
+            hi = mid;
+        }
+    }
+    slot->cursor = lo;
+}
+
+// Internal: tick in the slot's own resolution at a fixed-point pulse position
+static int slot_tick_at(const MednessSequencerTrackSlot* slot, int64_t position) {
+    if (position < 0) return -1;
+    return (int)((position * slot->tpqn / SEQUENCER_PPQN) >> PULSE_FP_SHIFT);
+}
+
+// Internal: fixed-point pulse position of a tick in the slot's resolution
+static int64_t slot_tick_position(const MednessSequencerTrackSlot* slot, int tick) {
+    return (((int64_t)tick * SEQUENCER_PPQN) << PULSE_FP_SHIFT) / slot->tpqn;
+}
+
+// Internal: loop length of the slot (override, the track's explicit length, or the 4-bar pattern)
+static int64_t slot_track_length(const MednessSequencerTrackSlot* slot) {
+    int loop_ticks = slot->loop_ticks > 0 ? slot->loop_ticks : medness_track_get_loop_ticks(slot->track);
+    int64_t length = slot_tick_position(slot, loop_ticks);
+    return (length > 0) ? length : GRID_LENGTH_FP;
+}
+
+// Internal: start the slot at a position in its loop
+// The next event fired is the first at or after the start of the current pulse: a start
+// lands a fraction of a pulse past the grid line, and events between the line and the
+// position (e.g. the downbeat of a quantized start) fire at the top of the next block
+static void slot_set_position(MednessSequencerTrackSlot* slot, int64_t position) {
+    slot->position = position;
+    int64_t pulse_start = (position >> PULSE_FP_SHIFT) << PULSE_FP_SHIFT;
+    slot_seek(slot, slot_tick_at(slot, pulse_start) - 1);
+}
+
 struct MednessSequencer {
     float bpm;                      // Current tempo in BPM
-    int pulse_count;                // Current pulse within pattern (0-383)
+    int pulse_count;                // Current pulse within the grid (0-383)
     int active;                     // Is sequencer active?
     int external_clock;             // Is external MIDI clock driving? (1=yes, 0=no)
 
-    SequencerLoopCallback loop_callback;
+    SequencerLoopCallback loop_callback;    // Grid wrap listener (slots have their own)
     void* loop_userdata;
 
     // Track slots (one per pad)
     MednessSequencerTrackSlot slots[MAX_TRACK_SLOTS];
 
-    // For internal timing advancement
-    float accumulated_pulses;
+    // Internal clock (pulses, 32.32 fixed point)
+    // The position is always computed from the samples elapsed since the last anchor
+    // (taken on tempo/sample rate changes and jumps), so rounding never accumulates.
+    // Slots advance by the same amount as the grid each block.
+    int64_t position;               // Current position within the grid
+    int64_t anchor_position;        // Position at the anchor (goes negative after wraps)
+    uint64_t anchor_samples;        // Samples rendered since the anchor
+    int anchor_sample_rate;         // Sample rate the anchor was taken at
+    float anchor_bpm;               // Tempo the anchor was taken at
 };
 
+// Internal: jump the clock to a position and re-anchor it there
+static void clock_set_position(MednessSequencer* sequencer, int64_t position) {
+    sequencer->position = position;
+    sequencer->anchor_position = position;
+    sequencer->anchor_samples = 0;
+    sequencer->pulse_count = (int)(position >> PULSE_FP_SHIFT);
+}
+
+// Internal: pulses (32.32) elapsed after `samples` frames at bpm/sample_rate
+// pulses = samples * bpm * 24 / (60 * sample_rate), with tempo at 1/1000 BPM resolution
+static int64_t clock_pulses_for_samples(uint64_t samples, float bpm, int sample_rate) {
+    uint64_t bpm_milli = (uint64_t)(bpm * 1000.0f + 0.5f);
+    uint64_t num = samples * bpm_milli * 24;    // No overflow for years of audio
+    uint64_t den = (uint64_t)sample_rate * 60000;
+
+    uint64_t whole = num / den;
+    uint64_t frac = (uint64_t)((double)(num % den) / (double)den * 4294967296.0);
+    return (int64_t)((whole << PULSE_FP_SHIFT) + frac);
+}
+
 MednessSequencer* medness_sequencer_create(void) {
     MednessSequencer* sequencer = new MednessSequencer();
 
@@ -50,15 +140,24 @@ MednessSequencer* medness_sequencer_create(void) {
     sequencer->external_clock = 0;  // Default to internal clock
     sequencer->loop_callback = NULL;
     sequencer->loop_userdata = NULL;
-    sequencer->accumulated_pulses = 0.0f;
+    sequencer->anchor_sample_rate = 0;
+    sequencer->anchor_bpm = sequencer->bpm;
+    clock_set_position(sequencer, 0);
 
     // Initialize all slots as inactive
     for (int i = 0; i < MAX_TRACK_SLOTS; i++) {
         sequencer->slots[i].track = NULL;
         sequencer->slots[i].midi_callback = NULL;
         sequencer->slots[i].userdata = NULL;
+        sequencer->slots[i].tpqn = SEQUENCER_DEFAULT_TPQN;
         sequencer->slots[i].last_tick_processed = -1;
+        sequencer->slots[i].cursor = 0;
         sequencer->slots[i].active = 0;
+        sequencer->slots[i].length = GRID_LENGTH_FP;
+        sequencer->slots[i].loop_ticks = 0;
+        sequencer->slots[i].position = 0;
+        sequencer->slots[i].loop_callback = NULL;
+        sequencer->slots[i].loop_userdata = NULL;
     }
 
     return sequencer;
@@ -83,17 +182,17 @@ float medness_sequencer_get_bpm(MednessSequencer* sequencer) {
 void medness_sequencer_set_spp(MednessSequencer* sequencer, int spp_position) {
     if (!sequencer) return;
 
-    // SPP is in 16th notes - convert to pulse within pattern
-    int spp_within_pattern = spp_position % PATTERN_LENGTH_ROWS;
-    sequencer->pulse_count = spp_within_pattern * 6;  // 6 pulses per 16th note
+    // SPP is in 16th notes (6 pulses each) from the song start
+    if (spp_position < 0) spp_position = 0;
+    int64_t song_position = (int64_t)spp_position * 6 << PULSE_FP_SHIFT;
+    clock_set_position(sequencer, song_position % GRID_LENGTH_FP);
 
-    // Update all active tracks' last_tick_processed to prevent retriggering
-    // When SPP jumps position, we don't want to fire events that may have already played
-    const int TPQN = 480;
-    int new_tick = (sequencer->pulse_count * TPQN) / 24;
+    // Every track takes the matching position in its own loop, without retriggering
+    // events that may have already played
     for (int i = 0; i < MAX_TRACK_SLOTS; i++) {
-        if (sequencer->slots[i].active) {
-            sequencer->slots[i].last_tick_processed = new_tick - 1;
+        MednessSequencerTrackSlot* slot = &sequencer->slots[i];
+        if (slot->active) {
+            slot_set_position(slot, song_position % slot->length);
         }
     }
 }
@@ -116,55 +215,51 @@ int medness_sequencer_update(MednessSequencer* sequencer, int num_samples, int s
     if (!has_active_tracks) {
         // TODO: Check if we're synced to external SPP - if so, keep position
         // For now: always reset to 0 when nothing is playing
-        if (sequencer->pulse_count != 0) {
-            printf("[SEQUENCER] No active tracks - resetting position to 0\n");
-            sequencer->pulse_count = 0;
-            sequencer->accumulated_pulses = 0.0f;
+        if (sequencer->position != 0) {
+            samplecrate_rtlog(RTLOG_LEVEL_INFO, "[SEQUENCER] No active tracks - resetting position to 0");
+            clock_set_position(sequencer, 0);
         }
         return -1;  // Return -1 to indicate sequencer is not running
     }
 
-    int old_pulse = sequencer->pulse_count;
-
     // Always advance position using internal clock
     // External MIDI clock only adjusts the BPM, doesn't control position directly
     // (external_clock flag is deprecated - sequencer always runs on internal timebase)
     {
-        // Calculate how many pulses elapsed based on sample count
-        double seconds_elapsed = (double)num_samples / (double)sample_rate;
-        double pulses_per_second = (sequencer->bpm * 24.0) / 60.0;
-        double exact_pulses = seconds_elapsed * pulses_per_second;
-
-        sequencer->accumulated_pulses += (float)exact_pulses;
-
-        int pulse_increment = (int)sequencer->accumulated_pulses;
-        if (pulse_increment > 0) {
-            sequencer->pulse_count += pulse_increment;
-            sequencer->accumulated_pulses -= pulse_increment;
-
-            // Check for pattern wrap
-            if (sequencer->pulse_count >= PATTERN_LENGTH_PULSES) {
-                sequencer->pulse_count = sequencer->pulse_count % PATTERN_LENGTH_PULSES;
-
-                // On wrap, update track positions to match new pulse position
-                // This prevents double-firing when position jumps
-                const int TPQN = 480;
-                int new_tick = (sequencer->pulse_count * TPQN) / 24;
-                for (int i = 0; i < MAX_TRACK_SLOTS; i++) {
-                    if (sequencer->slots[i].active) {
-                        sequencer->slots[i].last_tick_processed = new_tick - 1;
-                    }
-                }
-
-                // Fire loop callback
-                if (sequencer->loop_callback) {
-                    sequencer->loop_callback(sequencer->loop_userdata);
-                }
-            }
+        // Re-anchor when tempo or sample rate changed so the new rate applies from here on
+        if (sample_rate != sequencer->anchor_sample_rate || sequencer->bpm != sequencer->anchor_bpm) {
+            sequencer->anchor_position = sequencer->position;
+            sequencer->anchor_samples = 0;
+            sequencer->anchor_sample_rate = sample_rate;
+            sequencer->anchor_bpm = sequencer->bpm;
+        }
+
+        // Position at the start and end of this block; events are placed at their
+        // exact frame between the two
+        int64_t block_start = sequencer->position;
+        sequencer->anchor_samples += (uint64_t)num_samples;
+        int64_t block_end = sequencer->anchor_position +
+            clock_pulses_for_samples(sequencer->anchor_samples, sequencer->bpm, sample_rate);
+        int64_t delta = block_end - block_start;
+        double position_per_frame = (double)delta / (double)num_samples;
+
+        // Grid wrap (tracks wrap on their own loop lengths)
+        bool grid_wrapped = false;
+        if (block_end >= GRID_LENGTH_FP) {
+            block_end -= GRID_LENGTH_FP;
+            sequencer->anchor_position -= GRID_LENGTH_FP;
+            grid_wrapped = true;
         }
 
-        // Play all active tracks at current position
-        medness_sequencer_play_tracks(sequencer, old_pulse, sequencer->pulse_count);
+        sequencer->position = block_end;
+        sequencer->pulse_count = (int)(block_end >> PULSE_FP_SHIFT);
+
+        // Play all active tracks up to the end of this block
+        medness_sequencer_play_tracks(sequencer, delta, position_per_frame, num_samples);
+
+        if (grid_wrapped && sequencer->loop_callback) {
+            sequencer->loop_callback(sequencer->loop_userdata);
+        }
     }
     // If external clock mode: position is already updated by medness_sequencer_clock_pulse()
     // We don't need to fire events here - they're fired in clock_pulse()
@@ -175,31 +270,23 @@ int medness_sequencer_update(MednessSequencer* sequencer, int num_samples, int s
 void medness_sequencer_clock_pulse(MednessSequencer* sequencer) {
     if (!sequencer || !sequencer->active) return;
 
-    int old_pulse = sequencer->pulse_count;
-    sequencer->pulse_count++;
+    int new_pulse = sequencer->pulse_count + 1;
 
-    // Check for pattern wrap
-    if (sequencer->pulse_count >= PATTERN_LENGTH_PULSES) {
-        sequencer->pulse_count = 0;
+    // Check for grid wrap
+    bool grid_wrapped = false;
+    if (new_pulse >= SEQUENCER_GRID_PULSES) {
+        new_pulse = 0;
+        grid_wrapped = true;
+    }
 
-        // On wrap, update track positions to match new pulse position
-        // This prevents double-firing when position jumps
-        const int TPQN = 480;
-        int new_tick = (sequencer->pulse_count * TPQN) / 24;
-        for (int i = 0; i < MAX_TRACK_SLOTS; i++) {
-            if (sequencer->slots[i].active) {
-                sequencer->slots[i].last_tick_processed = new_tick - 1;
-            }
-        }
+    clock_set_position(sequencer, (int64_t)new_pulse << PULSE_FP_SHIFT);
 
-        // Fire loop callback
-        if (sequencer->loop_callback) {
-            sequencer->loop_callback(sequencer->loop_userdata);
-        }
-    }
+    // Advance all active tracks by one pulse (no audio block here, so no frame offset)
+    medness_sequencer_play_tracks(sequencer, (int64_t)1 << PULSE_FP_SHIFT, 0.0, 1);
 
-    // Play all active tracks at current position
-    medness_sequencer_play_tracks(sequencer, old_pulse, sequencer->pulse_count);
+    if (grid_wrapped && sequencer->loop_callback) {
+        sequencer->loop_callback(sequencer->loop_userdata);
+    }
 }
 
 int medness_sequencer_get_row(MednessSequencer* sequencer) {
@@ -218,6 +305,13 @@ void medness_sequencer_set_loop_callback(MednessSequencer* sequencer, SequencerL
     sequencer->loop_userdata = userdata;
 }
 
+void medness_sequencer_set_slot_loop_callback(MednessSequencer* sequencer, int slot,
+                                              SequencerLoopCallback callback, void* userdata) {
+    if (!sequencer || slot < 0 || slot >= MAX_TRACK_SLOTS) return;
+    sequencer->slots[slot].loop_callback = callback;
+    sequencer->slots[slot].loop_userdata = userdata;
+}
+
 void medness_sequencer_set_active(MednessSequencer* sequencer, int active) {
     if (!sequencer) return;
     sequencer->active = active ? 1 : 0;
@@ -242,12 +336,18 @@ void medness_sequencer_add_track(MednessSequencer* sequencer, int slot, MednessT
     sequencer->slots[slot].track = track;
     sequencer->slots[slot].midi_callback = midi_callback;
     sequencer->slots[slot].userdata = userdata;
+    sequencer->slots[slot].loop_callback = NULL;
+    sequencer->slots[slot].loop_userdata = NULL;
+
+    // Events are timed in the track's own resolution (96, 192, 480, 960, ... TPQN)
+    int tpqn = track ? medness_track_get_tpqn(track) : SEQUENCER_DEFAULT_TPQN;
+    sequencer->slots[slot].tpqn = (tpqn > 0) ? tpqn : SEQUENCER_DEFAULT_TPQN;
+    sequencer->slots[slot].loop_ticks = 0;
+    sequencer->slots[slot].length = slot_track_length(&sequencer->slots[slot]);
 
-    // Initialize last_tick_processed to current position to prevent double-firing
-    // Convert current pulse to tick
-    const int TPQN = 480;
-    int current_tick = (sequencer->pulse_count * TPQN) / 24;
-    sequencer->slots[slot].last_tick_processed = current_tick - 1;
+    // Start at the grid position (within the track's own loop); the next event fired
+    // is the first in the current pulse, which prevents double-firing
+    slot_set_position(&sequencer->slots[slot], sequencer->position % sequencer->slots[slot].length);
 
     sequencer->slots[slot].active = (track != NULL) ? 1 : 0;
 }
@@ -259,7 +359,12 @@ void medness_sequencer_remove_track(MednessSequencer* sequencer, int slot) {
     sequencer->slots[slot].midi_callback = NULL;
     sequencer->slots[slot].userdata = NULL;
     sequencer->slots[slot].last_tick_processed = -1;
+    sequencer->slots[slot].cursor = 0;
     sequencer->slots[slot].active = 0;
+    sequencer->slots[slot].loop_ticks = 0;
+    sequencer->slots[slot].position = 0;
+    sequencer->slots[slot].loop_callback = NULL;
+    sequencer->slots[slot].loop_userdata = NULL;
 }
 
 int medness_sequencer_slot_is_active(MednessSequencer* sequencer, int slot) {
@@ -267,41 +372,124 @@ int medness_sequencer_slot_is_active(MednessSequencer* sequencer, int slot) {
     return sequencer->slots[slot].active;
 }
 
-// Internal: Play all tracks from old_pulse to new_pulse
-static void medness_sequencer_play_tracks(MednessSequencer* sequencer, int old_pulse, int new_pulse) {
-    if (!sequencer) return;
+void medness_sequencer_set_slot_loop_ticks(MednessSequencer* sequencer, int slot, int loop_ticks) {
+    if (!sequencer || slot < 0 || slot >= MAX_TRACK_SLOTS) return;
+
+    MednessSequencerTrackSlot* s = &sequencer->slots[slot];
+    s->loop_ticks = loop_ticks > 0 ? loop_ticks : 0;
+    if (!s->track) return;
+
+    s->length = slot_track_length(s);
+    slot_set_position(s, sequencer->position % s->length);
+}
+
+int medness_sequencer_get_slot_length(MednessSequencer* sequencer, int slot) {
+    if (!sequencer || slot < 0 || slot >= MAX_TRACK_SLOTS) return 0;
+    if (!sequencer->slots[slot].active) return 0;
+    return (int)(sequencer->slots[slot].length >> PULSE_FP_SHIFT);
+}
+
+int medness_sequencer_get_slot_pulse(MednessSequencer* sequencer, int slot) {
+    if (!sequencer || slot < 0 || slot >= MAX_TRACK_SLOTS) return 0;
+    if (!sequencer->slots[slot].active) return 0;
+    return (int)(sequencer->slots[slot].position >> PULSE_FP_SHIFT);
+}
 
-    // Convert pulses to ticks (assumes all tracks use same TPQN)
-    // For now, use a fixed TPQN of 480 (will get from track later)
-    const int TPQN = 480;
+// Internal: frame of a slot position within the block (block_start is the slot position at
+// frame 0); position_per_frame <= 0 puts every event at frame 0
+static int slot_frame_offset(int64_t position, int64_t block_start, double position_per_frame, int num_frames) {
+    if (position_per_frame <= 0.0) return 0;
+    int frame_offset = (int)((double)(position - block_start) / position_per_frame);
+    if (frame_offset < 0) frame_offset = 0;
+    if (frame_offset >= num_frames) frame_offset = num_frames - 1;
+    return frame_offset;
+}
 
-    // Calculate ticks from pulses: tick = (pulse / 24) * TPQN
-    int old_tick = (old_pulse * TPQN) / 24;
-    int new_tick = (new_pulse * TPQN) / 24;
+// Internal: fire a slot's events up to end_position (inclusive)
+static void slot_play(MednessSequencerTrackSlot* slot, int64_t end_position,
+                      int64_t block_start, double position_per_frame, int num_frames) {
+    int end_tick = slot_tick_at(slot, end_position);
+
+    // Get events from track
+    int event_count = 0;
+    const MednessTrackEvent* events = medness_track_get_events(slot->track, &event_count);
+    if (!events) return;
+
+    // Fire events between last_tick_processed and end_tick
+    // The cursor walks the tick-sorted events, so this costs O(events fired)
+    while (slot->cursor < event_count && events[slot->cursor].tick <= end_tick) {
+        const MednessTrackEvent* evt = &events[slot->cursor++];
+        int frame_offset = slot_frame_offset(slot_tick_position(slot, evt->tick),
+                                             block_start, position_per_frame, num_frames);
+
+        // Fire MIDI event
+        if (slot->midi_callback) {
+            slot->midi_callback(evt->note, evt->velocity, evt->on, frame_offset, slot->userdata);
+        }
+    }
 
-    // Iterate through all active slots
+    if (end_tick > slot->last_tick_processed) {
+        slot->last_tick_processed = end_tick;
+    }
+}
+
+// Internal: fire the note-offs at or after the loop end (notes ending on the last bar line,
+// or cut by an explicit loop length) so nothing hangs across the wrap
+static void slot_release_tail(MednessSequencerTrackSlot* slot, int frame_offset) {
+    int event_count = 0;
+    const MednessTrackEvent* events = medness_track_get_events(slot->track, &event_count);
+    if (!events || !slot->midi_callback) return;
+
+    for (int e = slot->cursor; e < event_count; e++) {
+        if (!events[e].on) {
+            slot->midi_callback(events[e].note, events[e].velocity, 0, frame_offset, slot->userdata);
+        }
+    }
+}
+
+// Internal: advance every active track by delta pulses and play the events passed
+// Each track wraps at its own loop length: the tail is fired, the slot's owner is notified
+// (and may swap the track), and the rest of the block plays from the top of the loop.
+static void medness_sequencer_play_tracks(MednessSequencer* sequencer, int64_t delta,
+                                          double position_per_frame, int num_frames) {
+    if (!sequencer || delta < 0) return;
+
+    // Tracks added by a loop callback during this pass already start at the new grid position
+    MednessTrack* playing[MAX_TRACK_SLOTS];
     for (int i = 0; i < MAX_TRACK_SLOTS; i++) {
-        if (!sequencer->slots[i].active) continue;
+        playing[i] = sequencer->slots[i].active ? sequencer->slots[i].track : NULL;
+    }
 
+    for (int i = 0; i < MAX_TRACK_SLOTS; i++) {
         MednessSequencerTrackSlot* slot = &sequencer->slots[i];
+        if (!playing[i] || !slot->active || slot->track != playing[i]) continue;
 
-        // Get events from track
-        int event_count = 0;
-        const MednessTrackEvent* events = medness_track_get_events(slot->track, &event_count);
-        if (!events) continue;
+        int64_t block_start = slot->position;
+        int64_t end_position = slot->position + delta;
 
-        // Fire events between old_tick and new_tick
-        for (int e = 0; e < event_count; e++) {
-            const MednessTrackEvent* evt = &events[e];
+        if (end_position >= slot->length) {
+            // Fire the tail of the loop before wrapping
+            slot_play(slot, slot->length - 1, block_start, position_per_frame, num_frames);
+            slot_release_tail(slot, slot_frame_offset(slot->length, block_start, position_per_frame, num_frames));
 
-            if (evt->tick > slot->last_tick_processed && evt->tick <= new_tick) {
-                // Fire MIDI event
-                if (slot->midi_callback) {
-                    slot->midi_callback(evt->note, evt->velocity, evt->on, slot->userdata);
-                }
+            block_start -= slot->length;
+            end_position -= slot->length;
+            slot->position = 0;
+            slot_seek(slot, -1);
+
+            // Fire the slot's loop callback (may swap the track for the next phrase)
+            if (slot->loop_callback) {
+                slot->loop_callback(slot->loop_userdata);
             }
+            if (!slot->active) continue;
+
+            // Whatever the slot holds now restarts from the top of its loop
+            slot->length = slot_track_length(slot);
+            if (end_position >= slot->length) end_position %= slot->length;
+            slot_seek(slot, -1);
         }
 
-        slot->last_tick_processed = new_tick;
+        slot->position = end_position;
+        slot_play(slot, end_position, block_start, position_per_frame, num_frames);
     }
 }
@@ -10,16 +10,29 @@ extern "C" {
 // The sequencer is the single source of truth for pattern position
 // It plays tracks, manages the global pattern position (ROW) and handles loop wrapping
 // Note: The arranger (higher level) will eventually determine which pattern plays when
+//
+// The global pattern is a fixed bar grid (64 rows = 4 bars of 4/4) used for the row
+// display, SPP and quantized starts. Slots loop on this pattern unless they are given
+// their own length (medness_sequencer_set_slot_loop_ticks or medness_track_set_loop_ticks),
+// so phrases of any number of bars or any meter play through without being cut into
+// 4-bar files.
+
+// Global grid resolution: 24 PPQN, 6 pulses per row (16th note)
+#define SEQUENCER_PPQN 24
+#define SEQUENCER_GRID_PULSES 384
+#define SEQUENCER_GRID_ROWS 64
 
 typedef struct MednessSequencer MednessSequencer;
 typedef struct MednessSequencerTrackSlot MednessSequencerTrackSlot;
 
-// Callback fired when the pattern wraps from row 64 back to row 1
+// Callback fired when the pattern (or a slot's loop) wraps back to its start
 typedef void (*SequencerLoopCallback)(void* userdata);
 
 // Callback fired when a MIDI event needs to be sent
-// note: MIDI note number, velocity: 0-127, on: 1=note_on 0=note_off, userdata: user context
-typedef void (*SequencerMidiCallback)(int note, int velocity, int on, void* userdata);
+// note: MIDI note number, velocity: 0-127, on: 1=note_on 0=note_off
+// frame_offset: frames into the audio block being rendered where the event falls
+//               (0 when driven by external clock pulses), userdata: user context
+typedef void (*SequencerMidiCallback)(int note, int velocity, int on, int frame_offset, void* userdata);
 
 // Create a new sequencer
 MednessSequencer* medness_sequencer_create(void);
@@ -52,9 +65,17 @@ int medness_sequencer_get_row(MednessSequencer* sequencer);
 // Get current pulse within pattern (0-383)
 int medness_sequencer_get_pulse(MednessSequencer* sequencer);
 
-// Set loop callback (called when pattern wraps)
+// Set the pattern-wide loop callback (called when the global grid wraps from row 64 to row 1)
 void medness_sequencer_set_loop_callback(MednessSequencer* sequencer, SequencerLoopCallback callback, void* userdata);
 
+// Set a slot's loop callback (called when the slot's track wraps at the end of its own loop)
+// Slots wrapping in the same block are notified in slot order; a callback may swap or
+// remove its slot's track, and a new track starts from its top at the wrap point.
+// Tracks added to other slots during a callback start on the next block.
+// medness_sequencer_add_track() and medness_sequencer_remove_track() clear it.
+void medness_sequencer_set_slot_loop_callback(MednessSequencer* sequencer, int slot,
+                                              SequencerLoopCallback callback, void* userdata);
+
 // Enable/disable the sequencer
 void medness_sequencer_set_active(MednessSequencer* sequencer, int active);
 
@@ -83,6 +104,18 @@ void medness_sequencer_remove_track(MednessSequencer* sequencer, int slot);
 // Check if a slot has an active track
 int medness_sequencer_slot_is_active(MednessSequencer* sequencer, int slot);
 
+// Override a slot's loop length (ticks in the track's resolution, 0 = the track's own loop
+// ticks, or the 4-bar pattern if it has none)
+// Lets users of a shared track loop it at different lengths. The slot restarts at the grid
+// position within the new length. medness_sequencer_add_track() clears it.
+void medness_sequencer_set_slot_loop_ticks(MednessSequencer* sequencer, int slot, int loop_ticks);
+
+// Get a slot's loop length in pulses (24 PPQN), or 0 if the slot is empty
+int medness_sequencer_get_slot_length(MednessSequencer* sequencer, int slot);
+
+// Get a slot's current pulse within its own loop (0 to length-1)
+int medness_sequencer_get_slot_pulse(MednessSequencer* sequencer, int slot);
+
 #ifdef __cplusplus
 }
 #endif
@@ -1,4 +1,5 @@
 #include "medness_track.h"
+#include "medness_track_cache.h"
 #include "MidiFile.h"
 #include <vector>
 #include <algorithm>
@@ -9,12 +10,20 @@ struct MednessTrack {
     std::vector<MednessTrackEvent> events;
     int ticks_per_quarter;
     int duration_ticks;
+    int end_ticks;          // End of track (end-of-track event, or the last note event if later)
+    int time_sig_num;       // Beats per bar
+    int time_sig_den;       // Beat note value
+    int loop_ticks;         // Explicit loop length (0 = whole bars covering the events)
 };
 
 MednessTrack* medness_track_create(void) {
     MednessTrack* track = new MednessTrack();
     track->ticks_per_quarter = 480;  // Default TPQN
     track->duration_ticks = 0;
+    track->end_ticks = 0;
+    track->time_sig_num = 4;
+    track->time_sig_den = 4;
+    track->loop_ticks = 0;
     return track;
 }
 
@@ -24,9 +33,53 @@ void medness_track_destroy(MednessTrack* track) {
     }
 }
 
+// Internal: sort events and update the duration
+// end_of_track: tick of the file's end-of-track event (0 if none)
+static void sort_events(MednessTrack* track, int end_of_track) {
+    // Sort events by tick, with NOTE OFFs before NOTE ONs at the same tick
+    std::sort(track->events.begin(), track->events.end(),
+              [](const MednessTrackEvent& a, const MednessTrackEvent& b) {
+                  if (a.tick == b.tick) {
+                      // At same tick: OFF (0) before ON (1)
+                      return a.on < b.on;
+                  }
+                  return a.tick < b.tick;
+              });
+
+    // Calculate duration
+    if (!track->events.empty()) {
+        track->duration_ticks = track->events.back().tick;
+    } else {
+        track->duration_ticks = 0;
+    }
+    track->end_ticks = std::max(track->duration_ticks, end_of_track);
+}
+
+// Internal: load a track from its cache entry (already sorted, nothing to parse)
+static bool load_cached(MednessTrack* track, const char* filename) {
+    MednessTrackCacheEntry* entry = medness_track_cache_open(filename);
+    if (!entry) return false;
+
+    int count = 0;
+    const MednessTrackEvent* events = medness_track_cache_entry_events(entry, &count);
+    int tpqn = 0, num = 0, den = 0, end_ticks = 0;
+    medness_track_cache_entry_info(entry, &tpqn, &num, &den, &end_ticks);
+
+    track->events.assign(events, events + count);
+    track->ticks_per_quarter = tpqn;
+    track->duration_ticks = track->events.empty() ? 0 : track->events.back().tick;
+    track->end_ticks = std::max(track->duration_ticks, end_ticks);
+    medness_track_set_time_signature(track, num, den);
+
+    medness_track_cache_close(entry);
+    return true;
+}
+
 int medness_track_load_midi_file(MednessTrack* track, const char* filename) {
     if (!track || !filename) return -1;
 
+    if (load_cached(track, filename)) return 0;
+
     MidiFile midifile;
 
     // Load the MIDI file
@@ -42,6 +95,8 @@ int medness_track_load_midi_file(MednessTrack* track, const char* filename) {
 
     // Extract note events from all tracks
     track->events.clear();
+    bool have_time_signature = false;
+    int end_of_track = 0;
 
     for (int t = 0; t < midifile.getTrackCount(); t++) {
         for (int e = 0; e < midifile[t].size(); e++) {
@@ -61,27 +116,36 @@ int medness_track_load_midi_file(MednessTrack* track, const char* filename) {
                 evt.velocity = 0;
                 evt.on = 0;
                 track->events.push_back(evt);
+            } else if (me.isTimeSignature() && !have_time_signature) {
+                // FF 58 04 nn dd cc bb: numerator, denominator as a power of two (up to 1/64 notes)
+                if (me.size() >= 5 && me[3] > 0 && me[4] <= 6) {
+                    medness_track_set_time_signature(track, me[3], 1 << me[4]);
+                    have_time_signature = true;
+                }
+            } else if (me.isEndOfTrack()) {
+                end_of_track = std::max(end_of_track, me.tick);
             }
         }
     }
 
-    // Sort events by tick, with NOTE OFFs before NOTE ONs at the same tick
-    std::sort(track->events.begin(), track->events.end(),
-              [](const MednessTrackEvent& a, const MednessTrackEvent& b) {
-                  if (a.tick == b.tick) {
-                      // At same tick: OFF (0) before ON (1)
-                      return a.on < b.on;
-                  }
-                  return a.tick < b.tick;
-              });
+    sort_events(track, end_of_track);
 
-    // Calculate duration
-    if (!track->events.empty()) {
-        track->duration_ticks = track->events.back().tick;
-    } else {
-        track->duration_ticks = 0;
+    // Failing to write the cache (e.g. read-only crate) only costs the next load a parse
+    medness_track_cache_store(filename, track->events.data(), (int)track->events.size(),
+                              track->ticks_per_quarter, track->time_sig_num, track->time_sig_den,
+                              track->end_ticks);
+    return 0;
+}
+
+int medness_track_set_events(MednessTrack* track, const MednessTrackEvent* events, int count, int tpqn) {
+    if (!track || count < 0 || (count > 0 && !events)) return -1;
+
+    if (tpqn > 0) {
+        track->ticks_per_quarter = tpqn;
     }
+    track->events.assign(events, events + count);
 
+    sort_events(track, 0);
     return 0;
 }
 
@@ -111,7 +175,57 @@ int medness_track_get_duration_ticks(MednessTrack* track) {
     return track->duration_ticks;
 }
 
+int medness_track_get_end_ticks(MednessTrack* track) {
+    if (!track) return 0;
+    return track->end_ticks;
+}
+
 int medness_track_get_tpqn(MednessTrack* track) {
     if (!track) return 480;
     return track->ticks_per_quarter;
 }
+
+void medness_track_set_time_signature(MednessTrack* track, int numerator, int denominator) {
+    if (!track || numerator <= 0 || denominator <= 0) return;
+    track->time_sig_num = numerator;
+    track->time_sig_den = denominator;
+}
+
+void medness_track_get_time_signature(MednessTrack* track, int* numerator, int* denominator) {
+    if (numerator) *numerator = track ? track->time_sig_num : 4;
+    if (denominator) *denominator = track ? track->time_sig_den : 4;
+}
+
+// Internal: ticks in one bar of num/den (one beat is a 1/den note: tpqn * 4 / den ticks)
+static int bar_ticks_for(const MednessTrack* track, int num, int den) {
+    int bar_ticks = track->ticks_per_quarter * 4 * num / den;
+    return bar_ticks > 0 ? bar_ticks : 1;
+}
+
+int medness_track_get_bar_ticks(MednessTrack* track) {
+    if (!track) return 4 * 480;
+    return bar_ticks_for(track, track->time_sig_num, track->time_sig_den);
+}
+
+void medness_track_set_loop_ticks(MednessTrack* track, int ticks) {
+    if (!track) return;
+    track->loop_ticks = ticks > 0 ? ticks : 0;
+}
+
+int medness_track_get_loop_ticks(MednessTrack* track) {
+    if (!track) return 0;
+    return track->loop_ticks;
+}
+
+int medness_track_compute_loop_ticks(MednessTrack* track, int bars, int time_sig_num, int time_sig_den) {
+    if (!track) return 0;
+
+    bool own_meter = (time_sig_num <= 0 || time_sig_den <= 0);
+    int bar_ticks = own_meter ? medness_track_get_bar_ticks(track)
+                              : bar_ticks_for(track, time_sig_num, time_sig_den);
+    if (bars > 0) return bars * bar_ticks;
+
+    // Whole bars up to the end of track (an end on a bar line closes the previous bar)
+    bars = (track->end_ticks + bar_ticks - 1) / bar_ticks;
+    return (bars > 0 ? bars : 1) * bar_ticks;
+}
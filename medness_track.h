@@ -25,9 +25,16 @@ MednessTrack* medness_track_create(void);
 void medness_track_destroy(MednessTrack* track);
 
 // Load MIDI file data into the track
+// Uses the track cache (medness_track_cache.h) when it holds this version of the file,
+// otherwise parses the file and stores the result in the cache
 // Returns 0 on success, -1 on error
 int medness_track_load_midi_file(MednessTrack* track, const char* filename);
 
+// Replace the track's events with a copy of the given array (sorted by tick)
+// tpqn: resolution the ticks are expressed in (<= 0 keeps the current value)
+// Returns 0 on success, -1 on error
+int medness_track_set_events(MednessTrack* track, const MednessTrackEvent* events, int count, int tpqn);
+
 // Get the number of events in the track
 int medness_track_get_event_count(MednessTrack* track);
 
@@ -42,9 +49,33 @@ const MednessTrackEvent* medness_track_get_events(MednessTrack* track, int* out_
 // Get track duration in ticks
 int medness_track_get_duration_ticks(MednessTrack* track);
 
+// Get the end of track in ticks (the file's end-of-track event, or the last note event if later)
+int medness_track_get_end_ticks(MednessTrack* track);
+
 // Get ticks per quarter note (from MIDI file)
 int medness_track_get_tpqn(MednessTrack* track);
 
+// Time signature (from the MIDI file's first time signature event, 4/4 if it has none)
+// denominator: note value of one beat (2, 4, 8, 16, ...)
+void medness_track_set_time_signature(MednessTrack* track, int numerator, int denominator);
+void medness_track_get_time_signature(MednessTrack* track, int* numerator, int* denominator);
+
+// Ticks in one bar of the track's time signature
+int medness_track_get_bar_ticks(MednessTrack* track);
+
+// Loop length in ticks (the sequencer loops the track at this length)
+// ticks: explicit length, or 0 to loop on the sequencer's 4-bar pattern
+void medness_track_set_loop_ticks(MednessTrack* track, int ticks);
+
+// Get the explicit loop length in ticks (0 = none, the track loops on the 4-bar pattern)
+int medness_track_get_loop_ticks(MednessTrack* track);
+
+// Loop length in ticks for a given number of bars and meter, without changing the track
+// (for shared tracks, see medness_track_pool.h)
+// bars: loop length in bars (0 = whole bars up to the end of track, at least one bar)
+// time_sig_num/time_sig_den: meter (0 = the track's own)
+int medness_track_compute_loop_ticks(MednessTrack* track, int bars, int time_sig_num, int time_sig_den);
+
 #ifdef __cplusplus
 }
 #endif
@@ -0,0 +1,296 @@
+#include "medness_track_cache.h"
+#include <stdio.h>
+#include <stdlib.h>
+#include <string.h>
+#include <stdint.h>
+#include <string>
+#include <vector>
+#include <sys/stat.h>
+#ifdef _WIN32
+#include <direct.h>
+#include <process.h>
+#else
+#include <fcntl.h>
+#include <sys/mman.h>
+#include <unistd.h>
+#endif
+
+// "MTC1" in the writer's byte order; an entry from a machine with the other byte order fails the check
+#define TRACK_CACHE_MAGIC 0x3143544Du
+#define TRACK_CACHE_VERSION 2
+
+// Cache file layout: header, canonical source path (padded to 8 bytes), events
+struct TrackCacheHeader {
+    uint32_t magic;
+    uint32_t version;
+    uint32_t event_size;        // sizeof(MednessTrackEvent) of the writer
+    uint32_t event_count;
+    uint64_t source_size;       // MIDI file size in bytes
+    int64_t source_mtime_sec;   // MIDI file modification time
+    int64_t source_mtime_nsec;  // (0 where the platform has no sub-second times)
+    int32_t tpqn;
+    int32_t time_sig_num;
+    int32_t time_sig_den;
+    int32_t end_ticks;          // End-of-track tick
+    uint32_t path_length;       // Bytes of the canonical path (no terminator)
+    uint32_t reserved;          // Keeps the header a multiple of 8 bytes
+};
+
+#define TRACK_CACHE_PAD(n) (((n) + 7) & ~(size_t)7)
+
+struct MednessTrackCacheEntry {
+    const uint8_t* data;        // Mapped (or, on Windows, read) cache file
+    size_t size;
+#ifdef _WIN32
+    std::vector<uint8_t> buffer;
+#endif
+    const TrackCacheHeader* header;
+    const MednessTrackEvent* events;
+};
+
+static bool cache_enabled = true;
+static std::string cache_dir;   // Empty = TRACK_CACHE_DEFAULT_DIR next to each MIDI file
+
+void medness_track_cache_set_enabled(int enabled) {
+    cache_enabled = (enabled != 0);
+}
+
+int medness_track_cache_is_enabled(void) {
+    return cache_enabled ? 1 : 0;
+}
+
+void medness_track_cache_set_dir(const char* dir) {
+    cache_dir = dir ? dir : "";
+    while (cache_dir.size() > 1 && (cache_dir.back() == '/' || cache_dir.back() == '\\')) {
+        cache_dir.pop_back();
+    }
+}
+
+int medness_track_file_id(const char* filename, MednessTrackFileId* id) {
+    if (!filename || !id) return -1;
+
+#ifdef _WIN32
+    if (!_fullpath(id->path, filename, sizeof(id->path))) return -1;
+#else
+    char* resolved = realpath(filename, NULL);
+    if (!resolved) return -1;
+    size_t length = strlen(resolved);
+    if (length >= sizeof(id->path)) {
+        free(resolved);
+        return -1;
+    }
+    memcpy(id->path, resolved, length + 1);
+    free(resolved);
+#endif
+
+    struct stat st;
+    if (stat(id->path, &st) != 0) return -1;
+    id->size = (uint64_t)st.st_size;
+    id->mtime_sec = (int64_t)st.st_mtime;
+#if defined(__APPLE__)
+    id->mtime_nsec = (int64_t)st.st_mtimespec.tv_nsec;
+#elif defined(__linux__)
+    id->mtime_nsec = (int64_t)st.st_mtim.tv_nsec;
+#else
+    id->mtime_nsec = 0;
+#endif
+    return 0;
+}
+
+// Internal: directory holding the entry for a source
+static std::string cache_entry_dir(const MednessTrackFileId& source) {
+    if (!cache_dir.empty()) return cache_dir;
+
+    const char* slash = strrchr(source.path, '/');
+    const char* backslash = strrchr(source.path, '\\');
+    if (backslash > slash) slash = backslash;
+    std::string dir = slash ? std::string(source.path, slash - source.path) : std::string(".");
+    return dir + "/" + TRACK_CACHE_DEFAULT_DIR;
+}
+
+// Internal: entry file for a source (FNV-1a hash of the canonical path)
+static std::string cache_entry_path(const MednessTrackFileId& source) {
+    uint64_t hash = 0xcbf29ce484222325ull;
+    for (const char* c = source.path; *c; c++) {
+        hash ^= (unsigned char)*c;
+        hash *= 0x100000001b3ull;
+    }
+
+    char name[32];
+    snprintf(name, sizeof(name), "%016llx", (unsigned long long)hash);
+    return cache_entry_dir(source) + "/" + name + TRACK_CACHE_EXTENSION;
+}
+
+// Internal: unmap/free the file data of an entry
+static void cache_release_data(MednessTrackCacheEntry* entry) {
+#ifndef _WIN32
+    if (entry->data) munmap((void*)entry->data, entry->size);
+#endif
+    entry->data = NULL;
+    entry->size = 0;
+}
+
+// Internal: map a whole file read-only
+static bool cache_map_file(const std::string& path, MednessTrackCacheEntry* entry) {
+#ifdef _WIN32
+    FILE* f = fopen(path.c_str(), "rb");
+    if (!f) return false;
+    fseek(f, 0, SEEK_END);
+    long size = ftell(f);
+    fseek(f, 0, SEEK_SET);
+    if (size <= 0) {
+        fclose(f);
+        return false;
+    }
+    entry->buffer.resize((size_t)size);
+    bool ok = fread(entry->buffer.data(), 1, (size_t)size, f) == (size_t)size;
+    fclose(f);
+    if (!ok) return false;
+    entry->data = entry->buffer.data();
+    entry->size = (size_t)size;
+    return true;
+#else
+    int fd = open(path.c_str(), O_RDONLY);
+    if (fd < 0) return false;
+
+    struct stat st;
+    if (fstat(fd, &st) != 0 || st.st_size <= 0) {
+        close(fd);
+        return false;
+    }
+
+    void* data = mmap(NULL, (size_t)st.st_size, PROT_READ, MAP_PRIVATE, fd, 0);
+    close(fd);  // The mapping stays valid
+    if (data == MAP_FAILED) return false;
+
+    entry->data = (const uint8_t*)data;
+    entry->size = (size_t)st.st_size;
+    return true;
+#endif
+}
+
+MednessTrackCacheEntry* medness_track_cache_open(const char* midi_filename) {
+    if (!cache_enabled) return NULL;
+
+    MednessTrackFileId source;
+    if (medness_track_file_id(midi_filename, &source) != 0) return NULL;
+    size_t path_length = strlen(source.path);
+
+    MednessTrackCacheEntry* entry = new MednessTrackCacheEntry();
+    entry->data = NULL;
+    entry->size = 0;
+    entry->header = NULL;
+    entry->events = NULL;
+    if (!cache_map_file(cache_entry_path(source), entry) || entry->size < sizeof(TrackCacheHeader)) {
+        medness_track_cache_close(entry);
+        return NULL;
+    }
+
+    // Reject entries written by another layout, for another file, or for an older version of it
+    const TrackCacheHeader* header = (const TrackCacheHeader*)entry->data;
+    size_t events_offset = sizeof(TrackCacheHeader) + TRACK_CACHE_PAD((size_t)header->path_length);
+    bool valid = header->magic == TRACK_CACHE_MAGIC &&
+                 header->version == TRACK_CACHE_VERSION &&
+                 header->event_size == sizeof(MednessTrackEvent) &&
+                 header->path_length == path_length &&
+                 entry->size == events_offset + (size_t)header->event_count * sizeof(MednessTrackEvent) &&
+                 header->source_size == source.size &&
+                 header->source_mtime_sec == source.mtime_sec &&
+                 header->source_mtime_nsec == source.mtime_nsec &&
+                 memcmp(entry->data + sizeof(TrackCacheHeader), source.path, path_length) == 0;
+    if (!valid) {
+        medness_track_cache_close(entry);
+        return NULL;
+    }
+
+    entry->header = header;
+    entry->events = (const MednessTrackEvent*)(entry->data + events_offset);
+    return entry;
+}
+
+const MednessTrackEvent* medness_track_cache_entry_events(MednessTrackCacheEntry* entry, int* out_count) {
+    if (out_count) *out_count = entry ? (int)entry->header->event_count : 0;
+    if (!entry || entry->header->event_count == 0) return NULL;
+    return entry->events;
+}
+
+void medness_track_cache_entry_info(MednessTrackCacheEntry* entry, int* tpqn,
+                                    int* time_sig_num, int* time_sig_den, int* end_ticks) {
+    if (!entry) return;
+    if (tpqn) *tpqn = entry->header->tpqn;
+    if (time_sig_num) *time_sig_num = entry->header->time_sig_num;
+    if (time_sig_den) *time_sig_den = entry->header->time_sig_den;
+    if (end_ticks) *end_ticks = entry->header->end_ticks;
+}
+
+void medness_track_cache_close(MednessTrackCacheEntry* entry) {
+    if (!entry) return;
+    cache_release_data(entry);
+    delete entry;
+}
+
+int medness_track_cache_store(const char* midi_filename, const MednessTrackEvent* events, int count,
+                              int tpqn, int time_sig_num, int time_sig_den, int end_ticks) {
+    if (!cache_enabled || count < 0 || (count > 0 && !events)) return -1;
+
+    MednessTrackFileId source;
+    if (medness_track_file_id(midi_filename, &source) != 0) return -1;
+    size_t path_length = strlen(source.path);
+
+    // Create the cache directory if it doesn't exist
+    std::string dir = cache_entry_dir(source);
+#ifdef _WIN32
+    _mkdir(dir.c_str());
+    int pid = _getpid();
+#else
+    mkdir(dir.c_str(), 0755);
+    int pid = (int)getpid();
+#endif
+
+    TrackCacheHeader header;
+    memset(&header, 0, sizeof(header));
+    header.magic = TRACK_CACHE_MAGIC;
+    header.version = TRACK_CACHE_VERSION;
+    header.event_size = sizeof(MednessTrackEvent);
+    header.event_count = (uint32_t)count;
+    header.source_size = source.size;
+    header.source_mtime_sec = source.mtime_sec;
+    header.source_mtime_nsec = source.mtime_nsec;
+    header.tpqn = tpqn;
+    header.time_sig_num = time_sig_num;
+    header.time_sig_den = time_sig_den;
+    header.end_ticks = end_ticks;
+    header.path_length = (uint32_t)path_length;
+
+    // Write a temporary file and rename it, so a reader never maps a half-written entry
+    std::string path = cache_entry_path(source);
+    char suffix[32];
+    snprintf(suffix, sizeof(suffix), ".tmp%d", pid);
+    std::string temp_path = path + suffix;
+
+    FILE* f = fopen(temp_path.c_str(), "wb");
+    if (!f) return -1;
+
+    static const char padding[8] = {0};
+    size_t pad = TRACK_CACHE_PAD(path_length) - path_length;
+    bool ok = fwrite(&header, sizeof(header), 1, f) == 1 &&
+              fwrite(source.path, 1, path_length, f) == path_length &&
+              fwrite(padding, 1, pad, f) == pad &&
+              (count == 0 || fwrite(events, sizeof(MednessTrackEvent), (size_t)count, f) == (size_t)count);
+    if (fclose(f) != 0) ok = false;
+
+#ifdef _WIN32
+    if (ok) remove(path.c_str());  // rename() does not replace on Windows
+#endif
+    if (!ok || rename(temp_path.c_str(), path.c_str()) != 0) {
+        remove(temp_path.c_str());
+        return -1;
+    }
+    return 0;
+}
+
+void medness_track_cache_invalidate(const char* midi_filename) {
+    MednessTrackFileId source;
+    if (medness_track_file_id(midi_filename, &source) != 0) return;
+    remove(cache_entry_path(source).c_str());
+}
@@ -0,0 +1,75 @@
+#ifndef MEDNESS_TRACK_CACHE_H
+#define MEDNESS_TRACK_CACHE_H
+
+#include "medness_track.h"
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// On-disk cache of parsed MIDI files
+// Each entry holds a track's sorted event array plus its resolution, meter and end-of-track
+// tick, keyed by the MIDI file's canonical path, size and modification time. Loading an
+// entry maps the file and copies the events, skipping the MIDI parse, time analysis and sort.
+// Entries are stored in the cache directory as <hash of path>.mtc; a stale or corrupt entry
+// is simply a miss and gets rewritten on the next parse.
+
+// Default cache directory, created next to each MIDI file (i.e. inside the crate)
+#define TRACK_CACHE_DEFAULT_DIR ".trackcache"
+
+// Cache file extension
+#define TRACK_CACHE_EXTENSION ".mtc"
+
+// Longest canonical path of a MIDI file
+#define TRACK_FILE_PATH_MAX 4096
+
+// Identity of one version of a MIDI file (shared by the cache and the track pool)
+typedef struct {
+    char path[TRACK_FILE_PATH_MAX];  // Canonical path
+    uint64_t size;                   // File size in bytes
+    int64_t mtime_sec;               // Modification time
+    int64_t mtime_nsec;              // (0 where the platform has no sub-second times)
+} MednessTrackFileId;
+
+// Opaque handle for a mapped cache entry
+typedef struct MednessTrackCacheEntry MednessTrackCacheEntry;
+
+// Get the canonical path, size and modification time of a MIDI file
+// Returns 0 on success, -1 if the file can't be resolved or doesn't exist
+int medness_track_file_id(const char* filename, MednessTrackFileId* id);
+
+// Enable/disable the cache (enabled by default)
+void medness_track_cache_set_enabled(int enabled);
+int medness_track_cache_is_enabled(void);
+
+// Set the cache directory (NULL or "" = TRACK_CACHE_DEFAULT_DIR next to each MIDI file)
+void medness_track_cache_set_dir(const char* dir);
+
+// Open the cache entry for a MIDI file
+// Returns NULL on a miss (no entry, the MIDI file changed, or the entry is unreadable)
+MednessTrackCacheEntry* medness_track_cache_open(const char* midi_filename);
+
+// Get the entry's events (sorted by tick, valid until the entry is closed)
+const MednessTrackEvent* medness_track_cache_entry_events(MednessTrackCacheEntry* entry, int* out_count);
+
+// Get the entry's resolution, meter and end of track
+void medness_track_cache_entry_info(MednessTrackCacheEntry* entry, int* tpqn,
+                                    int* time_sig_num, int* time_sig_den, int* end_ticks);
+
+// Unmap and free an entry
+void medness_track_cache_close(MednessTrackCacheEntry* entry);
+
+// Write the cache entry for a MIDI file (replaces any existing one)
+// Returns 0 on success, -1 on error (e.g. read-only crate directory)
+int medness_track_cache_store(const char* midi_filename, const MednessTrackEvent* events, int count,
+                              int tpqn, int time_sig_num, int time_sig_den, int end_ticks);
+
+// Remove the cache entry for a MIDI file (e.g. after rewriting it in place)
+void medness_track_cache_invalidate(const char* midi_filename);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // MEDNESS_TRACK_CACHE_H
@@ -0,0 +1,112 @@
+#include "medness_track_pool.h"
+#include "medness_track_cache.h"
+#include <stdint.h>
+#include <string>
+#include <vector>
+#include <mutex>
+
+// One loaded MIDI file
+struct TrackPoolEntry {
+    std::string path;           // Canonical path
+    MednessTrack* track;
+    int refs;
+    uint64_t size;              // File version the track was loaded from
+    int64_t mtime_sec;
+    int64_t mtime_nsec;
+    bool current;               // False once the file changed (kept only for its holders)
+};
+
+static std::mutex pool_mutex;
+static std::vector<TrackPoolEntry> pool_entries;
+
+// Internal: canonical path, size and modification time of a MIDI file
+// (the same identity the track cache uses, see medness_track_file_id())
+static bool pool_stat_file(const char* filename, TrackPoolEntry* entry) {
+    MednessTrackFileId id;
+    if (medness_track_file_id(filename, &id) != 0) return false;
+    entry->path = id.path;
+    entry->size = id.size;
+    entry->mtime_sec = id.mtime_sec;
+    entry->mtime_nsec = id.mtime_nsec;
+    return true;
+}
+
+MednessTrack* medness_track_pool_acquire(const char* filename) {
+    if (!filename) return NULL;
+
+    TrackPoolEntry file;
+    if (!pool_stat_file(filename, &file)) return NULL;
+
+    std::lock_guard<std::mutex> lock(pool_mutex);
+
+    for (TrackPoolEntry& entry : pool_entries) {
+        if (!entry.current || entry.path != file.path) continue;
+
+        if (entry.size == file.size && entry.mtime_sec == file.mtime_sec && entry.mtime_nsec == file.mtime_nsec) {
+            entry.refs++;
+            return entry.track;
+        }
+
+        // The file changed: new users get a fresh track
+        entry.current = false;
+        break;
+    }
+
+    MednessTrack* track = medness_track_create();
+    if (!track) return NULL;
+    if (medness_track_load_midi_file(track, file.path.c_str()) != 0) {
+        medness_track_destroy(track);
+        return NULL;
+    }
+
+    file.track = track;
+    file.refs = 1;
+    file.current = true;
+    pool_entries.push_back(file);
+    return track;
+}
+
+void medness_track_pool_release(MednessTrack* track) {
+    if (!track) return;
+
+    std::lock_guard<std::mutex> lock(pool_mutex);
+
+    for (size_t i = 0; i < pool_entries.size(); i++) {
+        if (pool_entries[i].track != track) continue;
+
+        if (--pool_entries[i].refs <= 0) {
+            medness_track_destroy(track);
+            pool_entries.erase(pool_entries.begin() + i);
+        }
+        return;
+    }
+}
+
+void medness_track_pool_invalidate(const char* filename) {
+    TrackPoolEntry file;
+    if (!filename || !pool_stat_file(filename, &file)) return;
+
+    std::lock_guard<std::mutex> lock(pool_mutex);
+
+    for (TrackPoolEntry& entry : pool_entries) {
+        if (entry.path == file.path) {
+            entry.current = false;
+        }
+    }
+}
+
+int medness_track_pool_get_count(void) {
+    std::lock_guard<std::mutex> lock(pool_mutex);
+    return (int)pool_entries.size();
+}
+
+int medness_track_pool_get_refcount(MednessTrack* track) {
+    if (!track) return 0;
+
+    std::lock_guard<std::mutex> lock(pool_mutex);
+
+    for (const TrackPoolEntry& entry : pool_entries) {
+        if (entry.track == track) return entry.refs;
+    }
+    return 0;
+}
@@ -0,0 +1,39 @@
+#ifndef MEDNESS_TRACK_POOL_H
+#define MEDNESS_TRACK_POOL_H
+
+#include "medness_track.h"
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Shared MIDI tracks
+// Pads and phrases that point at the same MIDI file (same canonical path) share one
+// loaded track. Pooled tracks are immutable: per-use settings such as the loop length
+// belong to the user (see medness_sequencer_set_slot_loop_ticks()).
+// When a file changes on disk, the next acquire loads a new track; holders of the old
+// one keep it until they release it.
+// Thread safety: any thread may acquire/release; a track must not be released while
+// the sequencer still plays it.
+
+// Get the shared track for a MIDI file (loaded on first use) and add a reference
+// Returns NULL if the file can't be loaded
+MednessTrack* medness_track_pool_acquire(const char* filename);
+
+// Drop a reference; the track is destroyed when the last user releases it
+void medness_track_pool_release(MednessTrack* track);
+
+// Make the next acquire of a file load it again (e.g. after rewriting it in place)
+void medness_track_pool_invalidate(const char* filename);
+
+// Number of distinct tracks currently loaded
+int medness_track_pool_get_count(void);
+
+// References held on a track (0 if it isn't pooled)
+int medness_track_pool_get_refcount(MednessTrack* track);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // MEDNESS_TRACK_POOL_H
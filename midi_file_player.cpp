@@ -1,5 +1,7 @@
 #include "midi_file_player.h"
 #include "MidiFile.h"
+#include "samplecrate_rtlog.h"
+#include "medness_sequencer.h"
 #include <chrono>
 #include <vector>
 #include <algorithm>
@@ -32,6 +34,8 @@ struct MidiFilePlayer {
     float duration_seconds;    // Total duration in seconds
     int ticks_per_quarter;     // MIDI ticks per quarter note (from file)
     int last_tick_processed;   // Last tick that was processed (to prevent duplicates)
+    int grid_pulse_offset;     // Pulses of completed grid passes (files longer than the grid)
+    int last_grid_pulse;       // Grid pulse at the previous update (-1 = none yet)
 
     // Track which notes are currently on (for all-notes-off when stopping)
     std::vector<int> active_notes;
@@ -51,6 +55,8 @@ MidiFilePlayer* midi_file_player_create(void) {
     player->duration_seconds = 0.0f;
     player->ticks_per_quarter = 480;  // Default TPQN
     player->last_tick_processed = -1;  // No ticks processed yet
+    player->grid_pulse_offset = 0;
+    player->last_grid_pulse = -1;
     return player;
 }
 
@@ -131,6 +137,8 @@ void midi_file_player_play(MidiFilePlayer* player) {
     std::cout << "Starting MIDI playback - will sync to current pattern position" << std::endl;
     player->playing = true;
     player->last_tick_processed = -1;  // Reset tick tracking
+    player->grid_pulse_offset = 0;
+    player->last_grid_pulse = -1;
     player->active_notes.clear();
 }
 
@@ -234,20 +242,24 @@ void midi_file_player_update(MidiFilePlayer* player, float delta_ms, int current
     // }
 
     if (current_beat >= 0) {
-        // SIMPLE: current_beat IS the pattern position (0-383 pulses cycling)
-        // Convert directly to seconds within the file
-        const int PATTERN_LENGTH_PULSES = 384;
-        int pattern_pulse = current_beat % PATTERN_LENGTH_PULSES;
+        // current_beat is the grid position (0-383 pulses cycling); count the grid passes
+        // so files longer than the grid play through, then convert to seconds within the file
+        int grid_pulse = current_beat % SEQUENCER_GRID_PULSES;
+        if (player->last_grid_pulse - grid_pulse > SEQUENCER_GRID_PULSES / 2) {
+            player->grid_pulse_offset += SEQUENCER_GRID_PULSES;
+        }
+        player->last_grid_pulse = grid_pulse;
+        int pattern_pulse = player->grid_pulse_offset + grid_pulse;
 
-        float beats_in_pattern = pattern_pulse / 24.0f;  // Convert pulses to beats
+        float beats_in_pattern = pattern_pulse / (float)SEQUENCER_PPQN;  // Convert pulses to beats
         float seconds_per_beat = 60.0f / player->tempo_bpm;
         player->position_seconds = beats_in_pattern * seconds_per_beat;
 
         // Debug: log position every 96 pulses (every bar)
         static int last_debug_pulse = -1;
         if (pattern_pulse / 96 != last_debug_pulse / 96) {
-            std::cout << "[PLAYER] pulse=" << pattern_pulse << " pos=" << player->position_seconds
-                      << "s duration=" << player->duration_seconds << "s" << std::endl;
+            samplecrate_rtlog(RTLOG_LEVEL_DEBUG, "[PLAYER] pulse=%d pos=%gs duration=%gs",
+                              pattern_pulse, player->position_seconds, player->duration_seconds);
             last_debug_pulse = pattern_pulse;
         }
 
@@ -323,15 +335,15 @@ void midi_file_player_update(MidiFilePlayer* player, float delta_ms, int current
         // Debug wrap events
         auto now = std::chrono::high_resolution_clock::now();
         auto ms = std::chrono::duration_cast<std::chrono::milliseconds>(now.time_since_epoch()).count();
-        std::cout << "[" << ms << "] WRAP EVENTS old_tick=" << old_tick
-                  << " last_tick=" << last_tick << " new_tick=" << new_tick << std::endl;
+        samplecrate_rtlog(RTLOG_LEVEL_DEBUG, "[%lld] WRAP EVENTS old_tick=%d last_tick=%d new_tick=%d",
+                          (long long)ms, old_tick, last_tick, new_tick);
 
         // Fire events from old_tick to end of file
-        std::cout << "[WRAP PART 1] Firing events from " << old_tick << " to " << last_tick << std::endl;
+        samplecrate_rtlog(RTLOG_LEVEL_DEBUG, "[WRAP PART 1] Firing events from %d to %d", old_tick, last_tick);
         for (const MidiEventState& evt : player->events) {
             if (evt.tick > old_tick && evt.tick <= last_tick) {
-                std::cout << "  [WRAP1] tick=" << evt.tick << " note=" << evt.note
-                          << " vel=" << evt.velocity << " " << (evt.on ? "ON" : "OFF") << std::endl;
+                samplecrate_rtlog(RTLOG_LEVEL_DEBUG, "  [WRAP1] tick=%d note=%d vel=%d %s",
+                                  evt.tick, evt.note, evt.velocity, evt.on ? "ON" : "OFF");
                 player->callback(evt.note, evt.velocity, evt.on, player->userdata);
 
                 // Track active notes
@@ -347,11 +359,11 @@ void midi_file_player_update(MidiFilePlayer* player, float delta_ms, int current
         }
 
         // Fire events from beginning to new_tick (use >= to include tick 0)
-        std::cout << "[WRAP PART 2] Firing events from 0 to " << new_tick << std::endl;
+        samplecrate_rtlog(RTLOG_LEVEL_DEBUG, "[WRAP PART 2] Firing events from 0 to %d", new_tick);
         for (const MidiEventState& evt : player->events) {
             if (evt.tick >= 0 && evt.tick <= new_tick) {
-                std::cout << "  [WRAP2] tick=" << evt.tick << " note=" << evt.note
-                          << " vel=" << evt.velocity << " " << (evt.on ? "ON" : "OFF") << std::endl;
+                samplecrate_rtlog(RTLOG_LEVEL_DEBUG, "  [WRAP2] tick=%d note=%d vel=%d %s",
+                                  evt.tick, evt.note, evt.velocity, evt.on ? "ON" : "OFF");
                 player->callback(evt.note, evt.velocity, evt.on, player->userdata);
 
                 // Track active notes
@@ -415,6 +415,93 @@ int sysex_parse_fx_state_response(const uint8_t *data, size_t data_len,
     return 1;
 }
 
+// --- Engine Health Functions ---
+
+// Helper: write value as num_bytes 7-bit bytes (MSB first), clipped to the field width
+static size_t put_7bit(uint8_t *buffer, uint32_t value, int num_bytes) {
+    uint32_t max_value = (1u << (7 * num_bytes)) - 1;
+    if (value > max_value) value = max_value;
+    for (int i = num_bytes - 1; i >= 0; i--) {
+        *buffer++ = (uint8_t)((value >> (7 * i)) & 0x7F);
+    }
+    return (size_t)num_bytes;
+}
+
+// Helper: read num_bytes 7-bit bytes (MSB first)
+static uint32_t get_7bit(const uint8_t *data, int num_bytes) {
+    uint32_t value = 0;
+    for (int i = 0; i < num_bytes; i++) {
+        value = (value << 7) | (data[i] & 0x7F);
+    }
+    return value;
+}
+
+size_t sysex_build_get_engine_health(uint8_t target_device_id,
+                                     uint8_t *buffer, size_t buffer_size) {
+    if (!buffer || buffer_size < 5) return 0;
+
+    buffer[0] = SYSEX_START;
+    buffer[1] = SYSEX_MANUFACTURER_ID;
+    buffer[2] = target_device_id & 0x7F;
+    buffer[3] = SYSEX_CMD_GET_ENGINE_HEALTH;
+    buffer[4] = SYSEX_END;
+
+    return 5;
+}
+
+size_t sysex_build_engine_health_response(uint8_t target_device_id,
+                                          const SysExEngineHealth *health,
+                                          uint8_t *buffer, size_t buffer_size) {
+    // F0 7D <dev> <cmd> <data> F7
+    const size_t required = 5 + SYSEX_HEALTH_DATA_SIZE;
+    if (!buffer || !health || buffer_size < required) return 0;
+
+    size_t pos = 0;
+    buffer[pos++] = SYSEX_START;
+    buffer[pos++] = SYSEX_MANUFACTURER_ID;
+    buffer[pos++] = target_device_id & 0x7F;
+    buffer[pos++] = SYSEX_CMD_ENGINE_HEALTH_RESPONSE;
+
+    buffer[pos++] = 0x01;  // Version
+    pos += put_7bit(&buffer[pos], health->sample_rate, 3);
+    pos += put_7bit(&buffer[pos], health->block_size, 2);
+    pos += put_7bit(&buffer[pos], health->load_permille, 2);
+    pos += put_7bit(&buffer[pos], health->peak_load_permille, 2);
+    pos += put_7bit(&buffer[pos], health->overruns, 4);
+    pos += put_7bit(&buffer[pos], health->deadline_misses, 4);
+    for (int t = 0; t < SYSEX_HEALTH_NUM_TIMINGS; t++) {
+        for (int v = 0; v < 4; v++) {
+            pos += put_7bit(&buffer[pos], health->timing_us[t][v], 3);
+        }
+    }
+
+    buffer[pos++] = SYSEX_END;
+
+    return pos;
+}
+
+int sysex_parse_engine_health_response(const uint8_t *data, size_t data_len,
+                                       SysExEngineHealth *out_health) {
+    if (!data || !out_health || data_len < SYSEX_HEALTH_DATA_SIZE) return 0;
+    if (data[0] != 0x01) return 0;  // Unknown version
+
+    size_t pos = 1;
+    out_health->sample_rate = get_7bit(&data[pos], 3); pos += 3;
+    out_health->block_size = (uint16_t)get_7bit(&data[pos], 2); pos += 2;
+    out_health->load_permille = (uint16_t)get_7bit(&data[pos], 2); pos += 2;
+    out_health->peak_load_permille = (uint16_t)get_7bit(&data[pos], 2); pos += 2;
+    out_health->overruns = get_7bit(&data[pos], 4); pos += 4;
+    out_health->deadline_misses = get_7bit(&data[pos], 4); pos += 4;
+    for (int t = 0; t < SYSEX_HEALTH_NUM_TIMINGS; t++) {
+        for (int v = 0; v < 4; v++) {
+            out_health->timing_us[t][v] = get_7bit(&data[pos], 3);
+            pos += 3;
+        }
+    }
+
+    return 1;
+}
+
 // --- Sequence Track Upload Response Functions ---
 
 size_t sysex_build_sequence_track_upload_response(uint8_t target_device_id,
@@ -473,6 +560,8 @@ const char* sysex_command_name(SysExCommand cmd) {
         case SYSEX_CMD_SEQUENCE_STATE_RESPONSE: return "SEQUENCE_STATE_RESPONSE";
         case SYSEX_CMD_GET_PROGRAM_STATE: return "GET_PROGRAM_STATE";
         case SYSEX_CMD_PROGRAM_STATE_RESPONSE: return "PROGRAM_STATE_RESPONSE";
+        case SYSEX_CMD_GET_ENGINE_HEALTH: return "GET_ENGINE_HEALTH";
+        case SYSEX_CMD_ENGINE_HEALTH_RESPONSE: return "ENGINE_HEALTH_RESPONSE";
         case SYSEX_CMD_FX_EFFECT_GET:  return "FX_EFFECT_GET";
         case SYSEX_CMD_FX_EFFECT_SET:  return "FX_EFFECT_SET";
         case SYSEX_CMD_FX_GET_ALL_STATE: return "FX_GET_ALL_STATE";
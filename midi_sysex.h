@@ -68,6 +68,8 @@ typedef enum {
     SYSEX_CMD_SEQUENCE_STATE_RESPONSE          = 0x63,  // Complete sequence state response
     SYSEX_CMD_GET_PROGRAM_STATE                = 0x64,  // Request program state (master + programs, Samplecrate specific)
     SYSEX_CMD_PROGRAM_STATE_RESPONSE           = 0x65,  // Program state response
+    SYSEX_CMD_GET_ENGINE_HEALTH                = 0x66,  // Request audio engine health (DSP load, overruns, timings)
+    SYSEX_CMD_ENGINE_HEALTH_RESPONSE           = 0x67,  // Engine health response
 } SysExCommand;
 
 // Effect IDs for FX_EFFECT_GET/SET commands
@@ -236,6 +238,51 @@ int sysex_parse_fx_state_response(const uint8_t *data, size_t data_len,
                                    uint8_t *out_compressor_params,  // 5 bytes
                                    uint8_t *out_delay_params);      // 3 bytes
 
+// --- Engine Health Functions ---
+
+// Timings reported in ENGINE_HEALTH_RESPONSE: whole callback, then sequencer,
+// synths, program FX, aux FX and master FX
+#define SYSEX_HEALTH_NUM_TIMINGS 6
+
+// ENGINE_HEALTH_RESPONSE data size (version 1)
+#define SYSEX_HEALTH_DATA_SIZE (18 + SYSEX_HEALTH_NUM_TIMINGS * 4 * 3)
+
+// Audio engine health, as carried by ENGINE_HEALTH_RESPONSE
+// Values are clipped to their field widths (14, 21 or 28 bits)
+typedef struct {
+    uint32_t sample_rate;           // Hz (21 bits)
+    uint16_t block_size;            // Frames per callback (14 bits)
+    uint16_t load_permille;         // Smoothed callback time / deadline (14 bits)
+    uint16_t peak_load_permille;    // Peak load (14 bits)
+    uint32_t overruns;              // Callbacks close to their deadline (28 bits)
+    uint32_t deadline_misses;       // Callbacks over their deadline (28 bits)
+    uint32_t timing_us[SYSEX_HEALTH_NUM_TIMINGS][4];  // min, avg, p99, max in us (21 bits each)
+} SysExEngineHealth;
+
+// Build GET_ENGINE_HEALTH message
+// F0 7D <dev> 66 F7
+size_t sysex_build_get_engine_health(uint8_t target_device_id,
+                                     uint8_t *buffer, size_t buffer_size);
+
+// Build ENGINE_HEALTH_RESPONSE message
+// F0 7D <dev> 67 <data> F7, data (multi-byte values MSB first, 7 bits per byte):
+//   Byte 0:      Version (0x01)
+//   Bytes 1-3:   Sample rate
+//   Bytes 4-5:   Block size
+//   Bytes 6-7:   Load (permille)
+//   Bytes 8-9:   Peak load (permille)
+//   Bytes 10-13: Overruns
+//   Bytes 14-17: Deadline misses
+//   Bytes 18-:   Per timing: min, avg, p99, max (3 bytes each)
+size_t sysex_build_engine_health_response(uint8_t target_device_id,
+                                          const SysExEngineHealth *health,
+                                          uint8_t *buffer, size_t buffer_size);
+
+// Parse ENGINE_HEALTH_RESPONSE data (the bytes after the command)
+// Returns 1 on success, 0 on failure
+int sysex_parse_engine_health_response(const uint8_t *data, size_t data_len,
+                                       SysExEngineHealth *out_health);
+
 // --- Sequence Track Upload Response Functions ---
 
 // Build SEQUENCE_TRACK_UPLOAD_RESPONSE message
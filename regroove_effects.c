@@ -1,8 +1,35 @@
 #include "regroove_effects.h"
+#include "regroove_effects_simd.h"
 #include <stdlib.h>
 #include <string.h>
 #include <math.h>
 
+#if defined(__GNUC__) && (defined(__x86_64__) || defined(__i386__)) && defined(__SSE__)
+#define REGROOVE_FTZ_X86 1
+#include <xmmintrin.h>
+#elif defined(__GNUC__) && defined(__aarch64__)
+#define REGROOVE_FTZ_ARM64 1
+#endif
+
+// MXCSR flush-to-zero (bit 15) and denormals-are-zero (bit 6)
+#define MXCSR_FTZ_DAZ 0x8040u
+// AArch64 FPCR flush-to-zero (bit 24, also treats denormal inputs as zero)
+#define FPCR_FZ (1ull << 24)
+
+// Denormal guard (threads without flush-to-zero): DC offset added to the delay and
+// reverb inputs (-360 dB, keeps the lines' feedback above the denormal range), and
+// the level below which filter states are flushed at the end of each block
+#define DENORMAL_GUARD_OFFSET 1e-18f
+#define DENORMAL_GUARD_FLOOR 1e-15f
+
+static int denormal_guard = 1;
+
+// Delay and reverb lines are allocated on the control thread while the audio thread
+// may be running: their pointers are published with a release store (after the
+// lengths and cleared contents) and read with an acquire load
+#define LINE_PUBLISH(dst, ptr) __atomic_store_n(&(dst), (ptr), __ATOMIC_RELEASE)
+#define LINE_ACQUIRE(src) __atomic_load_n(&(src), __ATOMIC_ACQUIRE)
+
 // Helper: clamp float value
 static inline float clampf(float v, float min, float max) {
     if (v < min) return min;
@@ -10,39 +37,21 @@ static inline float clampf(float v, float min, float max) {
     return v;
 }
 
-// Helper: Foldback distortion for aggressive harmonics
-static inline float foldback(float x) {
-    const float threshold = 1.0f;
-    if (x > threshold) {
-        x = threshold - fmodf(x - threshold, threshold * 2.0f);
-    } else if (x < -threshold) {
-        x = -threshold + fmodf(-threshold - x, threshold * 2.0f);
-    }
-    return x;
-}
-
-// Helper: RB338-style aggressive asymmetric distortion for 909 kicks
-static inline float rb338_shaper(float x) {
-    // Asymmetric waveshaping - emphasizes attack on positive side
-    // More aggressive on positive (kick transients), softer on negative
-    if (x > 0.0f) {
-        return tanhf(x * 1.5f);  // Aggressive positive
-    } else {
-        return tanhf(x * 0.5f);  // Softer negative
-    }
+// Helper: One-pole coefficient for a normalized cutoff (cutoff / sample_rate)
+static inline float onepole_alpha(float cutoff_norm) {
+    return 1.0f - expf(-2.0f * 3.14159f * cutoff_norm);
 }
 
 // Helper: Simple one-pole highpass filter for pre-emphasis
-static inline float highpass_tick(float input, float *state, float cutoff_norm) {
-    float alpha = 1.0f - expf(-2.0f * 3.14159f * cutoff_norm);
+static inline float highpass_tick(float input, float *state, float alpha) {
     *state += alpha * (input - *state);
     return input - *state;
 }
 
 // Helper: Simple resonant bandpass bump (for punch at 120Hz)
-static inline float bandpass_bump(float input, float *lp_state, float *bp_state, float freq_norm, float q) {
+// f: state-variable filter coefficient, 2 * sin(pi * freq_norm)
+static inline float bandpass_bump(float input, float *lp_state, float *bp_state, float f, float q) {
     // State-variable filter bandpass output
-    float f = 2.0f * sinf(3.14159f * freq_norm);
     *lp_state += f * *bp_state;
     float hp = input - *lp_state - q * *bp_state;
     *bp_state += f * hp;
@@ -57,19 +66,30 @@ static inline float envelope_follower(float input, float *state, float attack, f
     return *state;
 }
 
+// Freeverb tuning (line lengths at 44.1kHz, scaled to the prepared sample rate)
+static const int reverb_comb_tuning[REVERB_NUM_COMBS] = { 1116, 1188, 1277, 1356, 1422, 1491, 1557, 1617 };
+static const int reverb_allpass_tuning[REVERB_NUM_ALLPASSES] = { 556, 441, 341, 225 };
+#define REVERB_STEREO_SPREAD 23      // Extra samples on every right channel line
+#define REVERB_FIXED_GAIN 0.015f     // Input gain into the comb bank
+#define REVERB_ALLPASS_FEEDBACK 0.5f
+
+// Phaser sweep range and control rate
+#define PHASER_MIN_HZ 200.0f
+#define PHASER_SWEEP_RANGE 20.0f     // Top of the sweep at full depth (x min frequency)
+#define PHASER_CONTROL_FRAMES 32     // LFO evaluated every 32 frames, coefficient ramped in between
+
+// Helper: line length scaled from 44.1kHz tuning
+static int reverb_scaled_length(int tuning, int sample_rate) {
+    int len = (int)((double)tuning * sample_rate / 44100.0 + 0.5);
+    return len < 1 ? 1 : len;
+}
+
 RegrooveEffects* regroove_effects_create(void) {
     RegrooveEffects* fx = (RegrooveEffects*)calloc(1, sizeof(RegrooveEffects));
     if (!fx) return NULL;
 
-    // Allocate delay buffers
-    fx->delay_buffer[0] = (float*)calloc(MAX_DELAY_SAMPLES, sizeof(float));
-    fx->delay_buffer[1] = (float*)calloc(MAX_DELAY_SAMPLES, sizeof(float));
-    if (!fx->delay_buffer[0] || !fx->delay_buffer[1]) {
-        free(fx->delay_buffer[0]);
-        free(fx->delay_buffer[1]);
-        free(fx);
-        return NULL;
-    }
+    // Delay and reverb lines are allocated when those stages are first enabled
+    fx->line_sample_rate = REGROOVE_EFFECTS_DEFAULT_SAMPLE_RATE;
 
     // Default parameters
     fx->distortion_enabled = 0;
@@ -107,6 +127,13 @@ RegrooveEffects* regroove_effects_create(void) {
     fx->delay_feedback = 0.4f;
     fx->delay_mix = 0.3f;
 
+    // Pick the SIMD kernels now rather than on the audio thread
+    regroove_kernels_get();
+
+    // Coefficients are computed (and ramps snapped to their targets) on the first block
+    fx->coeffs_dirty = 1;
+    fx->coeffs_sample_rate = 0;
+
     return fx;
 }
 
@@ -114,10 +141,97 @@ void regroove_effects_destroy(RegrooveEffects* fx) {
     if (fx) {
         free(fx->delay_buffer[0]);
         free(fx->delay_buffer[1]);
+        free(fx->reverb_lines);
         free(fx);
     }
 }
 
+// Helper: (re)allocate the reverb lines for sample_rate
+static int allocate_reverb_lines(RegrooveEffects* fx, int sample_rate) {
+    int comb_len[REVERB_NUM_COMBS][2];
+    int allpass_len[REVERB_NUM_ALLPASSES][2];
+    size_t total = 0;
+    for (int ch = 0; ch < 2; ch++) {
+        int spread = ch ? REVERB_STEREO_SPREAD : 0;
+        for (int c = 0; c < REVERB_NUM_COMBS; c++) {
+            comb_len[c][ch] = reverb_scaled_length(reverb_comb_tuning[c] + spread, sample_rate);
+            total += comb_len[c][ch];
+        }
+        for (int a = 0; a < REVERB_NUM_ALLPASSES; a++) {
+            allpass_len[a][ch] = reverb_scaled_length(reverb_allpass_tuning[a] + spread, sample_rate);
+            total += allpass_len[a][ch];
+        }
+    }
+
+    float* lines = (float*)calloc(total, sizeof(float));
+    if (!lines) return -1;
+
+    float* p = lines;
+    for (int ch = 0; ch < 2; ch++) {
+        for (int c = 0; c < REVERB_NUM_COMBS; c++) {
+            fx->reverb_comb_line[c][ch] = p;
+            fx->reverb_comb_len[c][ch] = comb_len[c][ch];
+            fx->reverb_comb_pos[c][ch] = 0;
+            fx->reverb_comb[c][ch] = 0.0f;
+            p += comb_len[c][ch];
+        }
+        for (int a = 0; a < REVERB_NUM_ALLPASSES; a++) {
+            fx->reverb_allpass_line[a][ch] = p;
+            fx->reverb_allpass_len[a][ch] = allpass_len[a][ch];
+            fx->reverb_allpass_pos[a][ch] = 0;
+            p += allpass_len[a][ch];
+        }
+    }
+
+    float* old_lines = fx->reverb_lines;
+    LINE_PUBLISH(fx->reverb_lines, lines);
+    free(old_lines);
+    return 0;
+}
+
+// Helper: (re)allocate the delay line for sample_rate (longest delay plus one sample)
+static int allocate_delay_lines(RegrooveEffects* fx, int sample_rate) {
+    int length = REGROOVE_DELAY_MAX_SECONDS * sample_rate + 1;
+    float* left = (float*)calloc(length, sizeof(float));
+    float* right = (float*)calloc(length, sizeof(float));
+    if (!left || !right) {
+        free(left);
+        free(right);
+        return -1;
+    }
+
+    float* old_left = fx->delay_buffer[0];
+    float* old_right = fx->delay_buffer[1];
+    fx->delay_write_pos = 0;
+    fx->delay_length = length;
+    LINE_PUBLISH(fx->delay_buffer[0], left);
+    LINE_PUBLISH(fx->delay_buffer[1], right);
+    free(old_left);
+    free(old_right);
+    return 0;
+}
+
+// Helper: the private reverb needs lines when it is enabled and not in send mode
+static void ensure_reverb_lines(RegrooveEffects* fx) {
+    if (fx->reverb_lines || !fx->reverb_enabled || fx->reverb_send) return;
+    allocate_reverb_lines(fx, fx->line_sample_rate);
+}
+
+int regroove_effects_prepare(RegrooveEffects* fx, int sample_rate) {
+    if (!fx || sample_rate <= 0) return -1;
+    if (fx->line_sample_rate == sample_rate) return 0;
+
+    // Lines that already exist are resized now, the others are sized on first enable
+    if (fx->reverb_lines) {
+        if (allocate_reverb_lines(fx, sample_rate) != 0) return -1;
+    }
+    if (fx->delay_buffer[0]) {
+        if (allocate_delay_lines(fx, sample_rate) != 0) return -1;
+    }
+    fx->line_sample_rate = sample_rate;
+    return 0;
+}
+
 void regroove_effects_reset(RegrooveEffects* fx) {
     if (!fx) return;
 
@@ -144,48 +258,211 @@ void regroove_effects_reset(RegrooveEffects* fx) {
     memset(fx->compressor_envelope, 0, sizeof(fx->compressor_envelope));
     memset(fx->compressor_rms, 0, sizeof(fx->compressor_rms));
 
+    // Clear phaser state
+    memset(fx->phaser_ap, 0, sizeof(fx->phaser_ap));
+    memset(fx->phaser_fb, 0, sizeof(fx->phaser_fb));
+    fx->phaser_lfo_phase = 0.0f;
+
+    // Clear reverb lines and damping filters
+    memset(fx->reverb_comb, 0, sizeof(fx->reverb_comb));
+    for (int ch = 0; ch < 2; ch++) {
+        for (int c = 0; c < REVERB_NUM_COMBS; c++) {
+            if (fx->reverb_comb_line[c][ch]) {
+                memset(fx->reverb_comb_line[c][ch], 0, fx->reverb_comb_len[c][ch] * sizeof(float));
+            }
+            fx->reverb_comb_pos[c][ch] = 0;
+        }
+        for (int a = 0; a < REVERB_NUM_ALLPASSES; a++) {
+            if (fx->reverb_allpass_line[a][ch]) {
+                memset(fx->reverb_allpass_line[a][ch], 0, fx->reverb_allpass_len[a][ch] * sizeof(float));
+            }
+            fx->reverb_allpass_pos[a][ch] = 0;
+        }
+    }
+
     // Clear delay buffers and reset write position
     if (fx->delay_buffer[0]) {
-        memset(fx->delay_buffer[0], 0, MAX_DELAY_SAMPLES * sizeof(float));
+        memset(fx->delay_buffer[0], 0, fx->delay_length * sizeof(float));
     }
     if (fx->delay_buffer[1]) {
-        memset(fx->delay_buffer[1], 0, MAX_DELAY_SAMPLES * sizeof(float));
+        memset(fx->delay_buffer[1], 0, fx->delay_length * sizeof(float));
     }
     fx->delay_write_pos = 0;
+
+    // Next block starts from the current parameters instead of ramping from old ones
+    fx->coeffs_dirty = 1;
+    fx->coeffs_sample_rate = 0;
 }
 
+// Frames converted per pass by the int16 wrapper (stack scratch, no heap use)
+#define INT16_WRAPPER_CHUNK 256
+
 void regroove_effects_process(RegrooveEffects* fx, int16_t* buffer, int frames, int sample_rate) {
     if (!fx || !buffer || frames <= 0) return;
 
-    // Convert to float for processing
+    // Thin compatibility wrapper around the float path
     const float scale_to_float = 1.0f / 32768.0f;
     const float scale_to_int16 = 32767.0f;
 
-    for (int i = 0; i < frames; i++) {
-        // Get stereo samples
-        float left = (float)buffer[i * 2] * scale_to_float;
-        float right = (float)buffer[i * 2 + 1] * scale_to_float;
-
-        // --- DISTORTION (RB338-style aggressive overdrive for 909 kicks) ---
-        if (fx->distortion_enabled) {
-            float dry_left = left;
-            float dry_right = right;
-
-            // Pre-emphasis EQ chain:
-            // 1. Highpass at 80Hz to remove sub-rumble
-            float hp_cutoff = 80.0f / sample_rate;
-            float emphasized_left = highpass_tick(left, &fx->distortion_hp[0], hp_cutoff);
-            float emphasized_right = highpass_tick(right, &fx->distortion_hp[1], hp_cutoff);
-
-            // 2. Add resonant bandpass bump at 120Hz for punch (909 kick fundamental)
-            float bp_freq = 120.0f / sample_rate;
+    float left[INT16_WRAPPER_CHUNK];
+    float right[INT16_WRAPPER_CHUNK];
+
+    for (int offset = 0; offset < frames; offset += INT16_WRAPPER_CHUNK) {
+        int chunk = frames - offset;
+        if (chunk > INT16_WRAPPER_CHUNK) chunk = INT16_WRAPPER_CHUNK;
+        int16_t* chunk_buf = buffer + offset * 2;
+
+        for (int i = 0; i < chunk; i++) {
+            left[i] = (float)chunk_buf[i * 2] * scale_to_float;
+            right[i] = (float)chunk_buf[i * 2 + 1] * scale_to_float;
+        }
+
+        regroove_effects_process_float(fx, left, right, chunk, sample_rate);
+
+        // Convert back to int16 with clamping
+        for (int i = 0; i < chunk; i++) {
+            chunk_buf[i * 2] = (int16_t)clampf(left[i] * scale_to_int16, -32768.0f, 32767.0f);
+            chunk_buf[i * 2 + 1] = (int16_t)clampf(right[i] * scale_to_int16, -32768.0f, 32767.0f);
+        }
+    }
+}
+
+// Move every smoothed parameter to its target
+static void snap_ramps(RegrooveEffects* fx) {
+    fx->ramp_distortion_drive.value = fx->ramp_distortion_drive.target;
+    fx->ramp_distortion_mix.value = fx->ramp_distortion_mix.target;
+    fx->ramp_filter_f.value = fx->ramp_filter_f.target;
+    fx->ramp_filter_q.value = fx->ramp_filter_q.target;
+    fx->ramp_eq_low.value = fx->ramp_eq_low.target;
+    fx->ramp_eq_mid.value = fx->ramp_eq_mid.target;
+    fx->ramp_eq_high.value = fx->ramp_eq_high.target;
+    fx->ramp_compressor_makeup.value = fx->ramp_compressor_makeup.target;
+    fx->ramp_phaser_feedback.value = fx->ramp_phaser_feedback.target;
+    fx->ramp_reverb_mix.value = fx->ramp_reverb_mix.target;
+    fx->ramp_delay_feedback.value = fx->ramp_delay_feedback.target;
+    fx->ramp_delay_mix.value = fx->ramp_delay_mix.target;
+}
+
+// Helper: phaser all-pass coefficient for an LFO phase
+// The sweep is exponential from PHASER_MIN_HZ up to PHASER_SWEEP_RANGE times that at full depth
+static float phaser_coefficient(const RegrooveEffects* fx, float phase) {
+    float lfo = 0.5f - 0.5f * cosf(6.2831853f * phase);
+    float freq = PHASER_MIN_HZ * powf(PHASER_SWEEP_RANGE, fx->phaser_depth * lfo);
+    float t = tanf(fx->phaser_tan_scale * freq);
+    return (t - 1.0f) / (t + 1.0f);
+}
+
+// Recompute the cached coefficients and ramp targets from the current parameters
+static void update_coefficients(RegrooveEffects* fx, int sample_rate) {
+    float sr = (float)sample_rate;
+
+    // Distortion: fixed pre/post filters, drive 0.0 = 1x, 1.0 = 8x
+    fx->distortion_hp_alpha = onepole_alpha(80.0f / sr);
+    fx->distortion_bp_f = 2.0f * sinf(3.14159f * 120.0f / sr);
+    fx->distortion_lp_alpha = onepole_alpha(8000.0f / sr);
+    fx->ramp_distortion_drive.target = 1.0f + fx->distortion_drive * 7.0f;
+    fx->ramp_distortion_mix.target = fx->distortion_mix;
+
+    // Filter: linear cutoff mapping, resonance 0.0 = q of 0.7, 1.0 = q of 0.1
+    float freq = fx->filter_cutoff * sr * 0.5f * 0.48f;
+    float q = 0.7f - fx->filter_resonance * 0.6f;
+    if (q < 0.1f) q = 0.1f;
+    fx->ramp_filter_f.target = 2.0f * sinf(3.14159265f * freq / sr);
+    fx->ramp_filter_q.target = q;
+
+    // EQ: 0.25x to 4x, with 1.0x at 0.5
+    fx->eq_low_alpha = onepole_alpha(250.0f / sr);
+    fx->eq_mid_alpha = onepole_alpha(6000.0f / sr);
+    fx->ramp_eq_low.target = powf(4.0f, (fx->eq_low - 0.5f) * 2.0f);
+    fx->ramp_eq_mid.target = powf(4.0f, (fx->eq_mid - 0.5f) * 2.0f);
+    fx->ramp_eq_high.target = powf(4.0f, (fx->eq_high - 0.5f) * 2.0f);
+
+    // Compressor
+    // Attack: 0.5ms to 50ms, release: 10ms to 500ms (0.0-1.0 maps to fast to slow)
+    // Threshold: 0.0-1.0 maps to -40dB to -6dB (linear 0.01 to 0.5)
+    // Ratio: 0.0-1.0 maps to 1:1 to 20:1
+    // Makeup: 0.0-1.0 maps to 1/8x to 8x, 1x at 0.5
+    float attack_time = 0.0005f + fx->compressor_attack * 0.0495f;
+    float release_time = 0.01f + fx->compressor_release * 0.49f;
+    fx->compressor_attack_coeff = 1.0f - expf(-1.0f / (sr * attack_time));
+    fx->compressor_release_coeff = 1.0f - expf(-1.0f / (sr * release_time));
+    fx->compressor_threshold_lin = 0.01f + fx->compressor_threshold * 0.49f;
+    fx->compressor_inv_ratio = 1.0f / (1.0f + fx->compressor_ratio * 19.0f);
+    fx->ramp_compressor_makeup.target = powf(8.0f, (fx->compressor_makeup - 0.5f) * 2.0f);
+
+    // Delay time in samples (0-1000ms, capped to the line length in stage_delay)
+    fx->delay_samples = (int)(fx->delay_time * REGROOVE_DELAY_MAX_SECONDS * sr);
+    fx->ramp_delay_feedback.target = fx->delay_feedback;
+    fx->ramp_delay_mix.target = fx->delay_mix;
+
+    // Phaser: rate 0.0-1.0 maps to 0.05Hz to 5Hz, feedback up to 0.9
+    float rate_hz = 0.05f + fx->phaser_rate * 4.95f;
+    fx->phaser_lfo_inc = rate_hz / sr;
+    fx->phaser_tan_scale = 3.14159265f / sr;
+    if (fx->phaser_tan_scale * PHASER_MIN_HZ * PHASER_SWEEP_RANGE > 1.4f) {
+        // Keep the top of the sweep below Nyquist at low sample rates
+        fx->phaser_tan_scale = 1.4f / (PHASER_MIN_HZ * PHASER_SWEEP_RANGE);
+    }
+    fx->ramp_phaser_feedback.target = fx->phaser_feedback * 0.9f;
+
+    // Reverb (Freeverb scaling): room 0.0-1.0 maps to comb feedback 0.7-0.98
+    fx->reverb_feedback = 0.7f + fx->reverb_room_size * 0.28f;
+    fx->reverb_damp1 = fx->reverb_damping * 0.4f;
+    fx->reverb_damp2 = 1.0f - fx->reverb_damp1;
+    fx->ramp_reverb_mix.target = fx->reverb_mix;
+
+    // First block (or new sample rate): start at the targets instead of ramping
+    if (fx->coeffs_sample_rate != sample_rate) {
+        snap_ramps(fx);
+        fx->phaser_coeff = phaser_coefficient(fx, fx->phaser_lfo_phase);
+    }
+
+    fx->coeffs_sample_rate = sample_rate;
+    fx->coeffs_dirty = 0;
+}
+
+// Helper: per-sample increment that moves a ramp to its target over one block
+static inline float ramp_step(const RegrooveRamp* ramp, float inv_frames) {
+    return (ramp->target - ramp->value) * inv_frames;
+}
+
+// Helper: ramped value at frame i (same formula as the kernels)
+static inline float ramp_at(float start, float step, int i) {
+    return start + step * (float)(i + 1);
+}
+
+// Frames processed per pass by the block stages (stack scratch, no heap use)
+#define FX_CHUNK 256
+
+// --- DISTORTION (RB338-style aggressive overdrive for 909 kicks) ---
+static void stage_distortion(RegrooveEffects* fx, const RegrooveKernels* k,
+                             float* left_buf, float* right_buf, int frames, float inv_frames) {
+    const float drive_start = fx->ramp_distortion_drive.value;
+    const float drive_step = ramp_step(&fx->ramp_distortion_drive, inv_frames);
+    const float mix_start = fx->ramp_distortion_mix.value;
+    const float mix_step = ramp_step(&fx->ramp_distortion_mix, inv_frames);
+
+    float wet_left[FX_CHUNK];
+    float wet_right[FX_CHUNK];
+
+    for (int offset = 0; offset < frames; offset += FX_CHUNK) {
+        int n = frames - offset;
+        if (n > FX_CHUNK) n = FX_CHUNK;
+        float* left = left_buf + offset;
+        float* right = right_buf + offset;
+
+        // 1. Pre-emphasis and dynamic drive (recursive filters, per sample)
+        for (int i = 0; i < n; i++) {
+            // Highpass at 80Hz to remove sub-rumble
+            float emphasized_left = highpass_tick(left[i], &fx->distortion_hp[0], fx->distortion_hp_alpha);
+            float emphasized_right = highpass_tick(right[i], &fx->distortion_hp[1], fx->distortion_hp_alpha);
+
+            // Resonant bandpass bump at 120Hz for punch (909 kick fundamental)
             float bp_q = 0.5f;  // Resonance for punch
             float bp_left = bandpass_bump(emphasized_left, &fx->distortion_bp_lp[0],
-                                         &fx->distortion_bp_bp[0], bp_freq, bp_q);
+                                         &fx->distortion_bp_bp[0], fx->distortion_bp_f, bp_q);
             float bp_right = bandpass_bump(emphasized_right, &fx->distortion_bp_lp[1],
-                                          &fx->distortion_bp_bp[1], bp_freq, bp_q);
-
-            // Mix in the punch bump
+                                          &fx->distortion_bp_bp[1], fx->distortion_bp_f, bp_q);
             emphasized_left += bp_left * 0.5f;
             emphasized_right += bp_right * 0.5f;
 
@@ -196,211 +473,510 @@ void regroove_effects_process(RegrooveEffects* fx, int16_t* buffer, int frames,
             float env_r = envelope_follower(emphasized_right, &fx->distortion_env[1], attack_coeff, release_coeff);
 
             // Dynamic drive: more aggressive on transients (kicks, snares)
-            // Drive amount: 0.0 = 1x, 1.0 = 8x
-            float base_drive = 1.0f + fx->distortion_drive * 7.0f;
-            float dynamic_drive_l = base_drive * (0.7f + env_l * 0.6f);
-            float dynamic_drive_r = base_drive * (0.7f + env_r * 0.6f);
-
-            // Apply drive gain
-            float driven_left = emphasized_left * dynamic_drive_l;
-            float driven_right = emphasized_right * dynamic_drive_r;
-
-            // Aggressive distortion chain: foldback -> rb338_shaper
-            float folded_left = foldback(driven_left);
-            float folded_right = foldback(driven_right);
-
-            float shaped_left = rb338_shaper(folded_left);
-            float shaped_right = rb338_shaper(folded_right);
-
-            // Post-EQ: lowpass at 8kHz to tame harshness, add warmth
-            float lp_cutoff = 8000.0f / sample_rate;
-            float lp_alpha = 1.0f - expf(-2.0f * 3.14159f * lp_cutoff);
-            fx->distortion_lp[0] += lp_alpha * (shaped_left - fx->distortion_lp[0]);
-            fx->distortion_lp[1] += lp_alpha * (shaped_right - fx->distortion_lp[1]);
-
-            float wet_left = fx->distortion_lp[0];
-            float wet_right = fx->distortion_lp[1];
-
-            // Mix dry/wet
-            left = dry_left * (1.0f - fx->distortion_mix) + wet_left * fx->distortion_mix;
-            right = dry_right * (1.0f - fx->distortion_mix) + wet_right * fx->distortion_mix;
+            float drive = ramp_at(drive_start, drive_step, offset + i);
+            wet_left[i] = emphasized_left * (drive * (0.7f + env_l * 0.6f));
+            wet_right[i] = emphasized_right * (drive * (0.7f + env_r * 0.6f));
         }
 
-        // --- RESONANT LOW-PASS FILTER ---
-        if (fx->filter_enabled) {
-            // Simple state-variable filter (Chamberlin)
-            // Normalized cutoff to actual frequency (linear mapping)
-            float nyquist = sample_rate * 0.5f;
-            float freq = fx->filter_cutoff * nyquist * 0.48f; // Linear for predictable response
-            float f = 2.0f * sinf(3.14159265f * freq / (float)sample_rate);
-
-            // Resonance (Q) - limit range for stability
-            // 0.0 resonance = q of 0.7 (gentle)
-            // 1.0 resonance = q of 0.1 (strong but stable)
-            float q = 0.7f - fx->filter_resonance * 0.6f;
-            if (q < 0.1f) q = 0.1f;
-
-            // Process left channel
-            fx->filter_lp[0] += f * fx->filter_bp[0];
-            float hp = left - fx->filter_lp[0] - q * fx->filter_bp[0];
-            fx->filter_bp[0] += f * hp;
-            left = fx->filter_lp[0];
-
-            // Process right channel
-            fx->filter_lp[1] += f * fx->filter_bp[1];
-            hp = right - fx->filter_lp[1] - q * fx->filter_bp[1];
-            fx->filter_bp[1] += f * hp;
-            right = fx->filter_lp[1];
-        }
+        // 2. Aggressive distortion chain: foldback -> rb338 shaper
+        k->shaper(wet_left, n);
+        k->shaper(wet_right, n);
 
-        // --- 3-BAND EQ ---
-        if (fx->eq_enabled) {
-            // 3-band EQ using stable cascaded filters
-            // Low shelf (~250Hz), Mid band (~1kHz), High shelf (~6kHz)
-            // Gain range: 0.5 = neutral, 0.0 = -12dB cut, 1.0 = +12dB boost
-            float low_gain = fx->eq_low;   // 0.0 to 1.0
-            float mid_gain = fx->eq_mid;   // 0.0 to 1.0
-            float high_gain = fx->eq_high; // 0.0 to 1.0
-
-            // Convert to linear gain (0.25x to 4x, with 1.0x at 0.5)
-            float low_mult = powf(4.0f, (low_gain - 0.5f) * 2.0f);   // 0.25 to 4.0
-            float mid_mult = powf(4.0f, (mid_gain - 0.5f) * 2.0f);
-            float high_mult = powf(4.0f, (high_gain - 0.5f) * 2.0f);
-
-            for (int ch = 0; ch < 2; ch++) {
-                float sample = (ch == 0) ? left : right;
-
-                // Low shelf: one-pole lowpass filter for bass (below 250Hz)
-                float low_freq = 250.0f / sample_rate;
-                float low_alpha = 1.0f - expf(-2.0f * 3.14159f * low_freq);
-                fx->eq_lp1[ch] += low_alpha * (sample - fx->eq_lp1[ch]);
-                float low_out = fx->eq_lp1[ch] * low_mult + (sample - fx->eq_lp1[ch]);
-
-                // Mid band: bandpass (250Hz to 6kHz) - what's left after low and high
-                float mid_freq = 6000.0f / sample_rate;
-                float mid_alpha = 1.0f - expf(-2.0f * 3.14159f * mid_freq);
-                fx->eq_lp2[ch] += mid_alpha * (low_out - fx->eq_lp2[ch]);
-                float mid_band = fx->eq_lp2[ch] - fx->eq_lp1[ch];
-                float mid_out = low_out + mid_band * (mid_mult - 1.0f);
-
-                // High shelf: boost/cut high frequencies (above 6kHz)
-                float high_band = mid_out - fx->eq_lp2[ch];
-                float final_out = mid_out + high_band * (high_mult - 1.0f);
-
-                if (ch == 0) left = final_out;
-                else right = final_out;
-            }
+        // 3. Post-EQ: lowpass at 8kHz to tame harshness, add warmth
+        for (int i = 0; i < n; i++) {
+            fx->distortion_lp[0] += fx->distortion_lp_alpha * (wet_left[i] - fx->distortion_lp[0]);
+            fx->distortion_lp[1] += fx->distortion_lp_alpha * (wet_right[i] - fx->distortion_lp[1]);
+            wet_left[i] = fx->distortion_lp[0];
+            wet_right[i] = fx->distortion_lp[1];
         }
 
-        // --- COMPRESSOR (Professional RMS with soft knee and makeup gain) ---
-        if (fx->compressor_enabled) {
-            for (int ch = 0; ch < 2; ch++) {
-                float input = (ch == 0) ? left : right;
+        // 4. Mix dry/wet
+        float mix = mix_start + mix_step * (float)offset;
+        k->mix(left, left, wet_left, mix, mix_step, n);
+        k->mix(right, right, wet_right, mix, mix_step, n);
+    }
+}
+
+// --- RESONANT LOW-PASS FILTER ---
+// Simple state-variable filter (Chamberlin); recursive, so it stays scalar
+static void stage_filter(RegrooveEffects* fx, float* left, float* right, int frames, float inv_frames) {
+    const float f_start = fx->ramp_filter_f.value;
+    const float f_step = ramp_step(&fx->ramp_filter_f, inv_frames);
+    const float q_start = fx->ramp_filter_q.value;
+    const float q_step = ramp_step(&fx->ramp_filter_q, inv_frames);
 
-                // 1. Compute RMS level (smoother than peak for musical compression)
-                float squared = input * input;
+    for (int i = 0; i < frames; i++) {
+        float f = ramp_at(f_start, f_step, i);
+        float q = ramp_at(q_start, q_step, i);
+
+        // Process left channel
+        fx->filter_lp[0] += f * fx->filter_bp[0];
+        float hp = left[i] - fx->filter_lp[0] - q * fx->filter_bp[0];
+        fx->filter_bp[0] += f * hp;
+        left[i] = fx->filter_lp[0];
+
+        // Process right channel
+        fx->filter_lp[1] += f * fx->filter_bp[1];
+        hp = right[i] - fx->filter_lp[1] - q * fx->filter_bp[1];
+        fx->filter_bp[1] += f * hp;
+        right[i] = fx->filter_lp[1];
+    }
+}
+
+// --- 3-BAND EQ ---
+// Low shelf (~250Hz), mid band, high shelf (~6kHz); 0.5 = neutral, 0.0 = -12dB, 1.0 = +12dB
+static void stage_eq(RegrooveEffects* fx, const RegrooveKernels* k,
+                     float* left, float* right, int frames, float inv_frames) {
+    k->eq_stereo(left, right, fx->eq_lp1, fx->eq_lp2,
+                 fx->eq_low_alpha, fx->eq_mid_alpha,
+                 fx->ramp_eq_low.value, ramp_step(&fx->ramp_eq_low, inv_frames),
+                 fx->ramp_eq_mid.value, ramp_step(&fx->ramp_eq_mid, inv_frames),
+                 fx->ramp_eq_high.value, ramp_step(&fx->ramp_eq_high, inv_frames),
+                 frames);
+}
+
+// --- COMPRESSOR (Professional RMS with soft knee and makeup gain) ---
+static void stage_compressor(RegrooveEffects* fx, const RegrooveKernels* k,
+                             float* left_buf, float* right_buf, int frames, float inv_frames) {
+    const float makeup_start = fx->ramp_compressor_makeup.value;
+    const float makeup_step = ramp_step(&fx->ramp_compressor_makeup, inv_frames);
+    const float threshold = fx->compressor_threshold_lin;
+
+    float gain[2][FX_CHUNK];
+
+    for (int offset = 0; offset < frames; offset += FX_CHUNK) {
+        int n = frames - offset;
+        if (n > FX_CHUNK) n = FX_CHUNK;
+        float* bufs[2] = { left_buf + offset, right_buf + offset };
+
+        // 1. Detector and gain computer (recursive, per sample)
+        for (int ch = 0; ch < 2; ch++) {
+            for (int i = 0; i < n; i++) {
+                float input = bufs[ch][i];
+
+                // RMS level (smoother than peak for musical compression)
                 float rms_alpha = 0.01f;  // Smoothing coefficient for RMS
-                fx->compressor_rms[ch] += rms_alpha * (squared - fx->compressor_rms[ch]);
+                fx->compressor_rms[ch] += rms_alpha * (input * input - fx->compressor_rms[ch]);
                 float rms_level = sqrtf(fmaxf(fx->compressor_rms[ch], 0.0f));
 
-                // 2. Attack/release envelope follower
-                // Attack: 0.5ms to 50ms (0.0-1.0 maps to fast to slow)
-                // Release: 10ms to 500ms (0.0-1.0 maps to fast to slow)
-                float attack_time = 0.0005f + fx->compressor_attack * 0.0495f;
-                float release_time = 0.01f + fx->compressor_release * 0.49f;
-                float attack_coeff = 1.0f - expf(-1.0f / (sample_rate * attack_time));
-                float release_coeff = 1.0f - expf(-1.0f / (sample_rate * release_time));
-
+                // Attack/release envelope follower
                 if (rms_level > fx->compressor_envelope[ch]) {
-                    fx->compressor_envelope[ch] += attack_coeff * (rms_level - fx->compressor_envelope[ch]);
+                    fx->compressor_envelope[ch] += fx->compressor_attack_coeff * (rms_level - fx->compressor_envelope[ch]);
                 } else {
-                    fx->compressor_envelope[ch] += release_coeff * (rms_level - fx->compressor_envelope[ch]);
+                    fx->compressor_envelope[ch] += fx->compressor_release_coeff * (rms_level - fx->compressor_envelope[ch]);
                 }
 
-                // 3. Threshold (0.0-1.0 maps to -40dB to -6dB, linear domain: 0.01 to 0.5)
-                float threshold = 0.01f + fx->compressor_threshold * 0.49f;
-
-                // 4. Ratio (0.0-1.0 maps to 1:1 to 20:1)
-                float ratio = 1.0f + fx->compressor_ratio * 19.0f;
-
-                // 5. Soft knee (0.1 = ±10% threshold for smooth transition)
+                // Soft knee (0.1 = ±10% threshold for smooth transition)
                 float knee_width = 0.1f;
-                float gain = 1.0f;
+                float g = 1.0f;
                 float envelope = fx->compressor_envelope[ch];
 
                 if (envelope > threshold) {
                     float delta = envelope - threshold;
                     float knee_range = threshold * knee_width;
+                    float hard_gain = (threshold + delta * fx->compressor_inv_ratio) / envelope;
 
                     if (delta < knee_range) {
                         // Soft knee: smooth polynomial transition
                         float x = delta / knee_range;  // 0.0 to 1.0
                         float curve = x * x * (3.0f - 2.0f * x);  // Smoothstep
-                        float hard_gain = (threshold + delta / ratio) / envelope;
-                        gain = 1.0f - curve * (1.0f - hard_gain);
+                        g = 1.0f - curve * (1.0f - hard_gain);
                     } else {
                         // Hard compression above knee
-                        gain = (threshold + delta / ratio) / envelope;
+                        g = hard_gain;
                     }
                 }
+                gain[ch][i] = g;
+            }
+        }
 
-                // 6. Makeup gain (0.0-1.0 maps to 1x to 8x, compensates for level loss)
-                // At 0.5 (neutral), makeup is 1x. At 1.0, makeup is 8x.
-                float makeup = powf(8.0f, (fx->compressor_makeup - 0.5f) * 2.0f);
-
-                // 7. Apply compression and makeup gain
-                float compressed = input * gain * makeup;
+        // 2. Apply compression and makeup gain
+        float makeup = makeup_start + makeup_step * (float)offset;
+        k->apply_gain(bufs[0], gain[0], makeup, makeup_step, n);
+        k->apply_gain(bufs[1], gain[1], makeup, makeup_step, n);
+    }
+}
 
-                if (ch == 0) left = compressed;
-                else right = compressed;
+// --- PHASER ---
+// 4 first-order all-pass stages with feedback, swept by a sine LFO. The LFO is
+// evaluated once per PHASER_CONTROL_FRAMES and the coefficient ramped in between.
+static void stage_phaser(RegrooveEffects* fx, float* left, float* right, int frames, float inv_frames) {
+    const float fb_start = fx->ramp_phaser_feedback.value;
+    const float fb_step = ramp_step(&fx->ramp_phaser_feedback, inv_frames);
+
+    float fb_left = fx->phaser_fb[0];
+    float fb_right = fx->phaser_fb[1];
+
+    for (int offset = 0; offset < frames; offset += PHASER_CONTROL_FRAMES) {
+        int n = frames - offset;
+        if (n > PHASER_CONTROL_FRAMES) n = PHASER_CONTROL_FRAMES;
+
+        // Coefficient at the end of this segment
+        fx->phaser_lfo_phase += fx->phaser_lfo_inc * (float)n;
+        fx->phaser_lfo_phase -= floorf(fx->phaser_lfo_phase);
+        float target = phaser_coefficient(fx, fx->phaser_lfo_phase);
+        float a = fx->phaser_coeff;
+        float a_step = (target - a) / (float)n;
+
+        for (int i = 0; i < n; i++) {
+            a += a_step;
+            float fb = ramp_at(fb_start, fb_step, offset + i);
+
+            // y = a * x + s, s = x - a * y (transposed direct form, one state per stage)
+            float xl = left[offset + i] + fb * fb_left;
+            float xr = right[offset + i] + fb * fb_right;
+            for (int s = 0; s < 4; s++) {
+                float yl = a * xl + fx->phaser_ap[s][0];
+                float yr = a * xr + fx->phaser_ap[s][1];
+                fx->phaser_ap[s][0] = xl - a * yl;
+                fx->phaser_ap[s][1] = xr - a * yr;
+                xl = yl;
+                xr = yr;
             }
+            fb_left = xl;
+            fb_right = xr;
+
+            // Equal dry/wet sum creates the notches
+            left[offset + i] = 0.5f * (left[offset + i] + xl);
+            right[offset + i] = 0.5f * (right[offset + i] + xr);
         }
+        fx->phaser_coeff = target;
+    }
 
-        // --- DELAY/ECHO ---
-        if (fx->delay_enabled && fx->delay_buffer[0] && fx->delay_buffer[1]) {
-            // Delay time in samples (0-1000ms)
-            int delay_samples = (int)(fx->delay_time * sample_rate);
-            if (delay_samples > MAX_DELAY_SAMPLES - 1) delay_samples = MAX_DELAY_SAMPLES - 1;
+    fx->phaser_fb[0] = fb_left;
+    fx->phaser_fb[1] = fb_right;
+}
+
+// Helper: run four damped combs over a segment, adding their outputs to out
+// The four damping filters are independent, so their recursions overlap in the
+// pipeline; lines are walked in runs that do not wrap, so the inner loop has no modulo
+static void reverb_comb_run4(RegrooveEffects* fx, int first, int ch, const float* in, float* out, int n) {
+    const float feedback = fx->reverb_feedback;
+    const float damp1 = fx->reverb_damp1;
+    const float damp2 = fx->reverb_damp2;
+
+    float* line[4];
+    int len[4], p[4];
+    float s[4];
+    for (int c = 0; c < 4; c++) {
+        line[c] = fx->reverb_comb_line[first + c][ch];
+        len[c] = fx->reverb_comb_len[first + c][ch];
+        p[c] = fx->reverb_comb_pos[first + c][ch];
+        s[c] = fx->reverb_comb[first + c][ch];
+    }
 
-            // Read from delay buffer
-            int read_pos = fx->delay_write_pos - delay_samples;
-            if (read_pos < 0) read_pos += MAX_DELAY_SAMPLES;
+    int i = 0;
+    while (i < n) {
+        int run = n - i;
+        for (int c = 0; c < 4; c++) {
+            if (run > len[c] - p[c]) run = len[c] - p[c];
+        }
+        float* d0 = line[0] + p[0];
+        float* d1 = line[1] + p[1];
+        float* d2 = line[2] + p[2];
+        float* d3 = line[3] + p[3];
+        float s0 = s[0], s1 = s[1], s2 = s[2], s3 = s[3];
+        for (int j = 0; j < run; j++) {
+            float x = in[i + j];
+            float y0 = d0[j], y1 = d1[j], y2 = d2[j], y3 = d3[j];
+            s0 = y0 * damp2 + s0 * damp1;
+            s1 = y1 * damp2 + s1 * damp1;
+            s2 = y2 * damp2 + s2 * damp1;
+            s3 = y3 * damp2 + s3 * damp1;
+            d0[j] = x + s0 * feedback;
+            d1[j] = x + s1 * feedback;
+            d2[j] = x + s2 * feedback;
+            d3[j] = x + s3 * feedback;
+            out[i + j] += (y0 + y1) + (y2 + y3);
+        }
+        s[0] = s0; s[1] = s1; s[2] = s2; s[3] = s3;
+        i += run;
+        for (int c = 0; c < 4; c++) {
+            p[c] += run;
+            if (p[c] >= len[c]) p[c] = 0;
+        }
+    }
 
-            float delayed_left = fx->delay_buffer[0][read_pos];
-            float delayed_right = fx->delay_buffer[1][read_pos];
+    for (int c = 0; c < 4; c++) {
+        fx->reverb_comb_pos[first + c][ch] = p[c];
+        fx->reverb_comb[first + c][ch] = s[c];
+    }
+}
 
-            // Write to delay buffer (input + feedback)
-            fx->delay_buffer[0][fx->delay_write_pos] = left + delayed_left * fx->delay_feedback;
-            fx->delay_buffer[1][fx->delay_write_pos] = right + delayed_right * fx->delay_feedback;
+// Helper: run one Schroeder all-pass over a segment in place
+static void reverb_allpass_run(float* line, int len, int* pos, float* io, int n) {
+    int p = *pos;
+    int i = 0;
+    while (i < n) {
+        int run = n - i;
+        if (run > len - p) run = len - p;
+        float* d = line + p;
+        for (int j = 0; j < run; j++) {
+            float b = d[j];
+            float x = io[i + j];
+            io[i + j] = b - x;
+            d[j] = x + b * REVERB_ALLPASS_FEEDBACK;
+        }
+        i += run;
+        p += run;
+        if (p >= len) p = 0;
+    }
+    *pos = p;
+}
 
-            // Mix dry/wet
-            left = left * (1.0f - fx->delay_mix) + delayed_left * fx->delay_mix;
-            right = right * (1.0f - fx->delay_mix) + delayed_right * fx->delay_mix;
+// Helper: 100% wet Freeverb output for up to FX_CHUNK frames (out may alias in)
+// Combs run in two groups of four over the whole segment, then the all-passes in series
+static void reverb_render(RegrooveEffects* fx, const float* in_left, const float* in_right,
+                          float* out_left, float* out_right, int n) {
+    float input[FX_CHUNK];
+    for (int i = 0; i < n; i++) {
+        input[i] = (in_left[i] + in_right[i]) * REVERB_FIXED_GAIN;
+    }
 
-            // Advance write position
-            fx->delay_write_pos = (fx->delay_write_pos + 1) % MAX_DELAY_SAMPLES;
+    float* outs[2] = { out_left, out_right };
+    for (int ch = 0; ch < 2; ch++) {
+        float* out = outs[ch];
+        memset(out, 0, n * sizeof(float));
+        for (int c = 0; c < REVERB_NUM_COMBS; c += 4) {
+            reverb_comb_run4(fx, c, ch, input, out, n);
+        }
+        for (int a = 0; a < REVERB_NUM_ALLPASSES; a++) {
+            reverb_allpass_run(fx->reverb_allpass_line[a][ch], fx->reverb_allpass_len[a][ch],
+                               &fx->reverb_allpass_pos[a][ch], out, n);
         }
+    }
+}
 
-        // Convert back to int16 with clamping
-        buffer[i * 2] = (int16_t)clampf(left * scale_to_int16, -32768.0f, 32767.0f);
-        buffer[i * 2 + 1] = (int16_t)clampf(right * scale_to_int16, -32768.0f, 32767.0f);
+// --- REVERB (Freeverb: 8 parallel damped combs into 4 series all-passes per channel) ---
+static void stage_reverb(RegrooveEffects* fx, const RegrooveKernels* k,
+                         float* left_buf, float* right_buf, int frames, float inv_frames) {
+    const float mix_start = fx->ramp_reverb_mix.value;
+    const float mix_step = ramp_step(&fx->ramp_reverb_mix, inv_frames);
+
+    float wet_left[FX_CHUNK];
+    float wet_right[FX_CHUNK];
+
+    for (int offset = 0; offset < frames; offset += FX_CHUNK) {
+        int n = frames - offset;
+        if (n > FX_CHUNK) n = FX_CHUNK;
+        float* left = left_buf + offset;
+        float* right = right_buf + offset;
+
+        reverb_render(fx, left, right, wet_left, wet_right, n);
+
+        float mix = mix_start + mix_step * (float)offset;
+        k->mix(left, left, wet_left, mix, mix_step, n);
+        k->mix(right, right, wet_right, mix, mix_step, n);
+    }
+}
+
+// --- DELAY/ECHO ---
+// The line is processed in segments that neither wrap nor read samples written in
+// the same segment, so each segment is a straight vector pass
+static void stage_delay(RegrooveEffects* fx, const RegrooveKernels* k,
+                        float* left, float* right, int frames, float inv_frames) {
+    const float fb_start = fx->ramp_delay_feedback.value;
+    const float fb_step = ramp_step(&fx->ramp_delay_feedback, inv_frames);
+    const float mix_start = fx->ramp_delay_mix.value;
+    const float mix_step = ramp_step(&fx->ramp_delay_mix, inv_frames);
+    const int length = fx->delay_length;
+    const int delay_samples = fx->delay_samples < length ? fx->delay_samples : length - 1;
+
+    int pos = 0;
+    while (pos < frames) {
+        int write_pos = fx->delay_write_pos;
+        int read_pos = write_pos - delay_samples;
+        if (read_pos < 0) read_pos += length;
+
+        int n = frames - pos;
+        if (n > length - write_pos) n = length - write_pos;
+        if (n > length - read_pos) n = length - read_pos;
+        if (delay_samples > 0 && n > delay_samples) n = delay_samples;
+
+        float fb = fb_start + fb_step * (float)pos;
+        float mix = mix_start + mix_step * (float)pos;
+        k->delay_segment(left + pos, fx->delay_buffer[0] + write_pos, fx->delay_buffer[0] + read_pos,
+                         fb, fb_step, mix, mix_step, n);
+        k->delay_segment(right + pos, fx->delay_buffer[1] + write_pos, fx->delay_buffer[1] + read_pos,
+                         fb, fb_step, mix, mix_step, n);
+
+        fx->delay_write_pos = (write_pos + n) % length;
+        pos += n;
+    }
+}
+
+// Helper: denormal guard DC offset (line inputs)
+static void add_denormal_offset(float* left, float* right, int frames) {
+    for (int i = 0; i < frames; i++) {
+        left[i] += DENORMAL_GUARD_OFFSET;
+        right[i] += DENORMAL_GUARD_OFFSET;
+    }
+}
+
+// Helper: zero filter states that have decayed below the guard floor
+static void flush_denormal_array(float* states, int count) {
+    for (int i = 0; i < count; i++) {
+        if (fabsf(states[i]) < DENORMAL_GUARD_FLOOR) states[i] = 0.0f;
     }
 }
 
+static void flush_state_denormals(RegrooveEffects* fx) {
+    flush_denormal_array(fx->filter_lp, 2);
+    flush_denormal_array(fx->filter_bp, 2);
+    flush_denormal_array(fx->distortion_hp, 2);
+    flush_denormal_array(fx->distortion_bp_lp, 2);
+    flush_denormal_array(fx->distortion_bp_bp, 2);
+    flush_denormal_array(fx->distortion_env, 2);
+    flush_denormal_array(fx->distortion_lp, 2);
+    flush_denormal_array(fx->eq_lp1, 2);
+    flush_denormal_array(fx->eq_lp2, 2);
+    flush_denormal_array(fx->eq_bp1, 2);
+    flush_denormal_array(fx->eq_bp2, 2);
+    flush_denormal_array(fx->eq_hp1, 2);
+    flush_denormal_array(fx->eq_hp2, 2);
+    flush_denormal_array(fx->compressor_envelope, 2);
+    flush_denormal_array(fx->compressor_rms, 2);
+    flush_denormal_array(&fx->phaser_ap[0][0], 4 * 2);
+    flush_denormal_array(fx->phaser_fb, 2);
+    flush_denormal_array(&fx->reverb_comb[0][0], REVERB_NUM_COMBS * 2);
+}
+
+void regroove_effects_process_float(RegrooveEffects* fx, float* left_buf, float* right_buf, int frames, int sample_rate) {
+    if (!fx || !left_buf || !right_buf || frames <= 0 || sample_rate <= 0) return;
+
+    if (fx->coeffs_dirty || fx->coeffs_sample_rate != sample_rate) {
+        update_coefficients(fx, sample_rate);
+    }
+
+    // Each stage runs over the whole block in turn (same result as running the
+    // chain per sample, since every stage only depends on its own input)
+    const RegrooveKernels* k = regroove_kernels_get();
+    const float inv_frames = 1.0f / (float)frames;
+    const int guard = denormal_guard && !regroove_effects_denormals_flushed();
+
+    if (fx->distortion_enabled) {
+        stage_distortion(fx, k, left_buf, right_buf, frames, inv_frames);
+    }
+    if (fx->filter_enabled) {
+        stage_filter(fx, left_buf, right_buf, frames, inv_frames);
+    }
+    if (fx->eq_enabled) {
+        stage_eq(fx, k, left_buf, right_buf, frames, inv_frames);
+    }
+    if (fx->compressor_enabled) {
+        stage_compressor(fx, k, left_buf, right_buf, frames, inv_frames);
+    }
+    if (fx->phaser_enabled) {
+        stage_phaser(fx, left_buf, right_buf, frames, inv_frames);
+    }
+    if (fx->reverb_enabled && !fx->reverb_send && LINE_ACQUIRE(fx->reverb_lines)) {
+        if (guard) add_denormal_offset(left_buf, right_buf, frames);
+        stage_reverb(fx, k, left_buf, right_buf, frames, inv_frames);
+    }
+    if (fx->delay_enabled && LINE_ACQUIRE(fx->delay_buffer[0]) && LINE_ACQUIRE(fx->delay_buffer[1])) {
+        if (guard) add_denormal_offset(left_buf, right_buf, frames);
+        stage_delay(fx, k, left_buf, right_buf, frames, inv_frames);
+    }
+    if (guard) flush_state_denormals(fx);
+
+    // Ramps end exactly on their targets (no accumulated rounding)
+    // No clamping - the float path keeps headroom above 1.0
+    snap_ramps(fx);
+}
+
+int regroove_effects_flush_denormals(int enable) {
+#if defined(REGROOVE_FTZ_X86)
+    unsigned int csr = _mm_getcsr();
+    _mm_setcsr(enable ? (csr | MXCSR_FTZ_DAZ) : (csr & ~MXCSR_FTZ_DAZ));
+#elif defined(REGROOVE_FTZ_ARM64)
+    unsigned long long fpcr;
+    __asm__ __volatile__("mrs %0, fpcr" : "=r"(fpcr));
+    fpcr = enable ? (fpcr | FPCR_FZ) : (fpcr & ~FPCR_FZ);
+    __asm__ __volatile__("msr fpcr, %0" : : "r"(fpcr));
+#else
+    (void)enable;
+#endif
+    return regroove_effects_denormals_flushed();
+}
+
+int regroove_effects_denormals_flushed(void) {
+#if defined(REGROOVE_FTZ_X86)
+    return (_mm_getcsr() & MXCSR_FTZ_DAZ) == MXCSR_FTZ_DAZ;
+#elif defined(REGROOVE_FTZ_ARM64)
+    unsigned long long fpcr;
+    __asm__ __volatile__("mrs %0, fpcr" : "=r"(fpcr));
+    return (fpcr & FPCR_FZ) != 0;
+#else
+    return 0;
+#endif
+}
+
+void regroove_effects_set_denormal_guard(int enable) {
+    denormal_guard = enable;
+}
+
+// Tail estimate: level the tail has to decay to (-100 dB) and the settling time of
+// the short stages (filter, EQ, phaser and distortion states)
+#define TAIL_SILENCE_LEVEL 1e-5
+#define TAIL_SHORT_SECONDS 0.05
+
+int regroove_effects_get_tail_frames(RegrooveEffects* fx, int sample_rate) {
+    if (!fx || sample_rate <= 0) return 0;
+
+    const double max_tail = (double)REGROOVE_MAX_TAIL_SECONDS * sample_rate;
+    const double silence_log = log(TAIL_SILENCE_LEVEL);
+    double tail = 0.0;
+
+    if (fx->distortion_enabled || fx->filter_enabled || fx->eq_enabled ||
+        fx->compressor_enabled || fx->phaser_enabled) {
+        tail += TAIL_SHORT_SECONDS * sample_rate;
+    }
+
+    // Reverb: every pass through the longest comb scales the tail by its feedback
+    if (fx->reverb_enabled && !fx->reverb_send && LINE_ACQUIRE(fx->reverb_lines)) {
+        int longest_comb = 0;
+        int allpass_total = 0;
+        for (int ch = 0; ch < 2; ch++) {
+            for (int c = 0; c < REVERB_NUM_COMBS; c++) {
+                if (fx->reverb_comb_len[c][ch] > longest_comb) longest_comb = fx->reverb_comb_len[c][ch];
+            }
+        }
+        for (int a = 0; a < REVERB_NUM_ALLPASSES; a++) {
+            allpass_total += fx->reverb_allpass_len[a][1];
+        }
+        double feedback = 0.7 + fx->reverb_room_size * 0.28;
+        tail += silence_log / log(feedback) * longest_comb + allpass_total;
+    }
+
+    // Delay: one echo per delay time, each scaled by the feedback
+    if (fx->delay_enabled && LINE_ACQUIRE(fx->delay_buffer[0])) {
+        double delay_samples = (double)fx->delay_time * REGROOVE_DELAY_MAX_SECONDS * sample_rate;
+        double feedback = fx->delay_feedback;
+        if (feedback >= 0.999) return (int)max_tail;
+        double echoes = 1.0;
+        if (feedback > 0.0) echoes += silence_log / log(feedback);
+        tail += echoes * delay_samples;
+    }
+
+    return tail < max_tail ? (int)tail : (int)max_tail;
+}
+
 // Parameter setters
 void regroove_effects_set_distortion_enabled(RegrooveEffects* fx, int enabled) {
     if (fx) fx->distortion_enabled = enabled;
 }
 
 void regroove_effects_set_distortion_drive(RegrooveEffects* fx, float drive) {
-    if (fx) {
-        // Store normalized 0.0-1.0 directly
-        fx->distortion_drive = clampf(drive, 0.0f, 1.0f);
-    }
+    if (!fx) return;
+    // Store normalized 0.0-1.0 directly
+    fx->distortion_drive = clampf(drive, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 
 void regroove_effects_set_distortion_mix(RegrooveEffects* fx, float mix) {
-    if (fx) fx->distortion_mix = clampf(mix, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->distortion_mix = clampf(mix, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 
 void regroove_effects_set_filter_enabled(RegrooveEffects* fx, int enabled) {
@@ -408,11 +984,15 @@ void regroove_effects_set_filter_enabled(RegrooveEffects* fx, int enabled) {
 }
 
 void regroove_effects_set_filter_cutoff(RegrooveEffects* fx, float cutoff) {
-    if (fx) fx->filter_cutoff = clampf(cutoff, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->filter_cutoff = clampf(cutoff, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 
 void regroove_effects_set_filter_resonance(RegrooveEffects* fx, float resonance) {
-    if (fx) fx->filter_resonance = clampf(resonance, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->filter_resonance = clampf(resonance, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 
 // Parameter getters
@@ -445,13 +1025,19 @@ void regroove_effects_set_eq_enabled(RegrooveEffects* fx, int enabled) {
     if (fx) fx->eq_enabled = enabled;
 }
 void regroove_effects_set_eq_low(RegrooveEffects* fx, float gain) {
-    if (fx) fx->eq_low = clampf(gain, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->eq_low = clampf(gain, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 void regroove_effects_set_eq_mid(RegrooveEffects* fx, float gain) {
-    if (fx) fx->eq_mid = clampf(gain, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->eq_mid = clampf(gain, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 void regroove_effects_set_eq_high(RegrooveEffects* fx, float gain) {
-    if (fx) fx->eq_high = clampf(gain, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->eq_high = clampf(gain, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 int regroove_effects_get_eq_enabled(RegrooveEffects* fx) {
     return fx ? fx->eq_enabled : 0;
@@ -471,19 +1057,29 @@ void regroove_effects_set_compressor_enabled(RegrooveEffects* fx, int enabled) {
     if (fx) fx->compressor_enabled = enabled;
 }
 void regroove_effects_set_compressor_threshold(RegrooveEffects* fx, float threshold) {
-    if (fx) fx->compressor_threshold = clampf(threshold, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->compressor_threshold = clampf(threshold, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 void regroove_effects_set_compressor_ratio(RegrooveEffects* fx, float ratio) {
-    if (fx) fx->compressor_ratio = clampf(ratio, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->compressor_ratio = clampf(ratio, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 void regroove_effects_set_compressor_attack(RegrooveEffects* fx, float attack) {
-    if (fx) fx->compressor_attack = clampf(attack, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->compressor_attack = clampf(attack, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 void regroove_effects_set_compressor_release(RegrooveEffects* fx, float release) {
-    if (fx) fx->compressor_release = clampf(release, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->compressor_release = clampf(release, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 void regroove_effects_set_compressor_makeup(RegrooveEffects* fx, float makeup) {
-    if (fx) fx->compressor_makeup = clampf(makeup, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->compressor_makeup = clampf(makeup, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 int regroove_effects_get_compressor_enabled(RegrooveEffects* fx) {
     return fx ? fx->compressor_enabled : 0;
@@ -509,13 +1105,19 @@ void regroove_effects_set_phaser_enabled(RegrooveEffects* fx, int enabled) {
     if (fx) fx->phaser_enabled = enabled;
 }
 void regroove_effects_set_phaser_rate(RegrooveEffects* fx, float rate) {
-    if (fx) fx->phaser_rate = clampf(rate, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->phaser_rate = clampf(rate, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 void regroove_effects_set_phaser_depth(RegrooveEffects* fx, float depth) {
-    if (fx) fx->phaser_depth = clampf(depth, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->phaser_depth = clampf(depth, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 void regroove_effects_set_phaser_feedback(RegrooveEffects* fx, float feedback) {
-    if (fx) fx->phaser_feedback = clampf(feedback, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->phaser_feedback = clampf(feedback, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 int regroove_effects_get_phaser_enabled(RegrooveEffects* fx) {
     return fx ? fx->phaser_enabled : 0;
@@ -532,16 +1134,29 @@ float regroove_effects_get_phaser_feedback(RegrooveEffects* fx) {
 
 // Reverb setters/getters
 void regroove_effects_set_reverb_enabled(RegrooveEffects* fx, int enabled) {
-    if (fx) fx->reverb_enabled = enabled;
+    if (!fx) return;
+    fx->reverb_enabled = enabled;
+    ensure_reverb_lines(fx);
 }
 void regroove_effects_set_reverb_room_size(RegrooveEffects* fx, float size) {
-    if (fx) fx->reverb_room_size = clampf(size, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->reverb_room_size = clampf(size, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 void regroove_effects_set_reverb_damping(RegrooveEffects* fx, float damping) {
-    if (fx) fx->reverb_damping = clampf(damping, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->reverb_damping = clampf(damping, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 void regroove_effects_set_reverb_mix(RegrooveEffects* fx, float mix) {
-    if (fx) fx->reverb_mix = clampf(mix, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->reverb_mix = clampf(mix, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
+}
+void regroove_effects_set_reverb_send(RegrooveEffects* fx, int send) {
+    if (!fx) return;
+    fx->reverb_send = send ? 1 : 0;
+    ensure_reverb_lines(fx);
 }
 int regroove_effects_get_reverb_enabled(RegrooveEffects* fx) {
     return fx ? fx->reverb_enabled : 0;
@@ -555,19 +1170,37 @@ float regroove_effects_get_reverb_damping(RegrooveEffects* fx) {
 float regroove_effects_get_reverb_mix(RegrooveEffects* fx) {
     return fx ? fx->reverb_mix : 0.3f;
 }
+int regroove_effects_get_reverb_send(RegrooveEffects* fx) {
+    return fx ? fx->reverb_send : 0;
+}
+float regroove_effects_get_reverb_send_level(RegrooveEffects* fx) {
+    if (!fx || !fx->reverb_enabled || !fx->reverb_send) return 0.0f;
+    return fx->reverb_mix;
+}
 
 // Delay setters/getters
 void regroove_effects_set_delay_enabled(RegrooveEffects* fx, int enabled) {
-    if (fx) fx->delay_enabled = enabled;
+    if (!fx) return;
+    // The audio thread only runs the delay once it sees the published line (LINE_ACQUIRE)
+    if (enabled && !fx->delay_buffer[0]) {
+        allocate_delay_lines(fx, fx->line_sample_rate);
+    }
+    fx->delay_enabled = enabled;
 }
 void regroove_effects_set_delay_time(RegrooveEffects* fx, float time) {
-    if (fx) fx->delay_time = clampf(time, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->delay_time = clampf(time, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 void regroove_effects_set_delay_feedback(RegrooveEffects* fx, float feedback) {
-    if (fx) fx->delay_feedback = clampf(feedback, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->delay_feedback = clampf(feedback, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 void regroove_effects_set_delay_mix(RegrooveEffects* fx, float mix) {
-    if (fx) fx->delay_mix = clampf(mix, 0.0f, 1.0f);
+    if (!fx) return;
+    fx->delay_mix = clampf(mix, 0.0f, 1.0f);
+    fx->coeffs_dirty = 1;
 }
 int regroove_effects_get_delay_enabled(RegrooveEffects* fx) {
     return fx ? fx->delay_enabled : 0;
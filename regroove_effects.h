@@ -7,8 +7,24 @@
 extern "C" {
 #endif
 
-// Delay line size (1 second at 48kHz)
-#define MAX_DELAY_SAMPLES 48000
+// Longest delay time (the delay line holds this much audio at the prepared sample rate)
+#define REGROOVE_DELAY_MAX_SECONDS 1
+
+// Sample rate the delay and reverb lines are sized for by regroove_effects_create()
+#define REGROOVE_EFFECTS_DEFAULT_SAMPLE_RATE 44100
+
+// Longest tail reported by regroove_effects_get_tail_frames() (delay feedback near 1.0 rings forever)
+#define REGROOVE_MAX_TAIL_SECONDS 60
+
+// Freeverb network size (per channel)
+#define REVERB_NUM_COMBS 8
+#define REVERB_NUM_ALLPASSES 4
+
+// Parameter smoothed over one processing block (linear ramp from value to target)
+typedef struct {
+    float value;               // Value reached at the end of the previous block
+    float target;              // Value derived from the current parameters
+} RegrooveRamp;
 
 // Effects chain structure
 typedef struct {
@@ -71,14 +87,61 @@ typedef struct {
     float compressor_envelope[2]; // Compressor envelope followers
     float compressor_rms[2];      // RMS state for smoother detection
 
-    float phaser_lfo_phase;    // Phaser LFO phase
+    float phaser_lfo_phase;    // Phaser LFO phase (0.0 - 1.0)
     float phaser_ap[4][2];     // Phaser all-pass filter states (4 stages, stereo)
-
-    float reverb_comb[8][2];   // Reverb comb filter states (8 combs, stereo)
-    int reverb_comb_pos[8];    // Comb filter read positions
-
-    float *delay_buffer[2];    // Delay buffers (L, R)
+    float phaser_fb[2];        // Last phaser output (feedback path)
+    float phaser_coeff;        // All-pass coefficient reached at the end of the previous block
+
+    float reverb_comb[REVERB_NUM_COMBS][2];    // Reverb comb damping filter states (8 combs, stereo)
+    int reverb_comb_pos[REVERB_NUM_COMBS][2];  // Comb filter positions
+    int reverb_comb_len[REVERB_NUM_COMBS][2];  // Comb lengths in samples
+    float *reverb_comb_line[REVERB_NUM_COMBS][2];
+    int reverb_allpass_pos[REVERB_NUM_ALLPASSES][2];
+    int reverb_allpass_len[REVERB_NUM_ALLPASSES][2];
+    float *reverb_allpass_line[REVERB_NUM_ALLPASSES][2];
+    float *reverb_lines;       // Single allocation backing every comb/all-pass line (allocated on first enable)
+    int line_sample_rate;      // Sample rate the delay and reverb lines are sized for
+    int reverb_send;           // 1 = shared send mode (no private reverb, see regroove_effects_set_reverb_send)
+
+    float *delay_buffer[2];    // Delay buffers (L, R), allocated when delay is first enabled
     int delay_write_pos;       // Delay write position
+    int delay_length;          // Delay line length in samples (0 until allocated)
+
+    // Coefficient cache
+    // Recomputed at the start of a block only when a setter changed a parameter
+    // (coeffs_dirty) or the sample rate differs from coeffs_sample_rate
+    int coeffs_dirty;
+    int coeffs_sample_rate;
+
+    float distortion_hp_alpha; // 80Hz pre-emphasis highpass
+    float distortion_bp_f;     // 120Hz punch bandpass
+    float distortion_lp_alpha; // 8kHz post lowpass
+    float eq_low_alpha;        // 250Hz shelf split
+    float eq_mid_alpha;        // 6kHz shelf split
+    float compressor_attack_coeff;
+    float compressor_release_coeff;
+    float compressor_threshold_lin;
+    float compressor_inv_ratio;
+    int delay_samples;
+    float phaser_lfo_inc;      // LFO phase increment per sample
+    float phaser_tan_scale;    // pi / sample_rate (all-pass coefficient from frequency)
+    float reverb_feedback;     // Comb feedback (room size)
+    float reverb_damp1;        // Comb damping lowpass
+    float reverb_damp2;
+
+    // Smoothed parameters (ramped per block to avoid zipper noise)
+    RegrooveRamp ramp_distortion_drive;  // Drive gain (1x - 8x)
+    RegrooveRamp ramp_distortion_mix;
+    RegrooveRamp ramp_filter_f;          // SVF frequency coefficient
+    RegrooveRamp ramp_filter_q;
+    RegrooveRamp ramp_eq_low;            // Linear band gains
+    RegrooveRamp ramp_eq_mid;
+    RegrooveRamp ramp_eq_high;
+    RegrooveRamp ramp_compressor_makeup; // Linear makeup gain
+    RegrooveRamp ramp_phaser_feedback;
+    RegrooveRamp ramp_reverb_mix;
+    RegrooveRamp ramp_delay_feedback;
+    RegrooveRamp ramp_delay_mix;
 } RegrooveEffects;
 
 // Initialize effects with default parameters
@@ -90,13 +153,49 @@ void regroove_effects_destroy(RegrooveEffects* fx);
 // Reset effect state (clear filter memory, etc.)
 void regroove_effects_reset(RegrooveEffects* fx);
 
-// Process audio buffer through effects chain
+// Set the sample rate the delay and reverb lines are sized for (default 44.1kHz)
+// Resizes lines that already exist (allocates, never call from the audio thread)
+// Processing at another rate still works, but the room sounds slightly larger or smaller
+// and delay times are capped at the line length
+// Returns 0 on success, -1 on error (the previous lines are kept)
+int regroove_effects_prepare(RegrooveEffects* fx, int sample_rate);
+
+// Process audio buffer through effects chain (native float path)
+// left, right: planar float buffers, processed in place (no clamping, headroom is kept)
+// frames: number of stereo frames
+// sample_rate: sample rate in Hz
+void regroove_effects_process_float(RegrooveEffects* fx, float* left, float* right, int frames, int sample_rate);
+
+// Frames the chain keeps producing output after its input goes silent (to about -100 dB)
+// Estimated from the current parameters of the enabled stages; 0 when nothing rings
+int regroove_effects_get_tail_frames(RegrooveEffects* fx, int sample_rate);
+
+// Denormal protection
+// Decaying filter, delay and reverb states end up as denormal floats, which are very
+// slow on most CPUs. Audio threads should enable flush-to-zero before processing;
+// on threads that do not flush (or CPUs without the mode), process_float falls back
+// to a tiny DC offset into the delay/reverb lines and flushes the filter states.
+
+// Enable (1) or disable (0) flush-to-zero/denormals-are-zero on the calling thread
+// Returns 1 if the calling thread now flushes denormals, 0 if not (or not supported)
+int regroove_effects_flush_denormals(int enable);
+
+// Returns 1 if the calling thread flushes denormals to zero
+int regroove_effects_denormals_flushed(void);
+
+// Fallback protection on threads without flush-to-zero: 1 = on (default), 0 = off
+// (only useful to measure the unprotected cost, e.g. in benchmarks)
+void regroove_effects_set_denormal_guard(int enable);
+
+// Process audio buffer through effects chain (compatibility wrapper)
 // buffer: interleaved stereo int16 samples (L, R, L, R, ...)
 // frames: number of stereo frames
 // sample_rate: sample rate in Hz
 void regroove_effects_process(RegrooveEffects* fx, int16_t* buffer, int frames, int sample_rate);
 
 // Parameter setters (normalized 0.0 - 1.0 for MIDI mapping)
+// Enabling delay or reverb allocates its lines the first time (call setters from
+// control threads, not the audio thread); a stage without lines is skipped
 void regroove_effects_set_distortion_enabled(RegrooveEffects* fx, int enabled);
 void regroove_effects_set_distortion_drive(RegrooveEffects* fx, float drive);   // 0.0 - 1.0
 void regroove_effects_set_distortion_mix(RegrooveEffects* fx, float mix);       // 0.0 - 1.0
@@ -126,6 +225,9 @@ void regroove_effects_set_reverb_enabled(RegrooveEffects* fx, int enabled);
 void regroove_effects_set_reverb_room_size(RegrooveEffects* fx, float size);
 void regroove_effects_set_reverb_damping(RegrooveEffects* fx, float damping);
 void regroove_effects_set_reverb_mix(RegrooveEffects* fx, float mix);
+// Shared send mode (1): the chain skips its private reverb and the mix becomes the
+// send level to a shared reverb bus (see regroove_effects_get_reverb_send_level)
+void regroove_effects_set_reverb_send(RegrooveEffects* fx, int send);
 
 void regroove_effects_set_delay_enabled(RegrooveEffects* fx, int enabled);
 void regroove_effects_set_delay_time(RegrooveEffects* fx, float time);
@@ -162,6 +264,9 @@ int regroove_effects_get_reverb_enabled(RegrooveEffects* fx);
 float regroove_effects_get_reverb_room_size(RegrooveEffects* fx);
 float regroove_effects_get_reverb_damping(RegrooveEffects* fx);
 float regroove_effects_get_reverb_mix(RegrooveEffects* fx);
+int regroove_effects_get_reverb_send(RegrooveEffects* fx);
+// Send level to the shared reverb (0.0 unless reverb is enabled and in send mode)
+float regroove_effects_get_reverb_send_level(RegrooveEffects* fx);
 
 int regroove_effects_get_delay_enabled(RegrooveEffects* fx);
 float regroove_effects_get_delay_time(RegrooveEffects* fx);
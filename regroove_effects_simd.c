@@ -0,0 +1,539 @@
+#include "regroove_effects_simd.h"
+#include <math.h>
+
+#if defined(__GNUC__) && (defined(__x86_64__) || defined(__i386__))
+#define REGROOVE_KERNELS_X86 1
+#include <immintrin.h>
+#elif defined(__aarch64__)
+#define REGROOVE_KERNELS_NEON 1
+#include <arm_neon.h>
+#endif
+
+// Largest foldback excursion handled exactly (keeps the truncation in int range)
+#define FOLD_LIMIT 1048576.0f
+
+// ============================================================================
+// Scalar kernels (reference implementation, also used for SIMD loop tails)
+// ============================================================================
+
+static inline float ramp_at(float start, float step, int i) {
+    return start + step * (float)(i + 1);
+}
+
+// fmod(a, 2) for a >= 0, written with truncation so the SIMD versions match it
+static inline float fold_wrap(float a) {
+    if (a > FOLD_LIMIT) a = FOLD_LIMIT;
+    return a - 2.0f * truncf(a * 0.5f);
+}
+
+// Foldback distortion for aggressive harmonics (threshold 1.0)
+static inline float foldback_scalar(float x) {
+    if (x > 1.0f) return 1.0f - fold_wrap(x - 1.0f);
+    if (x < -1.0f) return -1.0f + fold_wrap(-1.0f - x);
+    return x;
+}
+
+// tanh as a [7/6] Pade approximant (error < 1e-6 for |x| <= 1.5, the shaper's range)
+static inline float tanh_pade(float x) {
+    float x2 = x * x;
+    float num = x * (135135.0f + x2 * (17325.0f + x2 * (378.0f + x2)));
+    float den = 135135.0f + x2 * (62370.0f + x2 * (3150.0f + x2 * 28.0f));
+    return num / den;
+}
+
+// RB338-style asymmetric shaper: aggressive on positive (kick transients), softer on negative
+static inline float shaper_scalar_sample(float x) {
+    float folded = foldback_scalar(x);
+    float scaled = folded * ((folded > 0.0f) ? 1.5f : 0.5f);
+    return tanh_pade(scaled);
+}
+
+static void mix_scalar(float* out, const float* dry, const float* wet, float mix, float mix_step, int n) {
+    for (int i = 0; i < n; i++) {
+        float m = ramp_at(mix, mix_step, i);
+        out[i] = dry[i] * (1.0f - m) + wet[i] * m;
+    }
+}
+
+static void apply_gain_scalar(float* buf, const float* gain, float gain_start, float gain_step, int n) {
+    for (int i = 0; i < n; i++) {
+        buf[i] = buf[i] * gain[i] * ramp_at(gain_start, gain_step, i);
+    }
+}
+
+static void shaper_scalar(float* buf, int n) {
+    for (int i = 0; i < n; i++) {
+        buf[i] = shaper_scalar_sample(buf[i]);
+    }
+}
+
+static void eq_stereo_scalar(float* left, float* right, float* lp1, float* lp2,
+                             float low_alpha, float mid_alpha,
+                             float low, float low_step, float mid, float mid_step,
+                             float high, float high_step, int n) {
+    for (int i = 0; i < n; i++) {
+        float low_mult = ramp_at(low, low_step, i);
+        float mid_mult = ramp_at(mid, mid_step, i);
+        float high_mult = ramp_at(high, high_step, i);
+
+        for (int ch = 0; ch < 2; ch++) {
+            float* buf = (ch == 0) ? left : right;
+            float sample = buf[i];
+
+            // Low shelf: one-pole lowpass filter for bass (below 250Hz)
+            lp1[ch] += low_alpha * (sample - lp1[ch]);
+            float low_out = lp1[ch] * low_mult + (sample - lp1[ch]);
+
+            // Mid band: bandpass (250Hz to 6kHz) - what's left after low and high
+            lp2[ch] += mid_alpha * (low_out - lp2[ch]);
+            float mid_out = low_out + (lp2[ch] - lp1[ch]) * (mid_mult - 1.0f);
+
+            // High shelf: boost/cut high frequencies (above 6kHz)
+            buf[i] = mid_out + (mid_out - lp2[ch]) * (high_mult - 1.0f);
+        }
+    }
+}
+
+// Frames [start, n) of a delay segment
+static inline void delay_segment_range(float* io, float* line_write, const float* line_read,
+                                       float feedback, float feedback_step, float mix, float mix_step,
+                                       int start, int n) {
+    for (int i = start; i < n; i++) {
+        float fb = ramp_at(feedback, feedback_step, i);
+        float m = ramp_at(mix, mix_step, i);
+        float delayed = line_read[i];
+        float input = io[i];
+        line_write[i] = input + delayed * fb;
+        io[i] = input * (1.0f - m) + delayed * m;
+    }
+}
+
+static void delay_segment_scalar(float* io, float* line_write, const float* line_read,
+                                 float feedback, float feedback_step, float mix, float mix_step, int n) {
+    delay_segment_range(io, line_write, line_read, feedback, feedback_step, mix, mix_step, 0, n);
+}
+
+static const RegrooveKernels scalar_kernels = {
+    "scalar",
+    mix_scalar,
+    apply_gain_scalar,
+    shaper_scalar,
+    eq_stereo_scalar,
+    delay_segment_scalar
+};
+
+// ============================================================================
+// SSE2 / AVX2 kernels (x86)
+// ============================================================================
+
+#ifdef REGROOVE_KERNELS_X86
+
+#define SSE2_FN __attribute__((target("sse2")))
+#define AVX2_FN __attribute__((target("avx2")))
+
+// Lane ramp: start + step * (i + 1 + lane)
+SSE2_FN static inline __m128 sse2_ramp(float start, float step, int i) {
+    __m128 idx = _mm_cvtepi32_ps(_mm_add_epi32(_mm_set1_epi32(i + 1), _mm_set_epi32(3, 2, 1, 0)));
+    return _mm_add_ps(_mm_set1_ps(start), _mm_mul_ps(_mm_set1_ps(step), idx));
+}
+
+SSE2_FN static inline __m128 sse2_fold_wrap(__m128 a) {
+    a = _mm_min_ps(a, _mm_set1_ps(FOLD_LIMIT));
+    __m128 t = _mm_cvtepi32_ps(_mm_cvttps_epi32(_mm_mul_ps(a, _mm_set1_ps(0.5f))));
+    return _mm_sub_ps(a, _mm_mul_ps(_mm_set1_ps(2.0f), t));
+}
+
+SSE2_FN static inline __m128 sse2_select(__m128 mask, __m128 a, __m128 b) {
+    return _mm_or_ps(_mm_and_ps(mask, a), _mm_andnot_ps(mask, b));
+}
+
+SSE2_FN static void mix_sse2(float* out, const float* dry, const float* wet, float mix, float mix_step, int n) {
+    const __m128 one = _mm_set1_ps(1.0f);
+    int i = 0;
+    for (; i + 4 <= n; i += 4) {
+        __m128 m = sse2_ramp(mix, mix_step, i);
+        __m128 d = _mm_loadu_ps(dry + i);
+        __m128 w = _mm_loadu_ps(wet + i);
+        _mm_storeu_ps(out + i, _mm_add_ps(_mm_mul_ps(d, _mm_sub_ps(one, m)), _mm_mul_ps(w, m)));
+    }
+    for (; i < n; i++) {
+        float m = ramp_at(mix, mix_step, i);
+        out[i] = dry[i] * (1.0f - m) + wet[i] * m;
+    }
+}
+
+SSE2_FN static void apply_gain_sse2(float* buf, const float* gain, float gain_start, float gain_step, int n) {
+    int i = 0;
+    for (; i + 4 <= n; i += 4) {
+        __m128 g = sse2_ramp(gain_start, gain_step, i);
+        __m128 v = _mm_mul_ps(_mm_loadu_ps(buf + i), _mm_loadu_ps(gain + i));
+        _mm_storeu_ps(buf + i, _mm_mul_ps(v, g));
+    }
+    for (; i < n; i++) {
+        buf[i] = buf[i] * gain[i] * ramp_at(gain_start, gain_step, i);
+    }
+}
+
+SSE2_FN static void shaper_sse2(float* buf, int n) {
+    const __m128 one = _mm_set1_ps(1.0f);
+    const __m128 neg_one = _mm_set1_ps(-1.0f);
+    const __m128 zero = _mm_setzero_ps();
+    int i = 0;
+    for (; i + 4 <= n; i += 4) {
+        __m128 x = _mm_loadu_ps(buf + i);
+
+        // Foldback
+        __m128 pos = _mm_sub_ps(one, sse2_fold_wrap(_mm_sub_ps(x, one)));
+        __m128 neg = _mm_add_ps(neg_one, sse2_fold_wrap(_mm_sub_ps(neg_one, x)));
+        __m128 folded = sse2_select(_mm_cmpgt_ps(x, one), pos,
+                                    sse2_select(_mm_cmplt_ps(x, neg_one), neg, x));
+
+        // Asymmetric drive and tanh
+        __m128 scale = sse2_select(_mm_cmpgt_ps(folded, zero), _mm_set1_ps(1.5f), _mm_set1_ps(0.5f));
+        __m128 s = _mm_mul_ps(folded, scale);
+        __m128 s2 = _mm_mul_ps(s, s);
+        __m128 num = _mm_add_ps(_mm_set1_ps(378.0f), s2);
+        num = _mm_add_ps(_mm_set1_ps(17325.0f), _mm_mul_ps(s2, num));
+        num = _mm_add_ps(_mm_set1_ps(135135.0f), _mm_mul_ps(s2, num));
+        num = _mm_mul_ps(s, num);
+        __m128 den = _mm_add_ps(_mm_set1_ps(3150.0f), _mm_mul_ps(s2, _mm_set1_ps(28.0f)));
+        den = _mm_add_ps(_mm_set1_ps(62370.0f), _mm_mul_ps(s2, den));
+        den = _mm_add_ps(_mm_set1_ps(135135.0f), _mm_mul_ps(s2, den));
+        _mm_storeu_ps(buf + i, _mm_div_ps(num, den));
+    }
+    for (; i < n; i++) {
+        buf[i] = shaper_scalar_sample(buf[i]);
+    }
+}
+
+// Left and right share one register: lanes 0 and 1 carry L and R
+SSE2_FN static void eq_stereo_sse2(float* left, float* right, float* lp1, float* lp2,
+                                   float low_alpha, float mid_alpha,
+                                   float low, float low_step, float mid, float mid_step,
+                                   float high, float high_step, int n) {
+    const __m128 la = _mm_set1_ps(low_alpha);
+    const __m128 ma = _mm_set1_ps(mid_alpha);
+    const __m128 one = _mm_set1_ps(1.0f);
+    __m128 s1 = _mm_set_ps(0.0f, 0.0f, lp1[1], lp1[0]);
+    __m128 s2 = _mm_set_ps(0.0f, 0.0f, lp2[1], lp2[0]);
+    float out[4];
+
+    for (int i = 0; i < n; i++) {
+        __m128 low_mult = _mm_set1_ps(ramp_at(low, low_step, i));
+        __m128 mid_mult = _mm_set1_ps(ramp_at(mid, mid_step, i));
+        __m128 high_mult = _mm_set1_ps(ramp_at(high, high_step, i));
+        __m128 x = _mm_unpacklo_ps(_mm_load_ss(left + i), _mm_load_ss(right + i));
+
+        s1 = _mm_add_ps(s1, _mm_mul_ps(la, _mm_sub_ps(x, s1)));
+        __m128 low_out = _mm_add_ps(_mm_mul_ps(s1, low_mult), _mm_sub_ps(x, s1));
+
+        s2 = _mm_add_ps(s2, _mm_mul_ps(ma, _mm_sub_ps(low_out, s2)));
+        __m128 mid_out = _mm_add_ps(low_out, _mm_mul_ps(_mm_sub_ps(s2, s1), _mm_sub_ps(mid_mult, one)));
+        __m128 y = _mm_add_ps(mid_out, _mm_mul_ps(_mm_sub_ps(mid_out, s2), _mm_sub_ps(high_mult, one)));
+
+        _mm_storeu_ps(out, y);
+        left[i] = out[0];
+        right[i] = out[1];
+    }
+
+    _mm_storeu_ps(out, s1);
+    lp1[0] = out[0];
+    lp1[1] = out[1];
+    _mm_storeu_ps(out, s2);
+    lp2[0] = out[0];
+    lp2[1] = out[1];
+}
+
+SSE2_FN static void delay_segment_sse2(float* io, float* line_write, const float* line_read,
+                                       float feedback, float feedback_step, float mix, float mix_step, int n) {
+    const __m128 one = _mm_set1_ps(1.0f);
+    int i = 0;
+    for (; i + 4 <= n; i += 4) {
+        __m128 fb = sse2_ramp(feedback, feedback_step, i);
+        __m128 m = sse2_ramp(mix, mix_step, i);
+        __m128 delayed = _mm_loadu_ps(line_read + i);
+        __m128 input = _mm_loadu_ps(io + i);
+        _mm_storeu_ps(line_write + i, _mm_add_ps(input, _mm_mul_ps(delayed, fb)));
+        _mm_storeu_ps(io + i, _mm_add_ps(_mm_mul_ps(input, _mm_sub_ps(one, m)), _mm_mul_ps(delayed, m)));
+    }
+    delay_segment_range(io, line_write, line_read, feedback, feedback_step, mix, mix_step, i, n);
+}
+
+static const RegrooveKernels sse2_kernels = {
+    "sse2",
+    mix_sse2,
+    apply_gain_sse2,
+    shaper_sse2,
+    eq_stereo_sse2,
+    delay_segment_sse2
+};
+
+AVX2_FN static inline __m256 avx2_ramp(float start, float step, int i) {
+    __m256 idx = _mm256_cvtepi32_ps(_mm256_add_epi32(_mm256_set1_epi32(i + 1),
+                                                     _mm256_set_epi32(7, 6, 5, 4, 3, 2, 1, 0)));
+    return _mm256_add_ps(_mm256_set1_ps(start), _mm256_mul_ps(_mm256_set1_ps(step), idx));
+}
+
+AVX2_FN static inline __m256 avx2_fold_wrap(__m256 a) {
+    a = _mm256_min_ps(a, _mm256_set1_ps(FOLD_LIMIT));
+    __m256 t = _mm256_round_ps(_mm256_mul_ps(a, _mm256_set1_ps(0.5f)), _MM_FROUND_TO_ZERO | _MM_FROUND_NO_EXC);
+    return _mm256_sub_ps(a, _mm256_mul_ps(_mm256_set1_ps(2.0f), t));
+}
+
+AVX2_FN static void mix_avx2(float* out, const float* dry, const float* wet, float mix, float mix_step, int n) {
+    const __m256 one = _mm256_set1_ps(1.0f);
+    int i = 0;
+    for (; i + 8 <= n; i += 8) {
+        __m256 m = avx2_ramp(mix, mix_step, i);
+        __m256 d = _mm256_loadu_ps(dry + i);
+        __m256 w = _mm256_loadu_ps(wet + i);
+        _mm256_storeu_ps(out + i, _mm256_add_ps(_mm256_mul_ps(d, _mm256_sub_ps(one, m)), _mm256_mul_ps(w, m)));
+    }
+    for (; i < n; i++) {
+        float m = ramp_at(mix, mix_step, i);
+        out[i] = dry[i] * (1.0f - m) + wet[i] * m;
+    }
+}
+
+AVX2_FN static void apply_gain_avx2(float* buf, const float* gain, float gain_start, float gain_step, int n) {
+    int i = 0;
+    for (; i + 8 <= n; i += 8) {
+        __m256 g = avx2_ramp(gain_start, gain_step, i);
+        __m256 v = _mm256_mul_ps(_mm256_loadu_ps(buf + i), _mm256_loadu_ps(gain + i));
+        _mm256_storeu_ps(buf + i, _mm256_mul_ps(v, g));
+    }
+    for (; i < n; i++) {
+        buf[i] = buf[i] * gain[i] * ramp_at(gain_start, gain_step, i);
+    }
+}
+
+AVX2_FN static void shaper_avx2(float* buf, int n) {
+    const __m256 one = _mm256_set1_ps(1.0f);
+    const __m256 neg_one = _mm256_set1_ps(-1.0f);
+    const __m256 zero = _mm256_setzero_ps();
+    int i = 0;
+    for (; i + 8 <= n; i += 8) {
+        __m256 x = _mm256_loadu_ps(buf + i);
+
+        // Foldback
+        __m256 pos = _mm256_sub_ps(one, avx2_fold_wrap(_mm256_sub_ps(x, one)));
+        __m256 neg = _mm256_add_ps(neg_one, avx2_fold_wrap(_mm256_sub_ps(neg_one, x)));
+        __m256 folded = _mm256_blendv_ps(x, neg, _mm256_cmp_ps(x, neg_one, _CMP_LT_OQ));
+        folded = _mm256_blendv_ps(folded, pos, _mm256_cmp_ps(x, one, _CMP_GT_OQ));
+
+        // Asymmetric drive and tanh
+        __m256 scale = _mm256_blendv_ps(_mm256_set1_ps(0.5f), _mm256_set1_ps(1.5f),
+                                        _mm256_cmp_ps(folded, zero, _CMP_GT_OQ));
+        __m256 s = _mm256_mul_ps(folded, scale);
+        __m256 s2 = _mm256_mul_ps(s, s);
+        __m256 num = _mm256_add_ps(_mm256_set1_ps(378.0f), s2);
+        num = _mm256_add_ps(_mm256_set1_ps(17325.0f), _mm256_mul_ps(s2, num));
+        num = _mm256_add_ps(_mm256_set1_ps(135135.0f), _mm256_mul_ps(s2, num));
+        num = _mm256_mul_ps(s, num);
+        __m256 den = _mm256_add_ps(_mm256_set1_ps(3150.0f), _mm256_mul_ps(s2, _mm256_set1_ps(28.0f)));
+        den = _mm256_add_ps(_mm256_set1_ps(62370.0f), _mm256_mul_ps(s2, den));
+        den = _mm256_add_ps(_mm256_set1_ps(135135.0f), _mm256_mul_ps(s2, den));
+        _mm256_storeu_ps(buf + i, _mm256_div_ps(num, den));
+    }
+    for (; i < n; i++) {
+        buf[i] = shaper_scalar_sample(buf[i]);
+    }
+}
+
+AVX2_FN static void delay_segment_avx2(float* io, float* line_write, const float* line_read,
+                                       float feedback, float feedback_step, float mix, float mix_step, int n) {
+    const __m256 one = _mm256_set1_ps(1.0f);
+    int i = 0;
+    for (; i + 8 <= n; i += 8) {
+        __m256 fb = avx2_ramp(feedback, feedback_step, i);
+        __m256 m = avx2_ramp(mix, mix_step, i);
+        __m256 delayed = _mm256_loadu_ps(line_read + i);
+        __m256 input = _mm256_loadu_ps(io + i);
+        _mm256_storeu_ps(line_write + i, _mm256_add_ps(input, _mm256_mul_ps(delayed, fb)));
+        _mm256_storeu_ps(io + i, _mm256_add_ps(_mm256_mul_ps(input, _mm256_sub_ps(one, m)),
+                                               _mm256_mul_ps(delayed, m)));
+    }
+    delay_segment_range(io, line_write, line_read, feedback, feedback_step, mix, mix_step, i, n);
+}
+
+// The stereo-paired EQ only uses two lanes, so AVX2 keeps the SSE2 version
+static const RegrooveKernels avx2_kernels = {
+    "avx2",
+    mix_avx2,
+    apply_gain_avx2,
+    shaper_avx2,
+    eq_stereo_sse2,
+    delay_segment_avx2
+};
+
+#endif // REGROOVE_KERNELS_X86
+
+// ============================================================================
+// NEON kernels (AArch64, where NEON is always present)
+// ============================================================================
+
+#ifdef REGROOVE_KERNELS_NEON
+
+static inline float32x4_t neon_ramp(float start, float step, int i) {
+    static const float lane[4] = { 0.0f, 1.0f, 2.0f, 3.0f };
+    float32x4_t idx = vaddq_f32(vdupq_n_f32((float)(i + 1)), vld1q_f32(lane));
+    return vaddq_f32(vdupq_n_f32(start), vmulq_f32(vdupq_n_f32(step), idx));
+}
+
+static inline float32x4_t neon_fold_wrap(float32x4_t a) {
+    a = vminq_f32(a, vdupq_n_f32(FOLD_LIMIT));
+    float32x4_t t = vrndq_f32(vmulq_f32(a, vdupq_n_f32(0.5f)));
+    return vsubq_f32(a, vmulq_f32(vdupq_n_f32(2.0f), t));
+}
+
+static void mix_neon(float* out, const float* dry, const float* wet, float mix, float mix_step, int n) {
+    const float32x4_t one = vdupq_n_f32(1.0f);
+    int i = 0;
+    for (; i + 4 <= n; i += 4) {
+        float32x4_t m = neon_ramp(mix, mix_step, i);
+        float32x4_t d = vld1q_f32(dry + i);
+        float32x4_t w = vld1q_f32(wet + i);
+        vst1q_f32(out + i, vaddq_f32(vmulq_f32(d, vsubq_f32(one, m)), vmulq_f32(w, m)));
+    }
+    for (; i < n; i++) {
+        float m = ramp_at(mix, mix_step, i);
+        out[i] = dry[i] * (1.0f - m) + wet[i] * m;
+    }
+}
+
+static void apply_gain_neon(float* buf, const float* gain, float gain_start, float gain_step, int n) {
+    int i = 0;
+    for (; i + 4 <= n; i += 4) {
+        float32x4_t g = neon_ramp(gain_start, gain_step, i);
+        float32x4_t v = vmulq_f32(vld1q_f32(buf + i), vld1q_f32(gain + i));
+        vst1q_f32(buf + i, vmulq_f32(v, g));
+    }
+    for (; i < n; i++) {
+        buf[i] = buf[i] * gain[i] * ramp_at(gain_start, gain_step, i);
+    }
+}
+
+static void shaper_neon(float* buf, int n) {
+    const float32x4_t one = vdupq_n_f32(1.0f);
+    const float32x4_t neg_one = vdupq_n_f32(-1.0f);
+    const float32x4_t zero = vdupq_n_f32(0.0f);
+    int i = 0;
+    for (; i + 4 <= n; i += 4) {
+        float32x4_t x = vld1q_f32(buf + i);
+
+        // Foldback
+        float32x4_t pos = vsubq_f32(one, neon_fold_wrap(vsubq_f32(x, one)));
+        float32x4_t neg = vaddq_f32(neg_one, neon_fold_wrap(vsubq_f32(neg_one, x)));
+        float32x4_t folded = vbslq_f32(vcltq_f32(x, neg_one), neg, x);
+        folded = vbslq_f32(vcgtq_f32(x, one), pos, folded);
+
+        // Asymmetric drive and tanh
+        float32x4_t scale = vbslq_f32(vcgtq_f32(folded, zero), vdupq_n_f32(1.5f), vdupq_n_f32(0.5f));
+        float32x4_t s = vmulq_f32(folded, scale);
+        float32x4_t s2 = vmulq_f32(s, s);
+        float32x4_t num = vaddq_f32(vdupq_n_f32(378.0f), s2);
+        num = vaddq_f32(vdupq_n_f32(17325.0f), vmulq_f32(s2, num));
+        num = vaddq_f32(vdupq_n_f32(135135.0f), vmulq_f32(s2, num));
+        num = vmulq_f32(s, num);
+        float32x4_t den = vaddq_f32(vdupq_n_f32(3150.0f), vmulq_f32(s2, vdupq_n_f32(28.0f)));
+        den = vaddq_f32(vdupq_n_f32(62370.0f), vmulq_f32(s2, den));
+        den = vaddq_f32(vdupq_n_f32(135135.0f), vmulq_f32(s2, den));
+        vst1q_f32(buf + i, vdivq_f32(num, den));
+    }
+    for (; i < n; i++) {
+        buf[i] = shaper_scalar_sample(buf[i]);
+    }
+}
+
+// Left and right share one 2-lane register
+static void eq_stereo_neon(float* left, float* right, float* lp1, float* lp2,
+                           float low_alpha, float mid_alpha,
+                           float low, float low_step, float mid, float mid_step,
+                           float high, float high_step, int n) {
+    const float32x2_t la = vdup_n_f32(low_alpha);
+    const float32x2_t ma = vdup_n_f32(mid_alpha);
+    const float32x2_t one = vdup_n_f32(1.0f);
+    float32x2_t s1 = vld1_f32(lp1);
+    float32x2_t s2 = vld1_f32(lp2);
+
+    for (int i = 0; i < n; i++) {
+        float32x2_t low_mult = vdup_n_f32(ramp_at(low, low_step, i));
+        float32x2_t mid_mult = vdup_n_f32(ramp_at(mid, mid_step, i));
+        float32x2_t high_mult = vdup_n_f32(ramp_at(high, high_step, i));
+        float32x2_t x = vset_lane_f32(right[i], vdup_n_f32(left[i]), 1);
+
+        s1 = vadd_f32(s1, vmul_f32(la, vsub_f32(x, s1)));
+        float32x2_t low_out = vadd_f32(vmul_f32(s1, low_mult), vsub_f32(x, s1));
+
+        s2 = vadd_f32(s2, vmul_f32(ma, vsub_f32(low_out, s2)));
+        float32x2_t mid_out = vadd_f32(low_out, vmul_f32(vsub_f32(s2, s1), vsub_f32(mid_mult, one)));
+        float32x2_t y = vadd_f32(mid_out, vmul_f32(vsub_f32(mid_out, s2), vsub_f32(high_mult, one)));
+
+        left[i] = vget_lane_f32(y, 0);
+        right[i] = vget_lane_f32(y, 1);
+    }
+
+    vst1_f32(lp1, s1);
+    vst1_f32(lp2, s2);
+}
+
+static void delay_segment_neon(float* io, float* line_write, const float* line_read,
+                               float feedback, float feedback_step, float mix, float mix_step, int n) {
+    const float32x4_t one = vdupq_n_f32(1.0f);
+    int i = 0;
+    for (; i + 4 <= n; i += 4) {
+        float32x4_t fb = neon_ramp(feedback, feedback_step, i);
+        float32x4_t m = neon_ramp(mix, mix_step, i);
+        float32x4_t delayed = vld1q_f32(line_read + i);
+        float32x4_t input = vld1q_f32(io + i);
+        vst1q_f32(line_write + i, vaddq_f32(input, vmulq_f32(delayed, fb)));
+        vst1q_f32(io + i, vaddq_f32(vmulq_f32(input, vsubq_f32(one, m)), vmulq_f32(delayed, m)));
+    }
+    delay_segment_range(io, line_write, line_read, feedback, feedback_step, mix, mix_step, i, n);
+}
+
+static const RegrooveKernels neon_kernels = {
+    "neon",
+    mix_neon,
+    apply_gain_neon,
+    shaper_neon,
+    eq_stereo_neon,
+    delay_segment_neon
+};
+
+#endif // REGROOVE_KERNELS_NEON
+
+// ============================================================================
+// Runtime selection
+// ============================================================================
+
+static const RegrooveKernels* selected_kernels = NULL;
+static int force_scalar = 0;
+
+static const RegrooveKernels* detect_kernels(void) {
+#ifdef REGROOVE_KERNELS_X86
+    __builtin_cpu_init();
+    if (__builtin_cpu_supports("avx2")) return &avx2_kernels;
+    if (__builtin_cpu_supports("sse2")) return &sse2_kernels;
+#endif
+#ifdef REGROOVE_KERNELS_NEON
+    return &neon_kernels;
+#endif
+    return &scalar_kernels;
+}
+
+const RegrooveKernels* regroove_kernels_get(void) {
+    if (force_scalar) return &scalar_kernels;
+    if (!selected_kernels) {
+        selected_kernels = detect_kernels();
+    }
+    return selected_kernels;
+}
+
+const RegrooveKernels* regroove_kernels_scalar(void) {
+    return &scalar_kernels;
+}
+
+void regroove_kernels_force_scalar(int force) {
+    force_scalar = force;
+}
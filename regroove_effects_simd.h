@@ -0,0 +1,57 @@
+#ifndef REGROOVE_EFFECTS_SIMD_H
+#define REGROOVE_EFFECTS_SIMD_H
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Block kernels used by the RegrooveEffects stages
+// Every kernel has a scalar version; SSE2, AVX2 and NEON versions are selected at
+// runtime when the CPU supports them. All versions use the same arithmetic, so the
+// selected instruction set does not change the output beyond float rounding.
+//
+// Ramped parameters follow value + step * (i + 1) for frame i, so a ramp started
+// at the previous block's value reaches its target on the last frame.
+
+typedef struct {
+    const char* name;
+
+    // out[i] = dry[i] * (1 - m) + wet[i] * m, m ramped from mix by mix_step
+    // out may alias dry or wet
+    void (*mix)(float* out, const float* dry, const float* wet, float mix, float mix_step, int n);
+
+    // buf[i] *= gain[i] * g, g ramped from gain_start by gain_step
+    void (*apply_gain)(float* buf, const float* gain, float gain_start, float gain_step, int n);
+
+    // buf[i] = rb338 asymmetric tanh shaper of foldback(buf[i])
+    void (*shaper)(float* buf, int n);
+
+    // 3-band EQ with the left and right channels processed as a pair
+    // lp1/lp2: [L, R] filter states, band gains ramped from low/mid/high
+    void (*eq_stereo)(float* left, float* right, float* lp1, float* lp2,
+                      float low_alpha, float mid_alpha,
+                      float low, float low_step, float mid, float mid_step,
+                      float high, float high_step, int n);
+
+    // One channel of the delay line over a segment that does not wrap and is no
+    // longer than the delay distance (reads never see this segment's writes)
+    // line_write[i] = io[i] + line_read[i] * fb, io[i] = io[i] * (1 - m) + line_read[i] * m
+    void (*delay_segment)(float* io, float* line_write, const float* line_read,
+                          float feedback, float feedback_step, float mix, float mix_step, int n);
+} RegrooveKernels;
+
+// Kernels for the best instruction set available on this CPU
+// (the first call selects them; regroove_effects_create() makes that call)
+const RegrooveKernels* regroove_kernels_get(void);
+
+// Scalar reference kernels
+const RegrooveKernels* regroove_kernels_scalar(void);
+
+// Force the scalar kernels (1) or go back to runtime selection (0)
+void regroove_kernels_force_scalar(int force);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // REGROOVE_EFFECTS_SIMD_H
@@ -276,6 +276,13 @@ void samplecrate_mixer_init(SamplecrateMixer* mixer) {
         mixer->program_pans[i] = 0.5f;     // Center
         mixer->program_mutes[i] = 0;
         mixer->program_fx_enable[i] = 0;   // FX disabled by default
+        for (int b = 0; b < RSX_MAX_AUX_BUSES; b++) {
+            mixer->program_sends[i][b] = 0.0f;
+        }
+    }
+
+    for (int b = 0; b < RSX_MAX_AUX_BUSES; b++) {
+        mixer->aux_return_volumes[b] = 1.0f;
     }
 
     mixer->master_fx_enable = 1;  // Master FX enabled by default
@@ -304,6 +311,18 @@ void samplecrate_config_init(SamplecrateConfig* config) {
     // SysEx defaults
     config->sysex_device_id = 0;        // Device ID 0 by default
 
+    // Audio rendering defaults
+    config->render_threads = 0;         // Serial rendering by default
+    config->reverb_shared = 1;          // One shared reverb for all programs
+    config->aux_buses = 2;              // Aux 1 = reverb, aux 2 = delay
+    config->audio_buffer_frames = 512;  // ~11.6ms at 44.1kHz
+    config->audio_buffer_adaptive = 0;  // Fixed block size by default
+    config->log_level = 2;              // Info (per-bar debug output off)
+
+    // MIDI track cache defaults
+    config->track_cache = 1;
+    config->track_cache_dir[0] = '\0';    // Next to the MIDI files
+
     // Mixer defaults
     config->default_master_volume = 0.7f;
     config->default_master_pan = 0.5f;
@@ -403,6 +422,21 @@ int samplecrate_config_load(SamplecrateConfig* config, const char* filepath) {
             else if (strcmp(key, "midi_clock_tempo_sync") == 0) config->midi_clock_tempo_sync = atoi(value);
             else if (strcmp(key, "midi_spp_receive") == 0) config->midi_spp_receive = atoi(value);
             else if (strcmp(key, "sysex_device_id") == 0) config->sysex_device_id = atoi(value);
+            else if (strcmp(key, "render_threads") == 0) config->render_threads = atoi(value);
+            else if (strcmp(key, "reverb_shared") == 0) config->reverb_shared = atoi(value);
+            else if (strcmp(key, "aux_buses") == 0) config->aux_buses = atoi(value);
+            else if (strcmp(key, "audio_buffer_frames") == 0) config->audio_buffer_frames = atoi(value);
+            else if (strcmp(key, "audio_buffer_adaptive") == 0) config->audio_buffer_adaptive = atoi(value);
+            else if (strcmp(key, "log_level") == 0) config->log_level = atoi(value);
+            else if (strcmp(key, "track_cache") == 0) config->track_cache = atoi(value);
+            else if (strcmp(key, "track_cache_dir") == 0) {
+                // Path up to the inline comment
+                size_t len = strcspn(value, ";");
+                while (len > 0 && (value[len - 1] == ' ' || value[len - 1] == '\t')) len--;
+                if (len >= sizeof(config->track_cache_dir)) len = sizeof(config->track_cache_dir) - 1;
+                memcpy(config->track_cache_dir, value, len);
+                config->track_cache_dir[len] = '\0';
+            }
             // Legacy support for old config files
             else if (strcmp(key, "midi_program_change_enabled") == 0) {
                 int val = atoi(value);
@@ -468,6 +502,14 @@ int samplecrate_config_save(const SamplecrateConfig* config, const char* filepat
     fprintf(f, "midi_clock_tempo_sync=%d  ; 0 = visual only, 1 = adjust playback tempo\n", config->midi_clock_tempo_sync);
     fprintf(f, "midi_spp_receive=%d  ; 0 = ignore SPP, 1 = sync to SPP\n", config->midi_spp_receive);
     fprintf(f, "sysex_device_id=%d  ; SysEx device ID (0-127) for remote control\n", config->sysex_device_id);
+    fprintf(f, "render_threads=%d  ; Worker threads for rendering programs in parallel (0 = off)\n", config->render_threads);
+    fprintf(f, "reverb_shared=%d  ; 1 = program reverbs send to one shared reverb, 0 = private reverb per program\n", config->reverb_shared);
+    fprintf(f, "aux_buses=%d  ; Aux send/return buses (0-4)\n", config->aux_buses);
+    fprintf(f, "audio_buffer_frames=%d  ; Audio block size in frames (32-4096, lower = less latency)\n", config->audio_buffer_frames);
+    fprintf(f, "audio_buffer_adaptive=%d  ; 1 = raise the block size on overruns, lower it again when stable\n", config->audio_buffer_adaptive);
+    fprintf(f, "log_level=%d  ; 0 = errors, 1 = warnings, 2 = info, 3 = debug\n", config->log_level);
+    fprintf(f, "track_cache=%d  ; 1 = cache parsed MIDI files (faster crate loading), 0 = always parse\n", config->track_cache);
+    fprintf(f, "track_cache_dir=%s  ; empty = .trackcache folder next to the MIDI files\n", config->track_cache_dir);
     fprintf(f, "\n");
 
     fprintf(f, "[Mixer]\n");
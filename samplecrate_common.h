@@ -58,6 +58,10 @@ typedef struct {
     float program_pans[RSX_MAX_PROGRAMS];     // Pan for each program (0.0=left, 0.5=center, 1.0=right)
     int program_mutes[RSX_MAX_PROGRAMS];      // Mute for each program
     int program_fx_enable[RSX_MAX_PROGRAMS];  // FX enable per program (0=disabled, 1=enabled)
+    float program_sends[RSX_MAX_PROGRAMS][RSX_MAX_AUX_BUSES];  // Post-fader aux send levels (0.0-1.0)
+
+    // Aux send/return buses
+    float aux_return_volumes[RSX_MAX_AUX_BUSES];  // Return level of each bus
 
     // FX enable toggles (independent)
     int master_fx_enable;      // 0 = disabled, 1 = enabled
@@ -83,6 +87,18 @@ typedef struct {
     // SysEx settings
     int sysex_device_id;        // SysEx device ID (0-127) for remote control
 
+    // Audio rendering
+    int render_threads;         // Worker threads for per-program rendering (0 = render on the audio thread only)
+    int reverb_shared;          // 1 = program reverbs send to one shared reverb, 0 = private reverb per program
+    int aux_buses;              // Number of aux send/return buses (0-4)
+    int audio_buffer_frames;    // Requested audio device block size (32-4096 frames, power of two)
+    int audio_buffer_adaptive;  // 1 = grow the block on overruns and shrink it back towards audio_buffer_frames
+    int log_level;              // Console log level (0 = errors, 1 = warnings, 2 = info, 3 = debug)
+
+    // MIDI track cache
+    int track_cache;            // 1 = keep parsed MIDI files in a binary cache, 0 = always parse
+    char track_cache_dir[COMMON_MAX_PATH];  // Cache directory ("" = .trackcache next to the MIDI files)
+
     // Mixer defaults
     float default_master_volume;
     float default_master_pan;
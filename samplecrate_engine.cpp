@@ -5,14 +5,19 @@
 #include <iostream>
 #include <cstring>
 #include <mutex>
+#include <atomic>
+#include <cmath>
 #include <libgen.h>
 
 extern "C" {
 #include "samplecrate_rsx.h"
 }
 
-// Mutex for thread-safe synth access
-static std::mutex synth_mutex;
+// Aux buses created by samplecrate_engine_create (aux 1 = reverb, aux 2 = delay)
+#define ENGINE_DEFAULT_AUX_BUSES 2
+
+// Aux bus that receives the program reverb sends in shared reverb mode
+#define ENGINE_AUX_REVERB_BUS 0
 
 // Cross-platform realpath wrapper
 static char* cross_platform_realpath(const char* path, char* resolved_path) {
@@ -32,12 +37,32 @@ SamplecrateEngine* samplecrate_engine_create(MednessSequencer* sequencer) {
     engine->synth = nullptr;
     engine->performance = nullptr;
     engine->effects_master = nullptr;
+    engine->num_aux_buses = 0;
+    engine->reverb_shared = 0;
+    for (int b = 0; b < RSX_MAX_AUX_BUSES; b++) {
+        engine->effects_aux[b] = nullptr;
+        engine->aux_tail_frames[b] = 0;
+    }
+    engine->mixbus = nullptr;
+    engine->render_pool = nullptr;
+    engine->sample_rate = ENGINE_DEFAULT_SAMPLE_RATE;
+    engine->block_size = ENGINE_DEFAULT_BLOCK_SIZE;
+    engine->latency = samplecrate_latency_create();
     engine->current_program = 0;
+    engine->last_dispatch_us = 0;
+
+    for (int i = 0; i < ENGINE_NUM_INPUT_SOURCES; i++) {
+        engine->input_queues[i] = samplecrate_eventqueue_create(EVENTQUEUE_DEFAULT_CAPACITY);
+    }
 
     for (int i = 0; i < RSX_MAX_PROGRAMS; i++) {
         engine->program_synths[i] = nullptr;
         engine->effects_program[i] = nullptr;
+        engine->effects_pool[i] = nullptr;
+        engine->program_hold_frames[i] = 0;
     }
+    engine->effects_pool_count = 0;
+    samplecrate_rsx_init_effects(&engine->program_fx_defaults);
 
     for (int i = 0; i < RSX_MAX_NOTE_PADS; i++) {
         engine->pad_program_numbers[i] = 0;  // Default to program 1
@@ -55,8 +80,8 @@ SamplecrateEngine* samplecrate_engine_create(MednessSequencer* sequencer) {
 
     // Create main synth
     engine->synth = sfizz_create_synth();
-    sfizz_set_sample_rate(engine->synth, 44100);
-    sfizz_set_samples_per_block(engine->synth, 512);
+    sfizz_set_sample_rate(engine->synth, engine->sample_rate);
+    sfizz_set_samples_per_block(engine->synth, engine->block_size);
 
     // Create performance manager (handles both pads and sequences)
     engine->performance = medness_performance_create();
@@ -67,13 +92,127 @@ SamplecrateEngine* samplecrate_engine_create(MednessSequencer* sequencer) {
         medness_performance_set_start_mode(engine->performance, SEQUENCE_START_IMMEDIATE);
     }
 
-    // Create effects
+    // Create effects (per-program chains are created when a program first needs one)
     engine->effects_master = regroove_effects_create();
+    regroove_effects_prepare(engine->effects_master, engine->sample_rate);
+
+    // Aux buses (program reverbs send to aux 1 instead of running privately)
+    engine->reverb_shared = 1;
+    samplecrate_engine_set_aux_buses(engine, ENGINE_DEFAULT_AUX_BUSES);
+
+    return engine;
+}
+
+RegrooveEffects* samplecrate_engine_get_program_effects(SamplecrateEngine* engine, int program) {
+    if (!engine || program < 0 || program >= RSX_MAX_PROGRAMS) return nullptr;
+    if (engine->effects_program[program]) return engine->effects_program[program];
+
+    std::lock_guard<std::mutex> lock(engine->effects_pool_mutex);
+    if (engine->effects_program[program]) return engine->effects_program[program];
+
+    RegrooveEffects* fx = nullptr;
+    if (engine->effects_pool_count > 0) {
+        fx = engine->effects_pool[--engine->effects_pool_count];
+        engine->effects_pool[engine->effects_pool_count] = nullptr;
+        regroove_effects_reset(fx);
+    } else {
+        fx = regroove_effects_create();
+        if (!fx) {
+            std::cerr << "Failed to create effects for program " << (program + 1) << std::endl;
+            return nullptr;
+        }
+        regroove_effects_prepare(fx, engine->sample_rate);
+    }
+
+    // Send mode first, so a shared reverb never allocates private lines
+    regroove_effects_set_reverb_send(fx, engine->reverb_shared && engine->num_aux_buses > 0);
+    samplecrate_engine_apply_effects_settings(fx, samplecrate_engine_get_program_effects_settings(engine, program));
+
+    // Publish only once fully set up (the audio thread reads the pointer without a lock)
+    std::atomic_thread_fence(std::memory_order_release);
+    engine->effects_program[program] = fx;
+    return fx;
+}
+
+RegrooveEffects* samplecrate_engine_find_program_effects(SamplecrateEngine* engine, int program) {
+    if (!engine || program < 0 || program >= RSX_MAX_PROGRAMS) return nullptr;
+    return engine->effects_program[program];
+}
+
+const RSXEffectsSettings* samplecrate_engine_get_program_effects_settings(SamplecrateEngine* engine, int program) {
+    if (!engine) return nullptr;
+    if (engine->rsx && program >= 0 && program < engine->rsx->num_programs) {
+        return &engine->rsx->program_effects[program];
+    }
+    return &engine->program_fx_defaults;
+}
+
+// Internal: return every program chain to the pool
+// Caller must hold synth_mutex (so the audio thread is not using them)
+static void engine_release_program_effects(SamplecrateEngine* engine) {
+    std::lock_guard<std::mutex> lock(engine->effects_pool_mutex);
     for (int i = 0; i < RSX_MAX_PROGRAMS; i++) {
-        engine->effects_program[i] = regroove_effects_create();
+        if (!engine->effects_program[i]) continue;
+        engine->effects_pool[engine->effects_pool_count++] = engine->effects_program[i];
+        engine->effects_program[i] = nullptr;
     }
+}
 
-    return engine;
+// Internal: true if any stage of the settings would change the sound
+static bool effects_settings_active(const RSXEffectsSettings* fx) {
+    return fx->distortion_enabled || fx->filter_enabled || fx->eq_enabled || fx->compressor_enabled ||
+           fx->phaser_enabled || fx->reverb_enabled || fx->delay_enabled;
+}
+
+void samplecrate_engine_set_aux_buses(SamplecrateEngine* engine, int count) {
+    if (!engine) return;
+    if (count < 0) count = 0;
+    if (count > RSX_MAX_AUX_BUSES) count = RSX_MAX_AUX_BUSES;
+    if (count > MIXBUS_MAX_AUX) count = MIXBUS_MAX_AUX;
+
+    for (int b = 0; b < RSX_MAX_AUX_BUSES; b++) {
+        if (b < count && !engine->effects_aux[b]) {
+            RegrooveEffects* fx = regroove_effects_create();
+            if (!fx) {
+                std::cerr << "Failed to create aux bus " << (b + 1) << std::endl;
+                count = b;
+                break;
+            }
+            regroove_effects_prepare(fx, engine->sample_rate);
+            // Same defaults as a new RSX: odd buses reverb, even buses delay, fully wet
+            if (b % 2 == 0) {
+                regroove_effects_set_reverb_enabled(fx, 1);
+                regroove_effects_set_reverb_mix(fx, 1.0f);
+            } else {
+                regroove_effects_set_delay_enabled(fx, 1);
+                regroove_effects_set_delay_mix(fx, 1.0f);
+            }
+            if (engine->rsx) {
+                samplecrate_engine_apply_effects_settings(fx, &engine->rsx->aux_effects[b]);
+            }
+            engine->effects_aux[b] = fx;
+        }
+    }
+    for (int b = count; b < RSX_MAX_AUX_BUSES; b++) {
+        if (engine->effects_aux[b]) {
+            regroove_effects_destroy(engine->effects_aux[b]);
+            engine->effects_aux[b] = nullptr;
+        }
+        engine->aux_tail_frames[b] = 0;
+    }
+    engine->num_aux_buses = count;
+
+    // Shared reverb mode depends on aux 1 existing
+    samplecrate_engine_set_reverb_shared(engine, engine->reverb_shared);
+}
+
+void samplecrate_engine_set_reverb_shared(SamplecrateEngine* engine, int shared) {
+    if (!engine) return;
+    engine->reverb_shared = shared ? 1 : 0;
+    int send = (engine->reverb_shared && engine->num_aux_buses > 0) ? 1 : 0;
+    for (int i = 0; i < RSX_MAX_PROGRAMS; i++) {
+        regroove_effects_set_reverb_send(engine->effects_program[i], send);
+    }
 }
 
 void samplecrate_engine_destroy(SamplecrateEngine* engine) {
@@ -107,8 +246,29 @@ void samplecrate_engine_destroy(SamplecrateEngine* engine) {
         if (engine->effects_program[i]) {
             regroove_effects_destroy(engine->effects_program[i]);
         }
+        if (engine->effects_pool[i]) {
+            regroove_effects_destroy(engine->effects_pool[i]);
+        }
+    }
+    for (int b = 0; b < RSX_MAX_AUX_BUSES; b++) {
+        if (engine->effects_aux[b]) {
+            regroove_effects_destroy(engine->effects_aux[b]);
+        }
     }
 
+    // Stop render workers before freeing anything they could touch
+    samplecrate_renderpool_destroy(engine->render_pool);
+
+    // Free render buses
+    samplecrate_mixbus_destroy(engine->mixbus);
+
+    // Free input queues
+    for (int i = 0; i < ENGINE_NUM_INPUT_SOURCES; i++) {
+        samplecrate_eventqueue_destroy(engine->input_queues[i]);
+    }
+
+    samplecrate_latency_destroy(engine->latency);
+
     delete engine;
 }
 
@@ -150,13 +310,14 @@ void samplecrate_engine_save_note_suppression(SamplecrateEngine* engine) {
 int samplecrate_engine_reload_program(SamplecrateEngine* engine, int program_idx) {
     if (!engine || !engine->rsx || program_idx < 0 || program_idx >= RSX_MAX_PROGRAMS) return -1;
 
-    std::lock_guard<std::mutex> lock(synth_mutex);
+    std::lock_guard<std::mutex> lock(engine->synth_mutex);
 
     // Free existing synth if it exists
     if (engine->program_synths[program_idx]) {
         sfizz_free(engine->program_synths[program_idx]);
         engine->program_synths[program_idx] = nullptr;
     }
+    engine->program_hold_frames[program_idx] = 0;
 
     // Skip if no content to load
     if (engine->rsx->program_modes[program_idx] == PROGRAM_MODE_SFZ_FILE && engine->rsx->program_files[program_idx][0] == '\0') return 0;
@@ -164,8 +325,8 @@ int samplecrate_engine_reload_program(SamplecrateEngine* engine, int program_idx
 
     // Create new synth instance
     engine->program_synths[program_idx] = sfizz_create_synth();
-    sfizz_set_sample_rate(engine->program_synths[program_idx], 44100);
-    sfizz_set_samples_per_block(engine->program_synths[program_idx], 512);
+    sfizz_set_sample_rate(engine->program_synths[program_idx], engine->sample_rate);
+    sfizz_set_samples_per_block(engine->program_synths[program_idx], engine->block_size);
 
     bool load_success = false;
 
@@ -187,7 +348,7 @@ int samplecrate_engine_reload_program(SamplecrateEngine* engine, int program_idx
         // Build from samples
         std::cout << "Reloading Program " << (program_idx + 1) << " (Samples: " << engine->rsx->program_sample_counts[program_idx] << ")" << std::endl;
 
-        SFZBuilder* builder = sfz_builder_create(44100);
+        SFZBuilder* builder = sfz_builder_create(engine->sample_rate);
         if (builder) {
             for (int s = 0; s < engine->rsx->program_sample_counts[program_idx]; s++) {
                 RSXSampleMapping* sample = &engine->rsx->program_samples[program_idx][s];
@@ -256,11 +417,17 @@ int samplecrate_engine_load_rsx(SamplecrateEngine* engine, const char* rsx_path)
     // Clean up ALL existing program synths before loading new file
     // (in case the new file has fewer programs than the old one)
     std::cout << "Cleaning up existing programs..." << std::endl;
-    for (int i = 0; i < RSX_MAX_PROGRAMS; i++) {
-        if (engine->program_synths[i]) {
-            sfizz_free(engine->program_synths[i]);
-            engine->program_synths[i] = nullptr;
+    {
+        std::lock_guard<std::mutex> lock(engine->synth_mutex);
+        for (int i = 0; i < RSX_MAX_PROGRAMS; i++) {
+            if (engine->program_synths[i]) {
+                sfizz_free(engine->program_synths[i]);
+                engine->program_synths[i] = nullptr;
+            }
         }
+
+        // FX chains go back to the pool; the new file's programs take them as needed
+        engine_release_program_effects(engine);
     }
 
     // Load the RSX file
@@ -309,9 +476,500 @@ void samplecrate_engine_autosave_effects(SamplecrateEngine* engine) {
     // For now, just placeholder
 }
 
+// Internal: switch the synths and every FX chain to the engine's sample rate and block size
+static void engine_apply_audio_format(SamplecrateEngine* engine) {
+    std::lock_guard<std::mutex> synth_lock(engine->synth_mutex);
+
+    if (engine->synth) {
+        sfizz_set_sample_rate(engine->synth, engine->sample_rate);
+        sfizz_set_samples_per_block(engine->synth, engine->block_size);
+    }
+    for (int i = 0; i < RSX_MAX_PROGRAMS; i++) {
+        if (!engine->program_synths[i]) continue;
+        sfizz_set_sample_rate(engine->program_synths[i], engine->sample_rate);
+        sfizz_set_samples_per_block(engine->program_synths[i], engine->block_size);
+    }
+
+    // Delay and reverb lines are sized in samples
+    regroove_effects_prepare(engine->effects_master, engine->sample_rate);
+    for (int b = 0; b < RSX_MAX_AUX_BUSES; b++) {
+        regroove_effects_prepare(engine->effects_aux[b], engine->sample_rate);
+    }
+
+    std::lock_guard<std::mutex> pool_lock(engine->effects_pool_mutex);
+    for (int i = 0; i < RSX_MAX_PROGRAMS; i++) {
+        regroove_effects_prepare(engine->effects_program[i], engine->sample_rate);
+    }
+    for (int i = 0; i < engine->effects_pool_count; i++) {
+        regroove_effects_prepare(engine->effects_pool[i], engine->sample_rate);
+    }
+}
+
+int samplecrate_engine_prepare_audio(SamplecrateEngine* engine, int max_frames, int sample_rate) {
+    if (!engine || max_frames <= 0 || sample_rate <= 0) return -1;
+
+    if (sample_rate != engine->sample_rate || max_frames != engine->block_size) {
+        engine->sample_rate = sample_rate;
+        engine->block_size = max_frames;
+        engine_apply_audio_format(engine);
+        std::cout << "Engine running at " << sample_rate << " Hz, " << max_frames << " frame blocks" << std::endl;
+    }
+
+    // Keep the existing buses if they are already large enough
+    if (engine->mixbus && engine->mixbus->max_frames >= max_frames) return 0;
+
+    // One scratch pair per program so programs can render in parallel
+    SamplecrateMixBus* bus = samplecrate_mixbus_create(max_frames, RSX_MAX_PROGRAMS);
+    if (!bus) {
+        std::cerr << "Failed to allocate mix bus for " << max_frames << " frames" << std::endl;
+        return -1;
+    }
+
+    samplecrate_mixbus_destroy(engine->mixbus);
+    engine->mixbus = bus;
+
+    std::cout << "Mix bus allocated (" << max_frames << " frames)" << std::endl;
+    return 0;
+}
+
+int samplecrate_engine_queue_event(SamplecrateEngine* engine, int source, SamplecrateEventType type,
+                                   int program, int data1, int data2) {
+    if (!engine || source < 0 || source >= ENGINE_NUM_INPUT_SOURCES) return -1;
+    if (program < 0 || program >= RSX_MAX_PROGRAMS) return -1;
+
+    SamplecrateEvent event;
+    event.timestamp_us = samplecrate_eventqueue_now_us();
+    event.type = (uint8_t)type;
+    event.program = (uint8_t)program;
+    event.data1 = (uint8_t)(data1 & 0x7F);
+    event.data2 = (uint8_t)(data2 & 0x7F);
+
+    return samplecrate_eventqueue_push(engine->input_queues[source], &event);
+}
+
+void samplecrate_engine_dispatch_events(SamplecrateEngine* engine, int num_frames, int sample_rate) {
+    if (!engine || num_frames <= 0 || sample_rate <= 0) return;
+
+    // Events queued since the previous block are laid out over this block at the
+    // same spacing they arrived with (one block of constant latency, no jitter)
+    uint64_t now = samplecrate_eventqueue_now_us();
+    uint64_t block_start = engine->last_dispatch_us ? engine->last_dispatch_us : now;
+    engine->last_dispatch_us = now;
+
+    SamplecrateEvent event;
+    for (int source = 0; source < ENGINE_NUM_INPUT_SOURCES; source++) {
+        while (samplecrate_eventqueue_pop(engine->input_queues[source], &event)) {
+            sfizz_synth_t* target_synth = engine->program_synths[event.program];
+            if (!target_synth) continue;
+
+            int delay = 0;
+            if (event.timestamp_us > block_start) {
+                delay = (int)((event.timestamp_us - block_start) * (uint64_t)sample_rate / 1000000);
+                if (delay >= num_frames) delay = num_frames - 1;
+            }
+
+            switch (event.type) {
+                case EVENT_NOTE_ON:
+                    sfizz_send_note_on(target_synth, delay, event.data1, event.data2);
+                    break;
+                case EVENT_NOTE_OFF:
+                    sfizz_send_note_off(target_synth, delay, event.data1, 0);
+                    break;
+                case EVENT_CC:
+                    sfizz_send_cc(target_synth, delay, event.data1, event.data2);
+                    break;
+            }
+            samplecrate_engine_wake_program(engine, event.program);
+        }
+    }
+}
+
+void samplecrate_engine_wake_program(SamplecrateEngine* engine, int program) {
+    if (!engine || program < 0 || program >= RSX_MAX_PROGRAMS) return;
+    if (engine->program_hold_frames[program] < 1) engine->program_hold_frames[program] = 1;
+}
+
+void samplecrate_engine_set_render_threads(SamplecrateEngine* engine, int num_threads) {
+    if (!engine) return;
+    if (num_threads < 0) num_threads = 0;
+    if (num_threads > RENDERPOOL_MAX_WORKERS) num_threads = RENDERPOOL_MAX_WORKERS;
+
+    if (samplecrate_renderpool_get_workers(engine->render_pool) == num_threads) return;
+
+    samplecrate_renderpool_destroy(engine->render_pool);
+    engine->render_pool = nullptr;
+
+    if (num_threads > 0) {
+        engine->render_pool = samplecrate_renderpool_create(num_threads);
+        if (!engine->render_pool) {
+            std::cerr << "Failed to start render threads - rendering serially" << std::endl;
+        }
+    }
+}
+
+void samplecrate_engine_apply_effects_settings(RegrooveEffects* fx, const RSXEffectsSettings* rsx_fx) {
+    if (!fx || !rsx_fx) return;
+
+    // Distortion
+    regroove_effects_set_distortion_enabled(fx, rsx_fx->distortion_enabled);
+    regroove_effects_set_distortion_drive(fx, rsx_fx->distortion_drive);
+    regroove_effects_set_distortion_mix(fx, rsx_fx->distortion_mix);
+
+    // Filter
+    regroove_effects_set_filter_enabled(fx, rsx_fx->filter_enabled);
+    regroove_effects_set_filter_cutoff(fx, rsx_fx->filter_cutoff);
+    regroove_effects_set_filter_resonance(fx, rsx_fx->filter_resonance);
+
+    // EQ
+    regroove_effects_set_eq_enabled(fx, rsx_fx->eq_enabled);
+    regroove_effects_set_eq_low(fx, rsx_fx->eq_low);
+    regroove_effects_set_eq_mid(fx, rsx_fx->eq_mid);
+    regroove_effects_set_eq_high(fx, rsx_fx->eq_high);
+
+    // Compressor
+    regroove_effects_set_compressor_enabled(fx, rsx_fx->compressor_enabled);
+    regroove_effects_set_compressor_threshold(fx, rsx_fx->compressor_threshold);
+    regroove_effects_set_compressor_ratio(fx, rsx_fx->compressor_ratio);
+    regroove_effects_set_compressor_attack(fx, rsx_fx->compressor_attack);
+    regroove_effects_set_compressor_release(fx, rsx_fx->compressor_release);
+    regroove_effects_set_compressor_makeup(fx, rsx_fx->compressor_makeup);
+
+    // Phaser
+    regroove_effects_set_phaser_enabled(fx, rsx_fx->phaser_enabled);
+    regroove_effects_set_phaser_rate(fx, rsx_fx->phaser_rate);
+    regroove_effects_set_phaser_depth(fx, rsx_fx->phaser_depth);
+    regroove_effects_set_phaser_feedback(fx, rsx_fx->phaser_feedback);
+
+    // Reverb
+    regroove_effects_set_reverb_enabled(fx, rsx_fx->reverb_enabled);
+    regroove_effects_set_reverb_room_size(fx, rsx_fx->reverb_room_size);
+    regroove_effects_set_reverb_damping(fx, rsx_fx->reverb_damping);
+    regroove_effects_set_reverb_mix(fx, rsx_fx->reverb_mix);
+
+    // Delay
+    regroove_effects_set_delay_enabled(fx, rsx_fx->delay_enabled);
+    regroove_effects_set_delay_time(fx, rsx_fx->delay_time);
+    regroove_effects_set_delay_feedback(fx, rsx_fx->delay_feedback);
+    regroove_effects_set_delay_mix(fx, rsx_fx->delay_mix);
+}
+
+void samplecrate_engine_apply_rsx_mix(SamplecrateEngine* engine) {
+    if (!engine || !engine->rsx || engine->rsx->num_programs <= 0) return;
+
+    SamplecrateRSX* rsx = engine->rsx;
+
+    // Apply program volume and pan settings from RSX
+    for (int i = 0; i < rsx->num_programs; i++) {
+        engine->mixer.program_volumes[i] = rsx->program_volumes[i];
+        engine->mixer.program_pans[i] = rsx->program_pans[i];
+        for (int b = 0; b < RSX_MAX_AUX_BUSES; b++) {
+            engine->mixer.program_sends[i][b] = rsx->program_sends[i][b];
+        }
+        std::cout << "Applied program " << (i + 1) << " settings: volume=" << engine->mixer.program_volumes[i]
+                  << " pan=" << engine->mixer.program_pans[i] << std::endl;
+    }
+
+    // Apply FX chain enable states from RSX
+    engine->mixer.master_fx_enable = rsx->master_fx_enable;
+    for (int i = 0; i < rsx->num_programs; i++) {
+        engine->mixer.program_fx_enable[i] = rsx->program_fx_enable[i];
+    }
+
+    // Apply effects settings from RSX
+    std::cout << "Loading effects settings from RSX..." << std::endl;
+    if (engine->effects_master) {
+        samplecrate_engine_apply_effects_settings(engine->effects_master, &rsx->master_effects);
+        std::cout << "  Master effects loaded from RSX (enabled=" << engine->mixer.master_fx_enable << ")" << std::endl;
+    }
+    for (int i = 0; i < rsx->num_programs; i++) {
+        if (engine->effects_program[i]) {
+            samplecrate_engine_apply_effects_settings(engine->effects_program[i], &rsx->program_effects[i]);
+            std::cout << "  Program " << (i + 1) << " effects loaded from RSX (enabled=" << engine->mixer.program_fx_enable[i] << ")" << std::endl;
+        } else if (rsx->program_fx_enable[i] && effects_settings_active(&rsx->program_effects[i])) {
+            // Only programs that actually use effects get a chain (created with the RSX settings)
+            if (samplecrate_engine_get_program_effects(engine, i)) {
+                std::cout << "  Program " << (i + 1) << " effects created from RSX (enabled=" << engine->mixer.program_fx_enable[i] << ")" << std::endl;
+            }
+        }
+    }
+    for (int b = 0; b < RSX_MAX_AUX_BUSES; b++) {
+        engine->mixer.aux_return_volumes[b] = rsx->aux_return_volumes[b];
+        if (engine->effects_aux[b]) {
+            samplecrate_engine_apply_effects_settings(engine->effects_aux[b], &rsx->aux_effects[b]);
+            std::cout << "  Aux bus " << (b + 1) << " effects loaded from RSX" << std::endl;
+        }
+    }
+    // Note: Note suppression is loaded by samplecrate_engine_load_rsx()
+}
+
+// Helper: gains for the playback/master balance controls
+// Pan: 0.0 = left, 0.5 = center (both at 100%), 1.0 = right
+static void balance_gains(float volume, float pan, float* left_gain, float* right_gain) {
+    *left_gain = volume * (pan <= 0.5f ? 1.0f : (1.0f - (pan - 0.5f) * 2.0f));
+    *right_gain = volume * (pan >= 0.5f ? 1.0f : (pan * 2.0f));
+}
+
+// Peak level below which a program block counts as silent (-100 dB)
+#define ENGINE_SILENCE_LEVEL 1e-5f
+
+// Internal: one batch of per-program render jobs
+struct ProgramRenderBatch {
+    SamplecrateEngine* engine;
+    int frames;
+    int programs[RSX_MAX_PROGRAMS];  // Job index -> program index
+    uint64_t synth_ns[RSX_MAX_PROGRAMS];  // Job index -> sfizz render time
+    uint64_t fx_ns[RSX_MAX_PROGRAMS];     // Job index -> program FX time
+};
+
+// Internal: peak absolute sample of a stereo block
+static float block_peak(const float* left, const float* right, int frames) {
+    float peak = 0.0f;
+    for (int j = 0; j < frames; j++) {
+        float l = fabsf(left[j]);
+        float r = fabsf(right[j]);
+        if (l > peak) peak = l;
+        if (r > peak) peak = r;
+    }
+    return peak;
+}
+
+// Internal: render one program and its FX into that program's scratch pair
+// Runs on any render pool thread; each job only touches its own program's state
+static void engine_render_program_job(int job_index, void* userdata) {
+    ProgramRenderBatch* batch = (ProgramRenderBatch*)userdata;
+    SamplecrateEngine* engine = batch->engine;
+    int i = batch->programs[job_index];
+    int frames = batch->frames;
+
+    // Pool workers have their own floating point mode (cheap to set again)
+    regroove_effects_flush_denormals(1);
+
+    float* prog_left = engine->mixbus->prog_left[i];
+    float* prog_right = engine->mixbus->prog_right[i];
+
+    // Clear program buffers
+    memset(prog_left, 0, frames * sizeof(float));
+    memset(prog_right, 0, frames * sizeof(float));
+    float* prog_channels[2] = { prog_left, prog_right };
+
+    // Render this program's audio
+    uint64_t start_ns = samplecrate_latency_now_ns();
+    sfizz_render_block(engine->program_synths[i], prog_channels, 2, frames);
+    uint64_t synth_end_ns = samplecrate_latency_now_ns();
+    batch->synth_ns[job_index] = synth_end_ns - start_ns;
+
+    // The synth is sounding while it has voices or produced anything this block
+    bool sounding = sfizz_get_num_active_voices(engine->program_synths[i]) > 0 ||
+                    block_peak(prog_left, prog_right, frames) > ENGINE_SILENCE_LEVEL;
+
+    // Apply per-program FX if enabled (pre-fader)
+    RegrooveEffects* fx = engine->mixer.program_fx_enable[i] ? engine->effects_program[i] : nullptr;
+    if (fx) {
+        regroove_effects_process_float(fx, prog_left, prog_right, frames, engine->sample_rate);
+        batch->fx_ns[job_index] = samplecrate_latency_now_ns() - synth_end_ns;
+    } else {
+        batch->fx_ns[job_index] = 0;
+    }
+
+    // Keep rendering for the FX tail after the synth goes quiet, and for as long as
+    // the FX output is still audible (covers tails the estimate comes up short on)
+    int hold = engine->program_hold_frames[i] - frames;
+    if (sounding) {
+        hold = 1 + (fx ? regroove_effects_get_tail_frames(fx, engine->sample_rate) : 0);
+    } else if (hold <= 0 && fx && block_peak(prog_left, prog_right, frames) > ENGINE_SILENCE_LEVEL) {
+        hold = 1;
+    }
+    engine->program_hold_frames[i] = hold > 0 ? hold : 0;
+}
+
+// Internal: render one chunk (frames <= mixbus capacity) into left/right
+static void engine_render_chunk(SamplecrateEngine* engine, float* left, float* right, int frames) {
+    SamplecrateMixBus* bus = engine->mixbus;
+    SamplecrateMixer* mixer = &engine->mixer;
+
+    memset(left, 0, frames * sizeof(float));
+    memset(right, 0, frames * sizeof(float));
+
+    // Aux sends are summed here and each bus is processed once after the programs
+    int num_aux = engine->num_aux_buses;
+    bool aux_active[RSX_MAX_AUX_BUSES];
+    bool aux_sent[RSX_MAX_AUX_BUSES];
+    for (int b = 0; b < num_aux; b++) {
+        aux_active[b] = engine->aux_tail_frames[b] > 0;
+        aux_sent[b] = false;
+        memset(bus->aux_left[b], 0, frames * sizeof(float));
+        memset(bus->aux_right[b], 0, frames * sizeof(float));
+    }
+
+    // If we have multiple program synths loaded, mix them all together
+    if (engine->rsx && engine->rsx->num_programs > 0) {
+        ProgramRenderBatch batch;
+        batch.engine = engine;
+        batch.frames = frames;
+
+        int num_jobs = 0;
+        int num_programs = engine->rsx->num_programs;
+        if (num_programs > bus->num_programs) num_programs = bus->num_programs;
+        for (int i = 0; i < num_programs; i++) {
+            // Idle programs (no voices, FX tail decayed) are silent: skip render, FX and mix
+            if (engine->program_synths[i] && engine->program_hold_frames[i] > 0) {
+                batch.programs[num_jobs++] = i;
+            }
+        }
+
+        // Render all programs (fanned out across the pool when enabled, inline otherwise)
+        samplecrate_renderpool_run(engine->render_pool, num_jobs, engine_render_program_job, &batch);
+
+        // Hand each job's timings to the monitor (also summed into the synth and program FX stages)
+        for (int n = 0; n < num_jobs; n++) {
+            samplecrate_latency_add_program(engine->latency, batch.programs[n], batch.synth_ns[n], batch.fx_ns[n]);
+        }
+
+        // Sum in program order so the mix is identical regardless of thread count
+        for (int n = 0; n < num_jobs; n++) {
+            int i = batch.programs[n];
+            float* prog_left = bus->prog_left[i];
+            float* prog_right = bus->prog_right[i];
+
+            // Apply per-program pan
+            float prog_pan = mixer->program_pans[i];
+            float prog_left_gain = 1.0f - prog_pan;
+            float prog_right_gain = prog_pan;
+
+            // Apply per-program volume and mute, and mix into main buffers
+            float prog_vol = mixer->program_mutes[i] ? 0.0f : mixer->program_volumes[i];
+            for (int j = 0; j < frames; j++) {
+                left[j] += prog_left[j] * prog_vol * prog_left_gain;
+                right[j] += prog_right[j] * prog_vol * prog_right_gain;
+            }
+
+            // Post-fader sends to the aux buses
+            for (int b = 0; b < num_aux; b++) {
+                float send = mixer->program_sends[i][b];
+                if (b == ENGINE_AUX_REVERB_BUS && mixer->program_fx_enable[i]) {
+                    // Shared reverb mode: the program's reverb mix is its send level
+                    send += regroove_effects_get_reverb_send_level(engine->effects_program[i]);
+                }
+                if (send <= 0.0f) continue;
+
+                float send_left_gain = prog_vol * prog_left_gain * send;
+                float send_right_gain = prog_vol * prog_right_gain * send;
+                float* aux_left = bus->aux_left[b];
+                float* aux_right = bus->aux_right[b];
+                for (int j = 0; j < frames; j++) {
+                    aux_left[j] += prog_left[j] * send_left_gain;
+                    aux_right[j] += prog_right[j] * send_right_gain;
+                }
+                aux_active[b] = true;
+                aux_sent[b] = true;
+            }
+        }
+    } else if (engine->synth) {
+        // Single synth mode (no programs)
+        float* channels[2] = { left, right };
+        uint64_t start_ns = samplecrate_latency_now_ns();
+        sfizz_render_block(engine->synth, channels, 2, frames);
+        samplecrate_latency_add_stage(engine->latency, LATENCY_STAGE_SYNTHS, samplecrate_latency_now_ns() - start_ns);
+    }
+
+    // Aux returns (each bus keeps running until its tail has decayed after the last send)
+    uint64_t aux_start_ns = samplecrate_latency_now_ns();
+    for (int b = 0; b < num_aux; b++) {
+        RegrooveEffects* fx = engine->effects_aux[b];
+        if (!aux_active[b] || !fx) continue;
+
+        regroove_effects_process_float(fx, bus->aux_left[b], bus->aux_right[b], frames, engine->sample_rate);
+        float ret = mixer->aux_return_volumes[b];
+        for (int j = 0; j < frames; j++) {
+            left[j] += bus->aux_left[b][j] * ret;
+            right[j] += bus->aux_right[b][j] * ret;
+        }
+
+        // Keep running for the chain's tail after the last send, and for as long as
+        // the return is still audible (same rule as the program FX)
+        int hold = engine->aux_tail_frames[b] - frames;
+        if (aux_sent[b]) {
+            hold = 1 + regroove_effects_get_tail_frames(fx, engine->sample_rate);
+        } else if (hold <= 0 && block_peak(bus->aux_left[b], bus->aux_right[b], frames) > ENGINE_SILENCE_LEVEL) {
+            hold = 1;
+        }
+        if (hold <= 0) {
+            // Tail has decayed: clear the lines so the next send doesn't bring back old echoes
+            regroove_effects_reset(fx);
+            hold = 0;
+        }
+        engine->aux_tail_frames[b] = hold;
+    }
+    samplecrate_latency_add_stage(engine->latency, LATENCY_STAGE_AUX_FX, samplecrate_latency_now_ns() - aux_start_ns);
+
+    // Apply playback and master volume/pan (both plain multipliers - one pass)
+    float playback_left_gain, playback_right_gain;
+    balance_gains(mixer->playback_mute ? 0.0f : mixer->playback_volume, mixer->playback_pan,
+                  &playback_left_gain, &playback_right_gain);
+
+    float master_left_gain, master_right_gain;
+    balance_gains(mixer->master_mute ? 0.0f : mixer->master_volume, mixer->master_pan,
+                  &master_left_gain, &master_right_gain);
+
+    float out_left_gain = playback_left_gain * master_left_gain;
+    float out_right_gain = playback_right_gain * master_right_gain;
+    for (int i = 0; i < frames; i++) {
+        left[i] *= out_left_gain;
+        right[i] *= out_right_gain;
+    }
+
+    // Apply master effects if enabled
+    if (engine->effects_master && mixer->master_fx_enable) {
+        uint64_t start_ns = samplecrate_latency_now_ns();
+        regroove_effects_process_float(engine->effects_master, left, right, frames, engine->sample_rate);
+        samplecrate_latency_add_stage(engine->latency, LATENCY_STAGE_MASTER_FX, samplecrate_latency_now_ns() - start_ns);
+    }
+}
+
 void samplecrate_engine_render_audio(SamplecrateEngine* engine, float* left, float* right, int num_frames) {
-    // This would be implemented for headless rendering
-    // For now, just placeholder
+    if (!engine || !left || !right || num_frames <= 0) return;
+
+    SamplecrateMixBus* bus = engine->mixbus;
+    if (!bus) {
+        // Not prepared for audio yet - output silence
+        memset(left, 0, num_frames * sizeof(float));
+        memset(right, 0, num_frames * sizeof(float));
+        return;
+    }
+
+    // Render in chunks of the prepared block size (never more than the bus holds or
+    // the synths were told to expect), so any block size works without allocating
+    const int block = engine->block_size < bus->max_frames ? engine->block_size : bus->max_frames;
+    for (int offset = 0; offset < num_frames; offset += block) {
+        int chunk = num_frames - offset;
+        if (chunk > block) chunk = block;
+        engine_render_chunk(engine, left + offset, right + offset, chunk);
+    }
+}
+
+void samplecrate_engine_render_interleaved(SamplecrateEngine* engine, float* out, int num_frames) {
+    if (!engine || !out || num_frames <= 0) return;
+
+    SamplecrateMixBus* bus = engine->mixbus;
+    if (!bus) {
+        memset(out, 0, num_frames * 2 * sizeof(float));
+        return;
+    }
+
+    const int block = engine->block_size < bus->max_frames ? engine->block_size : bus->max_frames;
+    for (int offset = 0; offset < num_frames; offset += block) {
+        int chunk = num_frames - offset;
+        if (chunk > block) chunk = block;
+
+        engine_render_chunk(engine, bus->mix_left, bus->mix_right, chunk);
+
+        // Interleave the channels into the output buffer
+        float* chunk_out = out + offset * 2;
+        for (int i = 0; i < chunk; i++) {
+            chunk_out[i * 2] = bus->mix_left[i];
+            chunk_out[i * 2 + 1] = bus->mix_right[i];
+        }
+    }
 }
 
 // Internal structure for pad MIDI callback context
@@ -325,7 +983,7 @@ struct PadMidiContext {
 static PadMidiContext pad_midi_contexts[RSX_MAX_NOTE_PADS];
 
 // Internal MIDI callback for pad playback - handles synth routing
-static void engine_pad_midi_callback(int note, int velocity, int on, void* userdata) {
+static void engine_pad_midi_callback(int note, int velocity, int on, int frame_offset, void* userdata) {
     PadMidiContext* ctx = (PadMidiContext*)userdata;
     if (!ctx || !ctx->engine) return;
 
@@ -337,10 +995,11 @@ static void engine_pad_midi_callback(int note, int velocity, int on, void* userd
     sfizz_synth_t* target_synth = engine->program_synths[target_program];
     if (target_synth) {
         if (on) {
-            sfizz_send_note_on(target_synth, 0, note, velocity);
+            sfizz_send_note_on(target_synth, frame_offset, note, velocity);
         } else {
-            sfizz_send_note_off(target_synth, 0, note, 0);
+            sfizz_send_note_off(target_synth, frame_offset, note, 0);
         }
+        samplecrate_engine_wake_program(engine, target_program);
     }
 
     // Trigger visual feedback (UI RESPONSIBILITY - optional callback)
@@ -366,7 +1025,7 @@ void samplecrate_engine_load_pads(SamplecrateEngine* engine,
 
             // Determine which program this pad targets
             int prog = (engine->rsx->pads[i].program >= 0) ?
-                       engine->rsx->pads[i].program : engine->current_program;
+                       engine->rsx->pads[i].program : engine->current_program.load();
             engine->pad_program_numbers[i] = prog;
 
             // Setup context for this pad (engine handles routing, UI handles feedback)
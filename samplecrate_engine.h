@@ -5,12 +5,31 @@
 #include "samplecrate_rsx.h"
 #include "regroove_effects.h"
 #include "samplecrate_common.h"
+#include "samplecrate_mixbus.h"
+#include "samplecrate_renderpool.h"
+#include "samplecrate_eventqueue.h"
+#include "samplecrate_latency.h"
 #include <string>
+#include <mutex>
+#include <atomic>
 
 // Forward declarations
 struct MednessSequencer;
 struct MednessPerformance;
 
+// Input sources feeding the audio thread (one lock-free event queue each)
+// MIDI devices use their device id (0-2) directly
+#define ENGINE_INPUT_MIDI_0 0
+#define ENGINE_INPUT_MIDI_1 1
+#define ENGINE_INPUT_MIDI_2 2
+#define ENGINE_INPUT_UI 3          // GUI pads, test buttons and keyboard
+#define ENGINE_NUM_INPUT_SOURCES 4
+
+// Audio format used until samplecrate_engine_prepare_audio() adopts the device's
+// (also what main requests when opening the device)
+#define ENGINE_DEFAULT_SAMPLE_RATE 44100
+#define ENGINE_DEFAULT_BLOCK_SIZE 512
+
 // Engine state structure
 typedef struct {
     // RSX file and path
@@ -18,7 +37,7 @@ typedef struct {
     std::string rsx_file_path;
 
     // Synths
-    sfizz_synth_t* synth;                        // Legacy/main synth
+    std::atomic<sfizz_synth_t*> synth;           // Legacy/main synth (the current program's when programs are loaded)
     sfizz_synth_t* program_synths[RSX_MAX_PROGRAMS];  // Per-program synths
 
     // Sequence/performance manager (handles both pads and sequences)
@@ -27,16 +46,37 @@ typedef struct {
 
     // Effects
     RegrooveEffects* effects_master;
-    RegrooveEffects* effects_program[RSX_MAX_PROGRAMS];  // Per-program FX chains
+    RegrooveEffects* effects_program[RSX_MAX_PROGRAMS];  // Per-program FX chains (NULL until first needed)
+    RegrooveEffects* effects_pool[RSX_MAX_PROGRAMS];     // Released program chains kept for reuse
+    int effects_pool_count;
+    RSXEffectsSettings program_fx_defaults;      // Settings for new chains of programs not in the RSX
+    std::mutex effects_pool_mutex;               // Serializes chain creation between control threads
+    RegrooveEffects* effects_aux[RSX_MAX_AUX_BUSES];  // Aux bus chains (NULL above num_aux_buses)
+    int num_aux_buses;                           // Active aux send/return buses
+    int aux_tail_frames[RSX_MAX_AUX_BUSES];      // Frames each bus keeps running (its FX tail after the last send); 0 = idle (audio thread only)
+    int reverb_shared;                           // 1 = program reverbs send to aux bus 1 (send mode)
+    int program_hold_frames[RSX_MAX_PROGRAMS];   // Frames each program keeps rendering; 0 = idle, skipped (audio thread only)
 
     // Mixer
     SamplecrateMixer mixer;
+    SamplecrateMixBus* mixbus;                   // Render scratch buses (sized when audio device opens)
+    SamplecrateRenderPool* render_pool;          // Optional worker threads for per-program rendering (NULL = serial)
+    int sample_rate;                             // Render rate in Hz (synths, FX, event timing)
+    int block_size;                              // Largest block the synths are prepared for
+    SamplecrateLatency* latency;                 // Audio callback timing (load, overruns, per-stage times)
+
+    // Live input events (one producer thread per queue, drained by the audio thread)
+    SamplecrateEventQueue* input_queues[ENGINE_NUM_INPUT_SOURCES];
+    uint64_t last_dispatch_us;                   // Time of the previous block's dispatch (audio thread only)
+
+    // Held only for structural changes (loading/freeing synths); the audio thread only try-locks it
+    std::mutex synth_mutex;
 
     // Note suppression state
     bool note_suppressed[128][RSX_MAX_PROGRAMS + 1];  // [note][program] (0=global, 1-128=programs)
 
-    // Current state
-    int current_program;
+    // Current state (changed by the UI and MIDI threads, read by the audio thread)
+    std::atomic<int> current_program;
     std::string error_message;
 } SamplecrateEngine;
 
@@ -56,9 +96,70 @@ void samplecrate_engine_switch_program(SamplecrateEngine* engine, int program_id
 // Effects management
 void samplecrate_engine_autosave_effects(SamplecrateEngine* engine);
 
+// Aux send/return buses (default 2: aux 1 = reverb, aux 2 = delay)
+// Every program sends to each bus post-fader (mixer.program_sends); each bus runs its
+// effects chain once per block and is returned to the mix at mixer.aux_return_volumes
+// Must not be called while the audio device is running
+void samplecrate_engine_set_aux_buses(SamplecrateEngine* engine, int count);
+
+// Shared reverb send mode (default on, needs at least one aux bus)
+// On: program chains skip their private reverb; their reverb mix is added to the
+// program's send to aux bus 1
+// Off: every program with reverb enabled runs its own reverb as an insert
+void samplecrate_engine_set_reverb_shared(SamplecrateEngine* engine, int shared);
+
+// Get a program's FX chain, creating it (or reusing a pooled one) on first use
+// New chains take the RSX program settings, or program_fx_defaults for programs the
+// RSX does not define. Control threads only (may allocate); returns NULL on error
+RegrooveEffects* samplecrate_engine_get_program_effects(SamplecrateEngine* engine, int program);
+
+// Get a program's FX chain if it already exists (never creates one)
+// Returns NULL for programs without a chain: display and query paths then show
+// samplecrate_engine_get_program_effects_settings() instead
+RegrooveEffects* samplecrate_engine_find_program_effects(SamplecrateEngine* engine, int program);
+
+// Settings a program's chain starts from (RSX program settings or program_fx_defaults)
+const RSXEffectsSettings* samplecrate_engine_get_program_effects_settings(SamplecrateEngine* engine, int program);
+
+// Apply RSX effects settings to a RegrooveEffects instance
+void samplecrate_engine_apply_effects_settings(RegrooveEffects* fx, const RSXEffectsSettings* rsx_fx);
+
+// Apply the loaded RSX's program volumes/pans/sends, FX enables and effects settings to the engine
+void samplecrate_engine_apply_rsx_mix(SamplecrateEngine* engine);
+
 // Audio rendering
+// Allocate the render scratch buses for blocks of up to max_frames frames and switch
+// the synths and FX chains to sample_rate (pass the opened device's freq and samples)
+// Must be called before the audio device starts (never from the audio thread)
+// Returns 0 on success, -1 on error
+int samplecrate_engine_prepare_audio(SamplecrateEngine* engine, int max_frames, int sample_rate);
+
+// Live input (note/CC events from MIDI devices and UI)
+// Queue an event for the audio thread; each source must only be used from one thread
+// Returns 0 on success, -1 if the queue is full or arguments are invalid
+int samplecrate_engine_queue_event(SamplecrateEngine* engine, int source, SamplecrateEventType type,
+                                   int program, int data1, int data2);
+
+// Drain all input queues and send the events to the program synths (audio thread only)
+// Events are spread over the block by timestamp (sfizz delay) instead of all landing on frame 0
+void samplecrate_engine_dispatch_events(SamplecrateEngine* engine, int num_frames, int sample_rate);
+
+// Mark a program as active so its synth and FX render from the next block on
+// Call after sending events to a program synth (audio thread only; dispatch and the
+// pad callback already do). Idle programs are skipped until woken.
+void samplecrate_engine_wake_program(SamplecrateEngine* engine, int program);
+
+// Set number of render worker threads used for per-program rendering (0 = render serially)
+// Must not be called while the audio device is running
+void samplecrate_engine_set_render_threads(SamplecrateEngine* engine, int num_threads);
+
+// Render the full mix (programs, per-program FX, pan/volume, master FX) into planar buffers
+// Any num_frames is accepted; the caller must serialize this with synth/program changes
 void samplecrate_engine_render_audio(SamplecrateEngine* engine, float* left, float* right, int num_frames);
 
+// Same as samplecrate_engine_render_audio, but writes interleaved stereo (L, R, L, R, ...)
+void samplecrate_engine_render_interleaved(SamplecrateEngine* engine, float* out, int num_frames);
+
 // Load pads from RSX (called from UI after RSX is loaded)
 // visual_feedback_callback: optional callback for UI visual feedback (receives pad_index in userdata)
 void samplecrate_engine_load_pads(SamplecrateEngine* engine,
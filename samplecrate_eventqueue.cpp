@@ -0,0 +1,62 @@
+#include "samplecrate_eventqueue.h"
+#include <atomic>
+#include <chrono>
+
+struct SamplecrateEventQueue {
+    SamplecrateEvent* events;
+    uint32_t mask;                      // capacity - 1 (capacity is a power of two)
+
+    // Producer and consumer indices on separate cache lines
+    std::atomic<uint32_t> write_index;
+    char padding[64 - sizeof(std::atomic<uint32_t>)];
+    std::atomic<uint32_t> read_index;
+};
+
+SamplecrateEventQueue* samplecrate_eventqueue_create(int capacity) {
+    if (capacity <= 0) capacity = EVENTQUEUE_DEFAULT_CAPACITY;
+
+    uint32_t size = 1;
+    while (size < (uint32_t)capacity) size <<= 1;
+
+    SamplecrateEventQueue* queue = new SamplecrateEventQueue();
+    queue->events = new SamplecrateEvent[size];
+    queue->mask = size - 1;
+    queue->write_index.store(0);
+    queue->read_index.store(0);
+    return queue;
+}
+
+void samplecrate_eventqueue_destroy(SamplecrateEventQueue* queue) {
+    if (!queue) return;
+    delete[] queue->events;
+    delete queue;
+}
+
+int samplecrate_eventqueue_push(SamplecrateEventQueue* queue, const SamplecrateEvent* event) {
+    if (!queue || !event) return -1;
+
+    uint32_t write = queue->write_index.load(std::memory_order_relaxed);
+    uint32_t read = queue->read_index.load(std::memory_order_acquire);
+    if (write - read > queue->mask) return -1;  // Full
+
+    queue->events[write & queue->mask] = *event;
+    queue->write_index.store(write + 1, std::memory_order_release);
+    return 0;
+}
+
+int samplecrate_eventqueue_pop(SamplecrateEventQueue* queue, SamplecrateEvent* event) {
+    if (!queue || !event) return 0;
+
+    uint32_t read = queue->read_index.load(std::memory_order_relaxed);
+    uint32_t write = queue->write_index.load(std::memory_order_acquire);
+    if (read == write) return 0;  // Empty
+
+    *event = queue->events[read & queue->mask];
+    queue->read_index.store(read + 1, std::memory_order_release);
+    return 1;
+}
+
+uint64_t samplecrate_eventqueue_now_us(void) {
+    return (uint64_t)std::chrono::duration_cast<std::chrono::microseconds>(
+        std::chrono::steady_clock::now().time_since_epoch()).count();
+}
@@ -0,0 +1,56 @@
+#ifndef SAMPLECRATE_EVENTQUEUE_H
+#define SAMPLECRATE_EVENTQUEUE_H
+
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Default queue capacity (events, rounded up to a power of two)
+#define EVENTQUEUE_DEFAULT_CAPACITY 1024
+
+// Event types carried into the audio thread
+typedef enum {
+    EVENT_NOTE_ON = 0,
+    EVENT_NOTE_OFF,
+    EVENT_CC
+} SamplecrateEventType;
+
+// Timestamped MIDI-style event for one program synth
+typedef struct {
+    uint64_t timestamp_us;     // Time the event was queued (monotonic microseconds)
+    uint8_t type;              // SamplecrateEventType
+    uint8_t program;           // Target program index (resolved to a synth on the audio thread)
+    uint8_t data1;             // Note number or CC number
+    uint8_t data2;             // Velocity or CC value
+} SamplecrateEvent;
+
+// Opaque handle for a single-producer/single-consumer event ring
+// Exactly one thread may push and exactly one (the audio thread) may pop;
+// neither side ever blocks or allocates.
+typedef struct SamplecrateEventQueue SamplecrateEventQueue;
+
+// Create a queue holding up to capacity events (rounded up to a power of two)
+// Returns NULL on failure
+SamplecrateEventQueue* samplecrate_eventqueue_create(int capacity);
+
+// Free a queue
+void samplecrate_eventqueue_destroy(SamplecrateEventQueue* queue);
+
+// Push an event (producer thread only)
+// Returns 0 on success, -1 if the queue is full (event dropped)
+int samplecrate_eventqueue_push(SamplecrateEventQueue* queue, const SamplecrateEvent* event);
+
+// Pop the oldest event (consumer thread only)
+// Returns 1 if an event was popped, 0 if the queue is empty
+int samplecrate_eventqueue_pop(SamplecrateEventQueue* queue, SamplecrateEvent* event);
+
+// Monotonic time in microseconds (same clock as SamplecrateEvent.timestamp_us)
+uint64_t samplecrate_eventqueue_now_us(void);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // SAMPLECRATE_EVENTQUEUE_H
@@ -0,0 +1,253 @@
+#include "samplecrate_latency.h"
+#include "samplecrate_eventqueue.h"
+#include <atomic>
+#include <chrono>
+#include <vector>
+#include <algorithm>
+#include <cstring>
+
+// Loads are stored as fixed point (1/1000) so the audio thread only needs integer atomics
+#define LATENCY_LOAD_SCALE 1000.0f
+
+// Smoothing of the displayed load (weight of the newest block, 1/8)
+#define LATENCY_LOAD_SMOOTHING_SHIFT 3
+
+// Smoothing of the per-program averages (weight of the newest block, 1/32)
+#define LATENCY_PROGRAM_SMOOTHING_SHIFT 5
+
+// Per-program columns: sfizz, then program FX
+#define LATENCY_PROGRAM_SYNTH 0
+#define LATENCY_PROGRAM_FX 1
+
+// History columns: whole callback, then one per stage
+#define LATENCY_HISTORY_TOTAL 0
+#define LATENCY_HISTORY_COLUMNS (1 + LATENCY_NUM_STAGES)
+
+struct SamplecrateLatency {
+    // Written by the audio thread
+    std::atomic<uint32_t> load;         // Smoothed load (fixed point)
+    std::atomic<uint32_t> peak_load;    // Peak load since the last decision (fixed point)
+    std::atomic<uint32_t> overruns;
+    std::atomic<uint32_t> deadline_misses;
+    std::atomic<uint32_t> blocks;
+    std::atomic<uint32_t> deadline_ns;  // Deadline of the latest callback
+
+    // Per-callback times in ns, LATENCY_HISTORY_BLOCKS callbacks deep (ring indexed by blocks)
+    // Readers may see a row that is being rewritten; that only blurs one sample of the window
+    std::atomic<uint32_t> history[LATENCY_HISTORY_BLOCKS][LATENCY_HISTORY_COLUMNS];
+    uint64_t stage_ns[LATENCY_NUM_STAGES];  // Current callback's stage sums (audio thread only)
+
+    // Per-program times in ns: current callback's sums (audio thread only), then the
+    // latest callback and the smoothed average as published to readers
+    uint64_t program_ns[LATENCY_MAX_PROGRAMS][2];
+    std::atomic<uint32_t> program_last[LATENCY_MAX_PROGRAMS][2];
+    std::atomic<uint32_t> program_avg[LATENCY_MAX_PROGRAMS][2];
+
+    // Adaptive state (control thread only)
+    uint64_t last_decision_us;
+    uint64_t calm_since_us;             // Time of the last overrun or block size change
+    uint32_t seen_overruns;
+    std::atomic<uint32_t> window_peak;  // Peak load seen by the last decision (read by get_stats)
+};
+
+int samplecrate_latency_valid_frames(int frames) {
+    int size = LATENCY_MIN_FRAMES;
+    while (size < frames && size < LATENCY_MAX_FRAMES) size <<= 1;
+    return size;
+}
+
+SamplecrateLatency* samplecrate_latency_create(void) {
+    SamplecrateLatency* lat = new SamplecrateLatency();
+    lat->load.store(0);
+    lat->peak_load.store(0);
+    lat->overruns.store(0);
+    lat->deadline_misses.store(0);
+    lat->blocks.store(0);
+    lat->deadline_ns.store(0);
+    for (int b = 0; b < LATENCY_HISTORY_BLOCKS; b++) {
+        for (int c = 0; c < LATENCY_HISTORY_COLUMNS; c++) {
+            lat->history[b][c].store(0);
+        }
+    }
+    memset(lat->stage_ns, 0, sizeof(lat->stage_ns));
+    memset(lat->program_ns, 0, sizeof(lat->program_ns));
+    for (int p = 0; p < LATENCY_MAX_PROGRAMS; p++) {
+        for (int c = 0; c < 2; c++) {
+            lat->program_last[p][c].store(0);
+            lat->program_avg[p][c].store(0);
+        }
+    }
+    lat->last_decision_us = samplecrate_eventqueue_now_us();
+    lat->calm_since_us = lat->last_decision_us;
+    lat->seen_overruns = 0;
+    lat->window_peak.store(0);
+    return lat;
+}
+
+void samplecrate_latency_destroy(SamplecrateLatency* lat) {
+    delete lat;
+}
+
+uint64_t samplecrate_latency_now_ns(void) {
+    return (uint64_t)std::chrono::duration_cast<std::chrono::nanoseconds>(
+        std::chrono::steady_clock::now().time_since_epoch()).count();
+}
+
+void samplecrate_latency_add_stage(SamplecrateLatency* lat, SamplecrateLatencyStage stage, uint64_t elapsed_ns) {
+    if (!lat || stage < 0 || stage >= LATENCY_NUM_STAGES) return;
+    lat->stage_ns[stage] += elapsed_ns;
+}
+
+void samplecrate_latency_add_program(SamplecrateLatency* lat, int program, uint64_t synth_ns, uint64_t fx_ns) {
+    if (!lat) return;
+    lat->stage_ns[LATENCY_STAGE_SYNTHS] += synth_ns;
+    lat->stage_ns[LATENCY_STAGE_PROGRAM_FX] += fx_ns;
+    if (program < 0 || program >= LATENCY_MAX_PROGRAMS) return;
+    lat->program_ns[program][LATENCY_PROGRAM_SYNTH] += synth_ns;
+    lat->program_ns[program][LATENCY_PROGRAM_FX] += fx_ns;
+}
+
+// Helper: ns as a saturated 32-bit history value
+static inline uint32_t history_value(uint64_t ns) {
+    return ns > 0xFFFFFFFFull ? 0xFFFFFFFFu : (uint32_t)ns;
+}
+
+void samplecrate_latency_record(SamplecrateLatency* lat, int frames, int sample_rate, uint64_t elapsed_ns) {
+    if (!lat || frames <= 0 || sample_rate <= 0) return;
+
+    uint64_t deadline_ns = (uint64_t)frames * 1000000000ull / (uint64_t)sample_rate;
+    if (deadline_ns == 0) deadline_ns = 1;
+    uint32_t load = (uint32_t)(elapsed_ns * (uint64_t)LATENCY_LOAD_SCALE / deadline_ns);
+
+    // Single writer: plain load/store is enough for the smoothed value
+    uint32_t smoothed = lat->load.load(std::memory_order_relaxed);
+    int32_t delta = ((int32_t)load - (int32_t)smoothed) >> LATENCY_LOAD_SMOOTHING_SHIFT;
+    lat->load.store((uint32_t)((int32_t)smoothed + delta), std::memory_order_relaxed);
+
+    // The control thread resets the peak, so raise it with a CAS
+    uint32_t peak = lat->peak_load.load(std::memory_order_relaxed);
+    while (load > peak && !lat->peak_load.compare_exchange_weak(peak, load, std::memory_order_relaxed)) {
+    }
+
+    if (load > (uint32_t)(LATENCY_OVERRUN_LOAD * LATENCY_LOAD_SCALE)) {
+        lat->overruns.fetch_add(1, std::memory_order_relaxed);
+    }
+    if (elapsed_ns > deadline_ns) {
+        lat->deadline_misses.fetch_add(1, std::memory_order_relaxed);
+    }
+    lat->deadline_ns.store(history_value(deadline_ns), std::memory_order_relaxed);
+
+    // History row for this callback, then start the next callback's stage sums
+    uint32_t block = lat->blocks.load(std::memory_order_relaxed);
+    std::atomic<uint32_t>* row = lat->history[block % LATENCY_HISTORY_BLOCKS];
+    row[LATENCY_HISTORY_TOTAL].store(history_value(elapsed_ns), std::memory_order_relaxed);
+    for (int s = 0; s < LATENCY_NUM_STAGES; s++) {
+        row[1 + s].store(history_value(lat->stage_ns[s]), std::memory_order_relaxed);
+        lat->stage_ns[s] = 0;
+    }
+
+    // Per-program times (programs that were skipped as idle count as zero)
+    for (int p = 0; p < LATENCY_MAX_PROGRAMS; p++) {
+        for (int c = 0; c < 2; c++) {
+            uint32_t last = history_value(lat->program_ns[p][c]);
+            uint32_t avg = lat->program_avg[p][c].load(std::memory_order_relaxed);
+            int64_t step = ((int64_t)last - (int64_t)avg) >> LATENCY_PROGRAM_SMOOTHING_SHIFT;
+            lat->program_last[p][c].store(last, std::memory_order_relaxed);
+            lat->program_avg[p][c].store((uint32_t)((int64_t)avg + step), std::memory_order_relaxed);
+            lat->program_ns[p][c] = 0;
+        }
+    }
+    lat->blocks.store(block + 1, std::memory_order_release);
+}
+
+// Helper: min/avg/p99/max of one history column (values in ns, reordered in place)
+static void compute_timing(std::vector<uint32_t>& values, SamplecrateLatencyTiming* timing) {
+    if (values.empty()) {
+        memset(timing, 0, sizeof(*timing));
+        return;
+    }
+
+    uint64_t sum = 0;
+    uint32_t min_ns = values[0];
+    uint32_t max_ns = values[0];
+    for (uint32_t v : values) {
+        sum += v;
+        if (v < min_ns) min_ns = v;
+        if (v > max_ns) max_ns = v;
+    }
+
+    size_t p99_index = (values.size() - 1) * 99 / 100;
+    std::nth_element(values.begin(), values.begin() + p99_index, values.end());
+
+    timing->min_us = (float)min_ns / 1000.0f;
+    timing->avg_us = (float)((double)sum / (double)values.size() / 1000.0);
+    timing->p99_us = (float)values[p99_index] / 1000.0f;
+    timing->max_us = (float)max_ns / 1000.0f;
+}
+
+void samplecrate_latency_get_stats(SamplecrateLatency* lat, SamplecrateLatencyStats* stats) {
+    if (!stats) return;
+    memset(stats, 0, sizeof(*stats));
+    if (!lat) return;
+
+    uint32_t peak = lat->peak_load.load(std::memory_order_relaxed);
+    uint32_t window_peak = lat->window_peak.load(std::memory_order_relaxed);
+    if (peak < window_peak) peak = window_peak;
+
+    stats->load = (float)lat->load.load(std::memory_order_relaxed) / LATENCY_LOAD_SCALE;
+    stats->peak_load = (float)peak / LATENCY_LOAD_SCALE;
+    stats->deadline_us = (float)lat->deadline_ns.load(std::memory_order_relaxed) / 1000.0f;
+    stats->overruns = lat->overruns.load(std::memory_order_relaxed);
+    stats->deadline_misses = lat->deadline_misses.load(std::memory_order_relaxed);
+    stats->blocks = lat->blocks.load(std::memory_order_acquire);
+
+    // Rolling window: the most recent LATENCY_HISTORY_BLOCKS callbacks
+    size_t count = stats->blocks < LATENCY_HISTORY_BLOCKS ? stats->blocks : LATENCY_HISTORY_BLOCKS;
+    std::vector<uint32_t> values(count);
+    for (int c = 0; c < LATENCY_HISTORY_COLUMNS; c++) {
+        for (size_t b = 0; b < count; b++) {
+            values[b] = lat->history[b][c].load(std::memory_order_relaxed);
+        }
+        compute_timing(values, c == LATENCY_HISTORY_TOTAL ? &stats->total : &stats->stages[c - 1]);
+    }
+
+    for (int p = 0; p < LATENCY_MAX_PROGRAMS; p++) {
+        SamplecrateLatencyProgramTiming* program = &stats->programs[p];
+        program->synth_last_us = (float)lat->program_last[p][LATENCY_PROGRAM_SYNTH].load(std::memory_order_relaxed) / 1000.0f;
+        program->synth_avg_us = (float)lat->program_avg[p][LATENCY_PROGRAM_SYNTH].load(std::memory_order_relaxed) / 1000.0f;
+        program->fx_last_us = (float)lat->program_last[p][LATENCY_PROGRAM_FX].load(std::memory_order_relaxed) / 1000.0f;
+        program->fx_avg_us = (float)lat->program_avg[p][LATENCY_PROGRAM_FX].load(std::memory_order_relaxed) / 1000.0f;
+    }
+}
+
+int samplecrate_latency_adapt(SamplecrateLatency* lat, int current_frames, int min_frames, int max_frames) {
+    if (!lat || current_frames <= 0) return current_frames;
+
+    uint64_t now = samplecrate_eventqueue_now_us();
+    if (now - lat->last_decision_us < (uint64_t)LATENCY_ADAPT_INTERVAL_SECONDS * 1000000) {
+        return current_frames;
+    }
+    lat->last_decision_us = now;
+
+    uint32_t overruns = lat->overruns.load(std::memory_order_relaxed);
+    uint32_t new_overruns = overruns - lat->seen_overruns;
+    lat->seen_overruns = overruns;
+    uint32_t window_peak = lat->peak_load.exchange(0, std::memory_order_relaxed);
+    lat->window_peak.store(window_peak, std::memory_order_relaxed);
+
+    int next = current_frames;
+    if (new_overruns > 0) {
+        // Overloaded: double the block (more time per callback, more latency)
+        next = current_frames * 2;
+        if (next > max_frames) next = max_frames;
+        lat->calm_since_us = now;
+    } else if (now - lat->calm_since_us >= (uint64_t)LATENCY_STEP_DOWN_SECONDS * 1000000 &&
+               window_peak < (uint32_t)(LATENCY_STEP_DOWN_LOAD * LATENCY_LOAD_SCALE)) {
+        // Plenty of headroom for a while: try the next smaller block
+        next = current_frames / 2;
+        if (next < min_frames) next = min_frames;
+        lat->calm_since_us = now;
+    }
+
+    return next;
+}
@@ -0,0 +1,115 @@
+#ifndef SAMPLECRATE_LATENCY_H
+#define SAMPLECRATE_LATENCY_H
+
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Audio device block size limits (frames)
+#define LATENCY_MIN_FRAMES 32
+#define LATENCY_MAX_FRAMES 4096
+#define LATENCY_DEFAULT_FRAMES 512
+
+// A callback that uses more than this fraction of its deadline counts as an overrun
+// (the rest is left for the OS and the audio driver)
+#define LATENCY_OVERRUN_LOAD 0.9f
+
+// Adaptive mode: halve the block after this long without overruns while the peak
+// load stays below LATENCY_STEP_DOWN_LOAD (doubling happens on the first overrun)
+#define LATENCY_STEP_DOWN_SECONDS 10
+#define LATENCY_STEP_DOWN_LOAD 0.35f
+
+// Seconds between adaptive decisions
+#define LATENCY_ADAPT_INTERVAL_SECONDS 1
+
+// Number of callbacks kept for the rolling min/avg/p99/max timings
+#define LATENCY_HISTORY_BLOCKS 1024
+
+// Programs timed individually (matches RSX_MAX_PROGRAMS)
+#define LATENCY_MAX_PROGRAMS 64
+
+// Parts of the audio callback timed separately (the rest is mixing and overhead)
+typedef enum {
+    LATENCY_STAGE_SEQUENCER = 0,   // Sequencer clock, sequences and pads
+    LATENCY_STAGE_SYNTHS,          // sfizz rendering, summed over all programs (see also programs[])
+    LATENCY_STAGE_PROGRAM_FX,      // Per-program FX, summed over all programs (see also programs[])
+    LATENCY_STAGE_AUX_FX,          // Aux bus FX
+    LATENCY_STAGE_MASTER_FX,       // Master FX
+    LATENCY_NUM_STAGES
+} SamplecrateLatencyStage;
+
+// Rolling timing of one stage (or the whole callback) over the history window
+typedef struct {
+    float min_us;
+    float avg_us;
+    float p99_us;
+    float max_us;
+} SamplecrateLatencyTiming;
+
+// Timing of one program: latest callback and smoothed average (zero while idle)
+typedef struct {
+    float synth_last_us;
+    float synth_avg_us;
+    float fx_last_us;
+    float fx_avg_us;
+} SamplecrateLatencyProgramTiming;
+
+// Snapshot of the audio callback timing
+typedef struct {
+    float load;                // Smoothed callback time / deadline (1.0 = no time left)
+    float peak_load;           // Highest load since the last samplecrate_latency_adapt() decision
+    float deadline_us;         // Deadline of the latest callback (frames / sample rate)
+    uint32_t overruns;         // Callbacks over LATENCY_OVERRUN_LOAD since creation
+    uint32_t deadline_misses;  // Callbacks that took longer than their deadline since creation
+    uint32_t blocks;           // Callbacks measured since creation
+    SamplecrateLatencyTiming total;                         // Whole callback
+    SamplecrateLatencyTiming stages[LATENCY_NUM_STAGES];    // Per stage (zero when unused)
+    SamplecrateLatencyProgramTiming programs[LATENCY_MAX_PROGRAMS];  // Per program (sfizz and program FX)
+} SamplecrateLatencyStats;
+
+// Opaque handle for the audio callback timing monitor
+// The audio thread records each callback; any thread may read the stats, and one
+// control thread may run the adaptive block size decisions.
+typedef struct SamplecrateLatency SamplecrateLatency;
+
+// Round a requested block size to a power of two within LATENCY_MIN/MAX_FRAMES
+int samplecrate_latency_valid_frames(int frames);
+
+// Create a monitor
+// Returns NULL on failure
+SamplecrateLatency* samplecrate_latency_create(void);
+
+// Free a monitor
+void samplecrate_latency_destroy(SamplecrateLatency* lat);
+
+// Monotonic time in nanoseconds (for timing callbacks and stages)
+uint64_t samplecrate_latency_now_ns(void);
+
+// Add time spent in a stage to the current callback (summed until the next record)
+// Audio thread only (callers on render pool threads hand their times to the audio thread)
+void samplecrate_latency_add_stage(SamplecrateLatency* lat, SamplecrateLatencyStage stage, uint64_t elapsed_ns);
+
+// Add one program's sfizz and FX time to the current callback
+// Also counted in LATENCY_STAGE_SYNTHS and LATENCY_STAGE_PROGRAM_FX. Audio thread only
+void samplecrate_latency_add_program(SamplecrateLatency* lat, int program, uint64_t synth_ns, uint64_t fx_ns);
+
+// Record one audio callback that rendered frames at sample_rate in elapsed_ns
+// Closes the current callback's stage times. Audio thread only: no locks, no allocation
+void samplecrate_latency_record(SamplecrateLatency* lat, int frames, int sample_rate, uint64_t elapsed_ns);
+
+// Read the current stats (any thread except the audio thread: sorts the history window)
+void samplecrate_latency_get_stats(SamplecrateLatency* lat, SamplecrateLatencyStats* stats);
+
+// Adaptive block size (control thread only, call regularly e.g. once per UI frame)
+// Returns the block size the device should run at: current_frames doubled after an
+// overrun, halved after a calm period, otherwise current_frames. Results stay within
+// [min_frames, max_frames]; decisions are made at most once per interval.
+int samplecrate_latency_adapt(SamplecrateLatency* lat, int current_frames, int min_frames, int max_frames);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // SAMPLECRATE_LATENCY_H
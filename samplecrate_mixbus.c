@@ -0,0 +1,65 @@
+#include "samplecrate_mixbus.h"
+#include <stdlib.h>
+#include <string.h>
+
+// Helper: round a byte count up to the bus alignment
+static size_t align_up(size_t size) {
+    return (size + (MIXBUS_ALIGNMENT - 1)) & ~(size_t)(MIXBUS_ALIGNMENT - 1);
+}
+
+SamplecrateMixBus* samplecrate_mixbus_create(int max_frames, int num_programs) {
+    if (max_frames <= 0 || num_programs <= 0) return NULL;
+
+    SamplecrateMixBus* bus = (SamplecrateMixBus*)calloc(1, sizeof(SamplecrateMixBus));
+    if (!bus) return NULL;
+
+    size_t float_bytes = align_up((size_t)max_frames * sizeof(float));
+    size_t pointer_bytes = align_up((size_t)num_programs * 2 * sizeof(float*));
+    size_t total = float_bytes * (2 + 2 * MIXBUS_MAX_AUX + 2 * (size_t)num_programs) + pointer_bytes;
+
+    // Over-allocate by one alignment unit so the first buffer can be aligned
+    // (aligned_alloc/posix_memalign are not available on every target we build for)
+    bus->block = calloc(1, total + MIXBUS_ALIGNMENT);
+    if (!bus->block) {
+        free(bus);
+        return NULL;
+    }
+
+    uintptr_t base = ((uintptr_t)bus->block + (MIXBUS_ALIGNMENT - 1)) & ~(uintptr_t)(MIXBUS_ALIGNMENT - 1);
+    uint8_t* p = (uint8_t*)base;
+
+    bus->mix_left = (float*)p;        p += float_bytes;
+    bus->mix_right = (float*)p;       p += float_bytes;
+    for (int b = 0; b < MIXBUS_MAX_AUX; b++) {
+        bus->aux_left[b] = (float*)p;     p += float_bytes;
+        bus->aux_right[b] = (float*)p;    p += float_bytes;
+    }
+
+    // Pointer tables, then each program's buffers on their own cache lines
+    // (workers write to different programs, so no false sharing)
+    bus->prog_left = (float**)p;
+    bus->prog_right = bus->prog_left + num_programs;
+    p += pointer_bytes;
+    for (int i = 0; i < num_programs; i++) {
+        bus->prog_left[i] = (float*)p;    p += float_bytes;
+        bus->prog_right[i] = (float*)p;   p += float_bytes;
+    }
+
+    bus->num_programs = num_programs;
+    bus->max_frames = max_frames;
+    return bus;
+}
+
+void samplecrate_mixbus_destroy(SamplecrateMixBus* bus) {
+    if (!bus) return;
+    free(bus->block);
+    free(bus);
+}
+
+void samplecrate_mixbus_clear(SamplecrateMixBus* bus, int frames) {
+    if (!bus || frames <= 0) return;
+    if (frames > bus->max_frames) frames = bus->max_frames;
+
+    memset(bus->mix_left, 0, (size_t)frames * sizeof(float));
+    memset(bus->mix_right, 0, (size_t)frames * sizeof(float));
+}
@@ -0,0 +1,48 @@
+#ifndef SAMPLECRATE_MIXBUS_H
+#define SAMPLECRATE_MIXBUS_H
+
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Alignment of every scratch buffer (cache line, also enough for AVX/NEON loads)
+#define MIXBUS_ALIGNMENT 64
+
+// Number of aux send buses carried by every mix bus
+#define MIXBUS_MAX_AUX 4
+
+// Preallocated scratch buses for the audio render path
+// All buffers are carved out of a single allocation made when the audio device
+// opens, so the real-time thread never has to allocate or free memory.
+typedef struct {
+    int max_frames;            // Capacity of every buffer (in frames)
+
+    float* mix_left;           // Summing bus (all programs)
+    float* mix_right;
+    float* aux_left[MIXBUS_MAX_AUX];   // Aux send buses (post-fader program sends)
+    float* aux_right[MIXBUS_MAX_AUX];
+    int num_programs;          // Number of per-program scratch pairs
+    float** prog_left;         // Per-program render scratch [num_programs][max_frames]
+    float** prog_right;        // (one pair per program so programs can render in parallel)
+
+    void* block;               // Raw allocation backing all of the above
+} SamplecrateMixBus;
+
+// Create a mix bus with room for max_frames frames per render call
+// and num_programs per-program scratch pairs
+// Returns NULL on failure
+SamplecrateMixBus* samplecrate_mixbus_create(int max_frames, int num_programs);
+
+// Free a mix bus
+void samplecrate_mixbus_destroy(SamplecrateMixBus* bus);
+
+// Zero the summing bus for the first `frames` frames (frames <= max_frames)
+void samplecrate_mixbus_clear(SamplecrateMixBus* bus, int frames);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // SAMPLECRATE_MIXBUS_H
@@ -0,0 +1,295 @@
+#include "samplecrate_render.h"
+#include "samplecrate_engine.h"
+#include "medness_sequencer.h"
+#include "medness_performance.h"
+#include <sfizz.h>
+#include <iostream>
+#include <chrono>
+#include <cstdio>
+#include <cstdlib>
+#include <cstring>
+#include <cstdint>
+
+// Render state shared with the sequence callbacks
+static SamplecrateEngine* render_engine = nullptr;
+static MednessPerformance* render_sequences = nullptr;
+
+// Route sequence MIDI events to the program synths
+// Runs on the render thread only, so no synth lock is needed
+static void render_midi_event_callback(int note, int velocity, int on, int frame_offset, void* userdata) {
+    if (!render_engine) return;
+
+    int seq_index = -1;
+    int target_program = render_engine->current_program;
+
+    if (userdata) {
+        SequenceMIDIContext* ctx = (SequenceMIDIContext*)userdata;
+        seq_index = ctx->seq_index;
+        if (ctx->program >= 0) {
+            target_program = ctx->program;
+        }
+    }
+
+    // Respect mute/solo state stored in the RSX
+    if (seq_index >= 0 && render_sequences) {
+        if (!medness_performance_is_audible(render_sequences, seq_index)) return;
+    }
+
+    if (target_program < 0 || target_program >= RSX_MAX_PROGRAMS) return;
+
+    sfizz_synth_t* target_synth = render_engine->program_synths[target_program];
+    if (!target_synth) return;
+
+    if (on) {
+        sfizz_send_note_on(target_synth, frame_offset, note, velocity);
+    } else {
+        sfizz_send_note_off(target_synth, frame_offset, note, 0);
+    }
+    samplecrate_engine_wake_program(render_engine, target_program);
+}
+
+static void render_program_switch_callback(int program_index, void* userdata) {
+    (void)userdata;
+    samplecrate_engine_switch_program(render_engine, program_index);
+}
+
+static void print_render_usage(const char* argv0) {
+    std::cout << "Usage: " << argv0 << " --render <file.rsx> [--seq N] [--bars N] [--bpm BPM] [--threads N] -o <out.wav>" << std::endl;
+    std::cout << "  --seq N     Sequence to render (1-16), default: all sequences" << std::endl;
+    std::cout << "  --bars N    Length in bars, default: 4" << std::endl;
+    std::cout << "  --bpm BPM   Tempo, default: 125" << std::endl;
+    std::cout << "  --threads N Render programs on N worker threads, default: 0 (serial)" << std::endl;
+    std::cout << "  -o FILE     Output WAV file (32-bit float stereo, " << RENDER_SAMPLE_RATE << " Hz)" << std::endl;
+}
+
+int samplecrate_render_requested(int argc, char* argv[]) {
+    for (int i = 1; i < argc; i++) {
+        if (strcmp(argv[i], "--render") == 0) return 1;
+    }
+    return 0;
+}
+
+int samplecrate_render_parse_args(int argc, char* argv[], SamplecrateRenderOptions* opts) {
+    if (!opts) return -1;
+
+    opts->rsx_path = nullptr;
+    opts->output_path = nullptr;
+    opts->seq_index = -1;
+    opts->bars = 4;
+    opts->bpm = 125.0f;
+    opts->threads = 0;
+
+    for (int i = 1; i < argc; i++) {
+        const char* arg = argv[i];
+        bool has_value = (i + 1 < argc);
+
+        if (strcmp(arg, "--render") == 0 && has_value) {
+            opts->rsx_path = argv[++i];
+        } else if (strcmp(arg, "--seq") == 0 && has_value) {
+            opts->seq_index = atoi(argv[++i]) - 1;  // 1-based on the command line
+            if (opts->seq_index < 0 || opts->seq_index >= RSX_MAX_SEQUENCES) {
+                std::cerr << "[RENDER] Invalid sequence number: " << argv[i] << std::endl;
+                print_render_usage(argv[0]);
+                return -1;
+            }
+        } else if (strcmp(arg, "--bars") == 0 && has_value) {
+            opts->bars = atoi(argv[++i]);
+        } else if (strcmp(arg, "--bpm") == 0 && has_value) {
+            opts->bpm = (float)atof(argv[++i]);
+        } else if (strcmp(arg, "--threads") == 0 && has_value) {
+            opts->threads = atoi(argv[++i]);
+        } else if ((strcmp(arg, "-o") == 0 || strcmp(arg, "--output") == 0) && has_value) {
+            opts->output_path = argv[++i];
+        } else {
+            std::cerr << "[RENDER] Unknown or incomplete argument: " << arg << std::endl;
+            print_render_usage(argv[0]);
+            return -1;
+        }
+    }
+
+    if (!opts->rsx_path || !opts->output_path || opts->bars <= 0 || opts->bpm <= 0.0f) {
+        print_render_usage(argv[0]);
+        return -1;
+    }
+
+    return 0;
+}
+
+// Helpers: little-endian header fields
+static void write_u16(FILE* f, uint16_t v) {
+    uint8_t b[2] = { (uint8_t)(v & 0xFF), (uint8_t)(v >> 8) };
+    fwrite(b, 1, 2, f);
+}
+
+static void write_u32(FILE* f, uint32_t v) {
+    uint8_t b[4] = { (uint8_t)(v & 0xFF), (uint8_t)((v >> 8) & 0xFF),
+                     (uint8_t)((v >> 16) & 0xFF), (uint8_t)(v >> 24) };
+    fwrite(b, 1, 4, f);
+}
+
+// Write a 32-bit float stereo WAV header (WAVE_FORMAT_IEEE_FLOAT with fact chunk)
+// Called once with 0 frames before rendering and again with the final count
+static void write_wav_header(FILE* f, uint32_t frames) {
+    const uint16_t channels = 2;
+    const uint16_t bits = 32;
+    uint32_t data_bytes = frames * channels * (bits / 8);
+
+    fseek(f, 0, SEEK_SET);
+    fwrite("RIFF", 1, 4, f);
+    write_u32(f, 4 + (8 + 18) + (8 + 4) + (8 + data_bytes));
+    fwrite("WAVE", 1, 4, f);
+
+    fwrite("fmt ", 1, 4, f);
+    write_u32(f, 18);
+    write_u16(f, 3);  // WAVE_FORMAT_IEEE_FLOAT
+    write_u16(f, channels);
+    write_u32(f, RENDER_SAMPLE_RATE);
+    write_u32(f, RENDER_SAMPLE_RATE * channels * (bits / 8));
+    write_u16(f, channels * (bits / 8));
+    write_u16(f, bits);
+    write_u16(f, 0);  // cbSize
+
+    fwrite("fact", 1, 4, f);
+    write_u32(f, 4);
+    write_u32(f, frames);
+
+    fwrite("data", 1, 4, f);
+    write_u32(f, data_bytes);
+}
+
+int samplecrate_render_run(const SamplecrateRenderOptions* opts) {
+    if (!opts || !opts->rsx_path || !opts->output_path) return -1;
+
+    std::cout << "[RENDER] " << opts->rsx_path << " -> " << opts->output_path
+              << " (" << opts->bars << " bars @ " << opts->bpm << " BPM)" << std::endl;
+
+    // Sequencer drives pattern position, exactly as in the audio callback
+    MednessSequencer* sequencer = medness_sequencer_create();
+    if (!sequencer) return -1;
+    medness_sequencer_set_bpm(sequencer, opts->bpm);
+    medness_sequencer_set_active(sequencer, 1);
+
+    SamplecrateEngine* engine = samplecrate_engine_create(sequencer);
+    if (!engine) {
+        medness_sequencer_destroy(sequencer);
+        return -1;
+    }
+
+    int result = -1;
+    FILE* out = nullptr;
+    MednessPerformance* sequences = nullptr;
+
+    if (samplecrate_engine_load_rsx(engine, opts->rsx_path) != 0) {
+        std::cerr << "[RENDER] Failed to load RSX: " << opts->rsx_path << std::endl;
+        goto cleanup;
+    }
+    samplecrate_engine_apply_rsx_mix(engine);
+
+    if (samplecrate_engine_prepare_audio(engine, RENDER_BLOCK_FRAMES, RENDER_SAMPLE_RATE) != 0) {
+        std::cerr << "[RENDER] Failed to allocate render buses" << std::endl;
+        goto cleanup;
+    }
+
+    // Program mixing is summed in a fixed order, so the thread count does not change the output
+    samplecrate_engine_set_render_threads(engine, opts->threads);
+
+    // Same denormal handling as the audio callback (the output matches a live bounce)
+    regroove_effects_flush_denormals(1);
+
+    // Freewheeling makes sfizz load sample data synchronously instead of from its
+    // background threads, so the output no longer depends on disk/thread timing
+    for (int i = 0; i < RSX_MAX_PROGRAMS; i++) {
+        if (engine->program_synths[i]) {
+            sfizz_enable_freewheeling(engine->program_synths[i]);
+        }
+    }
+    if (engine->synth) {
+        sfizz_enable_freewheeling(engine->synth);
+    }
+
+    sequences = medness_performance_create();
+    if (!sequences) goto cleanup;
+
+    render_engine = engine;
+    render_sequences = sequences;
+
+    medness_performance_set_sequencer(sequences, sequencer);
+    medness_performance_set_midi_callback(sequences, render_midi_event_callback, nullptr);
+    medness_performance_set_program_switch_callback(sequences, render_program_switch_callback, nullptr);
+    medness_performance_set_tempo(sequences, opts->bpm);
+    medness_performance_set_start_mode(sequences, SEQUENCE_START_IMMEDIATE);
+
+    if (medness_performance_load_from_rsx(sequences, opts->rsx_path, engine->rsx) <= 0) {
+        std::cerr << "[RENDER] No sequences found in " << opts->rsx_path << std::endl;
+        goto cleanup;
+    }
+
+    if (opts->seq_index >= 0) {
+        if (!medness_performance_get_player(sequences, opts->seq_index)) {
+            std::cerr << "[RENDER] Sequence " << (opts->seq_index + 1) << " is not loaded" << std::endl;
+            goto cleanup;
+        }
+        medness_performance_play(sequences, opts->seq_index, 0);
+    } else {
+        for (int i = 0; i < RSX_MAX_SEQUENCES; i++) {
+            if (medness_performance_get_player(sequences, i)) {
+                medness_performance_play(sequences, i, 0);
+            }
+        }
+    }
+
+    out = fopen(opts->output_path, "wb");
+    if (!out) {
+        std::cerr << "[RENDER] Cannot open output file: " << opts->output_path << std::endl;
+        goto cleanup;
+    }
+    write_wav_header(out, 0);
+
+    {
+        // One bar = 4 beats, rounded to whole frames
+        double seconds = (double)opts->bars * 4.0 * 60.0 / (double)opts->bpm;
+        long long total_frames = (long long)(seconds * RENDER_SAMPLE_RATE + 0.5);
+        long long rendered = 0;
+        float block[RENDER_BLOCK_FRAMES * 2];
+
+        auto start = std::chrono::steady_clock::now();
+
+        while (rendered < total_frames) {
+            int frames = RENDER_BLOCK_FRAMES;
+            if (total_frames - rendered < frames) frames = (int)(total_frames - rendered);
+
+            // Same order as the audio callback: clock, sequences, then mix
+            int current_pulse = medness_sequencer_update(sequencer, frames, RENDER_SAMPLE_RATE);
+            medness_performance_update_samples(sequences, frames, RENDER_SAMPLE_RATE, current_pulse);
+            samplecrate_engine_render_interleaved(engine, block, frames);
+
+            if (fwrite(block, sizeof(float) * 2, frames, out) != (size_t)frames) {
+                std::cerr << "[RENDER] Write error: " << opts->output_path << std::endl;
+                goto cleanup;
+            }
+            rendered += frames;
+        }
+
+        write_wav_header(out, (uint32_t)rendered);
+
+        double elapsed = std::chrono::duration<double>(std::chrono::steady_clock::now() - start).count();
+        double audio_seconds = (double)rendered / RENDER_SAMPLE_RATE;
+        std::cout << "[RENDER] Wrote " << rendered << " frames (" << audio_seconds << " s) in "
+                  << elapsed << " s";
+        if (elapsed > 0.0) {
+            std::cout << " - realtime factor " << (audio_seconds / elapsed) << "x";
+        }
+        std::cout << std::endl;
+    }
+
+    result = 0;
+
+cleanup:
+    if (out) fclose(out);
+    render_engine = nullptr;
+    render_sequences = nullptr;
+    if (sequences) medness_performance_destroy(sequences);
+    samplecrate_engine_destroy(engine);
+    medness_sequencer_destroy(sequencer);
+    return result;
+}
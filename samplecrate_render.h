@@ -0,0 +1,37 @@
+#ifndef SAMPLECRATE_RENDER_H
+#define SAMPLECRATE_RENDER_H
+
+// Offline (bounce-to-WAV) renderer
+// Runs the sequencer, performance manager and engine without SDL audio or ImGui,
+// pushing audio blocks as fast as the CPU allows. The output is deterministic:
+// the same RSX, sequence and options always produce the same file.
+
+// Block size used for offline rendering (same as the default audio device block)
+#define RENDER_BLOCK_FRAMES 512
+
+// Output sample rate
+#define RENDER_SAMPLE_RATE 44100
+
+// Offline render options
+typedef struct {
+    const char* rsx_path;      // RSX file to render
+    const char* output_path;   // WAV file to write
+    int seq_index;             // 0-based sequence index, -1 = all loaded sequences
+    int bars;                  // Length in 4/4 bars (96 pulses each)
+    float bpm;                 // Tempo
+    int threads;               // Render worker threads (0 = serial)
+} SamplecrateRenderOptions;
+
+// Check whether the command line requests an offline render (--render)
+int samplecrate_render_requested(int argc, char* argv[]);
+
+// Parse --render <file.rsx> [--seq N] [--bars N] [--bpm BPM] [--threads N] -o <out.wav>
+// --seq is 1-based, matching the T1-T16 labels in the UI
+// Returns 0 on success, -1 on error (usage is printed)
+int samplecrate_render_parse_args(int argc, char* argv[], SamplecrateRenderOptions* opts);
+
+// Render the requested sequence(s) to a 32-bit float stereo WAV file
+// Returns 0 on success, -1 on error
+int samplecrate_render_run(const SamplecrateRenderOptions* opts);
+
+#endif // SAMPLECRATE_RENDER_H
@@ -0,0 +1,155 @@
+#include "samplecrate_renderpool.h"
+#include <atomic>
+#include <thread>
+#include <mutex>
+#include <condition_variable>
+#include <chrono>
+#include <iostream>
+#include <cstdint>
+
+// Number of polls an idle worker spins (with yield) before it parks on the
+// condition variable. Keeps wake-up latency low while audio is running.
+#define RENDERPOOL_SPIN_COUNT 2000
+
+// Batch claim word: [generation:32][num_jobs:16][next_index:16]
+// Packing everything into one atomic lets a thread claim a job with a single
+// CAS, and a late worker can never claim a job from a batch it did not see.
+static inline uint64_t make_claim(uint32_t generation, int num_jobs, int next_index) {
+    return ((uint64_t)generation << 32) | ((uint64_t)(num_jobs & 0xFFFF) << 16) | (uint64_t)(next_index & 0xFFFF);
+}
+
+static inline uint32_t claim_generation(uint64_t claim) { return (uint32_t)(claim >> 32); }
+static inline int claim_num_jobs(uint64_t claim) { return (int)((claim >> 16) & 0xFFFF); }
+static inline int claim_index(uint64_t claim) { return (int)(claim & 0xFFFF); }
+
+struct SamplecrateRenderPool {
+    std::thread workers[RENDERPOOL_MAX_WORKERS];
+    int num_workers;
+
+    // Current batch (written only by the thread calling samplecrate_renderpool_run)
+    RenderPoolJobFunc func;
+    void* userdata;
+    std::atomic<uint64_t> claim;
+    std::atomic<int> jobs_done;
+
+    std::atomic<bool> quit;
+
+    // Parking for idle workers (the audio thread only ever notifies, never locks)
+    std::mutex park_mutex;
+    std::condition_variable park_cv;
+};
+
+// Claim and run jobs of the given generation until none are left
+static void run_jobs(SamplecrateRenderPool* pool, uint32_t generation) {
+    uint64_t claim = pool->claim.load(std::memory_order_acquire);
+    for (;;) {
+        if (claim_generation(claim) != generation) return;
+
+        int index = claim_index(claim);
+        int num_jobs = claim_num_jobs(claim);
+        if (index >= num_jobs) return;
+
+        uint64_t next = make_claim(generation, num_jobs, index + 1);
+        if (!pool->claim.compare_exchange_weak(claim, next, std::memory_order_acq_rel, std::memory_order_acquire)) {
+            continue;  // claim was reloaded by the failed CAS
+        }
+
+        // The batch cannot complete (and func/userdata cannot change) while we hold a job
+        pool->func(index, pool->userdata);
+        pool->jobs_done.fetch_add(1, std::memory_order_release);
+
+        claim = pool->claim.load(std::memory_order_acquire);
+    }
+}
+
+static void worker_main(SamplecrateRenderPool* pool) {
+    uint32_t seen_generation = claim_generation(pool->claim.load(std::memory_order_acquire));
+
+    while (!pool->quit.load(std::memory_order_acquire)) {
+        // Wait for a new batch: spin briefly, then park
+        uint32_t generation = seen_generation;
+        int spins = 0;
+        while (!pool->quit.load(std::memory_order_acquire)) {
+            generation = claim_generation(pool->claim.load(std::memory_order_acquire));
+            if (generation != seen_generation) break;
+
+            if (spins < RENDERPOOL_SPIN_COUNT) {
+                spins++;
+                std::this_thread::yield();
+            } else {
+                // Notifications are sent without holding the mutex, so a wake-up can be
+                // missed; the timeout bounds that case
+                std::unique_lock<std::mutex> lock(pool->park_mutex);
+                pool->park_cv.wait_for(lock, std::chrono::milliseconds(1));
+            }
+        }
+        if (generation == seen_generation) continue;  // quit requested
+
+        seen_generation = generation;
+        run_jobs(pool, generation);
+    }
+}
+
+SamplecrateRenderPool* samplecrate_renderpool_create(int num_workers) {
+    if (num_workers < 1) return nullptr;
+    if (num_workers > RENDERPOOL_MAX_WORKERS) num_workers = RENDERPOOL_MAX_WORKERS;
+
+    SamplecrateRenderPool* pool = new SamplecrateRenderPool();
+    pool->num_workers = 0;
+    pool->func = nullptr;
+    pool->userdata = nullptr;
+    pool->claim.store(make_claim(0, 0, 0));
+    pool->jobs_done.store(0);
+    pool->quit.store(false);
+
+    for (int i = 0; i < num_workers; i++) {
+        pool->workers[i] = std::thread(worker_main, pool);
+        pool->num_workers++;
+    }
+
+    std::cout << "[RENDERPOOL] Started " << pool->num_workers << " render worker threads" << std::endl;
+    return pool;
+}
+
+void samplecrate_renderpool_destroy(SamplecrateRenderPool* pool) {
+    if (!pool) return;
+
+    pool->quit.store(true, std::memory_order_release);
+    pool->park_cv.notify_all();
+    for (int i = 0; i < pool->num_workers; i++) {
+        if (pool->workers[i].joinable()) {
+            pool->workers[i].join();
+        }
+    }
+
+    delete pool;
+}
+
+int samplecrate_renderpool_get_workers(SamplecrateRenderPool* pool) {
+    return pool ? pool->num_workers : 0;
+}
+
+void samplecrate_renderpool_run(SamplecrateRenderPool* pool, int num_jobs,
+                                RenderPoolJobFunc func, void* userdata) {
+    if (!func || num_jobs <= 0) return;
+
+    // No pool or a single job: just run inline
+    if (!pool || num_jobs == 1 || num_jobs > RENDERPOOL_MAX_JOBS) {
+        for (int i = 0; i < num_jobs; i++) func(i, userdata);
+        return;
+    }
+
+    // Publish the batch (func/userdata become visible through the release on claim)
+    uint32_t generation = claim_generation(pool->claim.load(std::memory_order_relaxed)) + 1;
+    pool->func = func;
+    pool->userdata = userdata;
+    pool->jobs_done.store(0, std::memory_order_relaxed);
+    pool->claim.store(make_claim(generation, num_jobs, 0), std::memory_order_release);
+    pool->park_cv.notify_all();
+
+    // Work on the batch ourselves, then wait for jobs still running on workers
+    run_jobs(pool, generation);
+    while (pool->jobs_done.load(std::memory_order_acquire) < num_jobs) {
+        std::this_thread::yield();
+    }
+}
@@ -0,0 +1,42 @@
+#ifndef SAMPLECRATE_RENDERPOOL_H
+#define SAMPLECRATE_RENDERPOOL_H
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Maximum number of worker threads in a render pool
+#define RENDERPOOL_MAX_WORKERS 16
+
+// Maximum number of jobs per batch
+#define RENDERPOOL_MAX_JOBS 0xFFFF
+
+// Job function: called once per job index (0..num_jobs-1), from any pool thread
+typedef void (*RenderPoolJobFunc)(int job_index, void* userdata);
+
+// Opaque handle for the render thread pool
+// Fans independent per-program render jobs out across cores. The calling
+// (audio) thread takes part in the batch and joins the workers without locks.
+typedef struct SamplecrateRenderPool SamplecrateRenderPool;
+
+// Create a pool with num_workers helper threads (1 - RENDERPOOL_MAX_WORKERS)
+// Returns NULL on failure
+SamplecrateRenderPool* samplecrate_renderpool_create(int num_workers);
+
+// Stop and join all workers, then free the pool
+void samplecrate_renderpool_destroy(SamplecrateRenderPool* pool);
+
+// Get number of helper threads
+int samplecrate_renderpool_get_workers(SamplecrateRenderPool* pool);
+
+// Run num_jobs jobs and return when all of them have finished
+// Safe to call from the audio thread: no allocation and no locks are taken
+// Only one thread may run batches on a given pool
+void samplecrate_renderpool_run(SamplecrateRenderPool* pool, int num_jobs,
+                                RenderPoolJobFunc func, void* userdata);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // SAMPLECRATE_RENDERPOOL_H
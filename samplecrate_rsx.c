@@ -76,6 +76,27 @@ static void init_effects_defaults(RSXEffectsSettings* fx) {
     fx->delay_mix = 0.0f;
 }
 
+void samplecrate_rsx_init_effects(RSXEffectsSettings* fx) {
+    init_effects_defaults(fx);
+}
+
+// Helper: aux bus defaults - odd buses are reverbs, even buses are delays, both fully wet
+static void init_aux_defaults(SamplecrateRSX* rsx) {
+    for (int b = 0; b < RSX_MAX_AUX_BUSES; b++) {
+        RSXEffectsSettings* fx = &rsx->aux_effects[b];
+        init_effects_defaults(fx);
+        if (b % 2 == 0) {
+            fx->reverb_enabled = 1;
+            fx->reverb_mix = 1.0f;
+        } else {
+            fx->delay_enabled = 1;
+            fx->delay_mix = 1.0f;
+        }
+        rsx->aux_return_volumes[b] = 1.0f;
+    }
+    memset(rsx->program_sends, 0, sizeof(rsx->program_sends));
+}
+
 SamplecrateRSX* samplecrate_rsx_create(void) {
     SamplecrateRSX* rsx = (SamplecrateRSX*)calloc(1, sizeof(SamplecrateRSX));
     if (!rsx) return NULL;
@@ -115,6 +136,7 @@ SamplecrateRSX* samplecrate_rsx_create(void) {
     for (int i = 0; i < RSX_MAX_PROGRAMS; i++) {
         init_effects_defaults(&rsx->program_effects[i]);
     }
+    init_aux_defaults(rsx);
 
     // Initialize pads
     for (int i = 0; i < RSX_MAX_NOTE_PADS; i++) {
@@ -278,6 +300,7 @@ int samplecrate_rsx_load(SamplecrateRSX* rsx, const char* filepath) {
     for (int i = 0; i < RSX_MAX_PROGRAMS; i++) {
         init_effects_defaults(&rsx->program_effects[i]);
     }
+    init_aux_defaults(rsx);
 
     // Reset pads
     for (int i = 0; i < RSX_MAX_NOTE_PADS; i++) {
@@ -306,6 +329,7 @@ int samplecrate_rsx_load(SamplecrateRSX* rsx, const char* filepath) {
         rsx->sequences[i].loop = 1;
         rsx->sequences[i].program_number = 0;
         rsx->sequences[i].slot = -1;
+        memset(rsx->sequences[i].phrases, 0, sizeof(rsx->sequences[i].phrases));
     }
 
     FILE* f = fopen(filepath, "r");
@@ -395,6 +419,12 @@ int samplecrate_rsx_load(SamplecrateRSX* rsx, const char* filepath) {
                         // prog_N_mode
                         rsx->program_modes[prog_idx] = (RSXProgramMode)atoi(value);
                         printf("DEBUG: Stored program %d mode: %d\n", prog_num, rsx->program_modes[prog_idx]);
+                    } else if (strstr(key, "_send_") != NULL) {
+                        // prog_N_send_B (aux bus 1-4)
+                        int bus_num = atoi(strstr(key, "_send_") + 6);
+                        if (bus_num >= 1 && bus_num <= RSX_MAX_AUX_BUSES) {
+                            rsx->program_sends[prog_idx][bus_num - 1] = atof(value);
+                        }
                     } else if (strstr(key, "_sample_count") != NULL) {
                         // prog_N_sample_count
                         rsx->program_sample_counts[prog_idx] = atoi(value);
@@ -459,6 +489,17 @@ int samplecrate_rsx_load(SamplecrateRSX* rsx, const char* filepath) {
                 }
             }
         }
+        // Handle [AuxBus1-4] sections (case-insensitive)
+        else if (strncasecmp(section, "AuxBus", 6) == 0) {
+            int bus_num = atoi(section + 6);
+            if (bus_num >= 1 && bus_num <= RSX_MAX_AUX_BUSES) {
+                if (strcmp(key, "return_volume") == 0) {
+                    rsx->aux_return_volumes[bus_num - 1] = atof(value);
+                } else {
+                    load_effects_setting(&rsx->aux_effects[bus_num - 1], key, value);
+                }
+            }
+        }
         // Handle [NoteSuppression] section (case-insensitive)
         else if (strcasecmp(section, "NoteSuppression") == 0) {
             // Parse global_<note> or prog_<N>_<note> format
@@ -518,7 +559,7 @@ int samplecrate_rsx_load(SamplecrateRSX* rsx, const char* filepath) {
                         rsx->num_sequences = seq_num;
                     }
                 } else if (strncmp(key, "phrase_", 7) == 0) {
-                    // Parse phrase_N_file or phrase_N_name or phrase_N_loops
+                    // Parse phrase_N_file, phrase_N_name, phrase_N_loops, phrase_N_bars or phrase_N_time_sig
                     int phrase_num = atoi(key + 7);
                     if (phrase_num >= 1 && phrase_num <= RSX_MAX_PHRASES_PER_SEQUENCE) {
                         int phrase_idx = phrase_num - 1;
@@ -532,6 +573,15 @@ int samplecrate_rsx_load(SamplecrateRSX* rsx, const char* filepath) {
                             phrase->name[sizeof(phrase->name) - 1] = '\0';
                         } else if (strstr(key, "_loops") != NULL) {
                             phrase->loop_count = atoi(value);
+                        } else if (strstr(key, "_bars") != NULL) {
+                            phrase->length_bars = atoi(value);
+                        } else if (strstr(key, "_time_sig") != NULL) {
+                            // Format: "7/8"
+                            int num = 0, den = 0;
+                            if (sscanf(value, "%d/%d", &num, &den) == 2 && num > 0 && den > 0) {
+                                phrase->time_sig_num = num;
+                                phrase->time_sig_den = den;
+                            }
                         }
                     }
                 }
@@ -680,6 +730,11 @@ int samplecrate_rsx_save(SamplecrateRSX* rsx, const char* filepath) {
             fprintf(f, "prog_%d_volume=%.3f\n", i + 1, rsx->program_volumes[i]);
             fprintf(f, "prog_%d_pan=%.3f\n", i + 1, rsx->program_pans[i]);
             fprintf(f, "prog_%d_fx_enable=%d\n", i + 1, rsx->program_fx_enable[i]);
+            for (int b = 0; b < RSX_MAX_AUX_BUSES; b++) {
+                if (rsx->program_sends[i][b] > 0.0f) {
+                    fprintf(f, "prog_%d_send_%d=%.3f\n", i + 1, b + 1, rsx->program_sends[i][b]);
+                }
+            }
             fprintf(f, "prog_%d_midi_channel=%d  ; -1 = Omni, 0-15 = MIDI channel 1-16\n", i + 1, rsx->program_midi_channels[i]);
 
             // Save sample data for sample-based programs
@@ -719,6 +774,14 @@ int samplecrate_rsx_save(SamplecrateRSX* rsx, const char* filepath) {
         fprintf(f, "\n");
     }
 
+    // Write aux send/return buses
+    for (int b = 0; b < RSX_MAX_AUX_BUSES; b++) {
+        fprintf(f, "[AuxBus%d]\n", b + 1);
+        fprintf(f, "return_volume=%.3f\n", rsx->aux_return_volumes[b]);
+        save_effects_settings(f, "", &rsx->aux_effects[b]);
+        fprintf(f, "\n");
+    }
+
     // Write note suppression
     fprintf(f, "[NoteSuppression]\n");
     fprintf(f, "# Global note suppression (affects all programs)\n");
@@ -775,6 +838,12 @@ int samplecrate_rsx_save(SamplecrateRSX* rsx, const char* filepath) {
                     fprintf(f, "phrase_%d_name=\"%s\"\n", phrase_num, phrase->name);
                 }
                 fprintf(f, "phrase_%d_loops=%d  ; 0=infinite\n", phrase_num, phrase->loop_count);
+                if (phrase->length_bars > 0) {
+                    fprintf(f, "phrase_%d_bars=%d\n", phrase_num, phrase->length_bars);
+                }
+                if (phrase->time_sig_num > 0 && phrase->time_sig_den > 0) {
+                    fprintf(f, "phrase_%d_time_sig=%d/%d\n", phrase_num, phrase->time_sig_num, phrase->time_sig_den);
+                }
             }
             fprintf(f, "\n");
         }
@@ -14,6 +14,7 @@ extern "C" {
 #define RSX_MAX_SAMPLES_PER_PROGRAM 64  // Max samples per program
 #define RSX_MAX_SEQUENCES 16  // Max number of sequences (tracks)
 #define RSX_MAX_PHRASES_PER_SEQUENCE 64  // Max phrases per sequence
+#define RSX_MAX_AUX_BUSES 4   // Shared send/return effect buses
 
 // Effects settings for one effects chain
 typedef struct {
@@ -84,6 +85,10 @@ typedef struct {
     char midi_file[RSX_MAX_PATH];       // MIDI file path
     char name[RSX_MAX_DESCRIPTION];     // Phrase name/description
     int loop_count;                     // How many times to play (0 = infinite loop on this phrase)
+    int length_bars;                    // Loop length in bars (0 = up to the MIDI file's end of track)
+    int time_sig_num;                   // Meter, e.g. 7/8 (0 = from the MIDI file, 4/4 if it has none)
+                                        // With neither bars nor meter set, the phrase loops every 4 bars
+    int time_sig_den;
 } RSXPhrase;
 
 // Sequence (track) definition
@@ -152,6 +157,11 @@ typedef struct {
     RSXEffectsSettings master_effects;                    // Master effects chain
     RSXEffectsSettings program_effects[RSX_MAX_PROGRAMS]; // Per-program effects chains
 
+    // Aux send/return buses (time-based effects shared by all programs)
+    float program_sends[RSX_MAX_PROGRAMS][RSX_MAX_AUX_BUSES];  // Post-fader send level per program and bus (0.0-1.0)
+    float aux_return_volumes[RSX_MAX_AUX_BUSES];               // Return level of each bus (0.0-1.0)
+    RSXEffectsSettings aux_effects[RSX_MAX_AUX_BUSES];         // Effects chain of each bus (runs 100% wet)
+
     NoteTriggerPad pads[RSX_MAX_NOTE_PADS];
     int num_pads;
 
@@ -169,6 +179,9 @@ typedef struct {
 // Create a new RSX structure with defaults
 SamplecrateRSX* samplecrate_rsx_create(void);
 
+// Reset one effects chain's settings to defaults (everything disabled)
+void samplecrate_rsx_init_effects(RSXEffectsSettings* fx);
+
 // Free RSX structure
 void samplecrate_rsx_destroy(SamplecrateRSX* rsx);
 
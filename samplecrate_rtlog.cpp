@@ -0,0 +1,160 @@
+#include "samplecrate_rtlog.h"
+#include <atomic>
+#include <chrono>
+#include <cstdarg>
+#include <cstdio>
+#include <mutex>
+#include <thread>
+
+// One log message; sequence tells writers and the reader who owns the record
+// (bounded multi-producer queue: a record at ring position p is free for the
+// writer of index p when sequence == p, and ready for the reader when sequence == p + 1)
+struct RtLogRecord {
+    std::atomic<uint32_t> sequence;
+    int level;
+    char text[RTLOG_MESSAGE_SIZE];
+};
+
+struct RtLogState {
+    RtLogRecord records[RTLOG_CAPACITY];
+
+    // Writer and reader indices on separate cache lines
+    std::atomic<uint32_t> write_index;
+    char padding[64 - sizeof(std::atomic<uint32_t>)];
+    uint32_t read_index;                // Guarded by drain_mutex
+
+    std::atomic<int> level;
+    std::atomic<uint32_t> dropped;
+    uint32_t reported_dropped;          // Guarded by drain_mutex
+
+    std::mutex drain_mutex;             // Serializes readers (never taken by writers)
+    std::thread drain_thread;
+    std::atomic<bool> running;
+
+    RtLogState() {
+        for (uint32_t i = 0; i < RTLOG_CAPACITY; i++) {
+            records[i].sequence.store(i, std::memory_order_relaxed);
+        }
+        write_index.store(0);
+        read_index = 0;
+        level.store(RTLOG_DEFAULT_LEVEL);
+        dropped.store(0);
+        reported_dropped = 0;
+        running.store(false);
+    }
+
+    // Exit paths that skip samplecrate_rtlog_stop() must not leave a joinable thread
+    ~RtLogState() {
+        running.store(false);
+        if (drain_thread.joinable()) drain_thread.join();
+    }
+};
+
+// Preallocated at startup so logging never allocates
+static RtLogState rtlog_state;
+
+#define RTLOG_MASK (RTLOG_CAPACITY - 1)
+
+static const char* rtlog_level_names[RTLOG_NUM_LEVELS] = { "ERROR", "WARN", "INFO", "DEBUG" };
+
+void samplecrate_rtlog(int level, const char* fmt, ...) {
+    if (!fmt || level > rtlog_state.level.load(std::memory_order_relaxed)) return;
+
+    // Claim a free record (fails only when the reader is a full ring behind)
+    RtLogRecord* record;
+    uint32_t index = rtlog_state.write_index.load(std::memory_order_relaxed);
+    for (;;) {
+        record = &rtlog_state.records[index & RTLOG_MASK];
+        uint32_t sequence = record->sequence.load(std::memory_order_acquire);
+        int32_t diff = (int32_t)(sequence - index);
+        if (diff == 0) {
+            if (rtlog_state.write_index.compare_exchange_weak(index, index + 1, std::memory_order_relaxed)) break;
+        } else if (diff < 0) {
+            rtlog_state.dropped.fetch_add(1, std::memory_order_relaxed);
+            return;
+        } else {
+            index = rtlog_state.write_index.load(std::memory_order_relaxed);
+        }
+    }
+
+    record->level = level;
+    va_list args;
+    va_start(args, fmt);
+    vsnprintf(record->text, sizeof(record->text), fmt, args);
+    va_end(args);
+
+    // Publish to the reader
+    record->sequence.store(index + 1, std::memory_order_release);
+}
+
+int samplecrate_rtlog_flush(void) {
+    std::lock_guard<std::mutex> lock(rtlog_state.drain_mutex);
+
+    int printed = 0;
+    for (;;) {
+        uint32_t index = rtlog_state.read_index;
+        RtLogRecord* record = &rtlog_state.records[index & RTLOG_MASK];
+        if (record->sequence.load(std::memory_order_acquire) != index + 1) break;  // Empty (or still being written)
+
+        FILE* out = record->level <= RTLOG_LEVEL_WARN ? stderr : stdout;
+        fputs(record->text, out);
+        fputc('\n', out);
+
+        // Hand the record back to the writers, one lap later
+        record->sequence.store(index + RTLOG_CAPACITY, std::memory_order_release);
+        rtlog_state.read_index = index + 1;
+        printed++;
+    }
+
+    uint32_t dropped = rtlog_state.dropped.load(std::memory_order_relaxed);
+    if (dropped != rtlog_state.reported_dropped) {
+        fprintf(stderr, "[RTLOG] %u messages dropped (log ring full)\n", dropped - rtlog_state.reported_dropped);
+        rtlog_state.reported_dropped = dropped;
+    }
+
+    if (printed > 0) {
+        fflush(stdout);
+        fflush(stderr);
+    }
+    return printed;
+}
+
+static void rtlog_drain_main() {
+    while (rtlog_state.running.load(std::memory_order_acquire)) {
+        samplecrate_rtlog_flush();
+        std::this_thread::sleep_for(std::chrono::milliseconds(RTLOG_DRAIN_INTERVAL_MS));
+    }
+}
+
+void samplecrate_rtlog_start(void) {
+    if (rtlog_state.running.exchange(true)) return;  // Already running
+    rtlog_state.drain_thread = std::thread(rtlog_drain_main);
+}
+
+void samplecrate_rtlog_stop(void) {
+    if (rtlog_state.running.exchange(false)) {
+        if (rtlog_state.drain_thread.joinable()) {
+            rtlog_state.drain_thread.join();
+        }
+    }
+    samplecrate_rtlog_flush();
+}
+
+void samplecrate_rtlog_set_level(int level) {
+    if (level < RTLOG_LEVEL_ERROR) level = RTLOG_LEVEL_ERROR;
+    if (level >= RTLOG_NUM_LEVELS) level = RTLOG_NUM_LEVELS - 1;
+    rtlog_state.level.store(level, std::memory_order_relaxed);
+}
+
+int samplecrate_rtlog_get_level(void) {
+    return rtlog_state.level.load(std::memory_order_relaxed);
+}
+
+const char* samplecrate_rtlog_level_name(int level) {
+    if (level < 0 || level >= RTLOG_NUM_LEVELS) return "UNKNOWN";
+    return rtlog_level_names[level];
+}
+
+uint32_t samplecrate_rtlog_dropped(void) {
+    return rtlog_state.dropped.load(std::memory_order_relaxed);
+}
@@ -0,0 +1,68 @@
+#ifndef SAMPLECRATE_RTLOG_H
+#define SAMPLECRATE_RTLOG_H
+
+#include <stdint.h>
+
+#ifdef __cplusplus
+extern "C" {
+#endif
+
+// Real-time safe logging
+// Any thread (including the audio callback) formats a message into a preallocated
+// fixed-size record; a background thread prints the records to stdout/stderr.
+// Writers never lock, allocate or wait on console I/O: when the ring is full the
+// message is dropped and counted.
+
+// Log levels (a message is kept when its level <= the current level)
+typedef enum {
+    RTLOG_LEVEL_ERROR = 0,
+    RTLOG_LEVEL_WARN,
+    RTLOG_LEVEL_INFO,
+    RTLOG_LEVEL_DEBUG,
+    RTLOG_NUM_LEVELS
+} SamplecrateLogLevel;
+
+#define RTLOG_DEFAULT_LEVEL RTLOG_LEVEL_INFO
+
+// Ring size in records (power of two) and record text size (longer messages are cut)
+#define RTLOG_CAPACITY 1024
+#define RTLOG_MESSAGE_SIZE 160
+
+// How often the background thread prints pending records
+#define RTLOG_DRAIN_INTERVAL_MS 10
+
+#if defined(__GNUC__)
+#define RTLOG_PRINTF_FORMAT(fmt_index, args_index) __attribute__((format(printf, fmt_index, args_index)))
+#else
+#define RTLOG_PRINTF_FORMAT(fmt_index, args_index)
+#endif
+
+// Start the background thread that prints the log (messages logged before are kept)
+void samplecrate_rtlog_start(void);
+
+// Stop the background thread after printing everything still pending
+void samplecrate_rtlog_stop(void);
+
+// Set/get the current level (any thread)
+void samplecrate_rtlog_set_level(int level);
+int samplecrate_rtlog_get_level(void);
+
+// Level name for UI and config ("ERROR", "WARN", "INFO", "DEBUG")
+const char* samplecrate_rtlog_level_name(int level);
+
+// Log a printf-style message (newline added on output)
+// Safe on the audio thread: no locks, no allocation, no I/O
+void samplecrate_rtlog(int level, const char* fmt, ...) RTLOG_PRINTF_FORMAT(2, 3);
+
+// Print pending records on the calling thread (not the audio thread)
+// Returns the number of records printed
+int samplecrate_rtlog_flush(void);
+
+// Messages dropped because the ring was full since startup
+uint32_t samplecrate_rtlog_dropped(void);
+
+#ifdef __cplusplus
+}
+#endif
+
+#endif // SAMPLECRATE_RTLOG_H
@@ -91,6 +91,9 @@ int sequence_rsx_add_uploaded(SamplecrateRSX* rsx, uint8_t slot, uint8_t program
     snprintf(seq->phrases[0].midi_file, sizeof(seq->phrases[0].midi_file), "sequences/seq_%d.mid", slot);
     snprintf(seq->phrases[0].name, sizeof(seq->phrases[0].name), "Slot %d", slot);
     seq->phrases[0].loop_count = 0;  // 0 = infinite loop
+    seq->phrases[0].length_bars = 0;  // Loop length and meter from the uploaded file
+    seq->phrases[0].time_sig_num = 0;
+    seq->phrases[0].time_sig_den = 0;
 
     printf("[SeqRSXManager] Added sequence %d: %s -> %s (program %d)\n",
            seq_idx, seq->name, seq->phrases[0].midi_file, seq->program_number);
@@ -1,4 +1,6 @@
 #include "sequence_upload.h"
+#include "medness_track_cache.h"
+#include "medness_track_pool.h"
 #include <stdio.h>
 #include <stdlib.h>
 #include <string.h>
@@ -257,6 +259,11 @@ int sequence_upload_complete(uint8_t slot, const char* output_dir) {
     printf("[SequenceUpload] Successfully saved slot %d to %s (%d bytes)\n",
            slot, filename, session->buffer_pos);
 
+    // The file was rewritten in place: drop its cached parse (size and mtime may not change)
+    // and make the next load stop sharing the old track
+    medness_track_cache_invalidate(filename);
+    medness_track_pool_invalidate(filename);
+
     // Free buffer and reset session to IDLE (ready for next upload)
     free(session->buffer);
     session->buffer = nullptr;